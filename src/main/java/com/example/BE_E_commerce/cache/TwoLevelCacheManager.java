@@ -0,0 +1,127 @@
+package com.example.BE_E_commerce.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CacheManager layering a bounded Caffeine near cache over the Redis caches.
+ * Also listens for invalidations published by the other nodes, including clears of
+ * in-memory structures registered with {@link #onRemoteClear}.
+ * Caches are wrapped transaction-aware, so puts and evictions apply after commit.
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private final RedisCacheManager redisCacheManager;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final ObjectMapper objectMapper;
+    private final String nodeId;
+    private final long localMaxSize;
+    private final Duration defaultLocalTtl;
+    private final Map<String, Duration> localTtls;
+
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, Cache> decoratedCaches = new ConcurrentHashMap<>();
+    private final Map<String, Runnable> remoteClearListeners = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(RedisCacheManager redisCacheManager,
+                                CacheInvalidationPublisher invalidationPublisher,
+                                ObjectMapper objectMapper,
+                                String nodeId,
+                                long localMaxSize,
+                                Duration defaultLocalTtl,
+                                Map<String, Duration> localTtls) {
+        this.redisCacheManager = redisCacheManager;
+        this.invalidationPublisher = invalidationPublisher;
+        this.objectMapper = objectMapper;
+        this.nodeId = nodeId;
+        this.localMaxSize = localMaxSize;
+        this.defaultLocalTtl = defaultLocalTtl;
+        this.localTtls = localTtls;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return decoratedCaches.computeIfAbsent(name, cacheName -> {
+            RedisCache remoteCache = (RedisCache) redisCacheManager.getCache(cacheName);
+            if (remoteCache == null) {
+                return null;
+            }
+            TwoLevelCache cache = new TwoLevelCache(
+                    cacheName,
+                    Caffeine.newBuilder()
+                            .maximumSize(localMaxSize)
+                            .expireAfterWrite(localTtls.getOrDefault(cacheName, defaultLocalTtl))
+                            .recordStats()
+                            .build(),
+                    remoteCache,
+                    invalidationPublisher
+            );
+            caches.put(cacheName, cache);
+            return new TransactionAwareCacheDecorator(cache);
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    /**
+     * Two-level caches created so far (for statistics)
+     */
+    public List<TwoLevelCache> getTwoLevelCaches() {
+        return new ArrayList<>(caches.values());
+    }
+
+    /**
+     * Run the listener when another node clears the named cache; for in-memory state kept outside the caches
+     */
+    public void onRemoteClear(String cacheName, Runnable listener) {
+        remoteClearListeners.put(cacheName, listener);
+    }
+
+    /**
+     * Apply an invalidation published by another node to L1
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            CacheInvalidationPublisher.CacheInvalidationMessage invalidation = objectMapper.readValue(
+                    message.getBody(), CacheInvalidationPublisher.CacheInvalidationMessage.class);
+            if (nodeId.equals(invalidation.nodeId())) {
+                return; // Our own message, already applied
+            }
+            Runnable clearListener = remoteClearListeners.get(invalidation.cacheName());
+            if (clearListener != null && invalidation.key() == null) {
+                clearListener.run();
+            }
+            TwoLevelCache cache = caches.get(invalidation.cacheName());
+            if (cache == null) {
+                return;
+            }
+            if (invalidation.key() == null) {
+                cache.clearLocal();
+            } else {
+                cache.evictLocal(invalidation.key());
+            }
+        } catch (Exception e) {
+            log.warn("Ignoring malformed cache invalidation: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.BE_E_commerce.config;
+
+import com.example.BE_E_commerce.id.NodeIdLease;
+import com.example.BE_E_commerce.id.SnowflakeIdGenerator;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class IdGeneratorConfig {
+
+    private final NodeIdLease nodeIdLease;
+
+    // Must be unique per running instance (0-31); -1 leases a free one from Redis
+    @Value("${app.id.node-id:-1}")
+    private long nodeId;
+
+    /**
+     * Fails startup when no node id can be configured or leased
+     */
+    @PostConstruct
+    public void configureNodeId() {
+        if (nodeId >= 0) {
+            SnowflakeIdGenerator.configure(nodeId);
+            log.info("Snowflake id node (configured): {}", nodeId);
+        } else {
+            log.info("Snowflake id node (leased): {}", nodeIdLease.acquire());
+        }
+    }
+}
@@ -1,27 +1,47 @@
 package com.example.BE_E_commerce.config;
 
+import com.example.BE_E_commerce.cache.CacheInvalidationPublisher;
+import com.example.BE_E_commerce.cache.TwoLevelCacheManager;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.springframework. cache.CacheManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework. data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org. springframework.data.redis.serializer.StringRedisSerializer;
 
 import java. time.Duration;
+import java.util.Map;
+import java.util.UUID;
 
 @Configuration
 @EnableCaching
 public class RedisConfig {
 
+    // Identifies this instance so it can skip its own invalidation messages
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${app.cache.local.max-size:10000}")
+    private long localCacheMaxSize;
+
+    @Value("${app.cache.local.default-ttl:5m}")
+    private Duration localCacheDefaultTtl;
+
+    @Value("${app.cache.invalidation-channel:cache:invalidation}")
+    private String cacheInvalidationChannel;
+
     /**
      * Create a separate ObjectMapper ONLY for Redis
      * This will NOT affect the default HTTP message converter
@@ -69,8 +89,18 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Publishes L1 invalidations to the other nodes; in-memory indexes share the channel
+     */
+    @Bean
+    public CacheInvalidationPublisher cacheInvalidationPublisher(StringRedisTemplate stringRedisTemplate) {
+        return new CacheInvalidationPublisher(
+                stringRedisTemplate, new ObjectMapper(), cacheInvalidationChannel, nodeId);
+    }
+
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             CacheInvalidationPublisher publisher) {
         // JSON serializer (using Redis-specific ObjectMapper)
         GenericJackson2JsonRedisSerializer jsonSerializer =
                 new GenericJackson2JsonRedisSerializer(createRedisObjectMapper());
@@ -86,7 +116,8 @@ public class RedisConfig {
                 )
                 .disableCachingNullValues();
 
-        return RedisCacheManager.builder(connectionFactory)
+        // L2: Redis (transaction awareness is applied on the two-level caches instead)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 // Apply defaultConfig with custom TTL for each cache
                 .withCacheConfiguration("products",
@@ -97,7 +128,39 @@ public class RedisConfig {
                         defaultConfig.entryTtl(Duration.ofMinutes(30)))
                 .withCacheConfiguration("users",
                         defaultConfig.entryTtl(Duration.ofMinutes(15)))
-                .transactionAware()
+                .enableStatistics()
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        // L1: Caffeine, shorter TTLs since other nodes only invalidate it best-effort
+        return new TwoLevelCacheManager(
+                redisCacheManager,
+                publisher,
+                new ObjectMapper(),
+                nodeId,
+                localCacheMaxSize,
+                localCacheDefaultTtl,
+                Map.of(
+                        "products", Duration.ofMinutes(5),
+                        "categories", Duration.ofMinutes(10),
+                        "shops", Duration.ofMinutes(5),
+                        "users", Duration.ofMinutes(1)
+                )
+        );
+    }
+
+    /**
+     * Subscribe the cache manager to L1 invalidations from other nodes.
+     * Listeners run on the subscription thread, one message at a time, so each channel is
+     * handled in publish order (chat delivery relies on it); they must only hand work off.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setTaskExecutor(new SyncTaskExecutor());
+        container.addMessageListener(cacheManager, new ChannelTopic(cacheInvalidationChannel));
+        return container;
     }
-}
\ No newline at end of file
+}
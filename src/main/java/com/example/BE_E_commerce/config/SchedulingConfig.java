@@ -0,0 +1,40 @@
+package com.example.BE_E_commerce.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+    // Background jobs (@Scheduled): revocation filter rebuild, flushes, reconciliation
+
+    public static final String FLUSH_SCHEDULER = "flushScheduler";
+
+    /**
+     * Default scheduler for the long jobs (settlement, reconciliations, reloads); sized by
+     * spring.task.scheduling.pool.size. Declared explicitly: the STOMP broker registers its
+     * own TaskScheduler, which would otherwise replace Boot's default one and end up
+     * running these jobs too
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Short, frequent jobs whose delay users notice (chat/cart/stock/voucher flushes, presence,
+     * outbox relay, node id lease); a long job on the default scheduler cannot hold them up
+     */
+    @Bean(FLUSH_SCHEDULER)
+    public ThreadPoolTaskScheduler flushScheduler(@Value("${app.scheduling.flush-pool-size:4}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("flush-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        return scheduler;
+    }
+}
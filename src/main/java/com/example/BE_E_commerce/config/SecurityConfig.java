@@ -7,6 +7,7 @@ import com.example.BE_E_commerce.security.jwt.UserDetailsServiceImpl;
 import com.example.BE_E_commerce.security.oauth2.HttpCookieOAuth2AuthorizationRequestRepository;
 import com.example.BE_E_commerce.security.oauth2.OAuth2AuthenticationFailureHandler;
 import com.example.BE_E_commerce.security.oauth2.OAuth2AuthenticationSuccessHandler;
+import com.example.BE_E_commerce.security.ratelimit.RateLimitFilter;
 import com.example.BE_E_commerce.service.CustomOAuth2UserService;
 import lombok. RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -40,6 +41,7 @@ public class SecurityConfig {
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtAuthenticationEntryPoint authenticationEntryPoint;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
 
     private final CustomOAuth2UserService customOAuth2UserService;
     private final OAuth2AuthenticationSuccessHandler oAuth2AuthenticationSuccessHandler;
@@ -213,7 +215,10 @@ public class SecurityConfig {
                 )
 
                 // Add JWT filter
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter. class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter. class)
+
+                // Rate limit before any token work
+                .addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class);
 
         // Set authentication provider
         http.authenticationProvider(authenticationProvider());
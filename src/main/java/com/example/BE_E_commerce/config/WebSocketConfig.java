@@ -0,0 +1,95 @@
+package com.example.BE_E_commerce.config;
+
+import com.example.BE_E_commerce.listener.WebSocketPresenceListener;
+import com.example.BE_E_commerce.security.jwt.StompAuthChannelInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+/**
+ * STOMP over WebSocket for chat.
+ * The in-memory broker only serves this node's sessions; other nodes are reached through
+ * the Redis relay in ChatService. Channel work runs on virtual threads, so a slow client
+ * parks a cheap thread instead of holding a pool thread, and per-session order is kept
+ * on both channels.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final StompAuthChannelInterceptor stompAuthChannelInterceptor;
+    private final WebSocketPresenceListener webSocketPresenceListener;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Value("${app.frontend-url}")
+    private String frontendUrl;
+
+    @Value("${app.chat.heartbeat:10000}")
+    private long heartbeatMillis;
+
+    @Value("${app.chat.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${app.chat.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.chat.send-time-limit:15000}")
+    private int sendTimeLimit;
+
+    public WebSocketConfig(StompAuthChannelInterceptor stompAuthChannelInterceptor,
+                           WebSocketPresenceListener webSocketPresenceListener) {
+        this.stompAuthChannelInterceptor = stompAuthChannelInterceptor;
+        this.webSocketPresenceListener = webSocketPresenceListener;
+    }
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler taskScheduler) {
+        this.messageBrokerTaskScheduler = taskScheduler;
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws").setAllowedOriginPatterns(frontendUrl);
+        registry.setPreserveReceiveOrder(true);
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[]{heartbeatMillis, heartbeatMillis})
+                .setTaskScheduler(messageBrokerTaskScheduler);
+        registry.setApplicationDestinationPrefixes("/app");
+        registry.setUserDestinationPrefix("/user");
+        registry.setPreservePublishOrder(true);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(stompAuthChannelInterceptor, webSocketPresenceListener)
+                .executor(new VirtualThreadTaskExecutor("ws-inbound-"));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.executor(new VirtualThreadTaskExecutor("ws-outbound-"));
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A client that stops reading is dropped once it falls this far behind
+        registration.setMessageSizeLimit(messageSizeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimit);
+    }
+}
@@ -8,6 +8,9 @@ public class RedisKeyConstants {
 
     // ========== TOKEN BLACKLIST ==========
     public static final String TOKEN_BLACKLIST = "blacklist:token:";
+    public static final String TOKEN_REVOKED = "revoked:jti:";
+    public static final String TOKEN_REVOKED_INDEX = "revoked:index"; // ZSET jti -> expiry millis
+    public static final String TOKEN_REVOKED_CHANNEL = "revoked:channel";
 
     // ========== PRODUCT ==========
     public static final String PRODUCT_DETAIL = "product:detail:";
@@ -26,10 +29,30 @@ public class RedisKeyConstants {
     public static final String SHOP_STATS = "shop:stats:";
 
     // ========== CART ==========
-    public static final String CART = "cart:";
+    public static final String CART = "cart:"; // HASH variantId -> quantity
+    public static final String CART_DIRTY = "cart:dirty"; // SET of user ids with unflushed cart changes
+    public static final String CART_DIRTY_CLAIMED = "cart:dirty:claimed"; // ZSET user id -> claim time millis, being flushed
+    public static final String CART_VARIANT = "cart:variant:"; // Variant snapshot shown in carts
 
     // ========== STOCK LOCK ==========
     public static final String STOCK_LOCK = "lock:stock:";
+    public static final String STOCK_FLUSH_LOCK = "lock:stock:flush";
+
+    // ========== STOCK RESERVATION ==========
+    public static final String STOCK_AVAILABLE = "stock:available:";
+    public static final String STOCK_RESERVATION = "stock:reservation:"; // HASH variantId -> quantity
+    public static final String STOCK_RESERVATION_INDEX = "stock:reservations"; // ZSET reservationId -> expiry millis
+    public static final String STOCK_PENDING = "stock:pending"; // HASH variantId -> sold quantity not yet in MySQL
+    public static final String STOCK_RESERVED = "stock:reserved"; // HASH variantId -> quantity held by open reservations
+    public static final String STOCK_FLUSHING = "stock:flushing"; // HASH variantId -> quantity being written to MySQL
+    public static final String STOCK_FLUSH_GENERATION = "stock:flush:generation"; // Bumped by every settled flush
+
+    // ========== VOUCHER ==========
+    public static final String VOUCHER_USED = "voucher:used:"; // Redemptions per voucher
+    public static final String VOUCHER_USER = "voucher:user:"; // HASH userId -> redemptions
+    public static final String VOUCHER_CLAIM = "voucher:claim:"; // Claim token -> "voucherId:userId"
+    public static final String VOUCHER_PENDING = "voucher:pending"; // HASH voucherId -> redemptions not yet in MySQL
+    public static final String VOUCHER_FLUSH_LOCK = "lock:voucher:flush";
 
     // ========== RATE LIMIT ==========
     public static final String RATE_LIMIT = "ratelimit:";
@@ -38,7 +61,18 @@ public class RedisKeyConstants {
     public static final String NOTIFICATION_UNREAD = "notifications:unread:";
 
     // ========== ONLINE USERS (Chat) ==========
-    public static final String ONLINE_USERS = "online:users";
+    public static final String ONLINE_USERS = "online:users"; // ZSET userId -> last seen millis
+    public static final String ONLINE_SESSIONS = "online:sessions"; // HASH userId -> open WebSocket sessions
+
+    // ========== ID ==========
+    public static final String ID_NODE_LEASE = "id:node:"; // STRING node id -> token of the instance leasing it
+
+    // ========== CHAT ==========
+    public static final String CHAT_CHANNEL = "chat:channel"; // Pub/sub relay of sent messages to every node
+    public static final String CHAT_UNREAD = "chat:unread:"; // HASH conversationId -> unread messages
+
+    // ========== NOTIFICATION ==========
+    public static final String NOTIFICATION_CHANNEL = "notifications:channel"; // Pub/sub relay of stored notifications to every node
 
     // ========== CACHE PREFIXES ==========
     public static final String CACHE_PRODUCT = "cache:product:";
@@ -51,6 +85,7 @@ public class RedisKeyConstants {
     public static final long TTL_CATEGORY = 7200; // 2 hours
     public static final long TTL_SHOP = 1800; // 30 minutes
     public static final long TTL_CART = 604800; // 7 days
+    public static final long TTL_CART_VARIANT = 600; // 10 minutes
     public static final long TTL_STOCK_LOCK = 10; // 10 seconds
     public static final long TTL_RATE_LIMIT = 60; // 1 minute
 
@@ -78,6 +113,10 @@ public class RedisKeyConstants {
     public static String tokenBlacklistKey(String token) {
         return TOKEN_BLACKLIST + token;
     }
+
+    public static String tokenRevokedKey(String tokenId) {
+        return TOKEN_REVOKED + tokenId;
+    }
     public static String shopDetailKey(Long shopId) {
         return SHOP_DETAIL + shopId;
     }
@@ -86,10 +125,34 @@ public class RedisKeyConstants {
         return CART + userId;
     }
 
+    public static String cartVariantKey(Long variantId) {
+        return CART_VARIANT + variantId;
+    }
+
+    public static String voucherUsedKey(Long voucherId) {
+        return VOUCHER_USED + voucherId;
+    }
+
+    public static String voucherUserKey(Long voucherId) {
+        return VOUCHER_USER + voucherId;
+    }
+
+    public static String voucherClaimKey(String claimToken) {
+        return VOUCHER_CLAIM + claimToken;
+    }
+
     public static String stockLockKey(Long variantId) {
         return STOCK_LOCK + variantId;
     }
 
+    public static String stockAvailableKey(Long variantId) {
+        return STOCK_AVAILABLE + variantId;
+    }
+
+    public static String stockReservationKey(String reservationId) {
+        return STOCK_RESERVATION + reservationId;
+    }
+
     public static String rateLimitKey(String ip, String endpoint) {
         return RATE_LIMIT + ip + ":" + endpoint;
     }
@@ -97,4 +160,12 @@ public class RedisKeyConstants {
     public static String notificationUnreadKey(Long userId) {
         return NOTIFICATION_UNREAD + userId;
     }
-}
\ No newline at end of file
+
+    public static String chatUnreadKey(Long userId) {
+        return CHAT_UNREAD + userId;
+    }
+
+    public static String idNodeLeaseKey(long nodeId) {
+        return ID_NODE_LEASE + nodeId;
+    }
+}
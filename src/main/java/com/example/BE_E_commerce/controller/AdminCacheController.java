@@ -0,0 +1,64 @@
+package com.example.BE_E_commerce.controller;
+
+import com.example.BE_E_commerce.cache.TwoLevelCache;
+import com.example.BE_E_commerce.cache.TwoLevelCacheManager;
+import com.example.BE_E_commerce.dto.response.CacheStatsResponse;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Admin - Cache", description = "Admin cache monitoring API")
+public class AdminCacheController {
+
+    private final TwoLevelCacheManager cacheManager;
+
+    /**
+     * Get hit/miss/eviction counters of each cache tier on this node
+     */
+    @GetMapping("/stats")
+    @Operation(summary = "Get cache statistics", description = "Per-tier (Caffeine L1 / Redis L2) counters of this node")
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        List<CacheStatsResponse> stats = cacheManager.getTwoLevelCaches().stream()
+                .sorted(Comparator.comparing(TwoLevelCache::getName))
+                .map(this::toStatsResponse)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(stats);
+    }
+
+    private CacheStatsResponse toStatsResponse(TwoLevelCache cache) {
+        CacheStats local = cache.getLocalStats();
+        CacheStatistics remote = cache.getRemoteStats();
+
+        return CacheStatsResponse.builder()
+                .cacheName(cache.getName())
+                .local(CacheStatsResponse.LocalTier.builder()
+                        .size(cache.getLocalSize())
+                        .hits(local.hitCount())
+                        .misses(local.missCount())
+                        .evictions(local.evictionCount())
+                        .hitRate(local.hitRate())
+                        .build())
+                .remote(CacheStatsResponse.RemoteTier.builder()
+                        .hits(remote.getHits())
+                        .misses(remote.getMisses())
+                        .puts(remote.getPuts())
+                        .deletes(remote.getDeletes())
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.BE_E_commerce.controller;
+
+import com.example.BE_E_commerce.dto.response.OutboxStatsResponse;
+import com.example.BE_E_commerce.service.OutboxRelay;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/outbox")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Admin - Outbox", description = "Admin domain event outbox monitoring API")
+public class AdminOutboxController {
+
+    private final OutboxRelay outboxRelay;
+
+    /**
+     * Get the event backlog and delivery lag
+     */
+    @GetMapping("/stats")
+    @Operation(summary = "Get outbox statistics", description = "Pending/failed backlog and this node's delivery lag")
+    public ResponseEntity<OutboxStatsResponse> getOutboxStats() {
+        return ResponseEntity.ok(outboxRelay.getStats());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.BE_E_commerce.controller;
+
+import com.example.BE_E_commerce.dto.response.SettlementRunResponse;
+import com.example.BE_E_commerce.service.SettlementService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/settlement")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Admin - Settlement", description = "Admin order settlement API")
+public class AdminSettlementController {
+
+    private final SettlementService settlementService;
+
+    /**
+     * Run settlement now instead of waiting for the schedule
+     */
+    @PostMapping("/run")
+    @Operation(summary = "Run settlement", description = "Settle orders past the hold period and report throughput")
+    public ResponseEntity<SettlementRunResponse> runSettlement() {
+        SettlementService.SettlementRun run = settlementService.settleDueOrders();
+        return ResponseEntity.ok(SettlementRunResponse.builder()
+                .orders(run.orders())
+                .shopEntries(run.shopEntries())
+                .chunks(run.chunks())
+                .elapsedMillis(run.elapsed().toMillis())
+                .ordersPerSecond(run.ordersPerSecond())
+                .build());
+    }
+}
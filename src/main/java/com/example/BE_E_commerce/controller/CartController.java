@@ -0,0 +1,92 @@
+package com.example.BE_E_commerce.controller;
+
+import com.example.BE_E_commerce.dto.request.CartItemRequest;
+import com.example.BE_E_commerce.dto.request.UpdateCartItemRequest;
+import com.example.BE_E_commerce.dto.response.CartResponse;
+import com.example.BE_E_commerce.dto.response.CartSummaryResponse;
+import com.example.BE_E_commerce.dto.response.CartVouchersResponse;
+import com.example.BE_E_commerce.dto.response.MessageResponse;
+import com.example.BE_E_commerce.service.CartService;
+import com.example.BE_E_commerce.service.VoucherService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/cart")
+@RequiredArgsConstructor
+@Tag(name = "Cart", description = "Shopping cart API")
+public class CartController {
+
+    private final CartService cartService;
+    private final VoucherService voucherService;
+
+    /**
+     * Get cart
+     */
+    @GetMapping
+    @Operation(summary = "Get cart", description = "Get current user's cart with prices and stock")
+    public ResponseEntity<CartResponse> getCart() {
+        return ResponseEntity.ok(cartService.getCart());
+    }
+
+    /**
+     * Get cart summary
+     */
+    @GetMapping("/summary")
+    @Operation(summary = "Get cart summary", description = "Cart lines grouped by shop with subtotals and total")
+    public ResponseEntity<CartSummaryResponse> getCartSummary() {
+        return ResponseEntity.ok(cartService.getCartSummary());
+    }
+
+    /**
+     * Get best vouchers for the cart
+     */
+    @GetMapping("/vouchers")
+    @Operation(summary = "Get best vouchers", description = "Largest platform and per-shop discounts the cart qualifies for")
+    public ResponseEntity<CartVouchersResponse> getBestVouchers(@RequestParam(defaultValue = "3") int limit) {
+        return ResponseEntity.ok(voucherService.getBestVouchersForCart(limit));
+    }
+
+    /**
+     * Add item to cart
+     */
+    @PostMapping("/items")
+    @Operation(summary = "Add item", description = "Add a product variant to the cart")
+    public ResponseEntity<CartResponse> addItem(@Valid @RequestBody CartItemRequest request) {
+        return ResponseEntity.ok(cartService.addItem(request));
+    }
+
+    /**
+     * Update item quantity
+     */
+    @PutMapping("/items/{variantId}")
+    @Operation(summary = "Update item", description = "Change the quantity of a cart item")
+    public ResponseEntity<CartResponse> updateItem(
+            @PathVariable Long variantId,
+            @Valid @RequestBody UpdateCartItemRequest request) {
+        return ResponseEntity.ok(cartService.updateItem(variantId, request));
+    }
+
+    /**
+     * Remove item from cart
+     */
+    @DeleteMapping("/items/{variantId}")
+    @Operation(summary = "Remove item", description = "Remove a product variant from the cart")
+    public ResponseEntity<CartResponse> removeItem(@PathVariable Long variantId) {
+        return ResponseEntity.ok(cartService.removeItem(variantId));
+    }
+
+    /**
+     * Clear cart
+     */
+    @DeleteMapping
+    @Operation(summary = "Clear cart", description = "Remove all items from the cart")
+    public ResponseEntity<MessageResponse> clearCart() {
+        cartService.clearCart();
+        return ResponseEntity.ok(new MessageResponse("Cart cleared successfully"));
+    }
+}
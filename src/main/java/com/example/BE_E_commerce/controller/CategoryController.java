@@ -3,8 +3,13 @@ package com.example.BE_E_commerce.controller;
 import com.example. BE_E_commerce.dto. response.CategoryResponse;
 import com. example.BE_E_commerce. service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework. web.bind.annotation.*;
 
@@ -29,23 +34,31 @@ public class CategoryController {
     }
 
     /**
-     * Get category tree
+     * Get category tree (served from the pre-rendered JSON)
      */
-    @GetMapping("/tree")
+    @GetMapping(value = "/tree", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Get category tree", description = "Get all categories in hierarchical tree structure")
-    public ResponseEntity<List<CategoryResponse>> getCategoryTree() {
-        List<CategoryResponse> tree = categoryService.getCategoryTree();
-        return ResponseEntity.ok(tree);
+    @ApiResponse(responseCode = "200", content = @Content(
+            array = @ArraySchema(schema = @Schema(implementation = CategoryResponse.class))))
+    public ResponseEntity<byte[]> getCategoryTree() {
+        byte[] tree = categoryService.getCategoryTreeJson();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(tree);
     }
 
     /**
-     * Get active category tree (for public display)
+     * Get active category tree (for public display, served from the pre-rendered JSON)
      */
-    @GetMapping("/active-tree")
+    @GetMapping(value = "/active-tree", produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(summary = "Get active category tree", description = "Get only active categories in tree structure")
-    public ResponseEntity<List<CategoryResponse>> getActiveCategoryTree() {
-        List<CategoryResponse> tree = categoryService.getActiveCategoryTree();
-        return ResponseEntity.ok(tree);
+    @ApiResponse(responseCode = "200", content = @Content(
+            array = @ArraySchema(schema = @Schema(implementation = CategoryResponse.class))))
+    public ResponseEntity<byte[]> getActiveCategoryTree() {
+        byte[] tree = categoryService.getActiveCategoryTreeJson();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(tree);
     }
 
     /**
@@ -0,0 +1,67 @@
+package com.example.BE_E_commerce.controller;
+
+import com.example.BE_E_commerce.dto.request.ChatMessageRequest;
+import com.example.BE_E_commerce.dto.response.MessageResponse;
+import com.example.BE_E_commerce.exception.BadRequestException;
+import com.example.BE_E_commerce.exception.ResourceNotFoundException;
+import com.example.BE_E_commerce.exception.UnauthorizedException;
+import com.example.BE_E_commerce.service.ChatService;
+import com.example.BE_E_commerce.util.SecurityUtils;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.handler.annotation.support.MethodArgumentNotValidException;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+
+/**
+ * STOMP chat endpoints (prefix /app). Messages are pushed on /topic/conversations/{id};
+ * errors go back to the sending session on /user/queue/errors.
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+public class ChatController {
+
+    private final ChatService chatService;
+
+    /**
+     * Send a message to a conversation
+     */
+    @MessageMapping("/conversations/{conversationId}/send")
+    public void send(@DestinationVariable Long conversationId,
+                     @Valid @Payload ChatMessageRequest request,
+                     Principal principal) {
+        Long userId = SecurityUtils.getUserId(principal)
+                .orElseThrow(() -> new UnauthorizedException("User not authenticated"));
+        chatService.send(conversationId, userId, request);
+    }
+
+    @MessageExceptionHandler({BadRequestException.class, ResourceNotFoundException.class, UnauthorizedException.class})
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public MessageResponse handleRejected(RuntimeException e) {
+        return new MessageResponse(e.getMessage());
+    }
+
+    @MessageExceptionHandler(MethodArgumentNotValidException.class)
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public MessageResponse handleInvalid(MethodArgumentNotValidException e) {
+        String message = e.getBindingResult() != null && e.getBindingResult().getFieldError() != null
+                ? e.getBindingResult().getFieldError().getDefaultMessage()
+                : "Invalid message";
+        return new MessageResponse(message);
+    }
+
+    @MessageExceptionHandler
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public MessageResponse handleUnexpected(Exception e) {
+        log.error("Chat message failed: {}", e.getMessage());
+        return new MessageResponse("Could not send message");
+    }
+}
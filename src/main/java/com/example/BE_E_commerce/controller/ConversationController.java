@@ -0,0 +1,72 @@
+package com.example.BE_E_commerce.controller;
+
+import com.example.BE_E_commerce.dto.request.ConversationRequest;
+import com.example.BE_E_commerce.dto.response.ChatMessageResponse;
+import com.example.BE_E_commerce.dto.response.ConversationResponse;
+import com.example.BE_E_commerce.dto.response.CursorPageResponse;
+import com.example.BE_E_commerce.dto.response.MessageResponse;
+import com.example.BE_E_commerce.dto.response.PageResponse;
+import com.example.BE_E_commerce.service.ConversationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/conversations")
+@RequiredArgsConstructor
+@Tag(name = "Chat", description = "Buyer-shop conversations; live messages use STOMP on /ws")
+public class ConversationController {
+
+    private final ConversationService conversationService;
+
+    /**
+     * Open conversation with a shop
+     */
+    @PostMapping
+    @Operation(summary = "Open conversation", description = "Start or reuse the current user's conversation with a shop")
+    public ResponseEntity<ConversationResponse> openConversation(@Valid @RequestBody ConversationRequest request) {
+        return ResponseEntity.ok(conversationService.openConversation(request));
+    }
+
+    /**
+     * Get my conversations
+     */
+    @GetMapping
+    @Operation(summary = "Get my conversations", description = "Conversations as buyer or seller, most recent first")
+    public ResponseEntity<PageResponse<ConversationResponse>> getMyConversations(
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size) {
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Order.desc("lastMessageAt"), Sort.Order.desc("id")));
+        return ResponseEntity.ok(conversationService.getMyConversations(pageable));
+    }
+
+    /**
+     * Mark conversation read
+     */
+    @PostMapping("/{id}/read")
+    @Operation(summary = "Mark read", description = "Mark all messages from the other side read")
+    public ResponseEntity<MessageResponse> markRead(@PathVariable Long id) {
+        conversationService.markRead(id);
+        return ResponseEntity.ok(new MessageResponse("Conversation marked as read"));
+    }
+
+    /**
+     * Get message history
+     */
+    @GetMapping("/{id}/messages")
+    @Operation(summary = "Get messages", description = "Messages newest first with cursor pagination. " +
+            "Pass nextCursor from the previous response to load older messages")
+    public ResponseEntity<CursorPageResponse<ChatMessageResponse>> getMessages(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "30") Integer size) {
+        return ResponseEntity.ok(conversationService.getMessages(id, cursor, size));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.BE_E_commerce.controller;
+
+import com.example.BE_E_commerce.dto.response.CursorPageResponse;
+import com.example.BE_E_commerce.dto.response.MessageResponse;
+import com.example.BE_E_commerce.dto.response.NotificationResponse;
+import com.example.BE_E_commerce.dto.response.UnreadCountResponse;
+import com.example.BE_E_commerce.service.NotificationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/notifications")
+@RequiredArgsConstructor
+@Tag(name = "Notifications", description = "User notifications and unread badges")
+public class NotificationController {
+
+    private final NotificationService notificationService;
+
+    /**
+     * Get my notifications
+     */
+    @GetMapping
+    @Operation(summary = "Get notifications", description = "Newest first with cursor pagination. " +
+            "Pass nextCursor from the previous response to load older notifications")
+    public ResponseEntity<CursorPageResponse<NotificationResponse>> getMyNotifications(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
+        return ResponseEntity.ok(notificationService.getMyNotifications(cursor, size));
+    }
+
+    /**
+     * Get unread badges
+     */
+    @GetMapping("/unread-count")
+    @Operation(summary = "Get unread counts", description = "Unread notifications and chat messages for the header badges")
+    public ResponseEntity<UnreadCountResponse> getUnreadCounts() {
+        return ResponseEntity.ok(notificationService.getUnreadCounts());
+    }
+
+    /**
+     * Mark notification read
+     */
+    @PostMapping("/{id}/read")
+    @Operation(summary = "Mark read", description = "Mark one notification read")
+    public ResponseEntity<MessageResponse> markRead(@PathVariable Long id) {
+        notificationService.markRead(id);
+        return ResponseEntity.ok(new MessageResponse("Notification marked as read"));
+    }
+
+    /**
+     * Mark all notifications read
+     */
+    @PostMapping("/read-all")
+    @Operation(summary = "Mark all read", description = "Mark every notification of the current user read")
+    public ResponseEntity<MessageResponse> markAllRead() {
+        int updated = notificationService.markAllRead();
+        return ResponseEntity.ok(new MessageResponse(updated + " notifications marked as read"));
+    }
+}
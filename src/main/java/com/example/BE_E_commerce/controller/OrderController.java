@@ -0,0 +1,33 @@
+package com.example.BE_E_commerce.controller;
+
+import com.example.BE_E_commerce.dto.request.CheckoutRequest;
+import com.example.BE_E_commerce.dto.response.OrderResponse;
+import com.example.BE_E_commerce.service.CheckoutService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/orders")
+@RequiredArgsConstructor
+@Tag(name = "Order", description = "Order placement API")
+public class OrderController {
+
+    private final CheckoutService checkoutService;
+
+    /**
+     * Checkout the current cart
+     */
+    @PostMapping("/checkout")
+    @Operation(summary = "Checkout", description = "Place one order per shop for all items in the cart")
+    public ResponseEntity<List<OrderResponse>> checkout(@Valid @RequestBody CheckoutRequest request) {
+        List<OrderResponse> orders = checkoutService.checkout(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(orders);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.BE_E_commerce.controller;
+
+import com.example.BE_E_commerce.dto.response.PresenceResponse;
+import com.example.BE_E_commerce.service.PresenceService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/presence")
+@RequiredArgsConstructor
+@Tag(name = "Presence", description = "Online status of users")
+public class PresenceController {
+
+    private final PresenceService presenceService;
+
+    /**
+     * Get presence of users
+     */
+    @GetMapping
+    @Operation(summary = "Get presence", description = "Online flag and last-seen time of up to 200 users in one call")
+    public ResponseEntity<List<PresenceResponse>> getPresence(@RequestParam List<Long> userIds) {
+        return ResponseEntity.ok(presenceService.getPresence(userIds));
+    }
+}
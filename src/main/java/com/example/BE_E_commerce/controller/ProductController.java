@@ -2,6 +2,7 @@ package com.example.BE_E_commerce.controller;
 
 import com.example. BE_E_commerce.dto. request.ProductFilterRequest;
 import com.example.BE_E_commerce.dto.response.*;
+import com.example.BE_E_commerce.enums.FeedSort;
 import com.example.BE_E_commerce.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -59,17 +60,33 @@ public class ProductController {
      * Search products
      */
     @GetMapping("/search")
-    @Operation(summary = "Search products", description = "Search products by keyword")
+    @Operation(summary = "Search products", description = "Full-text search by keyword (diacritic-insensitive), ranked by relevance")
     public ResponseEntity<PageResponse<ProductResponse>> searchProducts(
             @RequestParam String keyword,
             @RequestParam(defaultValue = "0") Integer page,
             @RequestParam(defaultValue = "20") Integer size) {
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        Pageable pageable = PageRequest.of(page, size);
         PageResponse<ProductResponse> products = productService.searchProducts(keyword, pageable);
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * Get products feed (cursor pagination)
+     */
+    @GetMapping("/feed")
+    @Operation(summary = "Get products feed", description = "Infinite-scroll listing with cursor pagination and no total count. " +
+            "Pass nextCursor from the previous response to load the next page")
+    public ResponseEntity<CursorPageResponse<ProductResponse>> getProductFeed(
+            @RequestParam(defaultValue = "NEWEST") FeedSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
+
+        int pageSize = Math.min(Math.max(size, 1), 100);
+        CursorPageResponse<ProductResponse> products = productService.getProductFeed(sort, cursor, pageSize);
+        return ResponseEntity.ok(products);
+    }
+
     /**
      * Get product by ID
      */
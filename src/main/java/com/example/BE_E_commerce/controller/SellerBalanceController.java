@@ -0,0 +1,29 @@
+package com.example.BE_E_commerce.controller;
+
+import com.example.BE_E_commerce.dto.response.ShopBalanceResponse;
+import com.example.BE_E_commerce.service.LedgerService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/seller/balance")
+@RequiredArgsConstructor
+@Tag(name = "Seller Balance", description = "Shop balance API for sellers")
+public class SellerBalanceController {
+
+    private final LedgerService ledgerService;
+
+    /**
+     * Get my shop's balance
+     */
+    @GetMapping
+    @Operation(summary = "Get balance", description = "Available, pending and withdrawn amounts, including entries not folded yet")
+    public ResponseEntity<ShopBalanceResponse> getBalance() {
+        return ResponseEntity.ok(ledgerService.getMyShopBalance());
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.BE_E_commerce.controller;
 
 import com.example.BE_E_commerce.dto.request.ShopFilterRequest;
+import com.example.BE_E_commerce.dto.response.CursorPageResponse;
 import com.example.BE_E_commerce.dto.response.PageResponse;
 import com.example.BE_E_commerce.dto.response.ProductResponse;
 import com.example.BE_E_commerce.dto.response.ShopDetailResponse;
 import com.example.BE_E_commerce.dto.response.ShopResponse;
+import com.example.BE_E_commerce.enums.FeedSort;
 import com.example.BE_E_commerce.service.ShopService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -65,6 +67,22 @@ public class ShopController {
         return ResponseEntity.ok(shops);
     }
 
+    /**
+     * Get shops feed (cursor pagination)
+     */
+    @GetMapping("/feed")
+    @Operation(summary = "Get shops feed", description = "Infinite-scroll listing with cursor pagination and no total count. " +
+            "Pass nextCursor from the previous response to load the next page")
+    public ResponseEntity<CursorPageResponse<ShopResponse>> getShopFeed(
+            @RequestParam(defaultValue = "NEWEST") FeedSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
+
+        int pageSize = Math.min(Math.max(size, 1), 100);
+        CursorPageResponse<ShopResponse> shops = shopService.getShopFeed(sort, cursor, pageSize);
+        return ResponseEntity.ok(shops);
+    }
+
     /**
      * Get shop by ID
      */
@@ -0,0 +1,18 @@
+package com.example.BE_E_commerce.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class CartItemRequest {
+
+    @NotNull(message = "Variant is required")
+    private Long variantId;
+
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    @Max(value = 999, message = "Quantity must not exceed 999")
+    private Integer quantity;
+}
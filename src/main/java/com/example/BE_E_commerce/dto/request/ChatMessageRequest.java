@@ -0,0 +1,16 @@
+package com.example.BE_E_commerce.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class ChatMessageRequest {
+
+    @NotBlank(message = "Message content is required")
+    @Size(max = 2000, message = "Message must not exceed 2000 characters")
+    private String content;
+
+    @Size(max = 500, message = "Attachment URL must not exceed 500 characters")
+    private String attachmentUrl;
+}
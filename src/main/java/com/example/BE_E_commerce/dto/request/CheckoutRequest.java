@@ -0,0 +1,22 @@
+package com.example.BE_E_commerce.dto.request;
+
+import com.example.BE_E_commerce.enums.PaymentMethod;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class CheckoutRequest {
+
+    @NotNull(message = "Address is required")
+    private Long addressId;
+
+    @NotNull(message = "Payment method is required")
+    private PaymentMethod paymentMethod;
+
+    @Size(max = 1000, message = "Note must not exceed 1000 characters")
+    private String buyerNote;
+
+    @Size(max = 50, message = "Voucher code must not exceed 50 characters")
+    private String voucherCode; // Optional; a shop voucher applies to that shop's order only
+}
@@ -0,0 +1,11 @@
+package com.example.BE_E_commerce.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class ConversationRequest {
+
+    @NotNull(message = "Shop is required")
+    private Long shopId;
+}
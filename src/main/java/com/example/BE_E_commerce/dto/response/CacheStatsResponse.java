@@ -0,0 +1,41 @@
+package com.example.BE_E_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatsResponse {
+    private String cacheName;
+    private LocalTier local;
+    private RemoteTier remote;
+
+    // On-heap Caffeine tier (L1)
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LocalTier {
+        private Long size;
+        private Long hits;
+        private Long misses;
+        private Long evictions;
+        private Double hitRate;
+    }
+
+    // Redis tier (L2); expiry happens server side, so only explicit deletes are counted
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RemoteTier {
+        private Long hits;
+        private Long misses;
+        private Long puts;
+        private Long deletes;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.BE_E_commerce.dto.response;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class CartItemResponse {
+    private Long variantId;
+    private Long productId;
+    private String productName;
+    private String variantName;
+    private String sku;
+    private String thumbnailUrl;
+    private Long shopId;
+    private String shopName;
+    private BigDecimal price;
+    private BigDecimal originalPrice;
+    private Integer quantity;
+    private Integer availableStock;
+    private BigDecimal subtotal;
+    private Boolean available; // Active and enough stock for the quantity
+}
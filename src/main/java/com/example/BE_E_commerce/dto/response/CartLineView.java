@@ -0,0 +1,61 @@
+package com.example.BE_E_commerce.dto.response;
+
+import com.example.BE_E_commerce.entity.ProductVariant;
+import com.example.BE_E_commerce.enums.ProductStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * One cart line read with a constructor expression (no entities, no lazy loading).
+ * Money is also kept in cents so totals are plain long arithmetic.
+ */
+@Getter
+public class CartLineView {
+    private final Long variantId;
+    private final String sku;
+    private final String variantName;
+    private final BigDecimal price;
+    private final Integer stockQuantity;
+    private final Long productId;
+    private final String productName;
+    private final String thumbnailUrl;
+    private final Long shopId;
+    private final String shopName;
+    private final Integer quantity;
+    private final boolean available;
+
+    @JsonIgnore
+    private final long priceCents;
+
+    public CartLineView(Long variantId, String sku, String color, String size, BigDecimal price,
+                        Integer stockQuantity, Boolean variantActive, Long productId, String productName,
+                        ProductStatus productStatus, String thumbnailUrl, Long shopId, String shopName,
+                        Integer quantity) {
+        this.variantId = variantId;
+        this.sku = sku;
+        this.variantName = ProductVariant.displayName(color, size, sku);
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+        this.productId = productId;
+        this.productName = productName;
+        this.thumbnailUrl = thumbnailUrl;
+        this.shopId = shopId;
+        this.shopName = shopName;
+        this.quantity = quantity;
+        this.available = Boolean.TRUE.equals(variantActive)
+                && productStatus == ProductStatus.ACTIVE
+                && stockQuantity != null && stockQuantity >= quantity;
+        this.priceCents = price.movePointRight(2).longValue();
+    }
+
+    @JsonIgnore
+    public long getSubtotalCents() {
+        return Math.multiplyExact(priceCents, quantity.longValue());
+    }
+
+    public BigDecimal getSubtotal() {
+        return BigDecimal.valueOf(getSubtotalCents(), 2);
+    }
+}
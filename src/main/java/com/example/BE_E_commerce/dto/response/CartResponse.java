@@ -0,0 +1,19 @@
+package com.example.BE_E_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartResponse {
+    private List<CartItemResponse> items;
+    private Integer totalItems;
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,31 @@
+package com.example.BE_E_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSummaryResponse {
+    private List<ShopGroup> shops;
+    private Integer totalItems;
+    private BigDecimal totalAmount;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ShopGroup {
+        private Long shopId;
+        private String shopName;
+        private List<CartLineView> items;
+        private Integer totalItems;
+        private BigDecimal subtotal;
+    }
+}
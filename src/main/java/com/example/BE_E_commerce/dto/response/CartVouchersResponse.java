@@ -0,0 +1,30 @@
+package com.example.BE_E_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartVouchersResponse {
+    private BigDecimal totalAmount;
+    private List<VoucherOfferResponse> platformVouchers;
+    private List<ShopVouchers> shops;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ShopVouchers {
+        private Long shopId;
+        private String shopName;
+        private BigDecimal subtotal;
+        private List<VoucherOfferResponse> vouchers;
+    }
+}
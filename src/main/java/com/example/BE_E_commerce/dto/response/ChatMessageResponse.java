@@ -0,0 +1,25 @@
+package com.example.BE_E_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A chat message as pushed to subscribers and returned by history queries.
+ * Ids are time-ordered, so clients sort and de-duplicate by id.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageResponse {
+    private Long id;
+    private Long conversationId;
+    private Long senderId;
+    private String content;
+    private String attachmentUrl;
+    private LocalDateTime createdAt;
+}
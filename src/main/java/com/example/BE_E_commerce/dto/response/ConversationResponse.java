@@ -0,0 +1,27 @@
+package com.example.BE_E_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationResponse {
+    private Long id;
+    private Long shopId;
+    private String shopName;
+    private String shopLogoUrl;
+    private Long buyerId;
+    private String buyerName;
+    private String buyerAvatarUrl;
+    private Long sellerId;
+    private Boolean counterpartOnline; // Whether the other side is connected right now
+    private Long unreadCount; // Messages from the other side not read yet
+    private String lastMessage;
+    private LocalDateTime lastMessageAt;
+}
@@ -0,0 +1,23 @@
+package com.example.BE_E_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationResponse {
+    private Long id;
+    private String type;
+    private String title;
+    private String content;
+    private Long relatedId;
+    private String relatedType;
+    private Boolean isRead;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,17 @@
+package com.example.BE_E_commerce.dto.response;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class OrderItemResponse {
+    private Long id;
+    private Long productId;
+    private Long variantId;
+    private String productName;
+    private String variantName;
+    private BigDecimal price;
+    private Integer quantity;
+    private BigDecimal subtotal;
+}
@@ -0,0 +1,40 @@
+package com.example.BE_E_commerce.dto.response;
+
+import com.example.BE_E_commerce.enums.OrderStatus;
+import com.example.BE_E_commerce.enums.PaymentMethod;
+import com.example.BE_E_commerce.enums.PaymentStatus;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class OrderResponse {
+    private Long id;
+    private String orderCode;
+    private Long shopId;
+    private String shopName;
+
+    // Delivery address
+    private String recipientName;
+    private String phone;
+    private String addressLine;
+    private String ward;
+    private String district;
+    private String city;
+
+    // Pricing
+    private BigDecimal subtotal;
+    private BigDecimal shippingFee;
+    private BigDecimal discountAmount;
+    private BigDecimal totalAmount;
+
+    private PaymentMethod paymentMethod;
+    private PaymentStatus paymentStatus;
+    private OrderStatus status;
+    private String buyerNote;
+    private LocalDateTime createdAt;
+
+    private List<OrderItemResponse> items;
+}
@@ -0,0 +1,22 @@
+package com.example.BE_E_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxStatsResponse {
+    // Backlog in MySQL (all nodes)
+    private Long pending;
+    private Long failed;
+    private Long oldestPendingAgeMillis;
+
+    // Delivery counters of this node since startup
+    private Long dispatched;
+    private Long dispatchFailures;
+    private Long lastLagMillis; // Recorded-to-delivered time of the last event delivered here
+}
@@ -0,0 +1,18 @@
+package com.example.BE_E_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceResponse {
+    private Long userId;
+    private Boolean online;
+    private LocalDateTime lastSeenAt; // Null once the user has been offline longer than the TTL
+}
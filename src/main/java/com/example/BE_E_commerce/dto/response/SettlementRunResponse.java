@@ -0,0 +1,18 @@
+package com.example.BE_E_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementRunResponse {
+    private Integer orders;
+    private Integer shopEntries; // Ledger entries written (one per shop per chunk)
+    private Integer chunks;
+    private Long elapsedMillis;
+    private Long ordersPerSecond;
+}
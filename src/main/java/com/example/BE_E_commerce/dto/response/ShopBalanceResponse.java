@@ -0,0 +1,19 @@
+package com.example.BE_E_commerce.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShopBalanceResponse {
+    private Long shopId;
+    private BigDecimal availableBalance;
+    private BigDecimal pendingBalance;
+    private BigDecimal totalWithdrawn;
+}
@@ -0,0 +1,25 @@
+package com.example.BE_E_commerce.dto.response;
+
+import com.example.BE_E_commerce.enums.VoucherType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoucherOfferResponse {
+    private String code;
+    private Long shopId; // null = platform voucher
+    private VoucherType type;
+    private BigDecimal discountValue;
+    private BigDecimal minOrderValue;
+    private BigDecimal maxDiscountAmount;
+    private LocalDateTime endDate;
+    private BigDecimal discount; // What this voucher takes off the cart right now
+}
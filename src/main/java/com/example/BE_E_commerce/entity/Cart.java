@@ -1,5 +1,6 @@
 package com.example.BE_E_commerce.entity;
 
+import com.example.BE_E_commerce.id.SnowflakeId;
 
 import jakarta.persistence.*;
 import lombok.*;
@@ -25,7 +26,7 @@ import java.util.stream.Collectors;
 public class Cart {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -47,6 +48,8 @@ public class Cart {
     private List<CartItem> items = new ArrayList<>();
 
     // ========== HELPER METHODS ==========
+    // Totals and grouping walk variant -> product -> shop: load the cart with
+    // CartRepository.findByUserIdWithItems first. Cart pages use CartItemRepository.findCartLinesByUserId.
 
     public void addItem(CartItem item) {
         // Check if item already exists
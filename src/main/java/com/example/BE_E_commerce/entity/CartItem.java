@@ -1,5 +1,6 @@
 package com.example.BE_E_commerce.entity;
 
+import com.example.BE_E_commerce.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate. annotations.CreationTimestamp;
@@ -25,7 +26,7 @@ import java.time.LocalDateTime;
 public class CartItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @ManyToOne(fetch = FetchType. LAZY)
@@ -0,0 +1,36 @@
+package com.example.BE_E_commerce.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far a background job has got (e.g. the last ledger entry it folded), so it resumes
+ * where it stopped after a restart. Locking the row also keeps two nodes from running the
+ * same job at once.
+ */
+@Entity
+@Table(name = "job_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobCheckpoint {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long position = 0L;
+
+    private LocalDateTime positionTime; // Time part of a (time, id) keyset cursor; NULL = from the start
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
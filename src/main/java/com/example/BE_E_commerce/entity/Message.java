@@ -1,5 +1,6 @@
 package com.example.BE_E_commerce.entity;
 
+import com.example.BE_E_commerce.id.SnowflakeId;
 import jakarta. persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -9,6 +10,7 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "messages", indexes = {
         @Index(name = "idx_conversation_id", columnList = "conversation_id"),
+        @Index(name = "idx_conversation_message", columnList = "conversation_id, id"), // History pages by id
         @Index(name = "idx_created_at", columnList = "created_at")
 })
 @Getter
@@ -19,7 +21,7 @@ import java.time.LocalDateTime;
 public class Message {
 
     @Id
-    @GeneratedValue(strategy = GenerationType. IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,5 +1,6 @@
 package com.example.BE_E_commerce.entity;
 
+import com.example.BE_E_commerce.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 @Table(name = "notifications", indexes = {
         @Index(name = "idx_user_id", columnList = "user_id"),
         @Index(name = "idx_is_read", columnList = "is_read"),
+        @Index(name = "idx_user_unread", columnList = "user_id, is_read"), // Mark-all-read and unread reconciliation
         @Index(name = "idx_created_at", columnList = "created_at")
 })
 @Getter
@@ -20,7 +22,7 @@ import java.time.LocalDateTime;
 public class Notification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
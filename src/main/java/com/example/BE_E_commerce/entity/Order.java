@@ -1,5 +1,6 @@
 package com.example.BE_E_commerce.entity;
 
+import com.example.BE_E_commerce.id.SnowflakeId;
 import com.example.BE_E_commerce.enums.*;
 import jakarta.persistence.*;
 import lombok.*;
@@ -17,7 +18,8 @@ import java.util.List;
         @Index(name = "idx_shop_id", columnList = "shop_id"),
         @Index(name = "idx_order_code", columnList = "order_code"),
         @Index(name = "idx_status", columnList = "status"),
-        @Index(name = "idx_created_at", columnList = "created_at")
+        @Index(name = "idx_created_at", columnList = "created_at"),
+        @Index(name = "idx_status_completed_at", columnList = "status, completed_at, id")
 })
 @Getter
 @Setter
@@ -27,7 +29,7 @@ import java.util.List;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(unique = true, nullable = false, length = 50)
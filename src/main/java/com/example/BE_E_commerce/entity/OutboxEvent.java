@@ -0,0 +1,59 @@
+package com.example.BE_E_commerce.entity;
+
+import com.example.BE_E_commerce.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A domain event recorded in the same transaction as the change it describes.
+ * Rows are written with JDBC by OutboxService and relayed by OutboxRelay; the entity
+ * only declares the table.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_status_id", columnList = "status, id") // Relay polling and cleanup
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    private Long id; // Snowflake, so id order is creation order
+
+    @Column(nullable = false, length = 50)
+    private String aggregateType; // USER, ORDER, ...
+
+    @Column(nullable = false, length = 64)
+    private String aggregateId;
+
+    @Column(nullable = false, length = 50)
+    private String type; // USER_REGISTERED, ORDER_PLACED, ...
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload; // JSON
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime availableAt; // Next dispatch attempt after a failure
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime publishedAt;
+}
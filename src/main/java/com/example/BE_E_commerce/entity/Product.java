@@ -1,6 +1,8 @@
 package com.example.BE_E_commerce.entity;
 
 import com.example.BE_E_commerce.enums.ProductStatus;
+import com.example.BE_E_commerce.listener.ProductListingSummaryListener;
+import com.example.BE_E_commerce.util.SearchTextUtils;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -11,13 +13,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(ProductListingSummaryListener.class)
 @Table(name = "products", indexes = {
         @Index(name = "idx_category_id", columnList = "category_id"),
         @Index(name = "idx_shop_id", columnList = "shop_id"),
         @Index(name = "idx_slug", columnList = "slug"),
         @Index(name = "idx_status", columnList = "status"),
         @Index(name = "idx_total_sold", columnList = "total_sold"),        // ← NEW
-        @Index(name = "idx_average_rating", columnList = "average_rating") // ← NEW
+        @Index(name = "idx_average_rating", columnList = "average_rating"), // ← NEW
+        @Index(name = "idx_created_at", columnList = "created_at")
 })
 @Getter
 @Setter
@@ -39,6 +43,12 @@ public class Product {
     @Column(columnDefinition = "TEXT")
     private String description;
 
+    /**
+     * Name folded for search (lowercase, no diacritics), FULLTEXT indexed with the ngram parser
+     */
+    @Column(name = "search_text", length = 255)
+    private String searchText;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 20)
     @Builder.Default
@@ -94,6 +104,15 @@ public class Product {
 
     // ========== HELPER METHODS ==========
 
+    /**
+     * Keep the search column in sync with the name
+     */
+    @PrePersist
+    @PreUpdate
+    public void updateSearchText() {
+        this.searchText = SearchTextUtils.fold(name);
+    }
+
     /**
      * Increment total sold
      */
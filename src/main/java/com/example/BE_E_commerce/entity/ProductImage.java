@@ -1,9 +1,11 @@
 package com.example.BE_E_commerce.entity;
 
+import com.example.BE_E_commerce.listener.ProductListingSummaryListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@EntityListeners(ProductListingSummaryListener.class)
 @Table(name = "product_images", indexes = {
         @Index(name = "idx_product_id", columnList = "product_id")
 })
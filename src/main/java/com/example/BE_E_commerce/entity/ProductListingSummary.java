@@ -0,0 +1,69 @@
+package com.example.BE_E_commerce.entity;
+
+import com.example.BE_E_commerce.enums.ProductStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized listing data of a product (read model).
+ * Kept up to date from product, variant, image and review writes so listing
+ * endpoints do not have to aggregate on every request. Status and the sort
+ * keys are copied from the product so ranked listings scan this table only.
+ */
+@Entity
+@Table(name = "product_listing_summary", indexes = {
+        @Index(name = "idx_summary_status_sold", columnList = "status, total_sold, product_id"),
+        @Index(name = "idx_summary_status_created", columnList = "status, created_at, product_id"),
+        @Index(name = "idx_summary_status_rating", columnList = "status, average_rating, product_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductListingSummary {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ProductStatus status;
+
+    @Column(precision = 15, scale = 2)
+    private BigDecimal minPrice;
+
+    @Column(precision = 15, scale = 2)
+    private BigDecimal maxPrice;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer totalStock = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long reviewCount = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Double averageRating = 0.0;
+
+    @Column(length = 500)
+    private String thumbnailUrl;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long totalSold = 0L;
+
+    // Creation time of the product, not of the summary row
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
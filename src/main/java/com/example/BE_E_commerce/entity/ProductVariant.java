@@ -1,11 +1,16 @@
 package com.example.BE_E_commerce.entity;
 
+import com.example.BE_E_commerce.listener.ProductListingSummaryListener;
+import com.example.BE_E_commerce.listener.StockCounterListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Entity
+@EntityListeners({ProductListingSummaryListener.class, StockCounterListener.class})
 @Table(name = "product_variants", indexes = {
         @Index(name = "idx_product_id", columnList = "product_id"),
         @Index(name = "idx_sku", columnList = "sku")
@@ -70,6 +75,20 @@ public class ProductVariant {
         this.stockQuantity += quantity;
     }
 
+    /**
+     * Name shown in carts and orders, e.g. "Red / XL" (SKU when there is no color or size)
+     */
+    public String getDisplayName() {
+        return displayName(color, size, sku);
+    }
+
+    public static String displayName(String color, String size, String sku) {
+        String name = Stream.of(color, size)
+                .filter(value -> value != null && !value.isBlank())
+                .collect(Collectors.joining(" / "));
+        return name.isEmpty() ? sku : name;
+    }
+
     /**
      * Check if in stock
      */
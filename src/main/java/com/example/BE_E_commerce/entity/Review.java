@@ -1,6 +1,7 @@
 package com.example.BE_E_commerce.entity;
 
 import com.example.BE_E_commerce.enums.ReviewStatus;
+import com.example.BE_E_commerce.listener.ProductListingSummaryListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -9,6 +10,7 @@ import org. hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(ProductListingSummaryListener.class)
 @Table(name = "reviews", indexes = {
         @Index(name = "idx_product_id", columnList = "product_id"),
         @Index(name = "idx_user_id", columnList = "user_id"),
@@ -14,7 +14,10 @@ import java.util.List;
 @Entity
 @Table(name = "shops", indexes = {
         @Index(name = "idx_status", columnList = "status"),
-        @Index(name = "idx_slug", columnList = "slug")
+        @Index(name = "idx_slug", columnList = "slug"),
+        @Index(name = "idx_created_at", columnList = "created_at"),
+        @Index(name = "idx_total_sold", columnList = "total_sold"),
+        @Index(name = "idx_rating", columnList = "rating")
 })
 @Getter
 @Setter
@@ -7,6 +7,11 @@ import org.hibernate.annotations. UpdateTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/**
+ * Projection of a shop's ledger (the transactions table), folded in batches by
+ * LedgerProjector. Entries are never applied to this row one at a time; read balances
+ * through LedgerService, which adds the entries not folded yet.
+ */
 @Entity
 @Table(name = "shop_balances", indexes = {
         @Index(name = "idx_shop_id", columnList = "shop_id")
@@ -38,26 +43,11 @@ public class ShopBalance {
     @Builder.Default
     private BigDecimal totalWithdrawn = BigDecimal. ZERO;
 
+    @Column(nullable = false)
+    @Builder.Default
+    private Long lastEntryId = 0L; // Newest ledger entry of this shop folded into the row
+
     @UpdateTimestamp
     @Column(nullable = false)
     private LocalDateTime updatedAt;
-
-    // ========== HELPER METHODS ==========
-
-    public void addPendingBalance(BigDecimal amount) {
-        this.pendingBalance = this.pendingBalance.add(amount);
-    }
-
-    public void movePendingToAvailable(BigDecimal amount) {
-        this.pendingBalance = this.pendingBalance.subtract(amount);
-        this.availableBalance = this. availableBalance.add(amount);
-    }
-
-    public void withdraw(BigDecimal amount) {
-        if (this.availableBalance.compareTo(amount) < 0) {
-            throw new IllegalStateException("Insufficient balance");
-        }
-        this.availableBalance = this.availableBalance.subtract(amount);
-        this.totalWithdrawn = this.totalWithdrawn.add(amount);
-    }
 }
\ No newline at end of file
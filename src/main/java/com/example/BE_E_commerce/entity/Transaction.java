@@ -1,5 +1,6 @@
 package com.example.BE_E_commerce.entity;
 
+import com.example.BE_E_commerce.id.SnowflakeId;
 import com.example.BE_E_commerce.enums.TransactionStatus;
 import com.example.BE_E_commerce.enums.TransactionType;
 import jakarta. persistence.*;
@@ -9,9 +10,14 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/**
+ * Append-only ledger entry of a shop. Rows are inserted, never updated; their effect on
+ * the balance is defined in LedgerBalance.
+ */
 @Entity
 @Table(name = "transactions", indexes = {
         @Index(name = "idx_shop_id", columnList = "shop_id"),
+        @Index(name = "idx_shop_entry", columnList = "shop_id, id"),
         @Index(name = "idx_type", columnList = "type"),
         @Index(name = "idx_created_at", columnList = "created_at")
 })
@@ -23,7 +29,7 @@ import java.time.LocalDateTime;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -41,12 +47,6 @@ public class Transaction {
     @Column(precision = 15, scale = 2, nullable = false)
     private BigDecimal amount;
 
-    @Column(precision = 15, scale = 2)
-    private BigDecimal balanceBefore;
-
-    @Column(precision = 15, scale = 2)
-    private BigDecimal balanceAfter;
-
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     @Builder.Default
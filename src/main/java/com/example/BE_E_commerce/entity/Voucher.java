@@ -5,6 +5,7 @@ import com.example.BE_E_commerce.enums.VoucherType;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java. math.BigDecimal;
 import java.time.LocalDateTime;
@@ -12,7 +13,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "vouchers", indexes = {
         @Index(name = "idx_code", columnList = "code"),
-        @Index(name = "idx_shop_id", columnList = "shop_id")
+        @Index(name = "idx_shop_id", columnList = "shop_id"),
+        @Index(name = "idx_updated_at", columnList = "updated_at")
 })
 @Getter
 @Setter
@@ -48,6 +50,8 @@ public class Voucher {
 
     private Integer usageLimit;
 
+    private Integer perUserLimit; // NULL = unlimited per user
+
     @Column(nullable = false)
     @Builder.Default
     private Integer usedCount = 0;
@@ -66,6 +70,10 @@ public class Voucher {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt; // Drives incremental reloads of VoucherCatalog; used_count updates skip it
+
     // ========== HELPER METHODS ==========
 
     public boolean isValid() {
@@ -97,6 +105,9 @@ public class Voucher {
         return discount;
     }
 
+    /**
+     * Entity-local counter; redemptions go through VoucherService, which counts in Redis
+     */
     public void incrementUsedCount() {
         this.usedCount++;
         if (usageLimit != null && usedCount >= usageLimit) {
@@ -0,0 +1,41 @@
+package com.example.BE_E_commerce.entity;
+
+import com.example.BE_E_commerce.id.SnowflakeId;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One voucher use by a user, written in the checkout transaction.
+ * Source of the per-user redemption counts when the Redis counters are reseeded.
+ */
+@Entity
+@Table(name = "voucher_redemptions", indexes = {
+        @Index(name = "idx_voucher_user", columnList = "voucher_id, user_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VoucherRedemption {
+
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(name = "voucher_id", nullable = false)
+    private Long voucherId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(unique = true, nullable = false, length = 36)
+    private String claimToken;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,7 @@
+package com.example.BE_E_commerce.enums;
+
+public enum FeedSort {
+    NEWEST,
+    BEST_SELLING,
+    TOP_RATED
+}
@@ -0,0 +1,128 @@
+package com.example.BE_E_commerce.id;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.BE_E_commerce.config.SchedulingConfig.FLUSH_SCHEDULER;
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.idNodeLeaseKey;
+
+/**
+ * Leases a Snowflake node id from Redis when none is configured.
+ *
+ * Each node id is a key set with NX and a TTL, holding this instance's token; the lease is
+ * renewed well inside the TTL. If the key was taken by another instance, or renewal has
+ * failed for half the TTL (Redis unreachable; the key may expire soon), id generation stops
+ * until a lease is held again, since another instance may be issuing ids with the same node.
+ */
+@Component
+@Slf4j
+public class NodeIdLease {
+
+    // KEYS: lease key; ARGV: token, ttl millis
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    // KEYS: lease key; ARGV: token
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String token = UUID.randomUUID().toString();
+
+    // False when the node id is configured explicitly
+    private volatile boolean leasing;
+    // -1 while no lease is held
+    private volatile long nodeId = -1;
+    private volatile long leasedAtMillis;
+
+    @Value("${app.id.lease-ttl:60s}")
+    private Duration leaseTtl;
+
+    public NodeIdLease(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Take the first free node id and configure the shared generator with it
+     *
+     * @throws IllegalStateException when all node ids are leased
+     */
+    public long acquire() {
+        leasing = true;
+        for (long candidate = 0; candidate <= SnowflakeIdGenerator.MAX_NODE_ID; candidate++) {
+            Boolean taken = redisTemplate.opsForValue().setIfAbsent(idNodeLeaseKey(candidate), token, leaseTtl);
+            if (Boolean.TRUE.equals(taken)) {
+                nodeId = candidate;
+                leasedAtMillis = System.currentTimeMillis();
+                SnowflakeIdGenerator.configure(candidate);
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("All " + (SnowflakeIdGenerator.MAX_NODE_ID + 1)
+                + " Snowflake node ids are leased; set app.id.node-id or stop an instance");
+    }
+
+    /**
+     * Extend the lease; re-acquire if it was lost, and stop issuing ids once it has been
+     * unconfirmed for half the TTL
+     */
+    @Scheduled(fixedDelayString = "${app.id.lease-renew-interval:15000}", scheduler = FLUSH_SCHEDULER)
+    public void renew() {
+        if (!leasing) {
+            return;
+        }
+        long current = nodeId;
+        try {
+            if (current >= 0) {
+                Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(idNodeLeaseKey(current)),
+                        token, String.valueOf(leaseTtl.toMillis()));
+                if (renewed != null && renewed == 1) {
+                    leasedAtMillis = System.currentTimeMillis();
+                    return;
+                }
+                log.error("Lease of Snowflake node {} was lost, acquiring a new node id", current);
+                nodeId = -1;
+                SnowflakeIdGenerator.unconfigure();
+            }
+            log.info("Snowflake id node re-leased: {}", acquire());
+        } catch (Exception e) {
+            if (nodeId >= 0 && System.currentTimeMillis() - leasedAtMillis > leaseTtl.toMillis() / 2) {
+                log.error("Snowflake node {} lease unconfirmed too long, no longer issuing ids", nodeId);
+                nodeId = -1;
+                SnowflakeIdGenerator.unconfigure();
+            }
+            log.error("Failed to renew Snowflake node id lease: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void release() {
+        long current = nodeId;
+        if (current < 0) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(idNodeLeaseKey(current)), token);
+        } catch (Exception e) {
+            log.warn("Failed to release Snowflake node {} lease: {}", current, e.getMessage());
+        }
+    }
+}
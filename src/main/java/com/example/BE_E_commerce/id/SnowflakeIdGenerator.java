@@ -0,0 +1,138 @@
+package com.example.BE_E_commerce.id;
+
+import java.time.Instant;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered 52-bit ID allocator (Snowflake layout, sized to stay exact as a JSON number).
+ *
+ * <pre>
+ * | 41 bits: millis since 2024-01-01 | 5 bits: node | 6 bits: sequence |
+ * </pre>
+ *
+ * Each node hands out up to 64 ids per millisecond without any coordination, so ids
+ * are known before the INSERT and Hibernate can batch inserts. Good until 2093.
+ *
+ * The node id must be unique among running instances; it is configured or leased at
+ * startup ({@link NodeIdLease}) and ids cannot be issued before that.
+ */
+public class SnowflakeIdGenerator {
+
+    public static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    static final int NODE_BITS = 5;
+    static final int SEQUENCE_BITS = 6;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    // A clock step back up to this is absorbed; a larger one fails id generation until the clock catches up
+    static final long MAX_CLOCK_BACKWARDS_MILLIS = 10;
+
+    private static volatile SnowflakeIdGenerator instance;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+
+    private long lastMillis = -1;
+    private long sequence;
+
+    public SnowflakeIdGenerator(long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    /**
+     * Shared generator used by entities annotated with {@link SnowflakeId}
+     */
+    public static SnowflakeIdGenerator getInstance() {
+        SnowflakeIdGenerator current = instance;
+        if (current == null) {
+            throw new IllegalStateException("Snowflake node id is not configured");
+        }
+        return current;
+    }
+
+    /**
+     * Replace the shared generator (called at startup with the configured or leased node id)
+     */
+    public static void configure(long nodeId) {
+        instance = new SnowflakeIdGenerator(nodeId);
+    }
+
+    /**
+     * Stop issuing ids, e.g. when the node id lease is lost
+     */
+    static void unconfigure() {
+        instance = null;
+    }
+
+    public synchronized long nextId() {
+        long now = clock.getAsLong();
+
+        // Small step back (NTP slew): keep issuing from the last timestamp; a large one is refused
+        if (now < lastMillis) {
+            checkClockBackwards(now);
+            now = lastMillis;
+        }
+
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & MAX_SEQUENCE;
+            if (sequence == 0) {
+                now = waitNextMillis(lastMillis);
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+
+        return ((now - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS))
+                | (nodeId << SEQUENCE_BITS)
+                | sequence;
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Creation time encoded in an id
+     */
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS);
+    }
+
+    /**
+     * Smallest id any node can issue at the given time (a lower bound for id range scans)
+     */
+    public static long firstIdAt(Instant instant) {
+        return (instant.toEpochMilli() - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS);
+    }
+
+    /**
+     * Spin to the next millisecond; bounded, since a borrowed timestamp is at most
+     * MAX_CLOCK_BACKWARDS_MILLIS ahead of the clock
+     */
+    private long waitNextMillis(long lastMillis) {
+        long now = clock.getAsLong();
+        while (now <= lastMillis) {
+            checkClockBackwards(now);
+            Thread.onSpinWait();
+            now = clock.getAsLong();
+        }
+        return now;
+    }
+
+    private void checkClockBackwards(long now) {
+        long behind = lastMillis - now;
+        if (behind > MAX_CLOCK_BACKWARDS_MILLIS) {
+            throw new IllegalStateException("Clock moved backwards by " + behind + " ms, refusing to issue ids");
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.BE_E_commerce.listener;
+
+import com.example.BE_E_commerce.service.DomainEvent;
+import com.example.BE_E_commerce.service.NotificationDispatcher;
+import com.example.BE_E_commerce.service.NotificationDispatcher.Duplicates;
+import com.example.BE_E_commerce.service.NotificationDispatcher.Event;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Side effects of order events, run by the outbox relay instead of the request thread
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderEventListener {
+
+    private final NotificationDispatcher notificationDispatcher;
+
+    /**
+     * Tell the shop owner about the new order; DROP keeps a redelivered event from notifying twice.
+     * Throws when the dispatcher queue sheds a recipient, so the relay retries the event.
+     */
+    @EventListener
+    public void onOrderPlaced(DomainEvent event) {
+        if (!DomainEvent.ORDER_PLACED.equals(event.type())) {
+            return;
+        }
+        JsonNode order = event.payload();
+        List<Long> recipients = List.of(order.path("sellerId").asLong());
+        int accepted = notificationDispatcher.publish(new Event("NEW_ORDER", "New order",
+                "Order " + order.path("orderCode").asText() + " was placed at " + order.path("shopName").asText(),
+                Long.valueOf(event.aggregateId()), "ORDER", recipients, Duplicates.DROP));
+        if (accepted < recipients.size()) {
+            throw new IllegalStateException("Notification queue full, " + (recipients.size() - accepted)
+                    + " of " + recipients.size() + " NEW_ORDER recipients dropped for order " + event.aggregateId());
+        }
+    }
+}
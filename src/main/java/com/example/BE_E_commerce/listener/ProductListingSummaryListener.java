@@ -0,0 +1,114 @@
+package com.example.BE_E_commerce.listener;
+
+import com.example.BE_E_commerce.entity.Product;
+import com.example.BE_E_commerce.entity.ProductImage;
+import com.example.BE_E_commerce.entity.ProductVariant;
+import com.example.BE_E_commerce.entity.Review;
+import com.example.BE_E_commerce.service.ProductListingSummaryService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps product_listing_summary in sync with product, variant, image and review writes.
+ * Changed product IDs are collected per transaction and refreshed once after commit.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductListingSummaryListener {
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    // Lazy lookup: Hibernate creates this listener while the repositories are still being built
+    private final ObjectProvider<ProductListingSummaryService> summaryService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        Long productId = productIdOf(entity);
+        if (productId == null) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            summaryService.getObject().refresh(List.of(productId));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Long> productIds = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, productIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    summaryService.getObject().refresh(productIds);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ProductListingSummaryListener.this);
+                }
+            });
+            pending = productIds;
+        }
+        pending.add(productId);
+    }
+
+    /**
+     * Build summaries for products created before the read model existed; ranked listings
+     * switch to the summary table once this is done
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillMissingSummaries() {
+        ProductListingSummaryService service = summaryService.getObject();
+        try {
+            List<Long> productIds = service.findProductIdsWithoutSummary(BACKFILL_BATCH_SIZE);
+            int total = 0;
+            while (!productIds.isEmpty()) {
+                service.refresh(productIds);
+                total += productIds.size();
+                productIds = service.findProductIdsWithoutSummary(BACKFILL_BATCH_SIZE);
+            }
+            service.markBackfilled();
+            if (total > 0) {
+                log.info("Listing summary backfilled for {} products", total);
+            }
+        } catch (Exception e) {
+            log.error("Listing summary backfill failed: {}", e.getMessage());
+        }
+    }
+
+    private Long productIdOf(Object entity) {
+        if (entity instanceof Product product) {
+            return product.getId();
+        }
+        if (entity instanceof ProductVariant variant && variant.getProduct() != null) {
+            return variant.getProduct().getId();
+        }
+        if (entity instanceof ProductImage image && image.getProduct() != null) {
+            return image.getProduct().getId();
+        }
+        if (entity instanceof Review review && review.getProduct() != null) {
+            return review.getProduct().getId();
+        }
+        return null;
+    }
+}
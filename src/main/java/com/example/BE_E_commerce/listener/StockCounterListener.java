@@ -0,0 +1,53 @@
+package com.example.BE_E_commerce.listener;
+
+import com.example.BE_E_commerce.entity.ProductVariant;
+import com.example.BE_E_commerce.service.StockReservationService;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Drops the Redis stock counter of a variant written through JPA (restock, admin edit)
+ * once the write has committed, so the next reservation reseeds it from MySQL.
+ * The write-behind flush updates stock with JDBC and does not come through here.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockCounterListener {
+
+    // Lazy lookup: Hibernate creates this listener while the repositories are still being built
+    private final ObjectProvider<StockReservationService> stockReservationService;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(ProductVariant variant) {
+        Long variantId = variant.getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(variantId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(variantId);
+            }
+        });
+    }
+
+    private void invalidate(Long variantId) {
+        try {
+            stockReservationService.getObject().invalidate(List.of(variantId));
+        } catch (Exception e) {
+            // The counter TTL still brings it back in line
+            log.error("Failed to drop stock counter of variant {}: {}", variantId, e.getMessage());
+        }
+    }
+}
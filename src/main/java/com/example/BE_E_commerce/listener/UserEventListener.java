@@ -0,0 +1,52 @@
+package com.example.BE_E_commerce.listener;
+
+import com.example.BE_E_commerce.entity.User;
+import com.example.BE_E_commerce.mapper.UserMapper;
+import com.example.BE_E_commerce.repository.UserRepository;
+import com.example.BE_E_commerce.service.DomainEvent;
+import com.example.BE_E_commerce.service.EmailService;
+import com.example.BE_E_commerce.service.RedisService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.TTL_USER_SESSION;
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.userSessionKey;
+
+/**
+ * Side effects of user events, run by the outbox relay instead of the request thread
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserEventListener {
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final RedisService redisService;
+    private final EmailService emailService;
+
+    /**
+     * Cache the new user's session and queue the welcome email; it is sent on the async
+     * executor, outside the relay's transaction and scheduler
+     */
+    @EventListener
+    public void onUserRegistered(DomainEvent event) {
+        if (!DomainEvent.USER_REGISTERED.equals(event.type())) {
+            return;
+        }
+        Optional<User> user = userRepository.findById(Long.valueOf(event.aggregateId()));
+        if (user.isEmpty()) {
+            log.warn("Skipping {} event {}: user {} no longer exists", event.type(), event.id(), event.aggregateId());
+            return;
+        }
+
+        redisService.set(userSessionKey(user.get().getId()), userMapper.toResponse(user.get()),
+                TTL_USER_SESSION, TimeUnit.SECONDS);
+        emailService.sendWelcomeEmail(user.get().getEmail(), user.get().getFullName(), user.get().getUsername());
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.BE_E_commerce.listener;
+
+import com.example.BE_E_commerce.service.PresenceService;
+import com.example.BE_E_commerce.util.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+/**
+ * Feeds STOMP session lifecycle and inbound traffic (heartbeats included) into presence
+ */
+@Component
+@RequiredArgsConstructor
+public class WebSocketPresenceListener implements ChannelInterceptor {
+
+    private final PresenceService presenceService;
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        SecurityUtils.getUserId(event.getUser()).ifPresent(presenceService::connected);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        SecurityUtils.getUserId(event.getUser()).ifPresent(presenceService::disconnected);
+    }
+
+    /**
+     * Runs for every inbound frame after it was handled; only marks the user locally
+     */
+    @Override
+    public void afterSendCompletion(@NonNull Message<?> message, @NonNull MessageChannel channel,
+                                    boolean sent, Exception ex) {
+        SecurityUtils.getUserId(SimpMessageHeaderAccessor.getUser(message.getHeaders()))
+                .ifPresent(presenceService::heartbeat);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.BE_E_commerce.mapper;
+
+import com.example.BE_E_commerce.dto.response.OrderItemResponse;
+import com.example.BE_E_commerce.dto.response.OrderResponse;
+import com.example.BE_E_commerce.entity.Order;
+import com.example.BE_E_commerce.entity.OrderItem;
+import org.mapstruct.*;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface OrderMapper {
+
+    /**
+     * Entity to Response (items are set by the caller)
+     */
+    @Mapping(source = "shop.id", target = "shopId")
+    @Mapping(source = "shop.name", target = "shopName")
+    @Mapping(target = "items", ignore = true)
+    OrderResponse toResponse(Order order);
+
+    @Mapping(source = "product.id", target = "productId")
+    @Mapping(source = "productVariant.id", target = "variantId")
+    OrderItemResponse toItemResponse(OrderItem item);
+
+    List<OrderItemResponse> toItemResponseList(List<OrderItem> items);
+}
@@ -1,9 +1,33 @@
 package com.example.BE_E_commerce.repository;
 
+import com.example.BE_E_commerce.dto.response.CartLineView;
 import com.example.BE_E_commerce.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem,Long> {
+
+    // Cart lines with everything the cart page shows, in one query
+    @Query("SELECT new com.example.BE_E_commerce.dto.response.CartLineView(" +
+            "v.id, v.sku, v.color, v.size, v.price, v.stockQuantity, v.isActive, " +
+            "p.id, p.name, p.status, ps.thumbnailUrl, s.id, s.name, i.quantity) " +
+            "FROM CartItem i " +
+            "JOIN i.productVariant v " +
+            "JOIN v.product p " +
+            "JOIN p.shop s " +
+            "LEFT JOIN ProductListingSummary ps ON ps.productId = p.id " +
+            "WHERE i.cart.user.id = :userId " +
+            "ORDER BY s.id, i.addedAt")
+    List<CartLineView> findCartLinesByUserId(@Param("userId") Long userId);
+
+    // Empty a cart in one statement
+    @Modifying
+    @Query("DELETE FROM CartItem i WHERE i.cart.id = :cartId")
+    int deleteByCartId(@Param("cartId") Long cartId);
 }
@@ -2,8 +2,25 @@ package com.example.BE_E_commerce.repository;
 
 import com.example.BE_E_commerce.entity.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface CartRepository extends JpaRepository<Cart,Long> {
+
+    // Cart with items, variants, products and shops in one query (checkout)
+    @Query("SELECT DISTINCT c FROM Cart c " +
+            "LEFT JOIN FETCH c.items i " +
+            "LEFT JOIN FETCH i.productVariant v " +
+            "LEFT JOIN FETCH v.product p " +
+            "LEFT JOIN FETCH p.shop " +
+            "WHERE c.user.id = :userId")
+    Optional<Cart> findByUserIdWithItems(@Param("userId") Long userId);
+
+    // Cart with its item rows only (write-behind sync)
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.items WHERE c.user.id = :userId")
+    Optional<Cart> findByUserIdFetchItems(@Param("userId") Long userId);
 }
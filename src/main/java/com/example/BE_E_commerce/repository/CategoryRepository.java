@@ -40,6 +40,10 @@ public interface CategoryRepository extends JpaRepository<Category,Long> {
     @Query("SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId")
     Long countProductsByCategoryId(@Param("categoryId") Long categoryId);
 
+    // Count products of every category in one grouped query (for the category tree index)
+    @Query("SELECT p.category.id AS categoryId, COUNT(p) AS productCount FROM Product p GROUP BY p.category.id")
+    List<CategoryProductCount> countProductsGroupedByCategory();
+
     // Find all descendants of a category (including nested children)
     @Query("SELECT c FROM Category c WHERE c.parent.id = :parentId OR c.parent.parent.id = :parentId")
     List<Category> findAllDescendants(@Param("parentId") Long parentId);
@@ -47,4 +51,11 @@ public interface CategoryRepository extends JpaRepository<Category,Long> {
     // Check if category has children
     boolean existsByParentId(Long parentId);
 
+    /**
+     * Product count of a single category (projection)
+     */
+    interface CategoryProductCount {
+        Long getCategoryId();
+        Long getProductCount();
+    }
 }
@@ -0,0 +1,25 @@
+package com.example.BE_E_commerce.repository;
+
+import com.example.BE_E_commerce.entity.Conversation;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ConversationRepository extends JpaRepository<Conversation, Long> {
+
+    @EntityGraph(attributePaths = {"shop", "buyer"})
+    Optional<Conversation> findByBuyerIdAndShopId(Long buyerId, Long shopId);
+
+    // Conversations the user takes part in, as buyer or as seller
+    @EntityGraph(attributePaths = {"shop", "buyer"})
+    @Query(value = "SELECT c FROM Conversation c WHERE c.buyer.id = :userId OR c.seller.id = :userId",
+            countQuery = "SELECT COUNT(c) FROM Conversation c WHERE c.buyer.id = :userId OR c.seller.id = :userId")
+    Page<Conversation> findByParticipant(@Param("userId") Long userId, Pageable pageable);
+}
@@ -0,0 +1,31 @@
+package com.example.BE_E_commerce.repository;
+
+import com.example.BE_E_commerce.entity.JobCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+
+    // Create the checkpoint at position 0 the first time a job runs
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO job_checkpoints (name, position, updated_at) VALUES (:name, 0, NOW())",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name);
+
+    // Held until the job's transaction ends: one node at a time advances a checkpoint
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM JobCheckpoint c WHERE c.name = :name")
+    Optional<JobCheckpoint> findByNameForUpdate(@Param("name") String name);
+
+    // Empty while another node holds the checkpoint, instead of waiting for it
+    @Query(value = "SELECT * FROM job_checkpoints WHERE name = :name FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<JobCheckpoint> findByNameForUpdateSkipLocked(@Param("name") String name);
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +15,9 @@ public interface ProductImageRepository extends JpaRepository<ProductImage,Long>
     // Find by product
     List<ProductImage> findByProductIdOrderByDisplayOrderAsc(Long productId);
 
+    // Find images of many products at once (batched listing enrichment)
+    List<ProductImage> findByProductIdInOrderByDisplayOrderAsc(Collection<Long> productIds);
+
     // Find primary image
     Optional<ProductImage> findByProductIdAndIsPrimaryTrue(Long productId);
 
@@ -0,0 +1,70 @@
+package com.example.BE_E_commerce.repository;
+
+import com.example.BE_E_commerce.entity.ProductListingSummary;
+import com.example.BE_E_commerce.enums.ProductStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductListingSummaryRepository extends JpaRepository<ProductListingSummary, Long> {
+
+    // Find products that have no listing summary yet (for backfill)
+    @Query("SELECT p.id FROM Product p WHERE NOT EXISTS " +
+            "(SELECT s.productId FROM ProductListingSummary s WHERE s.productId = p.id) ORDER BY p.id")
+    List<Long> findProductIdsWithoutSummary(Pageable pageable);
+
+    // Find by status (sort keys are the summary's own columns)
+    Page<ProductListingSummary> findByStatus(ProductStatus status, Pageable pageable);
+
+    // Get best sellers (top sold products)
+    @Query("SELECT s FROM ProductListingSummary s WHERE s.status = :status " +
+            "ORDER BY s.totalSold DESC, s.productId DESC")
+    Page<ProductListingSummary> findBestSellers(@Param("status") ProductStatus status, Pageable pageable);
+
+    // Get new arrivals
+    @Query("SELECT s FROM ProductListingSummary s WHERE s.status = :status " +
+            "ORDER BY s.createdAt DESC, s.productId DESC")
+    Page<ProductListingSummary> findNewArrivals(@Param("status") ProductStatus status, Pageable pageable);
+
+    // Get top rated products
+    @Query("SELECT s FROM ProductListingSummary s WHERE s.status = :status AND s.averageRating >= :minRating " +
+            "ORDER BY s.averageRating DESC, s.productId DESC")
+    Page<ProductListingSummary> findTopRated(@Param("status") ProductStatus status,
+                                             @Param("minRating") Double minRating,
+                                             Pageable pageable);
+
+    // ========== KEYSET (CURSOR) FEEDS ==========
+    // Each query reads the page after (sortKey, productId); pass upper bounds for the first page.
+    // Pageable only limits the result, so no count query is issued.
+
+    @Query("SELECT s FROM ProductListingSummary s WHERE s.status = :status " +
+            "AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.productId < :id)) " +
+            "ORDER BY s.createdAt DESC, s.productId DESC")
+    List<ProductListingSummary> findFeedByCreatedAt(@Param("status") ProductStatus status,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") Long id,
+                                                    Pageable pageable);
+
+    @Query("SELECT s FROM ProductListingSummary s WHERE s.status = :status " +
+            "AND (s.totalSold < :totalSold OR (s.totalSold = :totalSold AND s.productId < :id)) " +
+            "ORDER BY s.totalSold DESC, s.productId DESC")
+    List<ProductListingSummary> findFeedByTotalSold(@Param("status") ProductStatus status,
+                                                    @Param("totalSold") Long totalSold,
+                                                    @Param("id") Long id,
+                                                    Pageable pageable);
+
+    @Query("SELECT s FROM ProductListingSummary s WHERE s.status = :status " +
+            "AND (s.averageRating < :averageRating OR (s.averageRating = :averageRating AND s.productId < :id)) " +
+            "ORDER BY s.averageRating DESC, s.productId DESC")
+    List<ProductListingSummary> findFeedByAverageRating(@Param("status") ProductStatus status,
+                                                        @Param("averageRating") Double averageRating,
+                                                        @Param("id") Long id,
+                                                        Pageable pageable);
+}
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -43,22 +44,33 @@ public interface ProductRepository  extends JpaRepository<Product,Long> {
     // Find active products by multiple categories (parent + subcategories)
     Page<Product> findByCategoryIdInAndStatus(List<Long> categoryIds, ProductStatus status, Pageable pageable);
 
-    // Search by name (simple)
-    @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) AND p.status = :status")
-    Page<Product> searchByName(@Param("keyword") String keyword,
+    /**
+     * Full-text search on the folded product name, ranked by relevance.
+     * fullTextQuery is a BOOLEAN MODE query ('' to skip the FULLTEXT match),
+     * keyword is a folded LIKE fallback for terms shorter than the ngram size (null to skip).
+     */
+    @Query("SELECT p FROM Product p " +
+            "WHERE (:fullTextQuery = '' OR FUNCTION('match_against', p.searchText, :fullTextQuery) > 0) " +
+            "AND (:keyword IS NULL OR p.searchText LIKE CONCAT('%', :keyword, '%')) " +
+            "AND p.status = :status " +
+            "ORDER BY FUNCTION('match_against', p.searchText, :fullTextQuery) DESC, p.totalSold DESC, p.id DESC")
+    Page<Product> searchByName(@Param("fullTextQuery") String fullTextQuery,
+                               @Param("keyword") String keyword,
                                @Param("status") ProductStatus status,
                                Pageable pageable);
 
-    // Advanced search with filters - for non-price sorting
+    // Advanced search with filters - for non-price sorting (keyword params as in searchByName)
     @Query("SELECT DISTINCT p FROM Product p " +
             "LEFT JOIN p.variants v " +
-            "WHERE (:keyword IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+            "WHERE (:fullTextQuery = '' OR FUNCTION('match_against', p.searchText, :fullTextQuery) > 0) " +
+            "AND (:keyword IS NULL OR p.searchText LIKE CONCAT('%', :keyword, '%')) " +
             "AND (:categoryIds IS NULL OR p.category.id IN :categoryIds) " +
             "AND (:shopId IS NULL OR p.shop.id = :shopId) " +
             "AND (:minPrice IS NULL OR v.price >= :minPrice) " +
             "AND (:maxPrice IS NULL OR v.price <= :maxPrice) " +
             "AND p.status = :status")
-    Page<Product> searchWithFilters(@Param("keyword") String keyword,
+    Page<Product> searchWithFilters(@Param("fullTextQuery") String fullTextQuery,
+                                    @Param("keyword") String keyword,
                                     @Param("categoryIds") List<Long> categoryIds,
                                     @Param("shopId") Long shopId,
                                     @Param("minPrice") BigDecimal minPrice,
@@ -69,14 +81,16 @@ public interface ProductRepository  extends JpaRepository<Product,Long> {
     // Advanced search with price sorting (ASC)
     @Query("SELECT DISTINCT p FROM Product p " +
             "LEFT JOIN p.variants v " +
-            "WHERE (:keyword IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+            "WHERE (:fullTextQuery = '' OR FUNCTION('match_against', p.searchText, :fullTextQuery) > 0) " +
+            "AND (:keyword IS NULL OR p.searchText LIKE CONCAT('%', :keyword, '%')) " +
             "AND (:categoryIds IS NULL OR p.category.id IN :categoryIds) " +
             "AND (:shopId IS NULL OR p.shop.id = :shopId) " +
             "AND (:minPrice IS NULL OR v.price >= :minPrice) " +
             "AND (:maxPrice IS NULL OR v.price <= :maxPrice) " +
             "AND p.status = :status " +
             "ORDER BY (SELECT MIN(v2.price) FROM ProductVariant v2 WHERE v2.product = p) ASC")
-    Page<Product> searchWithFiltersOrderByPriceAsc(@Param("keyword") String keyword,
+    Page<Product> searchWithFiltersOrderByPriceAsc(@Param("fullTextQuery") String fullTextQuery,
+                                                   @Param("keyword") String keyword,
                                                      @Param("categoryIds") List<Long> categoryIds,
                                                      @Param("shopId") Long shopId,
                                                      @Param("minPrice") BigDecimal minPrice,
@@ -87,14 +101,16 @@ public interface ProductRepository  extends JpaRepository<Product,Long> {
     // Advanced search with price sorting (DESC)
     @Query("SELECT DISTINCT p FROM Product p " +
             "LEFT JOIN p.variants v " +
-            "WHERE (:keyword IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+            "WHERE (:fullTextQuery = '' OR FUNCTION('match_against', p.searchText, :fullTextQuery) > 0) " +
+            "AND (:keyword IS NULL OR p.searchText LIKE CONCAT('%', :keyword, '%')) " +
             "AND (:categoryIds IS NULL OR p.category.id IN :categoryIds) " +
             "AND (:shopId IS NULL OR p.shop.id = :shopId) " +
             "AND (:minPrice IS NULL OR v.price >= :minPrice) " +
             "AND (:maxPrice IS NULL OR v.price <= :maxPrice) " +
             "AND p.status = :status " +
             "ORDER BY (SELECT MIN(v2.price) FROM ProductVariant v2 WHERE v2.product = p) DESC")
-    Page<Product> searchWithFiltersOrderByPriceDesc(@Param("keyword") String keyword,
+    Page<Product> searchWithFiltersOrderByPriceDesc(@Param("fullTextQuery") String fullTextQuery,
+                                                    @Param("keyword") String keyword,
                                                       @Param("categoryIds") List<Long> categoryIds,
                                                       @Param("shopId") Long shopId,
                                                       @Param("minPrice") BigDecimal minPrice,
@@ -102,20 +118,51 @@ public interface ProductRepository  extends JpaRepository<Product,Long> {
                                                       @Param("status") ProductStatus status,
                                                       Pageable pageable);
 
+    // Ranked listings used until the listing summary is backfilled
+
     // Get best sellers (top sold products)
-    @Query("SELECT p FROM Product p WHERE p.status = :status ORDER BY p.totalSold DESC")
+    @Query("SELECT p FROM Product p WHERE p.status = :status ORDER BY p.totalSold DESC, p.id DESC")
     Page<Product> findBestSellers(@Param("status") ProductStatus status, Pageable pageable);
 
     // Get new arrivals
-    @Query("SELECT p FROM Product p WHERE p.status = :status ORDER BY p.createdAt DESC")
+    @Query("SELECT p FROM Product p WHERE p.status = :status ORDER BY p.createdAt DESC, p.id DESC")
     Page<Product> findNewArrivals(@Param("status") ProductStatus status, Pageable pageable);
 
     // Get top rated products
-    @Query("SELECT p FROM Product p WHERE p.status = : status AND p.averageRating >= :minRating ORDER BY p. averageRating DESC")
+    @Query("SELECT p FROM Product p WHERE p.status = :status AND p.averageRating >= :minRating " +
+            "ORDER BY p.averageRating DESC, p.id DESC")
     Page<Product> findTopRated(@Param("status") ProductStatus status,
                                @Param("minRating") Double minRating,
                                Pageable pageable);
 
+    // ========== KEYSET (CURSOR) FEEDS ==========
+    // Each query reads the page after (sortKey, id); pass upper bounds for the first page.
+    // Pageable only limits the result, so no count query is issued.
+
+    @Query("SELECT p FROM Product p WHERE p.status = :status " +
+            "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Product> findFeedByCreatedAt(@Param("status") ProductStatus status,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.status = :status " +
+            "AND (p.totalSold < :totalSold OR (p.totalSold = :totalSold AND p.id < :id)) " +
+            "ORDER BY p.totalSold DESC, p.id DESC")
+    List<Product> findFeedByTotalSold(@Param("status") ProductStatus status,
+                                      @Param("totalSold") Long totalSold,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    @Query("SELECT p FROM Product p WHERE p.status = :status " +
+            "AND (p.averageRating < :averageRating OR (p.averageRating = :averageRating AND p.id < :id)) " +
+            "ORDER BY p.averageRating DESC, p.id DESC")
+    List<Product> findFeedByAverageRating(@Param("status") ProductStatus status,
+                                          @Param("averageRating") Double averageRating,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
     // Get related products (same category, exclude current)
     @Query("SELECT p FROM Product p WHERE p.category.id = :categoryId AND p.id <> :productId AND p.status = :status")
     List<Product> findRelatedProducts(@Param("categoryId") Long categoryId,
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +22,9 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,L
     // Find active variants by product
     List<ProductVariant> findByProductIdAndIsActiveTrue(Long productId);
 
+    // Find active variants of many products at once (batched listing enrichment)
+    List<ProductVariant> findByProductIdInAndIsActiveTrue(Collection<Long> productIds);
+
     // Get min price of product
     @Query("SELECT MIN(v.price) FROM ProductVariant v WHERE v.product.id = :productId AND v.isActive = true")
     BigDecimal findMinPriceByProductId(@Param("productId") Long productId);
@@ -33,6 +37,14 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,L
     @Query("SELECT SUM(v.stockQuantity) FROM ProductVariant v WHERE v.product.id = :productId AND v.isActive = true")
     Integer sumStockByProductId(@Param("productId") Long productId);
 
+    // Variants with product and shop in one query (cart display)
+    @Query("SELECT v FROM ProductVariant v JOIN FETCH v.product p JOIN FETCH p.shop WHERE v.id IN :variantIds")
+    List<ProductVariant> findWithProductAndShopByIdIn(@Param("variantIds") Collection<Long> variantIds);
+
+    // Products owning the given variants
+    @Query("SELECT DISTINCT v.product.id FROM ProductVariant v WHERE v.id IN :variantIds")
+    List<Long> findProductIdsByVariantIds(@Param("variantIds") Collection<Long> variantIds);
+
     // Check SKU exists
     boolean existsBySku(String sku);
 }
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -28,4 +29,22 @@ public interface ReviewRepository extends JpaRepository<Review,Long> {
 
     // Count reviews
     long countByProductIdAndStatus(Long productId, ReviewStatus status);
+
+    // Average rating and review count of many products at once (batched listing enrichment)
+    @Query("SELECT r.product.id AS productId, AVG(r.rating) AS averageRating, COUNT(r) AS reviewCount " +
+            "FROM Review r WHERE r.product.id IN :productIds AND r.status = :status " +
+            "GROUP BY r.product.id")
+    List<RatingAggregate> aggregateRatingsByProductIds(@Param("productIds") Collection<Long> productIds,
+                                                       @Param("status") ReviewStatus status);
+
+    /**
+     * Per-product rating aggregate
+     */
+    interface RatingAggregate {
+        Long getProductId();
+
+        Double getAverageRating();
+
+        Long getReviewCount();
+    }
 }
@@ -1,9 +1,23 @@
 package com.example.BE_E_commerce.repository;
 
 import com.example.BE_E_commerce.entity.ShopBalance;
-import org.hibernate.type.descriptor.converter.spi.JpaAttributeConverter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
-public interface ShopBalanceRepository  extends JpaAttributeConverter<ShopBalance,Long> {
+public interface ShopBalanceRepository extends JpaRepository<ShopBalance, Long> {
+
+    @Query("SELECT b FROM ShopBalance b WHERE b.shop.id = :shopId")
+    Optional<ShopBalance> findByShopId(@Param("shopId") Long shopId);
+
+    // Withdrawals only: they must not spend the same funds twice
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM ShopBalance b WHERE b.shop.id = :shopId")
+    Optional<ShopBalance> findByShopIdForUpdate(@Param("shopId") Long shopId);
 }
@@ -13,6 +13,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -70,4 +72,31 @@ public interface ShopRepository extends JpaRepository<Shop, Long>,
 
     // Count active shops
     long countByStatus(ShopStatus status);
-}
\ No newline at end of file
+
+    // ========== KEYSET (CURSOR) FEEDS ==========
+    // Same contract as the product feeds: page after (sortKey, id), no count query.
+
+    @Query("SELECT s FROM Shop s WHERE s.status = :status " +
+            "AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id)) " +
+            "ORDER BY s.createdAt DESC, s.id DESC")
+    List<Shop> findFeedByCreatedAt(@Param("status") ShopStatus status,
+                                   @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id,
+                                   Pageable pageable);
+
+    @Query("SELECT s FROM Shop s WHERE s.status = :status " +
+            "AND (s.totalSold < :totalSold OR (s.totalSold = :totalSold AND s.id < :id)) " +
+            "ORDER BY s.totalSold DESC, s.id DESC")
+    List<Shop> findFeedByTotalSold(@Param("status") ShopStatus status,
+                                   @Param("totalSold") Integer totalSold,
+                                   @Param("id") Long id,
+                                   Pageable pageable);
+
+    @Query("SELECT s FROM Shop s WHERE s.status = :status " +
+            "AND (s.rating < :rating OR (s.rating = :rating AND s.id < :id)) " +
+            "ORDER BY s.rating DESC, s.id DESC")
+    List<Shop> findFeedByRating(@Param("status") ShopStatus status,
+                                @Param("rating") BigDecimal rating,
+                                @Param("id") Long id,
+                                Pageable pageable);
+}
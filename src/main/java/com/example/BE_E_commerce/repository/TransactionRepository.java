@@ -0,0 +1,9 @@
+package com.example.BE_E_commerce.repository;
+
+import com.example.BE_E_commerce.entity.Transaction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+}
@@ -2,6 +2,7 @@ package com.example.BE_E_commerce.repository;
 
 import com.example.BE_E_commerce.entity.User;
 import com.example.BE_E_commerce.enums.AuthProvider;
+import com.example.BE_E_commerce.enums.UserStatus;
 import io.lettuce.core.dynamic.annotation.Param;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -19,6 +20,10 @@ public interface UserRepository extends JpaRepository<User,Long> {
     @Query("SELECT u FROM User u WHERE u.username = :identifier OR u.email = :identifier")
     Optional<User> findByUsernameOrEmail(String identifier);
 
+    // Status only (for the JWT principal status check)
+    @Query("SELECT u.status FROM User u WHERE u.id = :id")
+    Optional<UserStatus> findStatusById(Long id);
+
      Boolean existsByUsername(String username);
 
      Boolean existsByEmail(String email);
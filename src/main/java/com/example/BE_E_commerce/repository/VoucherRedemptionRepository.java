@@ -0,0 +1,27 @@
+package com.example.BE_E_commerce.repository;
+
+import com.example.BE_E_commerce.entity.VoucherRedemption;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface VoucherRedemptionRepository extends JpaRepository<VoucherRedemption, Long> {
+
+    // Redemptions of a voucher per user (seeds the Redis per-user hash)
+    @Query("SELECT r.userId AS userId, COUNT(r) AS redemptions FROM VoucherRedemption r " +
+            "WHERE r.voucherId = :voucherId GROUP BY r.userId")
+    List<UserRedemptions> countByUser(@Param("voucherId") Long voucherId);
+
+    /**
+     * Redemption count of one user
+     */
+    interface UserRedemptions {
+        Long getUserId();
+
+        Long getRedemptions();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.BE_E_commerce.repository;
+
+import com.example.BE_E_commerce.entity.Voucher;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface VoucherRepository extends JpaRepository<Voucher, Long> {
+
+    // Active vouchers that have not ended yet, with their shop id (no shop join)
+    @Query("SELECT v FROM Voucher v WHERE v.isActive = true AND v.endDate > :now")
+    List<Voucher> findActiveEndingAfter(@Param("now") LocalDateTime now);
+
+    // Vouchers edited since the given time, active or not (incremental catalog refresh)
+    @Query("SELECT v FROM Voucher v WHERE v.updatedAt >= :since")
+    List<Voucher> findUpdatedSince(@Param("since") LocalDateTime since);
+
+    // Persisted redemption count (seeds the Redis counter)
+    @Query("SELECT v.usedCount FROM Voucher v WHERE v.id = :id")
+    Integer findUsedCountById(@Param("id") Long id);
+}
@@ -0,0 +1,87 @@
+package com.example.BE_E_commerce.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Optional;
+
+/**
+ * Turns a bearer token into an authentication, shared by the HTTP filter and
+ * the STOMP CONNECT interceptor so both apply the same revocation and lock checks.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JwtAuthenticator {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserStatusCache userStatusCache;
+
+    @Value("${jwt.stateless-principal:true}")
+    private boolean statelessPrincipal;
+
+    /**
+     * Authenticate a raw JWT; empty if it is invalid, revoked or belongs to a locked user
+     */
+    public Optional<UsernamePasswordAuthenticationToken> authenticate(String jwt) {
+        if (!StringUtils.hasText(jwt)) {
+            return Optional.empty();
+        }
+
+        // Validate token and read its claims in one parse (cached per token)
+        Claims claims = jwtTokenProvider.resolveClaims(jwt);
+        if (claims == null) {
+            return Optional.empty();
+        }
+
+        // Check revocation (answered locally unless the Bloom filter says "maybe")
+        if (tokenRevocationService.isRevoked(claims, jwt)) {
+            log.warn("Token is revoked: {}", claims.getId());
+            return Optional.empty();
+        }
+
+        // Locked users are rejected even with a valid token
+        UserDetails userDetails = resolveUserDetails(claims);
+        if (userDetails == null || !userDetails.isAccountNonLocked()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new UsernamePasswordAuthenticationToken(
+                userDetails,
+                null,
+                userDetails.getAuthorities()
+        ));
+    }
+
+    /**
+     * Extract the token from an "Authorization: Bearer ..." header value
+     */
+    public static String extractBearer(String header) {
+        if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
+            return header.substring(7); // Remove "Bearer " prefix
+        }
+        return null;
+    }
+
+    /**
+     * Build the principal from claims (stateless mode), or load it from the DB.
+     * Tokens issued before userId/roles claims existed always use the DB.
+     */
+    private UserDetails resolveUserDetails(Claims claims) {
+        Long userId = claims.get("userId", Long.class);
+        if (statelessPrincipal && userId != null && claims.get("roles") != null) {
+            return userStatusCache.getStatus(userId)
+                    .map(status -> UserDetailsImpl.fromClaims(claims, status))
+                    .orElse(null);
+        }
+        return userDetailsService.loadUserByUsername(claims.getSubject());
+    }
+}
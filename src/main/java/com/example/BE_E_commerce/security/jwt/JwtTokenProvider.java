@@ -1,5 +1,8 @@
 package com.example.BE_E_commerce.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -11,7 +14,13 @@ import org. springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util. Date;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util. stream.Collectors;
 
 @Component
@@ -24,12 +33,46 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
+    @Value("${jwt.claims-cache.max-ttl:10m}")
+    private Duration claimsCacheMaxTtl;
+
     private SecretKey key;
 
+    // Parser is immutable and thread-safe, so it is built once
+    private JwtParser jwtParser;
+
+    // SHA-256 digest of an already verified token -> its claims
+    private Cache<String, Claims> verifiedClaimsCache;
+
     @PostConstruct
     public void init() {
         // Create key from secret
         this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        this.verifiedClaimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        return untilTokenExpiry(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return untilTokenExpiry(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
         log.info("JWT Secret Key initialized");
     }
 
@@ -52,6 +95,9 @@ public class JwtTokenProvider {
                 .claim("userId", userDetails.getId())
                 .claim("roles", roles)
                 .claim("email", userDetails.getEmail())
+                .claim("name", userDetails.getFullName())
+                .claim("emailVerified", userDetails.getEmailVerified())
+                .id(UUID.randomUUID().toString()) // jti, used for revocation
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(key)
@@ -67,6 +113,7 @@ public class JwtTokenProvider {
 
         return Jwts.builder()
                 .subject(username)
+                .id(UUID.randomUUID().toString()) // jti, used for revocation
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(key)
@@ -78,11 +125,7 @@ public class JwtTokenProvider {
      */
     public String getUsernameFromToken(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
 
             return claims.getSubject();
         } catch (Exception e) {
@@ -96,11 +139,7 @@ public class JwtTokenProvider {
      */
     public Long getUserIdFromToken(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
 
             return claims.get("userId", Long.class);
         } catch (Exception e) {
@@ -109,15 +148,46 @@ public class JwtTokenProvider {
         }
     }
 
+    /**
+     * Validate token and return its claims in a single parse, or null if invalid.
+     * Verified tokens are cached by digest until they expire, so repeat requests
+     * with the same token skip signature verification and decoding.
+     */
+    public Claims resolveClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        String digest = digest(token);
+        Claims cached = verifiedClaimsCache.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+
+        try {
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            verifiedClaimsCache.put(digest, claims);
+            return claims;
+        } catch (MalformedJwtException ex) {
+            log.error("Invalid JWT token: {}", ex.getMessage());
+        } catch (ExpiredJwtException ex) {
+            log.error("Expired JWT token: {}", ex.getMessage());
+        } catch (UnsupportedJwtException ex) {
+            log.error("Unsupported JWT token: {}", ex.getMessage());
+        } catch (JwtException ex) {
+            log.error("Invalid JWT signature: {}", ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            log.error("JWT claims string is empty: {}", ex.getMessage());
+        }
+        return null;
+    }
+
     /**
      * Validate JWT token
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
+            jwtParser.parseSignedClaims(token);
             return true;
         } catch (SecurityException ex) {
             log.error("Invalid JWT signature: {}", ex.getMessage());
@@ -138,11 +208,7 @@ public class JwtTokenProvider {
      */
     public Date getExpirationFromToken(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
 
             return claims.getExpiration();
         } catch (Exception e) {
@@ -158,4 +224,29 @@ public class JwtTokenProvider {
         Date expiration = getExpirationFromToken(token);
         return expiration != null && expiration.before(new Date());
     }
-}
\ No newline at end of file
+
+    /**
+     * Cache lifetime of verified claims: until the token expires, capped by max TTL (nanoseconds)
+     */
+    private long untilTokenExpiry(Claims claims) {
+        long maxTtl = claimsCacheMaxTtl.toNanos();
+        if (claims.getExpiration() == null) {
+            return maxTtl;
+        }
+        long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+        return Math.max(0, Math.min(maxTtl, TimeUnit.MILLISECONDS.toNanos(remainingMillis)));
+    }
+
+    /**
+     * SHA-256 digest of a token (the cache never holds raw tokens)
+     */
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.BE_E_commerce.security.jwt;
+
+import com.example.BE_E_commerce.service.ChatParticipants;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Authenticates STOMP sessions and guards their destinations.
+ * CONNECT must carry "Authorization: Bearer ..." as a native header (browsers cannot set
+ * headers on the WebSocket handshake itself). Clients may only SEND to application
+ * destinations and only SUBSCRIBE to their own queues or conversations they take part in.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    public static final String CONVERSATION_TOPIC = "/topic/conversations/";
+
+    private final JwtAuthenticator jwtAuthenticator;
+    private final ChatParticipants chatParticipants;
+
+    @Override
+    public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        switch (accessor.getCommand()) {
+            case CONNECT -> accessor.setUser(authenticate(accessor));
+            case SEND -> checkSend(accessor);
+            case SUBSCRIBE -> checkSubscribe(accessor);
+            default -> {
+            }
+        }
+        return message;
+    }
+
+    private WebSocketPrincipal authenticate(StompHeaderAccessor accessor) {
+        String jwt = JwtAuthenticator.extractBearer(accessor.getFirstNativeHeader("Authorization"));
+        return jwtAuthenticator.authenticate(jwt)
+                .map(authentication -> {
+                    UserDetailsImpl user = (UserDetailsImpl) authentication.getPrincipal();
+                    return new WebSocketPrincipal(user.getId(), user);
+                })
+                .orElseThrow(() -> new MessagingException("Invalid or missing token"));
+    }
+
+    private void checkSend(StompHeaderAccessor accessor) {
+        requireUser(accessor);
+        String destination = accessor.getDestination();
+        // Without this, a client could publish straight to a broker topic
+        if (destination == null || !destination.startsWith("/app/")) {
+            throw new MessagingException("Cannot send to " + destination);
+        }
+    }
+
+    private void checkSubscribe(StompHeaderAccessor accessor) {
+        WebSocketPrincipal principal = requireUser(accessor);
+        String destination = accessor.getDestination();
+        if (destination == null) {
+            throw new MessagingException("Missing destination");
+        }
+        if (destination.startsWith("/user/")) {
+            return; // Resolved to this session's own queues
+        }
+        if (destination.startsWith(CONVERSATION_TOPIC)) {
+            Long conversationId = parseId(destination.substring(CONVERSATION_TOPIC.length()));
+            if (conversationId != null && chatParticipants.isParticipant(conversationId, principal.userId())) {
+                return;
+            }
+        }
+        log.warn("User {} denied subscription to {}", principal.userId(), destination);
+        throw new MessagingException("Cannot subscribe to " + destination);
+    }
+
+    private WebSocketPrincipal requireUser(StompHeaderAccessor accessor) {
+        Principal user = accessor.getUser();
+        if (user instanceof WebSocketPrincipal principal) {
+            return principal;
+        }
+        throw new MessagingException("Not authenticated");
+    }
+
+    private Long parseId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
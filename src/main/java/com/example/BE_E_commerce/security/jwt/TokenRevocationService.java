@@ -0,0 +1,167 @@
+package com.example.BE_E_commerce.security.jwt;
+
+import com.example.BE_E_commerce.util.BloomFilter;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Set;
+
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.*;
+
+/**
+ * Token revocation keyed by jti (or a SHA-256 digest for tokens without one).
+ * Redis holds the authoritative revoked set. Each node also keeps a Bloom filter
+ * of it, so the common "not revoked" answer needs no network call.
+ * New revocations reach other nodes over pub/sub; the filter is rebuilt
+ * periodically to drop expired entries.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService implements MessageListener {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Value("${jwt.revocation.expected-revocations:100000}")
+    private int expectedRevocations;
+
+    @Value("${jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+
+    // Filter being rebuilt; revocations arriving meanwhile go into both
+    private volatile BloomFilter rebuilding;
+
+    // Until the first successful load from Redis, every check goes to Redis
+    private volatile boolean synced;
+
+    public TokenRevocationService(StringRedisTemplate redisTemplate,
+                                  RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    public void init() {
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        listenerContainer.addMessageListener(this, new ChannelTopic(TOKEN_REVOKED_CHANNEL));
+        rebuildFilter();
+    }
+
+    /**
+     * Check whether a verified token has been revoked
+     */
+    public boolean isRevoked(Claims claims, String token) {
+        String tokenId = tokenId(claims, token);
+        try {
+            // Tokens issued before jti existed may still sit in the old full-token blacklist
+            if (claims.getId() == null && Boolean.TRUE.equals(redisTemplate.hasKey(tokenBlacklistKey(token)))) {
+                return true;
+            }
+            if (synced && !filter.mightContain(tokenId)) {
+                return false;
+            }
+            return Boolean.TRUE.equals(redisTemplate.hasKey(tokenRevokedKey(tokenId)));
+        } catch (Exception e) {
+            // Filter said "maybe": without Redis we cannot confirm, so let the token through
+            log.error("Revocation check failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Revoke a token until it expires and notify all nodes
+     */
+    public void revoke(Claims claims, String token) {
+        long expiresAt = claims.getExpiration().getTime();
+        long remainingMillis = expiresAt - System.currentTimeMillis();
+        if (remainingMillis <= 0) {
+            return;
+        }
+
+        String tokenId = tokenId(claims, token);
+        redisTemplate.opsForValue().set(tokenRevokedKey(tokenId), "1", Duration.ofMillis(remainingMillis));
+        redisTemplate.opsForZSet().add(TOKEN_REVOKED_INDEX, tokenId, expiresAt);
+        addToFilter(tokenId);
+        redisTemplate.convertAndSend(TOKEN_REVOKED_CHANNEL, tokenId);
+
+        log.info("Token revoked for {} seconds", remainingMillis / 1000);
+    }
+
+    /**
+     * Revocation published by any node (including this one)
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        addToFilter(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Rebuild the filter from Redis, dropping expired revocations
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval:600000}",
+            initialDelayString = "${jwt.revocation.rebuild-interval:600000}")
+    public void rebuildFilter() {
+        try {
+            BloomFilter next = new BloomFilter(expectedRevocations, falsePositiveRate);
+            rebuilding = next;
+
+            redisTemplate.opsForZSet().removeRangeByScore(TOKEN_REVOKED_INDEX, 0, System.currentTimeMillis());
+            Set<String> tokenIds = redisTemplate.opsForZSet().range(TOKEN_REVOKED_INDEX, 0, -1);
+            if (tokenIds != null) {
+                tokenIds.forEach(next::add);
+            }
+
+            filter = next;
+            synced = true;
+            log.debug("Revocation filter rebuilt with {} entries", tokenIds != null ? tokenIds.size() : 0);
+        } catch (Exception e) {
+            log.error("Failed to rebuild revocation filter: {}", e.getMessage());
+        } finally {
+            rebuilding = null;
+        }
+    }
+
+    /**
+     * The filter being rebuilt is read first: a rebuild that swaps in after that read is the
+     * one assigned to filter below, and one that starts later reads this revocation from Redis
+     */
+    private void addToFilter(String tokenId) {
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.add(tokenId);
+        }
+        filter.add(tokenId);
+    }
+
+    /**
+     * jti when present, otherwise a digest of the token (older tokens)
+     */
+    private String tokenId(Claims claims, String token) {
+        if (claims.getId() != null) {
+            return claims.getId();
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.example.BE_E_commerce.entity.User;
 import com.example.BE_E_commerce.enums.UserRole;
 import com.example.BE_E_commerce.enums.UserStatus;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.jsonwebtoken.Claims;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -66,6 +67,39 @@ public class UserDetailsImpl implements UserDetails, OAuth2User {
         );
     }
 
+    /**
+     * Build UserDetailsImpl from verified JWT claims (no DB lookup).
+     * Status comes from the caller since it is not trusted from the token.
+     */
+    public static UserDetailsImpl fromClaims(Claims claims, UserStatus status) {
+        UserRole role = UserRole.valueOf(claims.get("roles", String.class).replace("ROLE_", ""));
+        List<GrantedAuthority> authorities = List.of(
+                new SimpleGrantedAuthority("ROLE_" + role.name())
+        );
+
+        Long id = claims.get("userId", Long.class);
+        String email = claims.get("email", String.class);
+        String fullName = claims.get("name", String.class);
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("id", id);
+        attributes.put("email", email);
+        attributes.put("name", fullName);
+
+        return new UserDetailsImpl(
+                id,
+                claims.getSubject(),
+                email,
+                fullName,
+                null,
+                role,
+                status,
+                claims.get("emailVerified", Boolean.class),
+                authorities,
+                attributes
+        );
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
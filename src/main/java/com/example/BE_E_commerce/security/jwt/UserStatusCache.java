@@ -0,0 +1,45 @@
+package com.example.BE_E_commerce.security.jwt;
+
+import com.example.BE_E_commerce.enums.UserStatus;
+import com.example.BE_E_commerce.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Short-lived cache of user status by ID, so principals rebuilt from JWT claims
+ * still reject locked users without a DB query on every request.
+ * A status change takes effect within the TTL.
+ */
+@Component
+public class UserStatusCache {
+
+    private final LoadingCache<Long, Optional<UserStatus>> statuses;
+
+    public UserStatusCache(UserRepository userRepository,
+                           @Value("${jwt.status-cache.ttl:30s}") Duration ttl,
+                           @Value("${jwt.status-cache.max-size:50000}") long maxSize) {
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build(userRepository::findStatusById);
+    }
+
+    /**
+     * Current status of a user, empty if the user no longer exists
+     */
+    public Optional<UserStatus> getStatus(Long userId) {
+        return statuses.get(userId);
+    }
+
+    /**
+     * Forget a cached status (e.g. right after it was changed)
+     */
+    public void evict(Long userId) {
+        statuses.invalidate(userId);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.BE_E_commerce.security.jwt;
+
+import java.security.Principal;
+
+/**
+ * Principal of an authenticated STOMP session.
+ * Named by user ID, so user destinations (/user/{id}/queue/...) resolve without a username lookup.
+ */
+public record WebSocketPrincipal(Long userId, UserDetailsImpl user) implements Principal {
+
+    @Override
+    public String getName() {
+        return String.valueOf(userId);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.BE_E_commerce.security.ratelimit;
+
+import com.example.BE_E_commerce.dto.response.ErrorResponse;
+import com.example.BE_E_commerce.security.jwt.JwtTokenProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Per-client rate limiting for the REST API.
+ *
+ * Runs before JwtAuthenticationFilter: a valid bearer token puts the caller in the
+ * authenticated tier (keyed by user id), anything else is keyed by remote address.
+ * Rules are matched in order, so the most specific routes come first.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final RateLimiter rateLimiter;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.authenticated-multiplier:2}")
+    private int authenticatedMultiplier;
+
+    @Value("${app.rate-limit.search-limit:30}")
+    private int searchLimit;
+
+    @Value("${app.rate-limit.auth-limit:20}")
+    private int authLimit;
+
+    @Value("${app.rate-limit.products-limit:120}")
+    private int productsLimit;
+
+    @Value("${app.rate-limit.default-limit:300}")
+    private int defaultLimit;
+
+    private List<Rule> rules;
+
+    @PostConstruct
+    public void init() {
+        rules = List.of(
+                new Rule("search", "/api/products/search/**", searchLimit),
+                new Rule("auth", "/api/auth/**", authLimit),
+                new Rule("products", "/api/products/**", productsLimit),
+                new Rule("api", "/api/**", defaultLimit)
+        );
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled
+                || HttpMethod.OPTIONS.matches(request.getMethod())
+                || !request.getServletPath().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Rule rule = matchRule(request.getServletPath());
+        if (rule == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Long userId = resolveUserId(request);
+        String client = userId != null ? "u" + userId : request.getRemoteAddr();
+        int limit = userId != null ? rule.limit() * authenticatedMultiplier : rule.limit();
+
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(client, rule.name(), limit);
+        if (!decision.allowed()) {
+            log.debug("Rate limit exceeded for {} on {}", client, rule.name());
+            writeTooManyRequests(request, response, decision, limit);
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private Rule matchRule(String path) {
+        for (Rule rule : rules) {
+            if (PATH_MATCHER.match(rule.pattern(), path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * User id from a valid bearer token; the claims are cached, so the JWT filter
+     * that runs next does not parse the token again.
+     */
+    private Long resolveUserId(HttpServletRequest request) {
+        String bearerToken = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (!StringUtils.hasText(bearerToken) || !bearerToken.startsWith("Bearer ")) {
+            return null;
+        }
+        Claims claims = jwtTokenProvider.resolveClaims(bearerToken.substring(7));
+        return claims != null ? claims.get("userId", Long.class) : null;
+    }
+
+    private void writeTooManyRequests(HttpServletRequest request,
+                                      HttpServletResponse response,
+                                      RateLimiter.Decision decision,
+                                      int limit) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+        response.setHeader("X-RateLimit-Limit", String.valueOf(limit));
+
+        ErrorResponse body = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error("Too Many Requests")
+                .message("Rate limit exceeded, retry after " + decision.retryAfterSeconds() + " seconds")
+                .path(request.getServletPath())
+                .build();
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private record Rule(String name, String pattern, int limit) {
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.BE_E_commerce.security.ratelimit;
+
+import com.example.BE_E_commerce.constant.RedisKeyConstants;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sliding-window rate limiter backed by Redis.
+ *
+ * Each window is approximated from two fixed-window counters (current and previous,
+ * the previous one weighted by how much of it still overlaps the sliding window).
+ * The check-and-increment runs as a single Lua script, so concurrent nodes never
+ * over-admit.
+ *
+ * To keep Redis off the hot path, a client well below its limit is granted a small
+ * lease of permits (at most half of its remaining headroom) that this node spends
+ * locally. Leased permits are counted in Redis up front, so the limit holds across
+ * nodes; the cost is that an unused lease is forfeited when it expires. Rejections
+ * are cached locally until the client's retry time.
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    private static final RedisScript<List> SLIDING_WINDOW_SCRIPT = new DefaultRedisScript<>("""
+            local limit = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2])
+            local now = tonumber(ARGV[3])
+            local lease = tonumber(ARGV[4])
+            local curr = tonumber(redis.call('GET', KEYS[1]) or '0')
+            local prev = tonumber(redis.call('GET', KEYS[2]) or '0')
+            local elapsed = now % window
+            local weight = (window - elapsed) / window
+            local headroom = math.floor(limit - (prev * weight + curr))
+            if headroom < 1 then
+              local retry = window - elapsed
+              if prev > 0 and curr < limit then
+                retry = math.ceil((weight - (limit - 1 - curr) / prev) * window)
+              end
+              return {0, 0, math.max(retry, 1)}
+            end
+            local grant = math.max(1, math.min(lease, math.floor(headroom / 2)))
+            redis.call('INCRBY', KEYS[1], grant)
+            redis.call('PEXPIRE', KEYS[1], window * 2)
+            return {1, grant, 0}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Clock clock;
+    private final Cache<String, Lease> leases;
+
+    @Value("${app.rate-limit.window:" + RedisKeyConstants.TTL_RATE_LIMIT + "s}")
+    private Duration window;
+
+    @Value("${app.rate-limit.lease-size:10}")
+    private int leaseSize;
+
+    public RateLimiter(StringRedisTemplate redisTemplate,
+                       @Value("${app.rate-limit.lease-ttl:2s}") Duration leaseTtl,
+                       @Value("${app.rate-limit.local-max-size:100000}") long localMaxSize) {
+        this(redisTemplate, Clock.systemUTC(), leaseTtl, localMaxSize);
+    }
+
+    RateLimiter(StringRedisTemplate redisTemplate, Clock clock, Duration leaseTtl, long localMaxSize) {
+        this.redisTemplate = redisTemplate;
+        this.clock = clock;
+        this.leases = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(leaseTtl)
+                .build();
+    }
+
+    /**
+     * Try to take one permit for the client on the given route.
+     * Fails open (allows the request) when Redis is unavailable.
+     */
+    public Decision tryAcquire(String client, String route, int limit) {
+        String leaseKey = RedisKeyConstants.rateLimitKey(client, route);
+        long now = clock.millis();
+
+        Lease lease = leases.getIfPresent(leaseKey);
+        if (lease != null) {
+            if (lease.blockedUntil > now) {
+                return Decision.rejected(lease.blockedUntil - now);
+            }
+            if (lease.remaining.getAndDecrement() > 0) {
+                return Decision.ALLOWED;
+            }
+        }
+
+        long windowMillis = window.toMillis();
+        long windowIndex = now / windowMillis;
+        List<?> result;
+        try {
+            result = redisTemplate.execute(
+                    SLIDING_WINDOW_SCRIPT,
+                    List.of(leaseKey + ":" + windowIndex, leaseKey + ":" + (windowIndex - 1)),
+                    String.valueOf(limit),
+                    String.valueOf(windowMillis),
+                    String.valueOf(now),
+                    String.valueOf(leaseSize)
+            );
+        } catch (Exception e) {
+            log.warn("Rate limit check failed for {}, allowing request: {}", leaseKey, e.getMessage());
+            return Decision.ALLOWED;
+        }
+        if (result == null || result.size() < 3) {
+            return Decision.ALLOWED;
+        }
+
+        boolean allowed = ((Number) result.get(0)).longValue() == 1;
+        if (!allowed) {
+            long retryAfterMillis = ((Number) result.get(2)).longValue();
+            leases.put(leaseKey, new Lease(0, now + retryAfterMillis));
+            return Decision.rejected(retryAfterMillis);
+        }
+
+        // One permit is spent by this request, the rest are kept for the next ones
+        int granted = ((Number) result.get(1)).intValue();
+        if (granted > 1) {
+            leases.put(leaseKey, new Lease(granted - 1, 0));
+        } else {
+            leases.invalidate(leaseKey);
+        }
+        return Decision.ALLOWED;
+    }
+
+    // ========== TYPES ==========
+
+    private static final class Lease {
+        private final AtomicInteger remaining;
+        private final long blockedUntil;
+
+        private Lease(int remaining, long blockedUntil) {
+            this.remaining = new AtomicInteger(remaining);
+            this.blockedUntil = blockedUntil;
+        }
+    }
+
+    public record Decision(boolean allowed, long retryAfterMillis) {
+
+        static final Decision ALLOWED = new Decision(true, 0);
+
+        static Decision rejected(long retryAfterMillis) {
+            return new Decision(false, retryAfterMillis);
+        }
+
+        /**
+         * Value for the Retry-After header (whole seconds, at least 1)
+         */
+        public long retryAfterSeconds() {
+            return Math.max(1, (retryAfterMillis + 999) / 1000);
+        }
+    }
+}
@@ -12,8 +12,10 @@ import com.example.BE_E_commerce.exception.UnauthorizedException;
 import com.example.BE_E_commerce.mapper.UserMapper;
 import com.example.BE_E_commerce.repository.UserRepository;
 import com.example.BE_E_commerce.security.jwt.JwtTokenProvider;
+import com.example.BE_E_commerce.security.jwt.TokenRevocationService;
 import com.example.BE_E_commerce.security.jwt.UserDetailsImpl;
 import com.example.BE_E_commerce.util.SecurityUtils;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok. extern.slf4j.Slf4j;
@@ -26,7 +28,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import java.util.Date;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static com.example.BE_E_commerce.constant.RedisKeyConstants.*;
@@ -41,8 +43,10 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationService tokenRevocationService;
     private final RedisService redisService;
     private final EmailService emailService; // ← THÊM
+    private final OutboxService outboxService;
 
     /**
      * Register new user
@@ -72,8 +76,10 @@ public class AuthService {
 
         log.info("User registered successfully: {} (ID: {})", user.getUsername(), user.getId());
 
-        //  Send welcome email
-        emailService.sendWelcomeEmail(user. getEmail(), user.getFullName(), user.getUsername());
+        // Welcome email and session cache follow from the outbox (UserEventListener)
+        outboxService.append(DomainEvent.USER, user.getId(), DomainEvent.USER_REGISTERED, Map.of(
+                "username", user.getUsername(),
+                "email", user.getEmail()));
 
         // Auto login after registration
         Authentication authentication = authenticationManager.authenticate(
@@ -88,11 +94,7 @@ public class AuthService {
         // Generate JWT token
         String jwt = jwtTokenProvider.generateToken(authentication);
 
-        // Cache user session in Redis
-        UserResponse userResponse = userMapper.toResponse(user);
-        redisService.set(userSessionKey(user.getId()), userResponse, TTL_USER_SESSION, TimeUnit.SECONDS);
-
-        return new JwtResponse(jwt, userResponse);
+        return new JwtResponse(jwt, userMapper.toResponse(user));
     }
 
     /**
@@ -143,23 +145,10 @@ public class AuthService {
         String token = getJwtFromRequest(request);
 
         if (StringUtils.hasText(token)) {
-            // Calculate token remaining time
-            Date expiration = jwtTokenProvider.getExpirationFromToken(token);
-            if (expiration != null) {
-                long remainingTime = expiration.getTime() - System.currentTimeMillis();
-
-                if (remainingTime > 0) {
-                    // Blacklist token until it expires
-                    long ttlSeconds = TimeUnit.MILLISECONDS. toSeconds(remainingTime);
-                    redisService.set(
-                            tokenBlacklistKey(token),
-                            "BLACKLISTED",
-                            ttlSeconds,
-                            TimeUnit.SECONDS
-                    );
-
-                    log.info("Token blacklisted for {} seconds", ttlSeconds);
-                }
+            // Revoke token until it expires (propagated to all nodes)
+            Claims claims = jwtTokenProvider.resolveClaims(token);
+            if (claims != null) {
+                tokenRevocationService.revoke(claims, token);
             }
         }
 
@@ -0,0 +1,603 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.request.CartItemRequest;
+import com.example.BE_E_commerce.dto.request.UpdateCartItemRequest;
+import com.example.BE_E_commerce.dto.response.CartItemResponse;
+import com.example.BE_E_commerce.dto.response.CartLineView;
+import com.example.BE_E_commerce.dto.response.CartResponse;
+import com.example.BE_E_commerce.dto.response.CartSummaryResponse;
+import com.example.BE_E_commerce.entity.Cart;
+import com.example.BE_E_commerce.entity.CartItem;
+import com.example.BE_E_commerce.entity.ProductListingSummary;
+import com.example.BE_E_commerce.entity.ProductVariant;
+import com.example.BE_E_commerce.enums.ProductStatus;
+import com.example.BE_E_commerce.exception.BadRequestException;
+import com.example.BE_E_commerce.exception.ResourceNotFoundException;
+import com.example.BE_E_commerce.exception.UnauthorizedException;
+import com.example.BE_E_commerce.repository.CartItemRepository;
+import com.example.BE_E_commerce.repository.CartRepository;
+import com.example.BE_E_commerce.repository.ProductListingSummaryRepository;
+import com.example.BE_E_commerce.repository.ProductVariantRepository;
+import com.example.BE_E_commerce.repository.UserRepository;
+import com.example.BE_E_commerce.util.SecurityUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.example.BE_E_commerce.config.SchedulingConfig.FLUSH_SCHEDULER;
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.*;
+
+/**
+ * Shopping cart kept in Redis.
+ *
+ * The working cart is a hash (variantId -> quantity) under cart:{userId}, so add/update/remove
+ * are single Redis commands. Carts changed since the last flush are tracked in a dirty set and
+ * written to carts/cart_items in the background, and synchronously before checkout. The
+ * background flush moves the carts it takes into a claimed set, so a node dying mid-flush
+ * leaves them to be handed back to the dirty set after the claim timeout.
+ *
+ * A cart missing from Redis (expired or never loaded) is seeded from MySQL first. A sentinel
+ * field marks a loaded-but-empty cart so empty carts do not hit MySQL on every view.
+ */
+@Service
+@Slf4j
+public class CartService {
+
+    private static final String LOADED_FIELD = "_";
+    private static final int MAX_CART_LINES = 100;
+    private static final int MAX_QUANTITY = 999;
+
+    // KEYS: cart hash; ARGV: ttl seconds, then field/value pairs. Seeds only a cart that is not there.
+    private static final RedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end
+            for i = 2, #ARGV, 2 do
+              redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+
+    // KEYS: dirty set, claimed zset; ARGV: count, now millis
+    private static final RedisScript<List> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+            local members = redis.call('SPOP', KEYS[1], ARGV[1])
+            for _, member in ipairs(members) do
+              redis.call('ZADD', KEYS[2], ARGV[2], member)
+            end
+            return members
+            """, List.class);
+
+    // KEYS: dirty set, claimed zset; ARGV: claims made before this are handed back (millis)
+    private static final RedisScript<Long> RECLAIM_SCRIPT = new DefaultRedisScript<>("""
+            local stale = redis.call('ZRANGEBYSCORE', KEYS[2], '-inf', ARGV[1])
+            for _, member in ipairs(stale) do
+              redis.call('SADD', KEYS[1], member)
+              redis.call('ZREM', KEYS[2], member)
+            end
+            return #stale
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ProductVariantRepository variantRepository;
+    private final ProductListingSummaryRepository summaryRepository;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.cart.flush-batch-size:200}")
+    private long flushBatchSize;
+
+    @Value("${app.cart.claim-timeout:5m}")
+    private Duration claimTimeout;
+
+    public CartService(StringRedisTemplate redisTemplate,
+                       CartRepository cartRepository,
+                       CartItemRepository cartItemRepository,
+                       ProductVariantRepository variantRepository,
+                       ProductListingSummaryRepository summaryRepository,
+                       UserRepository userRepository,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager) {
+        this.redisTemplate = redisTemplate;
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.variantRepository = variantRepository;
+        this.summaryRepository = summaryRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // ========== CART OPERATIONS ==========
+
+    /**
+     * Get current user's cart with prices and stock
+     */
+    public CartResponse getCart() {
+        Long userId = currentUserId();
+        return buildCartResponse(readCart(userId));
+    }
+
+    /**
+     * Cart lines grouped by shop with totals, read from MySQL in one projection query
+     */
+    public CartSummaryResponse getCartSummary() {
+        Long userId = currentUserId();
+
+        // Only pay for a flush when Redis holds changes MySQL has not seen yet
+        if (Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(CART_DIRTY, userId.toString()))) {
+            // Flag off first: an edit made during the sync marks the cart dirty again
+            redisTemplate.opsForSet().remove(CART_DIRTY, userId.toString());
+            try {
+                transactionTemplate.executeWithoutResult(status -> syncToDatabase(userId));
+            } catch (RuntimeException e) {
+                markDirty(userId);
+                throw e;
+            }
+        }
+
+        Map<Long, List<CartLineView>> linesByShop = cartItemRepository.findCartLinesByUserId(userId).stream()
+                .collect(Collectors.groupingBy(CartLineView::getShopId, LinkedHashMap::new, Collectors.toList()));
+
+        List<CartSummaryResponse.ShopGroup> shops = new ArrayList<>();
+        long totalCents = 0;
+        int totalItems = 0;
+        for (List<CartLineView> lines : linesByShop.values()) {
+            long shopCents = 0;
+            int shopItems = 0;
+            for (CartLineView line : lines) {
+                shopCents += line.getSubtotalCents();
+                shopItems += line.getQuantity();
+            }
+            shops.add(CartSummaryResponse.ShopGroup.builder()
+                    .shopId(lines.get(0).getShopId())
+                    .shopName(lines.get(0).getShopName())
+                    .items(lines)
+                    .totalItems(shopItems)
+                    .subtotal(BigDecimal.valueOf(shopCents, 2))
+                    .build());
+            totalCents += shopCents;
+            totalItems += shopItems;
+        }
+
+        return CartSummaryResponse.builder()
+                .shops(shops)
+                .totalItems(totalItems)
+                .totalAmount(BigDecimal.valueOf(totalCents, 2))
+                .build();
+    }
+
+    /**
+     * Add a variant to the cart (quantities add up)
+     */
+    public CartResponse addItem(CartItemRequest request) {
+        Long userId = currentUserId();
+        Map<Long, Integer> quantities = readCart(userId);
+
+        int quantity = quantities.getOrDefault(request.getVariantId(), 0) + request.getQuantity();
+        if (quantity > MAX_QUANTITY) {
+            throw new BadRequestException("Quantity must not exceed " + MAX_QUANTITY);
+        }
+        if (!quantities.containsKey(request.getVariantId()) && quantities.size() >= MAX_CART_LINES) {
+            throw new BadRequestException("Cart cannot hold more than " + MAX_CART_LINES + " products");
+        }
+        VariantSnapshot variant = loadSnapshots(List.of(request.getVariantId())).get(request.getVariantId());
+        if (variant == null) {
+            throw new ResourceNotFoundException("ProductVariant", "id", request.getVariantId());
+        }
+        if (!variant.active()) {
+            throw new BadRequestException("Product is no longer available");
+        }
+
+        redisTemplate.opsForHash().increment(cartKey(userId), request.getVariantId().toString(), request.getQuantity());
+        quantities.put(request.getVariantId(), quantity);
+        markDirty(userId);
+
+        return buildCartResponse(quantities);
+    }
+
+    /**
+     * Set the quantity of a variant already in the cart
+     */
+    public CartResponse updateItem(Long variantId, UpdateCartItemRequest request) {
+        Long userId = currentUserId();
+        Map<Long, Integer> quantities = readCart(userId);
+        if (!quantities.containsKey(variantId)) {
+            throw new ResourceNotFoundException("Cart item", "variantId", variantId);
+        }
+
+        redisTemplate.opsForHash().put(cartKey(userId), variantId.toString(), request.getQuantity().toString());
+        quantities.put(variantId, request.getQuantity());
+        markDirty(userId);
+
+        return buildCartResponse(quantities);
+    }
+
+    /**
+     * Remove a variant from the cart
+     */
+    public CartResponse removeItem(Long variantId) {
+        Long userId = currentUserId();
+        Map<Long, Integer> quantities = readCart(userId);
+
+        redisTemplate.opsForHash().delete(cartKey(userId), variantId.toString());
+        quantities.remove(variantId);
+        markDirty(userId);
+
+        return buildCartResponse(quantities);
+    }
+
+    /**
+     * Remove everything from the cart
+     */
+    public void clearCart() {
+        Long userId = currentUserId();
+        redisTemplate.delete(cartKey(userId));
+        seed(userId, Map.of());
+        markDirty(userId);
+    }
+
+    // ========== WRITE-BEHIND ==========
+
+    /**
+     * Write the user's Redis cart to MySQL now (before checkout).
+     * The dirty flag is removed before the sync, so an edit made meanwhile marks the cart
+     * again; it is put back if the surrounding transaction does not commit.
+     */
+    @Transactional
+    public void flushCart(Long userId) {
+        redisTemplate.opsForSet().remove(CART_DIRTY, userId.toString());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        markDirty(userId);
+                    }
+                }
+            });
+            syncToDatabase(userId);
+            return;
+        }
+        try {
+            syncToDatabase(userId);
+        } catch (RuntimeException e) {
+            markDirty(userId);
+            throw e;
+        }
+    }
+
+    /**
+     * Drop the Redis copy after checkout emptied the cart in MySQL; the next read reloads it
+     */
+    public void discardWorkingCart(Long userId) {
+        redisTemplate.delete(cartKey(userId));
+        redisTemplate.opsForSet().remove(CART_DIRTY, userId.toString());
+    }
+
+    /**
+     * Periodically write changed carts to MySQL
+     */
+    @Scheduled(fixedDelayString = "${app.cart.flush-interval:30000}", scheduler = FLUSH_SCHEDULER)
+    public void flushDirtyCarts() {
+        List<String> userIds;
+        try {
+            long now = System.currentTimeMillis();
+            Long reclaimed = redisTemplate.execute(RECLAIM_SCRIPT, List.of(CART_DIRTY, CART_DIRTY_CLAIMED),
+                    String.valueOf(now - claimTimeout.toMillis()));
+            if (reclaimed != null && reclaimed > 0) {
+                log.warn("Handed {} unfinished cart flushes back to the dirty set", reclaimed);
+            }
+            userIds = castUserIds(redisTemplate.execute(CLAIM_SCRIPT, List.of(CART_DIRTY, CART_DIRTY_CLAIMED),
+                    String.valueOf(flushBatchSize), String.valueOf(now)));
+        } catch (Exception e) {
+            log.error("Failed to claim dirty carts: {}", e.getMessage());
+            return;
+        }
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        int flushed = 0;
+        for (String userId : userIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> syncToDatabase(Long.valueOf(userId)));
+                flushed++;
+            } catch (Exception e) {
+                // Keep it dirty so the next run retries
+                log.error("Failed to flush cart of user {}: {}", userId, e.getMessage());
+                redisTemplate.opsForSet().add(CART_DIRTY, userId);
+            }
+            redisTemplate.opsForZSet().remove(CART_DIRTY_CLAIMED, userId);
+        }
+        log.debug("Flushed {} carts to database", flushed);
+    }
+
+    private List<String> castUserIds(List<?> members) {
+        if (members == null) {
+            return List.of();
+        }
+        return members.stream().map(String::valueOf).collect(Collectors.toList());
+    }
+
+    /**
+     * Make cart_items match the Redis hash (inserts are batched, ids are assigned up front)
+     */
+    private void syncToDatabase(Long userId) {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(cartKey(userId));
+        if (entries.isEmpty()) {
+            // Not in Redis: nothing changed since it was last loaded
+            return;
+        }
+        Map<Long, Integer> quantities = parseCart(entries);
+
+        Cart cart = cartRepository.findByUserIdFetchItems(userId).orElse(null);
+        if (cart == null) {
+            if (quantities.isEmpty()) {
+                return;
+            }
+            cart = Cart.builder().user(userRepository.getReferenceById(userId)).build();
+        }
+
+        Map<Long, CartItem> existing = cart.getItems().stream()
+                .collect(Collectors.toMap(item -> item.getProductVariant().getId(), Function.identity()));
+
+        for (CartItem item : new ArrayList<>(cart.getItems())) {
+            Integer quantity = quantities.get(item.getProductVariant().getId());
+            if (quantity == null) {
+                cart.removeItem(item);
+            } else if (!quantity.equals(item.getQuantity())) {
+                item.setQuantity(quantity);
+            }
+        }
+        Cart target = cart;
+        quantities.forEach((variantId, quantity) -> {
+            if (!existing.containsKey(variantId)) {
+                target.getItems().add(CartItem.builder()
+                        .cart(target)
+                        .productVariant(variantRepository.getReferenceById(variantId))
+                        .quantity(quantity)
+                        .build());
+            }
+        });
+
+        cartRepository.save(cart);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private Long currentUserId() {
+        return SecurityUtils.getCurrentUserId()
+                .orElseThrow(() -> new UnauthorizedException("User not authenticated"));
+    }
+
+    /**
+     * Quantities by variant, seeding Redis from MySQL when the cart is not there
+     */
+    Map<Long, Integer> readCart(Long userId) {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(cartKey(userId));
+        if (!entries.isEmpty()) {
+            return parseCart(entries);
+        }
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        cartRepository.findByUserIdFetchItems(userId).ifPresent(cart -> cart.getItems().forEach(item ->
+                quantities.put(item.getProductVariant().getId(), item.getQuantity())));
+        seed(userId, quantities);
+        return quantities;
+    }
+
+    private void seed(Long userId, Map<Long, Integer> quantities) {
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(TTL_CART));
+        args.add(LOADED_FIELD);
+        args.add("0");
+        quantities.forEach((variantId, quantity) -> {
+            args.add(variantId.toString());
+            args.add(quantity.toString());
+        });
+        redisTemplate.execute(SEED_SCRIPT, List.of(cartKey(userId)), args.toArray());
+    }
+
+    private Map<Long, Integer> parseCart(Map<Object, Object> entries) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        entries.forEach((field, value) -> {
+            if (!LOADED_FIELD.equals(field)) {
+                quantities.put(Long.valueOf(field.toString()), Integer.valueOf(value.toString()));
+            }
+        });
+        return quantities;
+    }
+
+    private void markDirty(Long userId) {
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.sAdd(CART_DIRTY, userId.toString());
+            stringConnection.expire(cartKey(userId), TTL_CART);
+            return null;
+        });
+    }
+
+    private CartResponse buildCartResponse(Map<Long, Integer> quantities) {
+        List<Long> variantIds = new ArrayList<>(quantities.keySet());
+
+        // Snapshots and live stock counters in a single MGET
+        List<String> keys = new ArrayList<>();
+        variantIds.forEach(id -> keys.add(cartVariantKey(id)));
+        variantIds.forEach(id -> keys.add(stockAvailableKey(id)));
+        List<String> values = variantIds.isEmpty() ? List.of() : redisTemplate.opsForValue().multiGet(keys);
+        if (values == null) {
+            values = new ArrayList<>(Collections.nCopies(keys.size(), null));
+        }
+        Map<Long, VariantSnapshot> snapshots = resolveSnapshots(variantIds, values.subList(0, variantIds.size()));
+        Map<Long, Integer> stock = new HashMap<>();
+        for (int i = 0; i < variantIds.size(); i++) {
+            String available = values.get(variantIds.size() + i);
+            if (available != null) {
+                stock.put(variantIds.get(i), Integer.parseInt(available));
+            }
+        }
+
+        List<CartItemResponse> items = new ArrayList<>();
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        int totalItems = 0;
+        for (Long variantId : variantIds) {
+            VariantSnapshot variant = snapshots.get(variantId);
+            if (variant == null) {
+                continue; // Variant deleted since it was added
+            }
+            int quantity = quantities.get(variantId);
+            int availableStock = stock.getOrDefault(variantId, variant.stockQuantity());
+            BigDecimal subtotal = variant.price().multiply(BigDecimal.valueOf(quantity));
+
+            CartItemResponse item = new CartItemResponse();
+            item.setVariantId(variantId);
+            item.setProductId(variant.productId());
+            item.setProductName(variant.productName());
+            item.setVariantName(variant.variantName());
+            item.setSku(variant.sku());
+            item.setThumbnailUrl(variant.thumbnailUrl());
+            item.setShopId(variant.shopId());
+            item.setShopName(variant.shopName());
+            item.setPrice(variant.price());
+            item.setOriginalPrice(variant.originalPrice());
+            item.setQuantity(quantity);
+            item.setAvailableStock(availableStock);
+            item.setSubtotal(subtotal);
+            item.setAvailable(variant.active() && availableStock >= quantity);
+            items.add(item);
+
+            totalAmount = totalAmount.add(subtotal);
+            totalItems += quantity;
+        }
+
+        return CartResponse.builder()
+                .items(items)
+                .totalItems(totalItems)
+                .totalAmount(totalAmount)
+                .build();
+    }
+
+    private Map<Long, VariantSnapshot> loadSnapshots(List<Long> variantIds) {
+        List<String> cached = redisTemplate.opsForValue().multiGet(variantIds.stream()
+                .map(id -> cartVariantKey(id))
+                .collect(Collectors.toList()));
+        return resolveSnapshots(variantIds, cached);
+    }
+
+    /**
+     * Parse cached variant snapshots; misses come from MySQL in one query and are
+     * cached for the next views with one pipeline
+     */
+    private Map<Long, VariantSnapshot> resolveSnapshots(List<Long> variantIds, List<String> cached) {
+        Map<Long, VariantSnapshot> snapshots = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < variantIds.size(); i++) {
+            String json = cached != null ? cached.get(i) : null;
+            VariantSnapshot snapshot = json != null ? readSnapshot(json) : null;
+            if (snapshot != null) {
+                snapshots.put(variantIds.get(i), snapshot);
+            } else {
+                missing.add(variantIds.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return snapshots;
+        }
+
+        List<ProductVariant> variants = variantRepository.findWithProductAndShopByIdIn(missing);
+        Map<Long, ProductListingSummary> summaries = summaryRepository.findAllById(variants.stream()
+                        .map(variant -> variant.getProduct().getId())
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ProductListingSummary::getProductId, Function.identity()));
+
+        Map<String, String> toCache = new HashMap<>();
+        for (ProductVariant variant : variants) {
+            VariantSnapshot snapshot = VariantSnapshot.of(variant, summaries.get(variant.getProduct().getId()));
+            snapshots.put(variant.getId(), snapshot);
+            try {
+                toCache.put(cartVariantKey(variant.getId()), objectMapper.writeValueAsString(snapshot));
+            } catch (JsonProcessingException e) {
+                log.warn("Could not cache variant snapshot {}: {}", variant.getId(), e.getMessage());
+            }
+        }
+        if (!toCache.isEmpty()) {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                toCache.forEach((key, value) -> stringConnection.setEx(key, TTL_CART_VARIANT, value));
+                return null;
+            });
+        }
+        return snapshots;
+    }
+
+    private VariantSnapshot readSnapshot(String json) {
+        try {
+            return objectMapper.readValue(json, VariantSnapshot.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * What a cart line needs to display, cached per variant for TTL_CART_VARIANT
+     */
+    public record VariantSnapshot(
+            Long variantId,
+            Long productId,
+            String productName,
+            String variantName,
+            String sku,
+            String thumbnailUrl,
+            Long shopId,
+            String shopName,
+            BigDecimal price,
+            BigDecimal originalPrice,
+            int stockQuantity,
+            boolean active
+    ) {
+        static VariantSnapshot of(ProductVariant variant, ProductListingSummary summary) {
+            return new VariantSnapshot(
+                    variant.getId(),
+                    variant.getProduct().getId(),
+                    variant.getProduct().getName(),
+                    variant.getDisplayName(),
+                    variant.getSku(),
+                    summary != null ? summary.getThumbnailUrl() : null,
+                    variant.getProduct().getShop().getId(),
+                    variant.getProduct().getShop().getName(),
+                    variant.getPrice(),
+                    variant.getOriginalPrice(),
+                    variant.getStockQuantity(),
+                    Boolean.TRUE.equals(variant.getIsActive())
+                            && variant.getProduct().getStatus() == ProductStatus.ACTIVE
+            );
+        }
+    }
+}
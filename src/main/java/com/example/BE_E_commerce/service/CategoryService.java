@@ -15,7 +15,6 @@ import org. springframework.cache.annotation.Cacheable;
 import org.springframework. stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util. ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,6 +25,7 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
+    private final CategoryTreeIndex categoryTreeIndex;
 
     // ========== PUBLIC ENDPOINTS ==========
 
@@ -45,28 +45,32 @@ public class CategoryService {
      * Get category tree (hierarchical structure)
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "categories", key = "'tree'")
     public List<CategoryResponse> getCategoryTree() {
-        // Get root categories
-        List<Category> rootCategories = categoryRepository.findByParentIsNullOrderByDisplayOrderAsc();
-
-        return rootCategories.stream()
-                .map(this::buildCategoryTree)
-                .collect(Collectors.toList());
+        return categoryTreeIndex.getTree();
     }
 
     /**
      * Get active category tree (for public display)
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "categories", key = "'active-tree'")
     public List<CategoryResponse> getActiveCategoryTree() {
-        List<Category> rootCategories = categoryRepository.findByParentIsNullAndIsActiveTrueOrderByDisplayOrderAsc();
+        return categoryTreeIndex.getActiveTree();
+    }
 
-        return rootCategories.stream()
-                .filter(Category::getIsActive)
-                .map(this::buildCategoryTree)
-                .collect(Collectors.toList());
+    /**
+     * Get category tree as pre-rendered JSON
+     */
+    @Transactional(readOnly = true)
+    public byte[] getCategoryTreeJson() {
+        return categoryTreeIndex.getTreeJson();
+    }
+
+    /**
+     * Get active category tree as pre-rendered JSON
+     */
+    @Transactional(readOnly = true)
+    public byte[] getActiveCategoryTreeJson() {
+        return categoryTreeIndex.getActiveTreeJson();
     }
 
     /**
@@ -145,6 +149,7 @@ public class CategoryService {
 
         category = categoryRepository.save(category);
 
+        categoryTreeIndex.invalidate();
         log.info("Category created:  {} (ID: {})", category.getName(), category.getId());
 
         return toCategoryResponse(category);
@@ -199,6 +204,7 @@ public class CategoryService {
 
         category = categoryRepository.save(category);
 
+        categoryTreeIndex.invalidate();
         log.info("Category updated: {} (ID: {})", category.getName(), category.getId());
 
         return toCategoryResponse(category);
@@ -226,6 +232,7 @@ public class CategoryService {
 
         categoryRepository.delete(category);
 
+        categoryTreeIndex.invalidate();
         log.info("Category deleted: {} (ID: {})", category.getName(), category.getId());
     }
 
@@ -241,6 +248,7 @@ public class CategoryService {
         category.setIsActive(!category.getIsActive());
         category = categoryRepository.save(category);
 
+        categoryTreeIndex.invalidate();
         log.info("Category status toggled: {} - Active: {}", category.getName(), category.getIsActive());
 
         return toCategoryResponse(category);
@@ -248,25 +256,6 @@ public class CategoryService {
 
     // ========== HELPER METHODS ==========
 
-    /**
-     * Build category tree recursively
-     */
-    private CategoryResponse buildCategoryTree(Category category) {
-        CategoryResponse response = toCategoryResponse(category);
-
-        // Get children
-        List<Category> children = categoryRepository.findByParentIdOrderByDisplayOrderAsc(category. getId());
-
-        if (! children.isEmpty()) {
-            List<CategoryResponse> childResponses = children.stream()
-                    .map(this::buildCategoryTree)
-                    .collect(Collectors.toList());
-            response.setChildren(childResponses);
-        }
-
-        return response;
-    }
-
     /**
      * Convert entity to response with product count
      */
@@ -284,16 +273,7 @@ public class CategoryService {
      * Count products in category and all its subcategories
      */
     private Long countProductsInCategoryTree(Long categoryId) {
-        // Get all descendant category IDs
-        List<Long> categoryIds = getAllDescendantIds(categoryId);
-        
-        // Count products in all these categories
-        long totalCount = 0;
-        for (Long id : categoryIds) {
-            totalCount += categoryRepository.countProductsByCategoryId(id);
-        }
-        
-        return totalCount;
+        return categoryTreeIndex.getSubtreeProductCount(categoryId);
     }
 
     /**
@@ -353,27 +333,7 @@ public class CategoryService {
      * Get all descendant IDs of a category (including the category itself)
      * For filtering products: parent category should show products from all subcategories
      */
-    @Transactional(readOnly = true)
     public List<Long> getAllDescendantIds(Long categoryId) {
-        List<Long> ids = new ArrayList<>();
-        ids.add(categoryId); // Include the parent category itself
-        
-        Category category = categoryRepository.findById(categoryId).orElse(null);
-        if (category != null) {
-            collectDescendantIds(category, ids);
-        }
-        
-        return ids;
-    }
-
-    /**
-     * Recursively collect all descendant IDs
-     */
-    private void collectDescendantIds(Category category, List<Long> ids) {
-        List<Category> children = categoryRepository.findByParentIdOrderByDisplayOrderAsc(category.getId());
-        for (Category child : children) {
-            ids.add(child.getId());
-            collectDescendantIds(child, ids); // Recursive call for nested subcategories
-        }
+        return categoryTreeIndex.getDescendantIds(categoryId);
     }
-}
\ No newline at end of file
+}
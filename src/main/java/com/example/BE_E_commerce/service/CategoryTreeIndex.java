@@ -0,0 +1,273 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.cache.CacheInvalidationPublisher;
+import com.example.BE_E_commerce.cache.TwoLevelCacheManager;
+import com.example.BE_E_commerce.dto.response.CategoryResponse;
+import com.example.BE_E_commerce.entity.Category;
+import com.example.BE_E_commerce.mapper.CategoryMapper;
+import com.example.BE_E_commerce.repository.CategoryRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory, immutable index of the category hierarchy.
+ * Built from one findAll plus one grouped product count, then answers
+ * descendant sets, subtree product counts and the assembled trees without further queries.
+ * The trees are also pre-rendered to JSON and swapped together with the snapshot.
+ * Category writes invalidate it after commit and broadcast the invalidation to the other nodes;
+ * product counts refresh on max age.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryTreeIndex {
+
+    private final CategoryRepository categoryRepository;
+    private final CategoryMapper categoryMapper;
+    private final ObjectMapper objectMapper;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final TwoLevelCacheManager cacheManager;
+
+    // Name the invalidations travel under on the cache invalidation channel
+    static final String CACHE_NAME = "categoryTree";
+
+    @Value("${app.category-index.max-age-seconds:60}")
+    private long maxAgeSeconds;
+
+    // Bumped on every category change; a snapshot is valid only for the generation it was built from
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    @PostConstruct
+    public void init() {
+        cacheManager.onRemoteClear(CACHE_NAME, generation::incrementAndGet);
+    }
+
+    /**
+     * Category ID plus all its descendant IDs (pre-order)
+     */
+    public List<Long> getDescendantIds(Long categoryId) {
+        List<Long> ids = current().descendantIds.get(categoryId);
+        return ids != null ? ids : List.of(categoryId);
+    }
+
+    /**
+     * Number of products in the category and all its descendants
+     */
+    public long getSubtreeProductCount(Long categoryId) {
+        return current().subtreeProductCounts.getOrDefault(categoryId, 0L);
+    }
+
+    /**
+     * Full category tree (roots and children ordered by display order)
+     */
+    public List<CategoryResponse> getTree() {
+        return current().tree;
+    }
+
+    /**
+     * Tree of active categories only; an inactive category hides its subtree
+     */
+    public List<CategoryResponse> getActiveTree() {
+        return current().activeTree;
+    }
+
+    /**
+     * Full category tree pre-rendered as JSON
+     */
+    public byte[] getTreeJson() {
+        return current().treeJson;
+    }
+
+    /**
+     * Active category tree pre-rendered as JSON
+     */
+    public byte[] getActiveTreeJson() {
+        return current().activeTreeJson;
+    }
+
+    /**
+     * Mark the index stale on every node once the current transaction commits
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow();
+                }
+            });
+        } else {
+            invalidateNow();
+        }
+    }
+
+    private void invalidateNow() {
+        generation.incrementAndGet();
+        invalidationPublisher.publishClear(CACHE_NAME);
+    }
+
+    /**
+     * Current snapshot, rebuilt when invalidated or expired
+     */
+    Snapshot current() {
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (!isFresh(current)) {
+                current = build(generation.get());
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private boolean isFresh(Snapshot current) {
+        return current != null
+                && current.generation == generation.get()
+                && System.currentTimeMillis() - current.builtAt < maxAgeSeconds * 1000;
+    }
+
+    private Snapshot build(long buildGeneration) {
+        List<Category> categories = new ArrayList<>(categoryRepository.findAll());
+
+        Map<Long, Long> directCounts = new HashMap<>();
+        for (CategoryRepository.CategoryProductCount count : categoryRepository.countProductsGroupedByCategory()) {
+            directCounts.put(count.getCategoryId(), count.getProductCount());
+        }
+
+        // Group children by parent (parent ID is read from the FK, no proxy load)
+        categories.sort(Comparator.comparing(Category::getDisplayOrder).thenComparing(Category::getId));
+        Map<Long, List<Long>> childIds = new HashMap<>();
+        List<Long> rootIds = new ArrayList<>();
+        for (Category category : categories) {
+            if (category.getParent() == null) {
+                rootIds.add(category.getId());
+            } else {
+                childIds.computeIfAbsent(category.getParent().getId(), id -> new ArrayList<>()).add(category.getId());
+            }
+        }
+
+        Map<Long, List<Long>> descendantIds = new HashMap<>();
+        Map<Long, Long> subtreeCounts = new HashMap<>();
+        for (Long rootId : rootIds) {
+            collect(rootId, childIds, directCounts, descendantIds, subtreeCounts);
+        }
+
+        Map<Long, Category> categoriesById = new HashMap<>();
+        for (Category category : categories) {
+            categoriesById.put(category.getId(), category);
+        }
+        List<CategoryResponse> tree = assemble(rootIds, childIds, categoriesById, subtreeCounts, false);
+        List<CategoryResponse> activeTree = assemble(rootIds, childIds, categoriesById, subtreeCounts, true);
+
+        log.debug("Category tree index built: {} categories", categories.size());
+
+        return new Snapshot(buildGeneration, System.currentTimeMillis(),
+                Map.copyOf(descendantIds), Map.copyOf(subtreeCounts),
+                tree, activeTree, render(tree), render(activeTree));
+    }
+
+    /**
+     * Assemble response nodes level by level from the child lists
+     */
+    private List<CategoryResponse> assemble(List<Long> ids,
+                                            Map<Long, List<Long>> childIds,
+                                            Map<Long, Category> categoriesById,
+                                            Map<Long, Long> subtreeCounts,
+                                            boolean activeOnly) {
+        List<CategoryResponse> nodes = new ArrayList<>();
+        for (Long id : ids) {
+            Category category = categoriesById.get(id);
+            if (activeOnly && !Boolean.TRUE.equals(category.getIsActive())) {
+                continue;
+            }
+            CategoryResponse response = categoryMapper.toResponse(category);
+            response.setProductCount(subtreeCounts.getOrDefault(id, 0L));
+            response.setChildren(assemble(childIds.getOrDefault(id, List.of()),
+                    childIds, categoriesById, subtreeCounts, activeOnly));
+            nodes.add(response);
+        }
+        return List.copyOf(nodes);
+    }
+
+    private byte[] render(List<CategoryResponse> tree) {
+        try {
+            return objectMapper.writeValueAsBytes(tree);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to render category tree", e);
+        }
+    }
+
+    /**
+     * Walk a subtree once, filling descendant lists and product counts bottom-up
+     */
+    private List<Long> collect(Long categoryId,
+                               Map<Long, List<Long>> childIds,
+                               Map<Long, Long> directCounts,
+                               Map<Long, List<Long>> descendantIds,
+                               Map<Long, Long> subtreeCounts) {
+        List<Long> ids = new ArrayList<>();
+        ids.add(categoryId);
+        long count = directCounts.getOrDefault(categoryId, 0L);
+
+        for (Long childId : childIds.getOrDefault(categoryId, List.of())) {
+            ids.addAll(collect(childId, childIds, directCounts, descendantIds, subtreeCounts));
+            count += subtreeCounts.get(childId);
+        }
+
+        List<Long> immutableIds = List.copyOf(ids);
+        descendantIds.put(categoryId, immutableIds);
+        subtreeCounts.put(categoryId, count);
+        return immutableIds;
+    }
+
+    /**
+     * Immutable view of the hierarchy at one point in time
+     */
+    static final class Snapshot {
+        final long generation;
+        final long builtAt;
+        final Map<Long, List<Long>> descendantIds;
+        final Map<Long, Long> subtreeProductCounts;
+        final List<CategoryResponse> tree;
+        final List<CategoryResponse> activeTree;
+        final byte[] treeJson;
+        final byte[] activeTreeJson;
+
+        Snapshot(long generation, long builtAt,
+                 Map<Long, List<Long>> descendantIds,
+                 Map<Long, Long> subtreeProductCounts,
+                 List<CategoryResponse> tree,
+                 List<CategoryResponse> activeTree,
+                 byte[] treeJson,
+                 byte[] activeTreeJson) {
+            this.generation = generation;
+            this.builtAt = builtAt;
+            this.descendantIds = descendantIds;
+            this.subtreeProductCounts = subtreeProductCounts;
+            this.tree = tree;
+            this.activeTree = activeTree;
+            this.treeJson = treeJson;
+            this.activeTreeJson = activeTreeJson;
+        }
+    }
+}
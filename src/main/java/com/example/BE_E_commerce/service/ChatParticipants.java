@@ -0,0 +1,64 @@
+package com.example.BE_E_commerce.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Buyer and seller of each conversation, cached on-heap.
+ * Every sent message and every subscription is checked against it, and the pair
+ * never changes once a conversation exists, so only hits are cached.
+ */
+@Component
+public class ChatParticipants {
+
+    private static final String PARTICIPANTS_SQL = "SELECT buyer_id, seller_id FROM conversations WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Long, Participants> participants;
+
+    public ChatParticipants(JdbcTemplate jdbcTemplate,
+                            @Value("${app.chat.participants-cache.max-size:100000}") long maxSize,
+                            @Value("${app.chat.participants-cache.ttl:1h}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.participants = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(ttl)
+                .build();
+    }
+
+    /**
+     * Participants of a conversation, empty if it does not exist
+     */
+    public Optional<Participants> get(Long conversationId) {
+        // A null load is not cached, so a conversation created later is still found
+        return Optional.ofNullable(participants.get(conversationId, this::load));
+    }
+
+    /**
+     * Whether the user is the buyer or the seller of the conversation
+     */
+    public boolean isParticipant(Long conversationId, Long userId) {
+        return userId != null && get(conversationId).map(p -> p.includes(userId)).orElse(false);
+    }
+
+    private Participants load(Long conversationId) {
+        List<Participants> rows = jdbcTemplate.query(PARTICIPANTS_SQL,
+                (rs, rowNum) -> new Participants(rs.getLong("buyer_id"), rs.getLong("seller_id")),
+                conversationId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    public record Participants(long buyerId, long sellerId) {
+
+        public boolean includes(long userId) {
+            return buyerId == userId || sellerId == userId;
+        }
+    }
+}
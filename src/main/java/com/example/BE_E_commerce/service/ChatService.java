@@ -0,0 +1,271 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.request.ChatMessageRequest;
+import com.example.BE_E_commerce.dto.response.ChatMessageResponse;
+import com.example.BE_E_commerce.exception.BadRequestException;
+import com.example.BE_E_commerce.exception.ResourceNotFoundException;
+import com.example.BE_E_commerce.id.SnowflakeIdGenerator;
+import com.example.BE_E_commerce.security.jwt.StompAuthChannelInterceptor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.BE_E_commerce.config.SchedulingConfig.FLUSH_SCHEDULER;
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.CHAT_CHANNEL;
+
+/**
+ * Real-time chat between a buyer and a shop.
+ *
+ * Send: the sender is checked against the cached participants, the message gets a
+ * time-ordered id and goes into a bounded write buffer, then is published on a Redis
+ * channel. A full buffer rejects the send rather than growing without bound.
+ *
+ * Delivery: every node (this one included) receives each message from Redis in publish
+ * order and hands it to a lane picked by conversation id. Lanes are single virtual threads,
+ * so messages of one conversation reach the local broker in order while conversations
+ * proceed in parallel.
+ *
+ * Persistence: the buffer is drained into multi-row inserts into messages, with one
+ * last_message update per conversation per batch; recipients' unread counters move once
+ * the batch committed. History reads lag by at most one flush.
+ */
+@Service
+@Slf4j
+public class ChatService implements MessageListener {
+
+    private static final String INSERT_MESSAGE_SQL =
+            "INSERT IGNORE INTO messages (id, conversation_id, sender_id, content, attachment_url, is_read, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, FALSE, ?)";
+
+    // Never moves last_message back when batches from different nodes commit out of order
+    private static final String UPDATE_LAST_MESSAGE_SQL =
+            "UPDATE conversations SET last_message = ?, last_message_at = ? "
+                    + "WHERE id = ? AND (last_message_at IS NULL OR last_message_at <= ?)";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChatParticipants chatParticipants;
+    private final UnreadCounterService unreadCounterService;
+
+    private final BlockingQueue<ChatMessageResponse> pending;
+    private final ExecutorService[] lanes;
+
+    @Value("${app.chat.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    public ChatService(SimpMessagingTemplate messagingTemplate,
+                       StringRedisTemplate redisTemplate,
+                       RedisMessageListenerContainer listenerContainer,
+                       ObjectMapper objectMapper,
+                       JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       ChatParticipants chatParticipants,
+                       UnreadCounterService unreadCounterService,
+                       @Value("${app.chat.buffer-capacity:50000}") int bufferCapacity,
+                       @Value("${app.chat.delivery-lanes:64}") int deliveryLanes) {
+        this.messagingTemplate = messagingTemplate;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chatParticipants = chatParticipants;
+        this.unreadCounterService = unreadCounterService;
+        this.pending = new ArrayBlockingQueue<>(bufferCapacity);
+        this.lanes = new ExecutorService[deliveryLanes];
+        for (int i = 0; i < deliveryLanes; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("chat-lane-" + i).factory());
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHAT_CHANNEL));
+    }
+
+    // ========== SEND ==========
+
+    /**
+     * Accept a message from a participant; it is delivered and stored asynchronously
+     */
+    public ChatMessageResponse send(Long conversationId, Long senderId, ChatMessageRequest request) {
+        if (!chatParticipants.isParticipant(conversationId, senderId)) {
+            throw new ResourceNotFoundException("Conversation", "id", conversationId);
+        }
+
+        ChatMessageResponse message = ChatMessageResponse.builder()
+                .id(SnowflakeIdGenerator.getInstance().nextId())
+                .conversationId(conversationId)
+                .senderId(senderId)
+                .content(request.getContent().trim())
+                .attachmentUrl(request.getAttachmentUrl())
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        if (!pending.offer(message)) {
+            log.warn("Chat write buffer is full, rejecting message to conversation {}", conversationId);
+            throw new BadRequestException("Chat is busy, please try again");
+        }
+
+        try {
+            redisTemplate.convertAndSend(CHAT_CHANNEL, objectMapper.writeValueAsString(message));
+        } catch (Exception e) {
+            // Stored anyway; without the relay only this node's subscribers see it live
+            log.error("Failed to relay chat message {}: {}", message.getId(), e.getMessage());
+            deliver(message);
+        }
+        return message;
+    }
+
+    // ========== DELIVERY ==========
+
+    /**
+     * Message relayed by any node (including this one); runs on the subscription thread
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            deliver(objectMapper.readValue(message.getBody(), ChatMessageResponse.class));
+        } catch (Exception e) {
+            log.error("Dropping unreadable chat relay message: {}", e.getMessage());
+        }
+    }
+
+    private void deliver(ChatMessageResponse message) {
+        int lane = (int) Math.floorMod(message.getConversationId(), (long) lanes.length);
+        lanes[lane].execute(() -> {
+            try {
+                messagingTemplate.convertAndSend(
+                        StompAuthChannelInterceptor.CONVERSATION_TOPIC + message.getConversationId(), message);
+            } catch (Exception e) {
+                log.error("Failed to deliver chat message {}: {}", message.getId(), e.getMessage());
+            }
+        });
+    }
+
+    // ========== PERSISTENCE ==========
+
+    /**
+     * Write buffered messages to MySQL in batches
+     */
+    @Scheduled(fixedDelayString = "${app.chat.flush-interval:200}", scheduler = FLUSH_SCHEDULER)
+    public synchronized void flush() {
+        List<ChatMessageResponse> batch = new ArrayList<>(flushBatchSize);
+        while (pending.drainTo(batch, flushBatchSize) > 0) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> writeBatch(batch));
+            } catch (Exception e) {
+                log.error("Failed to store {} chat messages: {}", batch.size(), e.getMessage());
+                requeue(batch);
+                return;
+            }
+            unreadCounterService.messagesCreated(unreadByRecipient(batch));
+            batch.clear();
+        }
+    }
+
+    void writeBatch(List<ChatMessageResponse> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        // Sorted by conversation so concurrent flushes on other nodes lock rows in the same order
+        Map<Long, ChatMessageResponse> latest = new TreeMap<>();
+        for (ChatMessageResponse message : batch) {
+            rows.add(new Object[]{
+                    message.getId(),
+                    message.getConversationId(),
+                    message.getSenderId(),
+                    message.getContent(),
+                    message.getAttachmentUrl(),
+                    message.getCreatedAt()
+            });
+            latest.merge(message.getConversationId(), message,
+                    (current, next) -> next.getId() > current.getId() ? next : current);
+        }
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE_SQL, rows);
+
+        List<Object[]> updates = new ArrayList<>(latest.size());
+        latest.forEach((conversationId, message) -> updates.add(new Object[]{
+                message.getContent(),
+                message.getCreatedAt(),
+                conversationId,
+                message.getCreatedAt()
+        }));
+        jdbcTemplate.batchUpdate(UPDATE_LAST_MESSAGE_SQL, updates);
+    }
+
+    /**
+     * New messages per recipient (the participant who did not send them) and conversation
+     */
+    Map<Long, Map<Long, Long>> unreadByRecipient(List<ChatMessageResponse> batch) {
+        Map<Long, Map<Long, Long>> unread = new HashMap<>();
+        for (ChatMessageResponse message : batch) {
+            chatParticipants.get(message.getConversationId()).ifPresent(participants -> {
+                long recipient = participants.buyerId() == message.getSenderId()
+                        ? participants.sellerId()
+                        : participants.buyerId();
+                unread.computeIfAbsent(recipient, userId -> new HashMap<>())
+                        .merge(message.getConversationId(), 1L, Long::sum);
+            });
+        }
+        return unread;
+    }
+
+    /**
+     * Put a failed batch back for the next flush (inserts are idempotent by id)
+     */
+    private void requeue(List<ChatMessageResponse> batch) {
+        int dropped = 0;
+        for (ChatMessageResponse message : batch) {
+            if (!pending.offer(message)) {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            log.error("Chat write buffer is full, dropped {} unsaved messages", dropped);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            try {
+                lane.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.request.CheckoutRequest;
+import com.example.BE_E_commerce.dto.response.OrderResponse;
+import com.example.BE_E_commerce.entity.Cart;
+import com.example.BE_E_commerce.entity.CartItem;
+import com.example.BE_E_commerce.entity.Order;
+import com.example.BE_E_commerce.entity.OrderItem;
+import com.example.BE_E_commerce.entity.Product;
+import com.example.BE_E_commerce.entity.ProductVariant;
+import com.example.BE_E_commerce.entity.Shop;
+import com.example.BE_E_commerce.entity.User;
+import com.example.BE_E_commerce.entity.UserAddress;
+import com.example.BE_E_commerce.enums.ProductStatus;
+import com.example.BE_E_commerce.enums.ShopStatus;
+import com.example.BE_E_commerce.exception.BadRequestException;
+import com.example.BE_E_commerce.exception.ResourceNotFoundException;
+import com.example.BE_E_commerce.exception.UnauthorizedException;
+import com.example.BE_E_commerce.id.SnowflakeIdGenerator;
+import com.example.BE_E_commerce.mapper.OrderMapper;
+import com.example.BE_E_commerce.repository.CartItemRepository;
+import com.example.BE_E_commerce.repository.CartRepository;
+import com.example.BE_E_commerce.repository.OrderRepository;
+import com.example.BE_E_commerce.repository.UserAddressRepository;
+import com.example.BE_E_commerce.repository.UserRepository;
+import com.example.BE_E_commerce.service.OutboxService.Entry;
+import com.example.BE_E_commerce.service.VoucherCatalog.Definition;
+import com.example.BE_E_commerce.util.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Turns the current user's cart into one order per shop.
+ *
+ * The whole checkout costs a bounded number of round trips regardless of cart size:
+ * one query for the cart graph, one for the address, one stock reservation script,
+ * JDBC-batched inserts for orders and items (ids are assigned before insert) and one
+ * delete for the cart. Each shop's earnings are appended to its ledger, never applied to
+ * its balance row inline, and sellers are notified from ORDER_PLACED outbox events
+ * recorded in the same transaction. A voucher is validated from the in-memory catalog and claimed in
+ * Redis; its slot is given back if the orders do not commit. The stock reservation is
+ * confirmed right before the commit, so orders are never committed without their sale.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CheckoutService {
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final CartService cartService;
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final UserAddressRepository addressRepository;
+    private final StockReservationService stockReservationService;
+    private final VoucherService voucherService;
+    private final LedgerService ledgerService;
+    private final OrderMapper orderMapper;
+    private final OutboxService outboxService;
+
+    @Value("${app.commission-rate:5.0}")
+    private BigDecimal defaultCommissionRate;
+
+    /**
+     * Place orders for everything in the current user's cart
+     */
+    @Transactional
+    public List<OrderResponse> checkout(CheckoutRequest request) {
+        Long userId = SecurityUtils.getCurrentUserId()
+                .orElseThrow(() -> new UnauthorizedException("User not authenticated"));
+
+        // The working cart lives in Redis; make MySQL current before reading it
+        cartService.flushCart(userId);
+        Cart cart = cartRepository.findByUserIdWithItems(userId)
+                .filter(c -> !c.getItems().isEmpty())
+                .orElseThrow(() -> new BadRequestException("Cart is empty"));
+        cart.getItems().forEach(this::validateItem);
+        Definition voucher = StringUtils.hasText(request.getVoucherCode())
+                ? voucherService.getUsableVoucher(request.getVoucherCode().trim())
+                : null;
+
+        UserAddress address = addressRepository.findByIdAndUserId(request.getAddressId(), userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Address", "id", request.getAddressId()));
+
+        // Stock is taken in Redis first; it is kept if the orders commit and given back otherwise
+        String reservationId = stockReservationService.reserve(cart.getItems().stream()
+                .collect(Collectors.toMap(item -> item.getProductVariant().getId(), CartItem::getQuantity, Integer::sum)));
+        String claimToken = voucher != null ? UUID.randomUUID().toString() : null;
+        settleWithTransaction(userId, reservationId, claimToken);
+
+        User user = userRepository.getReferenceById(userId);
+        List<Order> orders = new ArrayList<>();
+        cart.groupByShop().forEach((shop, items) -> {
+            Order order = buildOrder(user, shop, address, request);
+            buildItems(items).forEach(order::addItem);
+            order.calculateTotals();
+            orders.add(order);
+        });
+        if (voucher != null) {
+            applyVoucher(orders, voucher);
+            voucherService.claim(voucher, userId, claimToken);
+            voucherService.recordRedemption(voucher, userId, claimToken);
+        }
+
+        // Flushed here so the response carries generated timestamps; inserts go out in JDBC batches
+        orderRepository.saveAllAndFlush(orders);
+        ledgerService.recordOrders(orders);
+        cartItemRepository.deleteByCartId(cart.getId());
+        recordOrdersPlaced(orders);
+
+        log.info("User {} placed {} orders from cart {}", userId, orders.size(), cart.getId());
+
+        return orders.stream()
+                .map(order -> {
+                    OrderResponse response = orderMapper.toResponse(order);
+                    response.setItems(orderMapper.toItemResponseList(order.getItems()));
+                    return response;
+                })
+                .collect(Collectors.toList());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void validateItem(CartItem item) {
+        ProductVariant variant = item.getProductVariant();
+        Product product = variant.getProduct();
+        if (!Boolean.TRUE.equals(variant.getIsActive()) || product.getStatus() != ProductStatus.ACTIVE) {
+            throw new BadRequestException("Product is no longer available: " + product.getName());
+        }
+        if (product.getShop().getStatus() != ShopStatus.ACTIVE) {
+            throw new BadRequestException("Shop is not accepting orders: " + product.getShop().getName());
+        }
+    }
+
+    private Order buildOrder(User user, Shop shop, UserAddress address, CheckoutRequest request) {
+        return Order.builder()
+                .orderCode(generateOrderCode())
+                .user(user)
+                .shop(shop)
+                .recipientName(address.getRecipientName())
+                .phone(address.getPhone())
+                .addressLine(address.getAddressLine())
+                .ward(address.getWard())
+                .district(address.getDistrict())
+                .city(address.getCity())
+                .commissionRate(shop.getCommissionRate() != null ? shop.getCommissionRate() : defaultCommissionRate)
+                .paymentMethod(request.getPaymentMethod())
+                .buyerNote(request.getBuyerNote())
+                .build();
+    }
+
+    private List<OrderItem> buildItems(List<CartItem> cartItems) {
+        List<OrderItem> items = new ArrayList<>(cartItems.size());
+        for (CartItem cartItem : cartItems) {
+            ProductVariant variant = cartItem.getProductVariant();
+            OrderItem item = OrderItem.builder()
+                    .product(variant.getProduct())
+                    .productVariant(variant)
+                    .productName(variant.getProduct().getName())
+                    .variantName(variant.getDisplayName())
+                    .price(variant.getPrice())
+                    .quantity(cartItem.getQuantity())
+                    .build();
+            item.calculateSubtotal();
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * Spread the voucher's discount over the orders it covers, in proportion to their
+     * subtotals; the last order takes the rounding remainder
+     */
+    private void applyVoucher(List<Order> orders, Definition voucher) {
+        List<Order> eligible = orders.stream()
+                .filter(order -> voucher.isPlatform() || voucher.shopId().equals(order.getShop().getId()))
+                .collect(Collectors.toList());
+        if (eligible.isEmpty()) {
+            throw new BadRequestException("Voucher does not apply to any shop in your cart");
+        }
+
+        BigDecimal subtotal = eligible.stream()
+                .map(Order::getSubtotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal discount = voucher.discountFor(subtotal);
+        if (discount.signum() <= 0) {
+            throw new BadRequestException("Order value is below the voucher's minimum of " + voucher.minOrderValue());
+        }
+
+        BigDecimal remaining = discount;
+        for (int i = 0; i < eligible.size(); i++) {
+            Order order = eligible.get(i);
+            BigDecimal share = i == eligible.size() - 1
+                    ? remaining
+                    : discount.multiply(order.getSubtotal()).divide(subtotal, 2, RoundingMode.DOWN);
+            order.setDiscountAmount(share);
+            order.calculateTotals();
+            remaining = remaining.subtract(share);
+        }
+    }
+
+    /**
+     * Confirm the reservation before the commit, so a failed confirm (Redis down, reservation
+     * expired) rolls the orders back instead of leaving a sale the release job would undo.
+     * If the commit itself fails after confirming, the stock stays taken: undercounted, never oversold.
+     */
+    private void settleWithTransaction(Long userId, String reservationId, String claimToken) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean confirmed;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                stockReservationService.confirm(reservationId);
+                confirmed = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        cartService.discardWorkingCart(userId);
+                    } else if (confirmed) {
+                        log.error("Checkout of user {} rolled back after reservation {} was confirmed; its stock stays taken",
+                                userId, reservationId);
+                        if (claimToken != null) {
+                            voucherService.release(claimToken);
+                        }
+                    } else {
+                        stockReservationService.release(reservationId);
+                        if (claimToken != null) {
+                            voucherService.release(claimToken);
+                        }
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to settle checkout reservation {}: {}", reservationId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * One ORDER_PLACED event per order, committed with the orders; sellers are notified from the outbox
+     */
+    private void recordOrdersPlaced(List<Order> orders) {
+        outboxService.append(orders.stream()
+                .map(order -> new Entry(DomainEvent.ORDER, order.getId(), DomainEvent.ORDER_PLACED, Map.of(
+                        "orderCode", order.getOrderCode(),
+                        "buyerId", order.getUser().getId(),
+                        "shopId", order.getShop().getId(),
+                        "shopName", order.getShop().getName(),
+                        "sellerId", order.getShop().getOwner().getId(),
+                        "totalAmount", order.getTotalAmount())))
+                .toList());
+    }
+
+    /**
+     * Unique without a DB lookup: backed by a fresh time-ordered id
+     */
+    private String generateOrderCode() {
+        return "ORD" + SnowflakeIdGenerator.getInstance().nextId();
+    }
+}
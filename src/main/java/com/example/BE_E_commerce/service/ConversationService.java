@@ -0,0 +1,188 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.request.ConversationRequest;
+import com.example.BE_E_commerce.dto.response.ChatMessageResponse;
+import com.example.BE_E_commerce.dto.response.ConversationResponse;
+import com.example.BE_E_commerce.dto.response.CursorPageResponse;
+import com.example.BE_E_commerce.dto.response.PageResponse;
+import com.example.BE_E_commerce.entity.Conversation;
+import com.example.BE_E_commerce.entity.Shop;
+import com.example.BE_E_commerce.enums.ShopStatus;
+import com.example.BE_E_commerce.exception.BadRequestException;
+import com.example.BE_E_commerce.exception.ResourceNotFoundException;
+import com.example.BE_E_commerce.exception.UnauthorizedException;
+import com.example.BE_E_commerce.repository.ConversationRepository;
+import com.example.BE_E_commerce.repository.ShopRepository;
+import com.example.BE_E_commerce.util.CursorUtils;
+import com.example.BE_E_commerce.util.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conversations and message history over REST; live messages go through {@link ChatService}
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationService {
+
+    private static final int MAX_HISTORY_PAGE = 100;
+
+    // Scope of the opaque cursor tokens of the message history
+    private static final String CURSOR_FEED = "MESSAGES";
+
+    // The (buyer_id, shop_id) unique key makes concurrent opens converge on one row
+    private static final String ENSURE_CONVERSATION_SQL =
+            "INSERT IGNORE INTO conversations (buyer_id, seller_id, shop_id, created_at) VALUES (?, ?, ?, NOW())";
+
+    private static final String HISTORY_SQL = """
+            SELECT id, conversation_id, sender_id, content, attachment_url, created_at
+            FROM messages
+            WHERE conversation_id = ? AND id < ?
+            ORDER BY id DESC
+            LIMIT ?
+            """;
+
+    private static final String MARK_READ_SQL =
+            "UPDATE messages SET is_read = TRUE WHERE conversation_id = ? AND sender_id <> ? AND is_read = FALSE";
+
+    private final ConversationRepository conversationRepository;
+    private final ShopRepository shopRepository;
+    private final ChatParticipants chatParticipants;
+    private final PresenceService presenceService;
+    private final UnreadCounterService unreadCounterService;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Open (or reuse) the current user's conversation with a shop
+     */
+    @Transactional
+    public ConversationResponse openConversation(ConversationRequest request) {
+        Long userId = currentUserId();
+        Shop shop = shopRepository.findById(request.getShopId())
+                .orElseThrow(() -> new ResourceNotFoundException("Shop", "id", request.getShopId()));
+        if (shop.getStatus() != ShopStatus.ACTIVE) {
+            throw new BadRequestException("Shop is not active");
+        }
+        Long sellerId = shop.getOwner().getId();
+        if (sellerId.equals(userId)) {
+            throw new BadRequestException("You cannot start a conversation with your own shop");
+        }
+
+        jdbcTemplate.update(ENSURE_CONVERSATION_SQL, userId, sellerId, shop.getId());
+        Conversation conversation = conversationRepository.findByBuyerIdAndShopId(userId, shop.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("Conversation", "shopId", shop.getId()));
+        return toResponse(conversation);
+    }
+
+    /**
+     * Conversations of the current user, as buyer or seller
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<ConversationResponse> getMyConversations(Pageable pageable) {
+        Long userId = currentUserId();
+        Page<Conversation> page = conversationRepository.findByParticipant(userId, pageable);
+        List<ConversationResponse> content = page.getContent().stream().map(this::toResponse).toList();
+
+        // One presence lookup and one unread lookup for the whole page
+        Map<Long, Boolean> online = presenceService.areOnline(content.stream()
+                .map(conversation -> counterpartOf(conversation, userId))
+                .toList());
+        Map<Long, Long> unread = unreadCounterService.getConversationUnread(userId, content.stream()
+                .map(ConversationResponse::getId)
+                .toList());
+        content.forEach(conversation -> {
+            conversation.setCounterpartOnline(online.getOrDefault(counterpartOf(conversation, userId), false));
+            conversation.setUnreadCount(unread.getOrDefault(conversation.getId(), 0L));
+        });
+
+        return PageResponse.<ConversationResponse>builder()
+                .content(content)
+                .pageNumber(page.getNumber())
+                .pageSize(page.getSize())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages())
+                .isLast(page.isLast())
+                .isFirst(page.isFirst())
+                .build();
+    }
+
+    /**
+     * Messages older than the cursor, newest first. Messages still in the chat write
+     * buffer appear after the next flush; clients already have them from the socket.
+     */
+    public CursorPageResponse<ChatMessageResponse> getMessages(Long conversationId, String cursor, int size) {
+        if (!chatParticipants.isParticipant(conversationId, currentUserId())) {
+            throw new ResourceNotFoundException("Conversation", "id", conversationId);
+        }
+
+        long beforeId = cursor != null ? CursorUtils.decodeId(cursor, CURSOR_FEED) : Long.MAX_VALUE;
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE));
+        List<ChatMessageResponse> messages = jdbcTemplate.query(HISTORY_SQL,
+                (rs, rowNum) -> ChatMessageResponse.builder()
+                        .id(rs.getLong("id"))
+                        .conversationId(rs.getLong("conversation_id"))
+                        .senderId(rs.getLong("sender_id"))
+                        .content(rs.getString("content"))
+                        .attachmentUrl(rs.getString("attachment_url"))
+                        .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                        .build(),
+                conversationId, beforeId, pageSize + 1);
+
+        boolean hasNext = messages.size() > pageSize;
+        List<ChatMessageResponse> content = hasNext ? messages.subList(0, pageSize) : messages;
+        return CursorPageResponse.<ChatMessageResponse>builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(hasNext ? CursorUtils.encodeId(CURSOR_FEED, content.get(content.size() - 1).getId()) : null)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    /**
+     * Mark everything the other side sent in a conversation read
+     */
+    public void markRead(Long conversationId) {
+        Long userId = currentUserId();
+        if (!chatParticipants.isParticipant(conversationId, userId)) {
+            throw new ResourceNotFoundException("Conversation", "id", conversationId);
+        }
+        int updated = jdbcTemplate.update(MARK_READ_SQL, conversationId, userId);
+        unreadCounterService.messagesRead(userId, conversationId, updated);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private Long currentUserId() {
+        return SecurityUtils.getCurrentUserId()
+                .orElseThrow(() -> new UnauthorizedException("User not authenticated"));
+    }
+
+    private Long counterpartOf(ConversationResponse conversation, Long userId) {
+        return userId.equals(conversation.getBuyerId()) ? conversation.getSellerId() : conversation.getBuyerId();
+    }
+
+    private ConversationResponse toResponse(Conversation conversation) {
+        return ConversationResponse.builder()
+                .id(conversation.getId())
+                .shopId(conversation.getShop().getId())
+                .shopName(conversation.getShop().getName())
+                .shopLogoUrl(conversation.getShop().getLogoUrl())
+                .buyerId(conversation.getBuyer().getId())
+                .buyerName(conversation.getBuyer().getFullName())
+                .buyerAvatarUrl(conversation.getBuyer().getAvatarUrl())
+                .sellerId(conversation.getSeller().getId())
+                .lastMessage(conversation.getLastMessage())
+                .lastMessageAt(conversation.getLastMessageAt())
+                .build();
+    }
+}
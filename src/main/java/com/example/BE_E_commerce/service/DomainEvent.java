@@ -0,0 +1,28 @@
+package com.example.BE_E_commerce.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outbox row as delivered to in-process listeners ({@code @EventListener} methods).
+ *
+ * Delivery is at least once: a listener that throws makes the relay retry the event for
+ * every listener, so listeners must tolerate seeing an event again. Events of one
+ * aggregate arrive in the order they were recorded.
+ */
+public record DomainEvent(Long id,
+                          String aggregateType,
+                          String aggregateId,
+                          String type,
+                          JsonNode payload,
+                          LocalDateTime createdAt) {
+
+    // ========== AGGREGATES ==========
+    public static final String USER = "USER";
+    public static final String ORDER = "ORDER";
+
+    // ========== TYPES ==========
+    public static final String USER_REGISTERED = "USER_REGISTERED";
+    public static final String ORDER_PLACED = "ORDER_PLACED";
+}
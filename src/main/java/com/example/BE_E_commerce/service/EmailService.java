@@ -92,8 +92,10 @@ public class EmailService {
     }
 
     /**
-     * Send password reset email
+     * Send password reset email. The templated senders are async themselves: their call to
+     * sendHtmlEmail is a self-invocation, which does not go through the @Async proxy
      */
+    @Async
     public void sendPasswordResetEmail(String to, String fullName, String resetToken) {
         String resetUrl = frontendUrl + "/reset-password?token=" + resetToken;
 
@@ -116,6 +118,7 @@ public class EmailService {
     /**
      * Send welcome email
      */
+    @Async
     public void sendWelcomeEmail(String to, String fullName, String username) {
         String loginUrl = frontendUrl + "/login";
 
@@ -138,6 +141,7 @@ public class EmailService {
     /**
      * Send order confirmation email (bonus)
      */
+    @Async
     public void sendOrderConfirmationEmail(String to, String fullName, String orderCode, String orderTotal) {
         Map<String, Object> variables = new HashMap<>();
         variables.put("fullName", fullName);
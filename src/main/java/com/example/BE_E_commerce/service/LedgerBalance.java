@@ -0,0 +1,78 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.enums.TransactionStatus;
+import com.example.BE_E_commerce.enums.TransactionType;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Balance of one shop folded from ledger entries. This is the one place that says how an
+ * entry moves money between the pending, available and withdrawn buckets:
+ * <ul>
+ *   <li>ORDER, PENDING: the seller's share of a placed order is held (pending +)</li>
+ *   <li>ORDER, COMPLETED: the hold is settled (pending -, available +)</li>
+ *   <li>REFUND, COMPLETED: money returned to the buyer out of held funds (pending -)</li>
+ *   <li>WITHDRAWAL, PENDING: payout requested (available -, withdrawn +)</li>
+ *   <li>WITHDRAWAL, FAILED: payout bounced, reverses the request (available +, withdrawn -)</li>
+ * </ul>
+ * Anything else (commission entries, which order amounts are already net of) moves nothing.
+ */
+@Getter
+final class LedgerBalance {
+
+    private BigDecimal available;
+    private BigDecimal pending;
+    private BigDecimal withdrawn;
+
+    LedgerBalance(BigDecimal available, BigDecimal pending, BigDecimal withdrawn) {
+        this.available = available;
+        this.pending = pending;
+        this.withdrawn = withdrawn;
+    }
+
+    static LedgerBalance zero() {
+        return new LedgerBalance(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+
+    LedgerBalance apply(TransactionType type, TransactionStatus status, BigDecimal amount) {
+        switch (type) {
+            case ORDER -> {
+                if (status == TransactionStatus.PENDING) {
+                    pending = pending.add(amount);
+                } else if (status == TransactionStatus.COMPLETED) {
+                    pending = pending.subtract(amount);
+                    available = available.add(amount);
+                }
+            }
+            case REFUND -> {
+                if (status == TransactionStatus.COMPLETED) {
+                    pending = pending.subtract(amount);
+                }
+            }
+            case WITHDRAWAL -> {
+                if (status == TransactionStatus.PENDING) {
+                    available = available.subtract(amount);
+                    withdrawn = withdrawn.add(amount);
+                } else if (status == TransactionStatus.FAILED) {
+                    available = available.add(amount);
+                    withdrawn = withdrawn.subtract(amount);
+                }
+            }
+            default -> {
+            }
+        }
+        return this;
+    }
+
+    boolean sameAs(LedgerBalance other) {
+        return available.compareTo(other.available) == 0
+                && pending.compareTo(other.pending) == 0
+                && withdrawn.compareTo(other.withdrawn) == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "available=" + available + ", pending=" + pending + ", withdrawn=" + withdrawn;
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.entity.JobCheckpoint;
+import com.example.BE_E_commerce.enums.TransactionStatus;
+import com.example.BE_E_commerce.enums.TransactionType;
+import com.example.BE_E_commerce.id.SnowflakeIdGenerator;
+import com.example.BE_E_commerce.repository.JobCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Folds ledger entries into shop_balances.
+ *
+ * Projection: every few seconds, entries after the checkpoint are summed per shop and applied
+ * with one upsert per shop, in the same MySQL transaction that advances the checkpoint, so
+ * each entry is folded exactly once. Entries younger than the fold lag are left for the next
+ * run: ids are time-ordered, and the lag gives in-flight inserts with smaller ids time to commit.
+ *
+ * Reconciliation: nightly, each balance row is recomputed from all of its shop's entries up
+ * to the row's watermark. A mismatch (an insert that committed later than the lag) is logged
+ * and the row is corrected.
+ */
+@Service
+@Slf4j
+public class LedgerProjector {
+
+    static final String CHECKPOINT = "ledger-projection";
+
+    private static final String FOLD_SQL = """
+            SELECT shop_id, type, status, SUM(amount) AS amount, MAX(id) AS last_id
+            FROM transactions
+            WHERE id > ? AND id <= ?
+            GROUP BY shop_id, type, status
+            """;
+
+    private static final String UPSERT_BALANCE_SQL = """
+            INSERT INTO shop_balances (shop_id, available_balance, pending_balance, total_withdrawn, last_entry_id, updated_at)
+            VALUES (?, ?, ?, ?, ?, NOW())
+            ON DUPLICATE KEY UPDATE
+                available_balance = available_balance + VALUES(available_balance),
+                pending_balance = pending_balance + VALUES(pending_balance),
+                total_withdrawn = total_withdrawn + VALUES(total_withdrawn),
+                last_entry_id = GREATEST(last_entry_id, VALUES(last_entry_id)),
+                updated_at = NOW()
+            """;
+
+    private static final String BALANCE_PAGE_SQL = """
+            SELECT shop_id, available_balance, pending_balance, total_withdrawn, last_entry_id
+            FROM shop_balances WHERE shop_id > ? ORDER BY shop_id LIMIT ? FOR UPDATE
+            """;
+
+    private static final String SHOP_TOTALS_SQL =
+            "SELECT type, status, SUM(amount) AS amount FROM transactions WHERE shop_id = ? AND id <= ? GROUP BY type, status";
+
+    private static final String CORRECT_BALANCE_SQL =
+            "UPDATE shop_balances SET available_balance = ?, pending_balance = ?, total_withdrawn = ?, updated_at = NOW() WHERE shop_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    @Value("${app.ledger.fold-lag:5s}")
+    private Duration foldLag;
+
+    @Value("${app.ledger.max-fold-window:10m}")
+    private Duration maxFoldWindow;
+
+    @Value("${app.ledger.reconcile-batch-size:200}")
+    private int reconcileBatchSize;
+
+    public LedgerProjector(JdbcTemplate jdbcTemplate,
+                           JobCheckpointRepository checkpointRepository,
+                           PlatformTransactionManager transactionManager) {
+        this(jdbcTemplate, checkpointRepository, transactionManager, Clock.systemUTC());
+    }
+
+    LedgerProjector(JdbcTemplate jdbcTemplate,
+                    JobCheckpointRepository checkpointRepository,
+                    PlatformTransactionManager transactionManager,
+                    Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    // ========== PROJECTION ==========
+
+    @Scheduled(fixedDelayString = "${app.ledger.projection-interval:5000}")
+    public void project() {
+        try {
+            Integer shops = transactionTemplate.execute(status -> foldOnce());
+            if (shops != null && shops > 0) {
+                log.debug("Folded ledger entries of {} shops into balances", shops);
+            }
+        } catch (Exception e) {
+            log.error("Failed to project ledger into shop balances: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Fold one window of entries; must run inside a transaction (the checkpoint row lock
+     * keeps other nodes out until it commits)
+     *
+     * @return number of shops whose balance changed
+     */
+    int foldOnce() {
+        checkpointRepository.insertIfAbsent(CHECKPOINT);
+        JobCheckpoint checkpoint = checkpointRepository.findByNameForUpdate(CHECKPOINT)
+                .orElseThrow(() -> new IllegalStateException("Missing checkpoint " + CHECKPOINT));
+
+        long from = checkpoint.getPosition();
+        long to = foldUpperBound(from);
+        if (to <= from) {
+            return 0;
+        }
+
+        // Sorted by shop so upserts lock rows in the same order as reconciliation does
+        Map<Long, Fold> folds = new TreeMap<>();
+        jdbcTemplate.query(FOLD_SQL, rs -> {
+            Fold fold = folds.computeIfAbsent(rs.getLong("shop_id"), shopId -> new Fold());
+            fold.balance.apply(
+                    TransactionType.valueOf(rs.getString("type")),
+                    TransactionStatus.valueOf(rs.getString("status")),
+                    rs.getBigDecimal("amount"));
+            fold.lastEntryId = Math.max(fold.lastEntryId, rs.getLong("last_id"));
+        }, from, to);
+
+        if (!folds.isEmpty()) {
+            List<Object[]> batchArgs = new ArrayList<>(folds.size());
+            folds.forEach((shopId, fold) -> batchArgs.add(new Object[]{
+                    shopId,
+                    fold.balance.getAvailable(),
+                    fold.balance.getPending(),
+                    fold.balance.getWithdrawn(),
+                    fold.lastEntryId
+            }));
+            jdbcTemplate.batchUpdate(UPSERT_BALANCE_SQL, batchArgs);
+        }
+
+        checkpoint.setPosition(to);
+        return folds.size();
+    }
+
+    /**
+     * Highest id this run may fold: entries older than the lag, at most one window past the checkpoint
+     */
+    private long foldUpperBound(long from) {
+        Instant settled = clock.instant().minus(foldLag);
+        if (from > 0) {
+            Instant windowEnd = SnowflakeIdGenerator.timestampOf(from).plus(maxFoldWindow);
+            if (windowEnd.isBefore(settled)) {
+                settled = windowEnd;
+            }
+        }
+        // Ids below the first id of the settled millisecond are all older than it
+        return SnowflakeIdGenerator.firstIdAt(settled) - 1;
+    }
+
+    // ========== RECONCILIATION ==========
+
+    /**
+     * Recompute every balance row from the ledger and correct drift
+     */
+    @Scheduled(cron = "${app.ledger.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        long afterShopId = 0;
+        int checked = 0;
+        int corrected = 0;
+        try {
+            while (true) {
+                final long cursor = afterShopId;
+                ReconcileResult result = transactionTemplate.execute(status -> reconcilePage(cursor));
+                if (result == null || result.checked() == 0) {
+                    break;
+                }
+                checked += result.checked();
+                corrected += result.corrected();
+                afterShopId = result.lastShopId();
+            }
+            log.info("Ledger reconciliation checked {} shop balances, corrected {}", checked, corrected);
+        } catch (Exception e) {
+            log.error("Ledger reconciliation failed after {} shops: {}", checked, e.getMessage());
+        }
+    }
+
+    /**
+     * Check one page of balance rows; the rows stay locked so the projector cannot move them meanwhile
+     */
+    ReconcileResult reconcilePage(long afterShopId) {
+        Map<Long, Long> watermarks = new LinkedHashMap<>();
+        Map<Long, LedgerBalance> projected = new HashMap<>();
+        jdbcTemplate.query(BALANCE_PAGE_SQL, rs -> {
+            long shopId = rs.getLong("shop_id");
+            watermarks.put(shopId, rs.getLong("last_entry_id"));
+            projected.put(shopId, new LedgerBalance(
+                    rs.getBigDecimal("available_balance"),
+                    rs.getBigDecimal("pending_balance"),
+                    rs.getBigDecimal("total_withdrawn")));
+        }, afterShopId, reconcileBatchSize);
+
+        int corrected = 0;
+        long lastShopId = afterShopId;
+        for (Map.Entry<Long, Long> entry : watermarks.entrySet()) {
+            Long shopId = entry.getKey();
+            lastShopId = shopId;
+
+            LedgerBalance expected = LedgerBalance.zero();
+            jdbcTemplate.query(SHOP_TOTALS_SQL, rs -> {
+                expected.apply(
+                        TransactionType.valueOf(rs.getString("type")),
+                        TransactionStatus.valueOf(rs.getString("status")),
+                        rs.getBigDecimal("amount"));
+            }, shopId, entry.getValue());
+
+            if (!expected.sameAs(projected.get(shopId))) {
+                log.warn("Shop {} balance drifted from its ledger: projected [{}], ledger [{}]",
+                        shopId, projected.get(shopId), expected);
+                jdbcTemplate.update(CORRECT_BALANCE_SQL,
+                        expected.getAvailable(), expected.getPending(), expected.getWithdrawn(), shopId);
+                corrected++;
+            }
+        }
+        return new ReconcileResult(watermarks.size(), corrected, lastShopId);
+    }
+
+    // ========== TYPES ==========
+
+    private static final class Fold {
+        private final LedgerBalance balance = LedgerBalance.zero();
+        private long lastEntryId;
+    }
+
+    record ReconcileResult(int checked, int corrected, long lastShopId) {
+    }
+}
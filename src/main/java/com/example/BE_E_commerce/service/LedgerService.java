@@ -0,0 +1,149 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.response.ShopBalanceResponse;
+import com.example.BE_E_commerce.entity.Order;
+import com.example.BE_E_commerce.entity.Shop;
+import com.example.BE_E_commerce.entity.ShopBalance;
+import com.example.BE_E_commerce.entity.Transaction;
+import com.example.BE_E_commerce.enums.TransactionStatus;
+import com.example.BE_E_commerce.enums.TransactionType;
+import com.example.BE_E_commerce.exception.BadRequestException;
+import com.example.BE_E_commerce.exception.ResourceNotFoundException;
+import com.example.BE_E_commerce.exception.UnauthorizedException;
+import com.example.BE_E_commerce.repository.ShopBalanceRepository;
+import com.example.BE_E_commerce.repository.ShopRepository;
+import com.example.BE_E_commerce.repository.TransactionRepository;
+import com.example.BE_E_commerce.util.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Shop money as an append-only ledger.
+ *
+ * Every movement is a new transactions row; nothing here updates shop_balances, so shops
+ * completing many orders never queue on their balance row. {@link LedgerProjector} folds the
+ * entries into shop_balances in batches. Reads add the entries the projection has not
+ * folded yet, so a shop always sees its own latest writes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerService {
+
+    // Entries after the row's watermark, summed per kind
+    static final String UNFOLDED_SQL =
+            "SELECT type, status, SUM(amount) AS amount FROM transactions WHERE shop_id = ? AND id > ? GROUP BY type, status";
+
+    private static final String ENSURE_BALANCE_SQL =
+            "INSERT IGNORE INTO shop_balances (shop_id, available_balance, pending_balance, total_withdrawn, last_entry_id, updated_at) "
+                    + "VALUES (?, 0, 0, 0, 0, NOW())";
+
+    private final TransactionRepository transactionRepository;
+    private final ShopBalanceRepository shopBalanceRepository;
+    private final ShopRepository shopRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    // ========== APPEND ==========
+
+    /**
+     * Hold the seller's share of newly placed orders (joins the caller's transaction)
+     */
+    @Transactional
+    public void recordOrders(List<Order> orders) {
+        List<Transaction> entries = orders.stream()
+                .map(order -> Transaction.builder()
+                        .shop(order.getShop())
+                        .order(order)
+                        .type(TransactionType.ORDER)
+                        .status(TransactionStatus.PENDING)
+                        .amount(order.getSellerAmount())
+                        .description("Order " + order.getOrderCode())
+                        .build())
+                .collect(Collectors.toList());
+        transactionRepository.saveAll(entries);
+    }
+
+    /**
+     * Request a payout from the available balance.
+     * Withdrawals are rare, so they lock the balance row to check funds; order entries never do.
+     */
+    @Transactional
+    public Transaction withdraw(Long shopId, BigDecimal amount, String description) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new BadRequestException("Withdrawal amount must be positive");
+        }
+
+        jdbcTemplate.update(ENSURE_BALANCE_SQL, shopId);
+        ShopBalance row = shopBalanceRepository.findByShopIdForUpdate(shopId)
+                .orElseThrow(() -> new ResourceNotFoundException("ShopBalance", "shopId", shopId));
+        LedgerBalance balance = foldUnfolded(shopId, row.getLastEntryId(), fromRow(row));
+        if (balance.getAvailable().compareTo(amount) < 0) {
+            throw new BadRequestException("Insufficient balance");
+        }
+
+        Transaction entry = transactionRepository.save(Transaction.builder()
+                .shop(row.getShop())
+                .type(TransactionType.WITHDRAWAL)
+                .status(TransactionStatus.PENDING)
+                .amount(amount)
+                .description(description)
+                .build());
+        log.info("Shop {} requested withdrawal of {}", shopId, amount);
+        return entry;
+    }
+
+    // ========== BALANCE ==========
+
+    /**
+     * Projected balance plus entries not folded yet. Both reads share the transaction's
+     * snapshot, so an entry is counted exactly once even if a projection runs meanwhile.
+     */
+    @Transactional(readOnly = true)
+    public ShopBalanceResponse getBalance(Long shopId) {
+        LedgerBalance balance = shopBalanceRepository.findByShopId(shopId)
+                .map(row -> foldUnfolded(shopId, row.getLastEntryId(), fromRow(row)))
+                .orElseGet(() -> foldUnfolded(shopId, 0L, LedgerBalance.zero()));
+
+        return ShopBalanceResponse.builder()
+                .shopId(shopId)
+                .availableBalance(balance.getAvailable())
+                .pendingBalance(balance.getPending())
+                .totalWithdrawn(balance.getWithdrawn())
+                .build();
+    }
+
+    /**
+     * Balance of the current seller's shop
+     */
+    @Transactional(readOnly = true)
+    public ShopBalanceResponse getMyShopBalance() {
+        Long userId = SecurityUtils.getCurrentUserId()
+                .orElseThrow(() -> new UnauthorizedException("User not authenticated"));
+        Shop shop = shopRepository.findByOwnerId(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Shop", "ownerId", userId));
+        return getBalance(shop.getId());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private LedgerBalance fromRow(ShopBalance row) {
+        return new LedgerBalance(row.getAvailableBalance(), row.getPendingBalance(), row.getTotalWithdrawn());
+    }
+
+    private LedgerBalance foldUnfolded(Long shopId, Long afterEntryId, LedgerBalance balance) {
+        jdbcTemplate.query(UNFOLDED_SQL, rs -> {
+            balance.apply(
+                    TransactionType.valueOf(rs.getString("type")),
+                    TransactionStatus.valueOf(rs.getString("status")),
+                    rs.getBigDecimal("amount"));
+        }, shopId, afterEntryId);
+        return balance;
+    }
+}
@@ -0,0 +1,425 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.response.NotificationResponse;
+import com.example.BE_E_commerce.id.SnowflakeIdGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.NOTIFICATION_CHANNEL;
+
+/**
+ * Asynchronous notification fan-out.
+ *
+ * Producers hand over an event and its recipients; large audiences are split into chunks
+ * on a bounded queue. When the queue is full, a producer waits up to the offer timeout
+ * and the chunk is then dropped and counted, so a burst slows callers briefly instead of
+ * exhausting memory.
+ *
+ * Workers drain the queue in batches: duplicates (same user, type and related entity)
+ * are resolved by the event's policy, new rows go into notifications in one JDBC batch,
+ * and after commit the unread counters move and every node pushes the rows to its own
+ * connected recipients on /user/queue/notifications. A batch whose write fails is retried
+ * with backoff; once the retries are used up its notifications are counted as dropped.
+ */
+@Service
+@Slf4j
+public class NotificationDispatcher implements MessageListener {
+
+    public static final String USER_QUEUE = "/queue/notifications";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (id, user_id, type, title, content, related_id, related_type, is_read, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, FALSE, ?)";
+
+    // A read notification is left alone; the merged event is inserted as a new one instead
+    private static final String MERGE_SQL =
+            "UPDATE notifications SET title = ?, content = ?, created_at = ? WHERE id = ? AND is_read = FALSE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UnreadCounterService unreadCounterService;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry userRegistry;
+    private final ObjectMapper objectMapper;
+
+    private final BlockingQueue<Chunk> queue;
+    private final Executor pushExecutor = new VirtualThreadTaskExecutor("notification-push-");
+    private final AtomicLong dropped = new AtomicLong();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    // (user, type, related entity) -> id of the notification written for it, this node only
+    private final Cache<String, Long> recent;
+
+    @Value("${app.notification.workers:2}")
+    private int workerCount;
+
+    @Value("${app.notification.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.notification.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.notification.offer-timeout:100ms}")
+    private Duration offerTimeout;
+
+    @Value("${app.notification.push-batch-size:200}")
+    private int pushBatchSize;
+
+    @Value("${app.notification.retry-attempts:3}")
+    private int retryAttempts;
+
+    @Value("${app.notification.retry-backoff:200ms}")
+    private Duration retryBackoff;
+
+    public NotificationDispatcher(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  UnreadCounterService unreadCounterService,
+                                  StringRedisTemplate redisTemplate,
+                                  RedisMessageListenerContainer listenerContainer,
+                                  SimpMessagingTemplate messagingTemplate,
+                                  SimpUserRegistry userRegistry,
+                                  ObjectMapper objectMapper,
+                                  @Value("${app.notification.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${app.notification.dedup-window:10m}") Duration dedupWindow) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.unreadCounterService = unreadCounterService;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.messagingTemplate = messagingTemplate;
+        this.userRegistry = userRegistry;
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(dedupWindow)
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(NOTIFICATION_CHANNEL));
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofVirtual().name("notification-worker-" + i).start(this::work));
+        }
+    }
+
+    // ========== PUBLISH ==========
+
+    /**
+     * Queue an event for its recipients
+     *
+     * @return number of recipients accepted; the rest were dropped because the queue stayed full
+     */
+    public int publish(Event event) {
+        List<Long> recipients = event.recipientIds().stream().distinct().toList();
+        int accepted = 0;
+        try {
+            for (int from = 0; from < recipients.size(); from += chunkSize) {
+                List<Long> part = recipients.subList(from, Math.min(from + chunkSize, recipients.size()));
+                if (!queue.offer(new Chunk(event, part), offerTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    long total = dropped.addAndGet(recipients.size() - accepted);
+                    log.warn("Notification queue full, dropped {} {} notifications ({} dropped so far)",
+                            recipients.size() - accepted, event.type(), total);
+                    break;
+                }
+                accepted += part.size();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return accepted;
+    }
+
+    /**
+     * Notifications dropped under backpressure or after failed retries since startup
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    // ========== WORKERS ==========
+
+    private void work() {
+        List<Chunk> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Chunk first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                int recipients = first.recipientIds().size();
+                Chunk next;
+                while (recipients < batchSize && (next = queue.poll()) != null) {
+                    batch.add(next);
+                    recipients += next.recipientIds().size();
+                }
+                deliver(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Process a batch, retrying with a doubling backoff; nothing is cached or counted
+     * until the write commits, so a retry starts from a clean slate
+     */
+    void deliver(List<Chunk> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                processBatch(batch);
+                return;
+            } catch (Exception e) {
+                if (attempt >= retryAttempts) {
+                    drop(batch, attempt, e);
+                    return;
+                }
+                log.warn("Failed to deliver {} notification chunks, attempt {}: {}",
+                        batch.size(), attempt, e.getMessage());
+            }
+            try {
+                Thread.sleep(retryBackoff.toMillis() << (attempt - 1));
+            } catch (InterruptedException e) {
+                drop(batch, attempt, e);
+                throw e;
+            }
+        }
+    }
+
+    private void drop(List<Chunk> batch, int attempts, Exception cause) {
+        long lost = batch.stream().mapToLong(chunk -> chunk.recipientIds().size()).sum();
+        long total = dropped.addAndGet(lost);
+        log.error("Dropped {} notifications after {} delivery attempts ({} dropped so far): {}",
+                lost, attempts, total, cause.getMessage());
+    }
+
+    /**
+     * Resolve duplicates, write the batch in one transaction, then count and push it
+     */
+    void processBatch(List<Chunk> batch) {
+        // Within the batch: DROP keeps the first of a key, MERGE the last, KEEP everything
+        Map<Object, Item> items = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        int sequence = 0;
+        for (Chunk chunk : batch) {
+            Event event = chunk.event();
+            for (Long userId : chunk.recipientIds()) {
+                String key = dedupKey(userId, event);
+                Item item = new Item(userId, event, key, now);
+                switch (event.duplicates()) {
+                    case DROP -> items.putIfAbsent(key, item);
+                    case MERGE -> {
+                        items.remove(key);
+                        items.put(key, item);
+                    }
+                    default -> items.put(sequence++, item);
+                }
+            }
+        }
+
+        // Against what this node wrote recently
+        List<Item> inserts = new ArrayList<>();
+        List<Item> merges = new ArrayList<>();
+        for (Item item : items.values()) {
+            Long previousId = item.event().duplicates() == Duplicates.KEEP ? null : recent.getIfPresent(item.key());
+            if (previousId == null) {
+                inserts.add(item.withId(SnowflakeIdGenerator.getInstance().nextId()));
+            } else if (item.event().duplicates() == Duplicates.MERGE) {
+                merges.add(item.withId(previousId));
+            }
+        }
+        if (inserts.isEmpty() && merges.isEmpty()) {
+            return;
+        }
+
+        List<Item> written = new ArrayList<>();
+        List<Item> inserted = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Item> toInsert = new ArrayList<>(inserts);
+            if (!merges.isEmpty()) {
+                int[] counts = jdbcTemplate.batchUpdate(MERGE_SQL, merges.stream()
+                        .map(item -> new Object[]{item.event().title(), item.event().content(), item.createdAt(), item.id()})
+                        .toList());
+                for (int i = 0; i < merges.size(); i++) {
+                    if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                        written.add(merges.get(i));
+                    } else {
+                        toInsert.add(merges.get(i).withId(SnowflakeIdGenerator.getInstance().nextId()));
+                    }
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_SQL, toInsert.stream()
+                    .map(item -> new Object[]{
+                            item.id(),
+                            item.userId(),
+                            item.event().type(),
+                            item.event().title(),
+                            item.event().content(),
+                            item.event().relatedId(),
+                            item.event().relatedType(),
+                            item.createdAt()})
+                    .toList());
+            inserted.addAll(toInsert);
+            written.addAll(toInsert);
+        });
+
+        Map<Long, Long> created = new HashMap<>();
+        for (Item item : inserted) {
+            created.merge(item.userId(), 1L, Long::sum);
+            if (item.event().duplicates() != Duplicates.KEEP) {
+                recent.put(item.key(), item.id());
+            }
+        }
+        unreadCounterService.notificationsCreated(created);
+        relay(written);
+    }
+
+    // ========== PUSH ==========
+
+    private void relay(List<Item> written) {
+        for (int from = 0; from < written.size(); from += pushBatchSize) {
+            List<Push> pushes = written.subList(from, Math.min(from + pushBatchSize, written.size())).stream()
+                    .map(item -> new Push(item.userId(), item.toResponse()))
+                    .toList();
+            try {
+                redisTemplate.convertAndSend(NOTIFICATION_CHANNEL, objectMapper.writeValueAsString(pushes));
+            } catch (Exception e) {
+                // Stored and counted anyway; clients see it on their next fetch
+                log.error("Failed to relay {} notifications: {}", pushes.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Pushes relayed by any node; only recipients connected here are sent to
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        List<Push> pushes;
+        try {
+            pushes = objectMapper.readValue(message.getBody(), new TypeReference<List<Push>>() {
+            });
+        } catch (Exception e) {
+            log.error("Dropping unreadable notification relay message: {}", e.getMessage());
+            return;
+        }
+        pushExecutor.execute(() -> {
+            for (Push push : pushes) {
+                String user = String.valueOf(push.userId());
+                if (userRegistry.getUser(user) != null) {
+                    messagingTemplate.convertAndSendToUser(user, USER_QUEUE, push.notification());
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        for (Thread worker : workers) {
+            try {
+                worker.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Shutting down with {} notification chunks still queued", queue.size());
+        }
+    }
+
+    // ========== TYPES ==========
+
+    private static String dedupKey(Long userId, Event event) {
+        return userId + ":" + event.type() + ":" + event.relatedType() + ":" + event.relatedId();
+    }
+
+    /**
+     * What to do with an event for a user who got the same type about the same entity recently
+     */
+    public enum Duplicates {
+        KEEP,  // Always a new notification
+        DROP,  // Keep the earlier one
+        MERGE  // Rewrite the earlier one (if still unread) with the latest title and content
+    }
+
+    /**
+     * One notification for many users
+     */
+    public record Event(String type, String title, String content, Long relatedId, String relatedType,
+                        Collection<Long> recipientIds, Duplicates duplicates) {
+    }
+
+    record Chunk(Event event, List<Long> recipientIds) {
+    }
+
+    private record Item(Long userId, Event event, String key, LocalDateTime createdAt, Long id) {
+
+        Item(Long userId, Event event, String key, LocalDateTime createdAt) {
+            this(userId, event, key, createdAt, null);
+        }
+
+        Item withId(Long newId) {
+            return new Item(userId, event, key, createdAt, newId);
+        }
+
+        NotificationResponse toResponse() {
+            return NotificationResponse.builder()
+                    .id(id)
+                    .type(event.type())
+                    .title(event.title())
+                    .content(event.content())
+                    .relatedId(event.relatedId())
+                    .relatedType(event.relatedType())
+                    .isRead(false)
+                    .createdAt(createdAt)
+                    .build();
+        }
+    }
+
+    record Push(Long userId, NotificationResponse notification) {
+    }
+}
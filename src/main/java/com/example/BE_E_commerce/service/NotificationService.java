@@ -0,0 +1,114 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.response.CursorPageResponse;
+import com.example.BE_E_commerce.dto.response.NotificationResponse;
+import com.example.BE_E_commerce.dto.response.UnreadCountResponse;
+import com.example.BE_E_commerce.entity.Notification;
+import com.example.BE_E_commerce.exception.UnauthorizedException;
+import com.example.BE_E_commerce.repository.NotificationRepository;
+import com.example.BE_E_commerce.util.CursorUtils;
+import com.example.BE_E_commerce.util.SecurityUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * The current user's notifications and their read state
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Scope of the opaque cursor tokens of this feed
+    private static final String CURSOR_FEED = "NOTIFICATIONS";
+
+    private static final String MARK_READ_SQL =
+            "UPDATE notifications SET is_read = TRUE WHERE id = ? AND user_id = ? AND is_read = FALSE";
+
+    private static final String MARK_ALL_READ_SQL =
+            "UPDATE notifications SET is_read = TRUE WHERE user_id = ? AND is_read = FALSE";
+
+    private final NotificationRepository notificationRepository;
+    private final UnreadCounterService unreadCounterService;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Notifications older than the cursor, newest first
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<NotificationResponse> getMyNotifications(String cursor, int size) {
+        Long userId = currentUserId();
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        List<Notification> notifications = notificationRepository.findByUserIdAndIdLessThanOrderByIdDesc(
+                userId,
+                cursor != null ? CursorUtils.decodeId(cursor, CURSOR_FEED) : Long.MAX_VALUE,
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasNext = notifications.size() > pageSize;
+        List<NotificationResponse> content = notifications.stream()
+                .limit(pageSize)
+                .map(this::toResponse)
+                .toList();
+        return CursorPageResponse.<NotificationResponse>builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(hasNext ? CursorUtils.encodeId(CURSOR_FEED, content.get(content.size() - 1).getId()) : null)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    /**
+     * Header badges (notifications and chat), served from Redis
+     */
+    public UnreadCountResponse getUnreadCounts() {
+        return unreadCounterService.getUnreadCounts(currentUserId());
+    }
+
+    /**
+     * Mark one notification read; repeating it changes nothing
+     */
+    public void markRead(Long notificationId) {
+        Long userId = currentUserId();
+        int updated = jdbcTemplate.update(MARK_READ_SQL, notificationId, userId);
+        unreadCounterService.notificationsRead(userId, updated);
+    }
+
+    /**
+     * Mark all of the current user's notifications read
+     */
+    public int markAllRead() {
+        Long userId = currentUserId();
+        int updated = jdbcTemplate.update(MARK_ALL_READ_SQL, userId);
+        unreadCounterService.notificationsRead(userId, updated);
+        return updated;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private Long currentUserId() {
+        return SecurityUtils.getCurrentUserId()
+                .orElseThrow(() -> new UnauthorizedException("User not authenticated"));
+    }
+
+    private NotificationResponse toResponse(Notification notification) {
+        return NotificationResponse.builder()
+                .id(notification.getId())
+                .type(notification.getType())
+                .title(notification.getTitle())
+                .content(notification.getContent())
+                .relatedId(notification.getRelatedId())
+                .relatedType(notification.getRelatedType())
+                .isRead(notification.getIsRead())
+                .createdAt(notification.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.response.OutboxStatsResponse;
+import com.example.BE_E_commerce.entity.JobCheckpoint;
+import com.example.BE_E_commerce.enums.OutboxStatus;
+import com.example.BE_E_commerce.id.SnowflakeIdGenerator;
+import com.example.BE_E_commerce.repository.JobCheckpointRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.BE_E_commerce.config.SchedulingConfig.FLUSH_SCHEDULER;
+
+/**
+ * Delivers outbox_events to in-process listeners.
+ *
+ * Every poll, the node holding the relay checkpoint reads due pending events in id order
+ * and publishes each as a {@link DomainEvent}; the rows are marked published in the same
+ * transaction. Events younger than the commit lag wait for the next poll, so an event
+ * whose transaction is still committing is not overtaken by a later one.
+ *
+ * Delivery is at least once: a crash after dispatch and before commit replays the batch.
+ * A failed event is retried with exponential backoff; until it succeeds, later events of
+ * the same aggregate are held back. After max-attempts it is marked FAILED and left for
+ * an operator, and the aggregate moves on.
+ */
+@Service
+@Slf4j
+public class OutboxRelay {
+
+    static final String CHECKPOINT = "outbox-relay";
+
+    private static final String PENDING_SQL = """
+            SELECT id, aggregate_type, aggregate_id, type, payload, attempts, available_at, created_at
+            FROM outbox_events
+            WHERE status = 'PENDING' AND id <= ? AND available_at <= ?
+            ORDER BY id
+            LIMIT ?
+            """;
+
+    // Aggregates waiting out a retry backoff, with their oldest waiting event
+    private static final String BACKED_OFF_SQL = """
+            SELECT aggregate_type, aggregate_id, MIN(id) AS first_id
+            FROM outbox_events
+            WHERE status = 'PENDING' AND id <= ? AND available_at > ?
+            GROUP BY aggregate_type, aggregate_id
+            """;
+
+    private static final String PUBLISHED_SQL =
+            "UPDATE outbox_events SET status = 'PUBLISHED', published_at = ?, last_error = NULL WHERE id = ?";
+
+    private static final String FAILED_SQL =
+            "UPDATE outbox_events SET status = ?, attempts = ?, available_at = ?, last_error = ? WHERE id = ?";
+
+    private static final String CLEANUP_SQL =
+            "DELETE FROM outbox_events WHERE status = 'PUBLISHED' AND id < ? LIMIT ?";
+
+    private static final String STATS_SQL =
+            "SELECT status, COUNT(*) AS events, MIN(created_at) AS oldest FROM outbox_events "
+                    + "WHERE status IN ('PENDING', 'FAILED') GROUP BY status";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobCheckpointRepository checkpointRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate dispatchTemplate;
+    private final Clock clock;
+
+    // This node's relay counters since startup
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile long lastLagMillis;
+
+    @Value("${app.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.commit-lag:1s}")
+    private Duration commitLag;
+
+    @Value("${app.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${app.outbox.retry-backoff:5s}")
+    private Duration retryBackoff;
+
+    @Value("${app.outbox.max-retry-backoff:30m}")
+    private Duration maxRetryBackoff;
+
+    @Value("${app.outbox.lag-warning:30s}")
+    private Duration lagWarning;
+
+    @Value("${app.outbox.retention:7d}")
+    private Duration retention;
+
+    @Value("${app.outbox.cleanup-batch-size:5000}")
+    private int cleanupBatchSize;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       JobCheckpointRepository checkpointRepository,
+                       ApplicationEventPublisher eventPublisher,
+                       ObjectMapper objectMapper,
+                       PlatformTransactionManager transactionManager) {
+        this(jdbcTemplate, checkpointRepository, eventPublisher, objectMapper, transactionManager,
+                Clock.systemDefaultZone());
+    }
+
+    OutboxRelay(JdbcTemplate jdbcTemplate,
+                JobCheckpointRepository checkpointRepository,
+                ApplicationEventPublisher eventPublisher,
+                ObjectMapper objectMapper,
+                PlatformTransactionManager transactionManager,
+                Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Listeners run outside the relay transaction: their own transactions and failures stay theirs
+        this.dispatchTemplate = new TransactionTemplate(transactionManager);
+        this.dispatchTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        this.clock = clock;
+    }
+
+    // ========== RELAY ==========
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:500}", scheduler = FLUSH_SCHEDULER)
+    public void relay() {
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> relayOnce());
+            } while (published != null && published >= batchSize);
+        } catch (Exception e) {
+            log.error("Outbox relay failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Dispatch one batch; must run inside a transaction (the checkpoint row lock keeps
+     * other nodes out until it commits)
+     *
+     * @return number of events published
+     */
+    int relayOnce() {
+        Optional<JobCheckpoint> checkpoint = checkpointRepository.findByNameForUpdateSkipLocked(CHECKPOINT);
+        if (checkpoint.isEmpty()) {
+            // Inserting first would wait on a row another node holds, so only when it is missing
+            if (checkpointRepository.existsById(CHECKPOINT)) {
+                return 0; // Another node is relaying
+            }
+            checkpointRepository.insertIfAbsent(CHECKPOINT);
+            checkpoint = checkpointRepository.findByNameForUpdateSkipLocked(CHECKPOINT);
+            if (checkpoint.isEmpty()) {
+                return 0;
+            }
+        }
+
+        long upperBound = SnowflakeIdGenerator.firstIdAt(clock.instant().minus(commitLag)) - 1;
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        // Backed-off rows are not read as due, so they cannot fill the batch and stall the rest
+        Map<String, Long> backedOff = new HashMap<>();
+        jdbcTemplate.query(BACKED_OFF_SQL, rs -> {
+            backedOff.put(rs.getString("aggregate_type") + ":" + rs.getString("aggregate_id"),
+                    rs.getLong("first_id"));
+        }, upperBound, now);
+
+        List<Pending> batch = jdbcTemplate.query(PENDING_SQL, (rs, rowNum) -> new Pending(
+                rs.getLong("id"),
+                rs.getString("aggregate_type"),
+                rs.getString("aggregate_id"),
+                rs.getString("type"),
+                rs.getString("payload"),
+                rs.getInt("attempts"),
+                rs.getObject("available_at", LocalDateTime.class),
+                rs.getObject("created_at", LocalDateTime.class)), upperBound, now, batchSize);
+
+        Set<String> heldBack = new HashSet<>();
+        List<Object[]> published = new ArrayList<>();
+        long lastId = checkpoint.get().getPosition();
+        for (Pending event : batch) {
+            String aggregate = event.aggregateType() + ":" + event.aggregateId();
+            if (heldBack.contains(aggregate)) {
+                continue;
+            }
+            Long waitingId = backedOff.get(aggregate);
+            if (waitingId != null && waitingId < event.id()) {
+                continue; // An earlier event of the aggregate is waiting out a retry backoff
+            }
+            try {
+                dispatch(event);
+            } catch (Exception e) {
+                heldBack.add(aggregate);
+                fail(event, e, now);
+                continue;
+            }
+            published.add(new Object[]{now, event.id()});
+            lastId = Math.max(lastId, event.id());
+            recordLag(event, now);
+        }
+
+        if (!published.isEmpty()) {
+            jdbcTemplate.batchUpdate(PUBLISHED_SQL, published);
+            checkpoint.get().setPosition(lastId);
+        }
+        return published.size();
+    }
+
+    private void dispatch(Pending event) throws Exception {
+        DomainEvent domainEvent = new DomainEvent(event.id(), event.aggregateType(), event.aggregateId(),
+                event.type(), objectMapper.readTree(event.payload()), event.createdAt());
+        dispatchTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(domainEvent));
+    }
+
+    private void fail(Pending event, Exception e, LocalDateTime now) {
+        failures.incrementAndGet();
+        int attempts = event.attempts() + 1;
+        String error = String.valueOf(e.getMessage());
+        if (error.length() > 500) {
+            error = error.substring(0, 500);
+        }
+
+        OutboxStatus status = OutboxStatus.PENDING;
+        if (attempts >= maxAttempts) {
+            status = OutboxStatus.FAILED;
+            log.error("Outbox event {} ({} of {} {}) failed {} times, giving up: {}",
+                    event.id(), event.type(), event.aggregateType(), event.aggregateId(), attempts, error);
+        } else {
+            log.warn("Outbox event {} ({}) failed, attempt {}: {}", event.id(), event.type(), attempts, error);
+        }
+        jdbcTemplate.update(FAILED_SQL, status.name(), attempts, now.plus(backoff(attempts)), error, event.id());
+    }
+
+    /**
+     * retry-backoff doubled per attempt, capped at max-retry-backoff
+     */
+    Duration backoff(int attempts) {
+        Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : delay;
+    }
+
+    private void recordLag(Pending event, LocalDateTime now) {
+        dispatched.incrementAndGet();
+        long lag = Duration.between(event.createdAt(), now).toMillis();
+        lastLagMillis = lag;
+        if (lag > lagWarning.toMillis()) {
+            log.warn("Outbox event {} ({}) delivered {} ms after it was recorded", event.id(), event.type(), lag);
+        }
+    }
+
+    // ========== HOUSEKEEPING ==========
+
+    /**
+     * Delete published events older than the retention, a chunk at a time
+     */
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 15 4 * * *}")
+    public void cleanup() {
+        long beforeId = SnowflakeIdGenerator.firstIdAt(clock.instant().minus(retention));
+        int total = 0;
+        try {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(CLEANUP_SQL, beforeId, cleanupBatchSize);
+                total += deleted;
+            } while (deleted >= cleanupBatchSize);
+            log.info("Outbox cleanup deleted {} published events", total);
+        } catch (Exception e) {
+            log.error("Outbox cleanup failed after {} events: {}", total, e.getMessage());
+        }
+    }
+
+    /**
+     * Backlog from MySQL plus this node's delivery counters
+     */
+    public OutboxStatsResponse getStats() {
+        OutboxStatsResponse stats = OutboxStatsResponse.builder()
+                .pending(0L)
+                .failed(0L)
+                .dispatched(dispatched.get())
+                .dispatchFailures(failures.get())
+                .lastLagMillis(lastLagMillis)
+                .build();
+        LocalDateTime now = LocalDateTime.now(clock);
+        jdbcTemplate.query(STATS_SQL, rs -> {
+            long events = rs.getLong("events");
+            if (OutboxStatus.PENDING.name().equals(rs.getString("status"))) {
+                stats.setPending(events);
+                LocalDateTime oldest = rs.getObject("oldest", LocalDateTime.class);
+                stats.setOldestPendingAgeMillis(oldest != null ? Duration.between(oldest, now).toMillis() : null);
+            } else {
+                stats.setFailed(events);
+            }
+        });
+        return stats;
+    }
+
+    // ========== TYPES ==========
+
+    record Pending(Long id, String aggregateType, String aggregateId, String type, String payload,
+                           int attempts, LocalDateTime availableAt, LocalDateTime createdAt) {
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.id.SnowflakeIdGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Records domain events in outbox_events inside the caller's transaction, so an event
+ * exists exactly when the change it describes committed. {@link OutboxRelay} delivers them.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_events (id, aggregate_type, aggregate_id, type, payload, status, attempts, available_at, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, 'PENDING', 0, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Record one event; the payload is stored as JSON
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, Object aggregateId, String type, Object payload) {
+        append(List.of(new Entry(aggregateType, aggregateId, type, payload)));
+    }
+
+    /**
+     * Record several events with one JDBC batch
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(List<Entry> entries) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries.stream()
+                .map(entry -> new Object[]{
+                        SnowflakeIdGenerator.getInstance().nextId(),
+                        entry.aggregateType(),
+                        String.valueOf(entry.aggregateId()),
+                        entry.type(),
+                        toJson(entry),
+                        now,
+                        now})
+                .toList());
+    }
+
+    private String toJson(Entry entry) {
+        try {
+            return objectMapper.writeValueAsString(entry.payload());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unserializable payload of " + entry.type() + " event", e);
+        }
+    }
+
+    public record Entry(String aggregateType, Object aggregateId, String type, Object payload) {
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.response.PresenceResponse;
+import com.example.BE_E_commerce.exception.BadRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.example.BE_E_commerce.config.SchedulingConfig.FLUSH_SCHEDULER;
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.ONLINE_SESSIONS;
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.ONLINE_USERS;
+
+/**
+ * Who is online, from WebSocket sessions.
+ *
+ * ONLINE_USERS is a sorted set of user id scored by last-seen millis; a user counts as
+ * online while the score is within the TTL, and stale members are pruned periodically.
+ * Open sessions per user are counted across nodes, so closing one tab does not hide a
+ * user who is still connected elsewhere.
+ *
+ * Heartbeats only mark the user locally; once per interval all marked users are written
+ * in a single ZADD, so a user costs at most one write per interval however often they ping.
+ */
+@Service
+@Slf4j
+public class PresenceService {
+
+    // KEYS: online zset, sessions hash; ARGV: userId, now millis
+    private static final RedisScript<Long> CONNECT_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+            return redis.call('HINCRBY', KEYS[2], ARGV[1], 1)
+            """, Long.class);
+
+    // KEYS: online zset, sessions hash; ARGV: userId
+    private static final RedisScript<Long> DISCONNECT_SCRIPT = new DefaultRedisScript<>("""
+            local left = redis.call('HINCRBY', KEYS[2], ARGV[1], -1)
+            if left <= 0 then
+              redis.call('HDEL', KEYS[2], ARGV[1])
+              redis.call('ZREM', KEYS[1], ARGV[1])
+            end
+            return left
+            """, Long.class);
+
+    // KEYS: online zset, sessions hash; ARGV: stale cutoff millis, max members
+    // Also clears session counts left behind by nodes that died without disconnecting
+    private static final RedisScript<Long> PRUNE_SCRIPT = new DefaultRedisScript<>("""
+            local stale = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+            if #stale > 0 then
+              redis.call('ZREM', KEYS[1], unpack(stale))
+              redis.call('HDEL', KEYS[2], unpack(stale))
+            end
+            return #stale
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Clock clock;
+
+    // Users seen since the last heartbeat flush
+    private final Set<Long> seen = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.presence.ttl:90s}")
+    private Duration ttl;
+
+    @Value("${app.presence.max-lookup:200}")
+    private int maxLookup;
+
+    @Value("${app.presence.prune-batch-size:1000}")
+    private int pruneBatchSize;
+
+    public PresenceService(StringRedisTemplate redisTemplate) {
+        this(redisTemplate, Clock.systemDefaultZone());
+    }
+
+    PresenceService(StringRedisTemplate redisTemplate, Clock clock) {
+        this.redisTemplate = redisTemplate;
+        this.clock = clock;
+    }
+
+    // ========== SESSIONS ==========
+
+    /**
+     * A WebSocket session of the user opened; they show as online right away
+     */
+    public void connected(Long userId) {
+        try {
+            redisTemplate.execute(CONNECT_SCRIPT, List.of(ONLINE_USERS, ONLINE_SESSIONS),
+                    userId.toString(), String.valueOf(clock.millis()));
+        } catch (Exception e) {
+            log.error("Failed to record connect of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * A WebSocket session of the user closed; they go offline with their last session
+     */
+    public void disconnected(Long userId) {
+        try {
+            Long left = redisTemplate.execute(DISCONNECT_SCRIPT, List.of(ONLINE_USERS, ONLINE_SESSIONS),
+                    userId.toString());
+            if (left != null && left <= 0) {
+                // A pending heartbeat would bring the user back
+                seen.remove(userId);
+            }
+        } catch (Exception e) {
+            log.error("Failed to record disconnect of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Any frame from the user's session (including STOMP heartbeats); only marks them locally
+     */
+    public void heartbeat(Long userId) {
+        seen.add(userId);
+    }
+
+    // ========== WRITES ==========
+
+    /**
+     * Write every user seen since the last run with one ZADD
+     */
+    @Scheduled(fixedDelayString = "${app.presence.heartbeat-interval:30000}", scheduler = FLUSH_SCHEDULER)
+    public void flushHeartbeats() {
+        if (seen.isEmpty()) {
+            return;
+        }
+
+        double now = clock.millis();
+        Set<TypedTuple<String>> members = new HashSet<>();
+        Iterator<Long> iterator = seen.iterator();
+        while (iterator.hasNext()) {
+            members.add(TypedTuple.of(iterator.next().toString(), now));
+            iterator.remove();
+        }
+
+        try {
+            redisTemplate.opsForZSet().add(ONLINE_USERS, members);
+        } catch (Exception e) {
+            log.error("Failed to write presence of {} users: {}", members.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drop users whose last heartbeat is older than the TTL
+     */
+    @Scheduled(fixedDelayString = "${app.presence.prune-interval:60000}", scheduler = FLUSH_SCHEDULER)
+    public void pruneStale() {
+        try {
+            String cutoff = String.valueOf(clock.millis() - ttl.toMillis());
+            Long pruned;
+            do {
+                pruned = redisTemplate.execute(PRUNE_SCRIPT, List.of(ONLINE_USERS, ONLINE_SESSIONS),
+                        cutoff, String.valueOf(pruneBatchSize));
+            } while (pruned != null && pruned >= pruneBatchSize);
+        } catch (Exception e) {
+            log.error("Failed to prune stale presence: {}", e.getMessage());
+        }
+    }
+
+    // ========== LOOKUPS ==========
+
+    /**
+     * Presence of many users in one round trip (ZMSCORE), in the order given
+     */
+    public List<PresenceResponse> getPresence(Collection<Long> userIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(userIds));
+        if (ids.size() > maxLookup) {
+            throw new BadRequestException("At most " + maxLookup + " users per lookup");
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<Double> scores = redisTemplate.opsForZSet().score(ONLINE_USERS, ids.stream().map(String::valueOf).toArray());
+        long cutoff = clock.millis() - ttl.toMillis();
+
+        List<PresenceResponse> presence = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Double score = scores != null ? scores.get(i) : null;
+            presence.add(PresenceResponse.builder()
+                    .userId(ids.get(i))
+                    .online(score != null && score.longValue() >= cutoff)
+                    .lastSeenAt(score != null
+                            ? LocalDateTime.ofInstant(Instant.ofEpochMilli(score.longValue()), clock.getZone())
+                            : null)
+                    .build());
+        }
+        return presence;
+    }
+
+    /**
+     * Online flags by user id, for callers that only need the yes/no
+     */
+    public Map<Long, Boolean> areOnline(Collection<Long> userIds) {
+        Map<Long, Boolean> online = new HashMap<>();
+        for (PresenceResponse presence : getPresence(userIds)) {
+            online.put(presence.getUserId(), presence.getOnline());
+        }
+        return online;
+    }
+}
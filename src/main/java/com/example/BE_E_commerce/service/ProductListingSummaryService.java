@@ -0,0 +1,160 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.entity.Product;
+import com.example.BE_E_commerce.entity.ProductImage;
+import com.example.BE_E_commerce.entity.ProductListingSummary;
+import com.example.BE_E_commerce.entity.ProductVariant;
+import com.example.BE_E_commerce.enums.ReviewStatus;
+import com.example.BE_E_commerce.repository.ProductImageRepository;
+import com.example.BE_E_commerce.repository.ProductListingSummaryRepository;
+import com.example.BE_E_commerce.repository.ProductRepository;
+import com.example.BE_E_commerce.repository.ProductVariantRepository;
+import com.example.BE_E_commerce.repository.ReviewRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductListingSummaryService {
+
+    private final ProductListingSummaryRepository summaryRepository;
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository variantRepository;
+    private final ProductImageRepository imageRepository;
+    private final ReviewRepository reviewRepository;
+
+    // Set once the startup backfill has summarized every product; until then listings rank on products
+    private volatile boolean backfilled;
+
+    /**
+     * Recompute and store the listing summary of the given products.
+     * Runs in its own transaction because it is triggered after the
+     * writing transaction has committed.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void refresh(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+
+        // Products deleted in the meantime lose their summary
+        Map<Long, Product> productsById = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Set<Long> existingIds = productsById.keySet();
+        List<Long> removedIds = productIds.stream()
+                .filter(id -> !existingIds.contains(id))
+                .collect(Collectors.toList());
+        if (!removedIds.isEmpty()) {
+            summaryRepository.deleteAllById(removedIds);
+        }
+        if (existingIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<ProductVariant>> variantsByProduct = variantRepository
+                .findByProductIdInAndIsActiveTrue(existingIds).stream()
+                .collect(Collectors.groupingBy(variant -> variant.getProduct().getId()));
+
+        Map<Long, List<ProductImage>> imagesByProduct = imageRepository
+                .findByProductIdInOrderByDisplayOrderAsc(existingIds).stream()
+                .collect(Collectors.groupingBy(image -> image.getProduct().getId()));
+
+        Map<Long, ReviewRepository.RatingAggregate> ratingsByProduct = aggregateRatings(existingIds);
+
+        List<ProductListingSummary> summaries = new ArrayList<>();
+        for (Long productId : existingIds) {
+            summaries.add(summarize(
+                    productsById.get(productId),
+                    variantsByProduct.getOrDefault(productId, List.of()),
+                    imagesByProduct.getOrDefault(productId, List.of()),
+                    ratingsByProduct.get(productId)
+            ));
+        }
+        summaryRepository.saveAll(summaries);
+
+        log.debug("Listing summary refreshed for {} products", summaries.size());
+    }
+
+    /**
+     * Whether every product has a summary, so listings may rank on the summary table alone
+     */
+    public boolean isBackfilled() {
+        return backfilled;
+    }
+
+    public void markBackfilled() {
+        backfilled = true;
+    }
+
+    /**
+     * Find products that still need a summary (for backfill)
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findProductIdsWithoutSummary(int limit) {
+        return summaryRepository.findProductIdsWithoutSummary(PageRequest.of(0, limit));
+    }
+
+    /**
+     * Load approved rating aggregates of the given products
+     */
+    public Map<Long, ReviewRepository.RatingAggregate> aggregateRatings(Collection<Long> productIds) {
+        return reviewRepository.aggregateRatingsByProductIds(productIds, ReviewStatus.APPROVED).stream()
+                .collect(Collectors.toMap(ReviewRepository.RatingAggregate::getProductId, Function.identity()));
+    }
+
+    /**
+     * Build a summary from a product and its preloaded active variants, images and rating aggregate
+     */
+    public ProductListingSummary summarize(Product product,
+                                           List<ProductVariant> variants,
+                                           List<ProductImage> images,
+                                           ReviewRepository.RatingAggregate rating) {
+        BigDecimal minPrice = null;
+        BigDecimal maxPrice = null;
+        int totalStock = 0;
+        for (ProductVariant variant : variants) {
+            if (minPrice == null || variant.getPrice().compareTo(minPrice) < 0) {
+                minPrice = variant.getPrice();
+            }
+            if (maxPrice == null || variant.getPrice().compareTo(maxPrice) > 0) {
+                maxPrice = variant.getPrice();
+            }
+            totalStock += variant.getStockQuantity();
+        }
+
+        // Thumbnail is the earliest uploaded image
+        String thumbnailUrl = images.stream()
+                .min(Comparator.comparing(ProductImage::getId))
+                .map(ProductImage::getImageUrl)
+                .orElse(null);
+
+        return ProductListingSummary.builder()
+                .productId(product.getId())
+                .status(product.getStatus())
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .totalStock(totalStock)
+                .reviewCount(rating != null ? rating.getReviewCount() : 0L)
+                .averageRating(rating != null && rating.getAverageRating() != null
+                        ? rating.getAverageRating() : 0.0)
+                .thumbnailUrl(thumbnailUrl)
+                .totalSold(product.getTotalSold())
+                .createdAt(product.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.util.SearchTextUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Prepares the product FULLTEXT index on startup.
+ * New and updated products fill search_text themselves (Product#updateSearchText);
+ * this only backfills older rows and creates the index Hibernate cannot generate.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndexer {
+
+    private static final String INDEX_NAME = "ft_products_search_text";
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Order(0)
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            int backfilled = backfillSearchText();
+            if (backfilled > 0) {
+                log.info("Search text backfilled for {} products", backfilled);
+            }
+            createIndexIfMissing();
+        } catch (Exception e) {
+            log.error("Failed to prepare product search index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Fill search_text of rows written before the column existed
+     */
+    private int backfillSearchText() {
+        int total = 0;
+        List<Object[]> rows = findRowsWithoutSearchText();
+        while (!rows.isEmpty()) {
+            List<Object[]> updates = rows.stream()
+                    .map(row -> new Object[]{SearchTextUtils.fold((String) row[1]), row[0]})
+                    .toList();
+            jdbcTemplate.batchUpdate("UPDATE products SET search_text = ? WHERE id = ?", updates);
+            total += updates.size();
+            rows = findRowsWithoutSearchText();
+        }
+        return total;
+    }
+
+    private List<Object[]> findRowsWithoutSearchText() {
+        return jdbcTemplate.query(
+                "SELECT id, name FROM products WHERE search_text IS NULL LIMIT " + BACKFILL_BATCH_SIZE,
+                (rs, rowNum) -> new Object[]{rs.getLong("id"), rs.getString("name")}
+        );
+    }
+
+    private void createIndexIfMissing() {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics " +
+                        "WHERE table_schema = DATABASE() AND table_name = 'products' AND index_name = ?",
+                Integer.class,
+                INDEX_NAME
+        );
+        if (existing != null && existing > 0) {
+            return;
+        }
+
+        // ngram parser indexes every 2-char gram, so partial words and prefixes match too
+        jdbcTemplate.execute("ALTER TABLE products ADD FULLTEXT INDEX " + INDEX_NAME +
+                " (search_text) WITH PARSER ngram");
+        log.info("Created FULLTEXT index {} on products", INDEX_NAME);
+    }
+}
@@ -4,13 +4,18 @@ import com.example. BE_E_commerce.dto. request.ProductFilterRequest;
 import com.example. BE_E_commerce.dto. response.*;
 import com.example.BE_E_commerce.entity.Product;
 import com.example.BE_E_commerce.entity.ProductImage;
+import com.example.BE_E_commerce.entity.ProductListingSummary;
+import com.example.BE_E_commerce.entity.ProductVariant;
 import com.example.BE_E_commerce.enums. ProductStatus;
+import com.example.BE_E_commerce.enums.FeedSort;
 import com.example.BE_E_commerce.enums.ReviewStatus;
 import com.example. BE_E_commerce.exception.ResourceNotFoundException;
 import com. example.BE_E_commerce. mapper.ProductImageMapper;
 import com.example. BE_E_commerce.mapper. ProductMapper;
 import com.example.BE_E_commerce.mapper.ProductVariantMapper;
 import com.example.BE_E_commerce.repository.*;
+import com.example.BE_E_commerce.util.CursorUtils;
+import com.example.BE_E_commerce.util.SearchTextUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
@@ -22,7 +27,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation. Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util. List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util. stream.Collectors;
 
 @Service
@@ -34,11 +44,23 @@ public class ProductService {
     private final ProductVariantRepository variantRepository;
     private final ProductImageRepository imageRepository;
     private final ReviewRepository reviewRepository;
+    private final ProductListingSummaryRepository summaryRepository;
+    private final ProductListingSummaryService summaryService;
     private final ProductMapper productMapper;
     private final ProductVariantMapper variantMapper;
     private final ProductImageMapper imageMapper;
     private final CategoryService categoryService;
 
+    // Listing sort keys that the listing summary can rank on, mapped to its columns
+    private static final Map<String, String> SUMMARY_SORT_KEYS = Map.of(
+            "createdAt", "createdAt",
+            "price", "minPrice",
+            "sold", "totalSold",
+            "totalSold", "totalSold",
+            "rating", "averageRating",
+            "averageRating", "averageRating"
+    );
+
     // ========== PUBLIC ENDPOINTS ==========
 
     /**
@@ -56,12 +78,14 @@ public class ProductService {
 
         if (hasFilters(filter)) {
             // Search with filters
+            SearchKeyword search = SearchKeyword.of(filter.getKeyword());
             if ("price".equalsIgnoreCase(filter.getSortBy())) {
                 // Use special price sorting methods
                 Pageable pageable = PageRequest.of(filter.getPage(), filter.getSize());
                 if ("ASC".equalsIgnoreCase(filter.getSortDirection())) {
                     productPage = productRepository.searchWithFiltersOrderByPriceAsc(
-                            filter.getKeyword(),
+                            search.fullTextQuery(),
+                            search.keyword(),
                             categoryIds,
                             filter.getShopId(),
                             filter.getMinPrice(),
@@ -71,7 +95,8 @@ public class ProductService {
                     );
                 } else {
                     productPage = productRepository.searchWithFiltersOrderByPriceDesc(
-                            filter.getKeyword(),
+                            search.fullTextQuery(),
+                            search.keyword(),
                             categoryIds,
                             filter.getShopId(),
                             filter.getMinPrice(),
@@ -84,7 +109,8 @@ public class ProductService {
                 // Use regular sorting for other fields
                 Pageable pageable = createPageable(filter);
                 productPage = productRepository.searchWithFilters(
-                        filter.getKeyword(),
+                        search.fullTextQuery(),
+                        search.keyword(),
                         categoryIds,
                         filter.getShopId(),
                         filter.getMinPrice(),
@@ -94,15 +120,20 @@ public class ProductService {
                 );
             }
 
+        } else if (SUMMARY_SORT_KEYS.containsKey(filter.getSortBy()) && summaryService.isBackfilled()) {
+            // Rank all active products on the listing summary alone
+            Page<ProductListingSummary> summaryPage = summaryRepository.findByStatus(
+                    ProductStatus.ACTIVE,
+                    createSummaryPageable(filter)
+            );
+            return buildPageResponse(buildListingResponses(summaryPage.getContent()), summaryPage);
         } else {
             // Get all active products
             Pageable pageable = createPageable(filter);
             productPage = productRepository.findByStatus(ProductStatus.ACTIVE, pageable);
         }
 
-        List<ProductResponse> products = productPage.getContent().stream()
-                .map(this::enrichProductResponse)
-                .collect(Collectors.toList());
+        List<ProductResponse> products = enrichProductResponses(productPage.getContent());
 
         return buildPageResponse(products, productPage);
     }
@@ -112,15 +143,17 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public PageResponse<ProductResponse> searchProducts(String keyword, Pageable pageable) {
+        SearchKeyword search = SearchKeyword.of(keyword);
+
+        // Results are ordered by relevance, so any requested sort is dropped
         Page<Product> productPage = productRepository.searchByName(
-                keyword,
+                search.fullTextQuery(),
+                search.keyword(),
                 ProductStatus.ACTIVE,
-                pageable
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
         );
 
-        List<ProductResponse> products = productPage.getContent().stream()
-                .map(this::enrichProductResponse)
-                .collect(Collectors.toList());
+        List<ProductResponse> products = enrichProductResponses(productPage.getContent());
 
         return buildPageResponse(products, productPage);
     }
@@ -172,9 +205,7 @@ public class ProductService {
                 pageable
         );
 
-        List<ProductResponse> products = productPage.getContent().stream()
-                .map(this::enrichProductResponse)
-                .collect(Collectors.toList());
+        List<ProductResponse> products = enrichProductResponses(productPage.getContent());
 
         return buildPageResponse(products, productPage);
     }
@@ -186,9 +217,7 @@ public class ProductService {
     public PageResponse<ProductResponse> getProductsByShop(Long shopId, Pageable pageable) {
         Page<Product> productPage = productRepository.findByShopId(shopId, pageable);
 
-        List<ProductResponse> products = productPage.getContent().stream()
-                .map(this::enrichProductResponse)
-                .collect(Collectors.toList());
+        List<ProductResponse> products = enrichProductResponses(productPage.getContent());
 
         return buildPageResponse(products, productPage);
     }
@@ -199,16 +228,23 @@ public class ProductService {
     @Transactional(readOnly = true)
     @Cacheable(value = "products", key = "'bestsellers:' + #pageable.pageNumber")
     public PageResponse<ProductResponse> getBestSellers(Pageable pageable) {
-        Page<Product> productPage = productRepository.findBestSellers(
+        if (!summaryService.isBackfilled()) {
+            // Products not summarized yet would be missing from the summary ranking
+            Page<Product> productPage = productRepository.findBestSellers(
+                    ProductStatus.ACTIVE,
+                    pageable
+            );
+            return buildPageResponse(enrichProductResponses(productPage.getContent()), productPage);
+        }
+
+        Page<ProductListingSummary> summaryPage = summaryRepository.findBestSellers(
                 ProductStatus.ACTIVE,
                 pageable
         );
 
-        List<ProductResponse> products = productPage.getContent().stream()
-                .map(this::enrichProductResponse)
-                .collect(Collectors.toList());
+        List<ProductResponse> products = buildListingResponses(summaryPage.getContent());
 
-        return buildPageResponse(products, productPage);
+        return buildPageResponse(products, summaryPage);
     }
 
     /**
@@ -217,16 +253,23 @@ public class ProductService {
     @Transactional(readOnly = true)
     @Cacheable(value = "products", key = "'newarrivals:' + #pageable.pageNumber")
     public PageResponse<ProductResponse> getNewArrivals(Pageable pageable) {
-        Page<Product> productPage = productRepository.findNewArrivals(
+        if (!summaryService.isBackfilled()) {
+            // Products not summarized yet would be missing from the summary ranking
+            Page<Product> productPage = productRepository.findNewArrivals(
+                    ProductStatus.ACTIVE,
+                    pageable
+            );
+            return buildPageResponse(enrichProductResponses(productPage.getContent()), productPage);
+        }
+
+        Page<ProductListingSummary> summaryPage = summaryRepository.findNewArrivals(
                 ProductStatus.ACTIVE,
                 pageable
         );
 
-        List<ProductResponse> products = productPage.getContent().stream()
-                .map(this::enrichProductResponse)
-                .collect(Collectors.toList());
+        List<ProductResponse> products = buildListingResponses(summaryPage.getContent());
 
-        return buildPageResponse(products, productPage);
+        return buildPageResponse(products, summaryPage);
     }
 
     /**
@@ -235,17 +278,66 @@ public class ProductService {
     @Transactional(readOnly = true)
     @Cacheable(value = "products", key = "'toprated:' + #pageable.pageNumber")
     public PageResponse<ProductResponse> getTopRated(Pageable pageable) {
-        Page<Product> productPage = productRepository.findTopRated(
+        if (!summaryService.isBackfilled()) {
+            // Products not summarized yet would be missing from the summary ranking
+            Page<Product> productPage = productRepository.findTopRated(
+                    ProductStatus.ACTIVE,
+                    4.0, // Min rating
+                    pageable
+            );
+            return buildPageResponse(enrichProductResponses(productPage.getContent()), productPage);
+        }
+
+        Page<ProductListingSummary> summaryPage = summaryRepository.findTopRated(
                 ProductStatus.ACTIVE,
                 4.0, // Min rating
                 pageable
         );
 
-        List<ProductResponse> products = productPage.getContent().stream()
-                .map(this::enrichProductResponse)
-                .collect(Collectors.toList());
+        List<ProductResponse> products = buildListingResponses(summaryPage.getContent());
 
-        return buildPageResponse(products, productPage);
+        return buildPageResponse(products, summaryPage);
+    }
+
+    /**
+     * Get active products as a keyset feed (no offset scan, no count query).
+     * Ranked on the listing summary, like the other ranked listings.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ProductResponse> getProductFeed(FeedSort sort, String cursor, int size) {
+        CursorUtils.Cursor position = cursor != null ? CursorUtils.decode(cursor, sort) : null;
+        Long lastId = position != null ? position.id() : Long.MAX_VALUE;
+        LocalDateTime createdAt = position != null && sort == FeedSort.NEWEST
+                ? position.keyAsDateTime() : CursorUtils.MAX_DATE_TIME;
+        Long totalSold = position != null && sort == FeedSort.BEST_SELLING ? position.keyAsLong() : Long.MAX_VALUE;
+        Double rating = position != null && sort == FeedSort.TOP_RATED ? position.keyAsDouble() : Double.MAX_VALUE;
+        // Fetch one extra row to know whether another page exists
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        if (!summaryService.isBackfilled()) {
+            // Products not summarized yet would be missing from the summary ranking
+            List<Product> rows = switch (sort) {
+                case NEWEST -> productRepository.findFeedByCreatedAt(ProductStatus.ACTIVE, createdAt, lastId, limit);
+                case BEST_SELLING -> productRepository.findFeedByTotalSold(ProductStatus.ACTIVE, totalSold, lastId, limit);
+                case TOP_RATED -> productRepository.findFeedByAverageRating(ProductStatus.ACTIVE, rating, lastId, limit);
+            };
+            return buildFeedResponse(sort, rows, size, Product::getId, product -> switch (sort) {
+                case NEWEST -> product.getCreatedAt();
+                case BEST_SELLING -> product.getTotalSold();
+                case TOP_RATED -> product.getAverageRating();
+            }, this::enrichProductResponses);
+        }
+
+        List<ProductListingSummary> rows = switch (sort) {
+            case NEWEST -> summaryRepository.findFeedByCreatedAt(ProductStatus.ACTIVE, createdAt, lastId, limit);
+            case BEST_SELLING -> summaryRepository.findFeedByTotalSold(ProductStatus.ACTIVE, totalSold, lastId, limit);
+            case TOP_RATED -> summaryRepository.findFeedByAverageRating(ProductStatus.ACTIVE, rating, lastId, limit);
+        };
+        return buildFeedResponse(sort, rows, size, ProductListingSummary::getProductId, summary -> switch (sort) {
+            case NEWEST -> summary.getCreatedAt();
+            case BEST_SELLING -> summary.getTotalSold();
+            case TOP_RATED -> summary.getAverageRating();
+        }, this::buildListingResponses);
     }
 
     /**
@@ -290,52 +382,145 @@ public class ProductService {
     // ========== HELPER METHODS ==========
 
     /**
-     * Enrich product response with additional data
+     * Build listing responses in summary order. Price, stock, rating and thumbnail come
+     * from the summary; name, slug, category and shop from a primary-key lookup of the
+     * same products, so renames need no fan-out into the read model.
      */
-    private ProductResponse enrichProductResponse(Product product) {
-        ProductResponse response = productMapper.toResponse(product);
+    private List<ProductResponse> buildListingResponses(List<ProductListingSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-        // Get pricing from variants
-        BigDecimal minPrice = variantRepository.findMinPriceByProductId(product.getId());
-        BigDecimal maxPrice = variantRepository.findMaxPriceByProductId(product.getId());
-        response.setMinPrice(minPrice);
-        response.setMaxPrice(maxPrice);
+        List<Long> productIds = summaries.stream()
+                .map(ProductListingSummary::getProductId)
+                .collect(Collectors.toList());
 
-        // Get total stock
-        Integer totalStock = variantRepository.sumStockByProductId(product.getId());
-        response.setTotalStock(totalStock != null ? totalStock : 0);
+        Map<Long, Product> productsById = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
 
-        // Get rating and review count
-        Double averageRating = reviewRepository.calculateAverageRating(
-                product.getId(),
-                ReviewStatus.APPROVED
-        );
-        response.setAverageRating(averageRating != null ? averageRating : 0.0);
+        // Products deleted since the summary page was read are skipped
+        List<Product> products = productIds.stream()
+                .filter(productsById::containsKey)
+                .map(productsById::get)
+                .collect(Collectors.toList());
+        Map<Long, ProductListingSummary> summariesByProduct = summaries.stream()
+                .collect(Collectors.toMap(ProductListingSummary::getProductId, Function.identity()));
 
-        Long reviewCount = reviewRepository.countByProductIdAndStatus(
-                product.getId(),
-                ReviewStatus.APPROVED
-        );
-        response.setReviewCount(reviewCount);
+        return buildProductResponses(products, summariesByProduct);
+    }
 
-        // Get thumbnail
-        ProductImage thumbnail = imageRepository.findFirstByProductId(product.getId())
-                .orElse(null);
-        if (thumbnail != null) {
-            response.setThumbnailUrl(thumbnail.getImageUrl());
+    /**
+     * Build listing responses for a page of products ranked on the products table
+     */
+    private List<ProductResponse> enrichProductResponses(List<Product> products) {
+        if (products.isEmpty()) {
+            return new ArrayList<>();
         }
 
-        // Get variants and images
-        response.setVariants(variantMapper.toResponseList(
-                variantRepository.findByProductIdAndIsActiveTrue(product. getId())
-        ));
-        response.setImages(imageMapper. toResponseList(
-                imageRepository.findByProductIdOrderByDisplayOrderAsc(product.getId())
-        ));
+        List<Long> productIds = products.stream()
+                .map(Product::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, ProductListingSummary> summariesByProduct = summaryRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(ProductListingSummary::getProductId, Function.identity()));
+
+        return buildProductResponses(products, summariesByProduct);
+    }
+
+    /**
+     * Stitch a page of products with their summaries, variants and images (one IN query each).
+     * Review aggregates are only computed for products whose summary is not built yet.
+     */
+    private List<ProductResponse> buildProductResponses(List<Product> products,
+                                                        Map<Long, ProductListingSummary> summariesByProduct) {
+        List<Long> productIds = products.stream()
+                .map(Product::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, List<ProductVariant>> variantsByProduct = variantRepository
+                .findByProductIdInAndIsActiveTrue(productIds).stream()
+                .collect(Collectors.groupingBy(variant -> variant.getProduct().getId()));
+
+        Map<Long, List<ProductImage>> imagesByProduct = imageRepository
+                .findByProductIdInOrderByDisplayOrderAsc(productIds).stream()
+                .collect(Collectors.groupingBy(image -> image.getProduct().getId()));
+
+        // Fallback for products not yet covered by the read model
+        Map<Long, ProductListingSummary> summaries = new HashMap<>(summariesByProduct);
+        List<Product> missing = products.stream()
+                .filter(product -> !summaries.containsKey(product.getId()))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            Map<Long, ReviewRepository.RatingAggregate> ratingsByProduct = summaryService.aggregateRatings(
+                    missing.stream().map(Product::getId).collect(Collectors.toList()));
+            for (Product product : missing) {
+                summaries.put(product.getId(), summaryService.summarize(
+                        product,
+                        variantsByProduct.getOrDefault(product.getId(), List.of()),
+                        imagesByProduct.getOrDefault(product.getId(), List.of()),
+                        ratingsByProduct.get(product.getId())
+                ));
+            }
+        }
+
+        return products.stream()
+                .map(product -> buildProductResponse(
+                        product,
+                        summaries.get(product.getId()),
+                        variantsByProduct.getOrDefault(product.getId(), List.of()),
+                        imagesByProduct.getOrDefault(product.getId(), List.of())
+                ))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Stitch listing summary, preloaded variants and images into a product response
+     */
+    private ProductResponse buildProductResponse(Product product,
+                                                 ProductListingSummary summary,
+                                                 List<ProductVariant> variants,
+                                                 List<ProductImage> images) {
+        ProductResponse response = productMapper.toResponse(product);
+
+        response.setMinPrice(summary.getMinPrice());
+        response.setMaxPrice(summary.getMaxPrice());
+        response.setTotalStock(summary.getTotalStock());
+        response.setAverageRating(summary.getAverageRating());
+        response.setReviewCount(summary.getReviewCount());
+        response.setThumbnailUrl(summary.getThumbnailUrl());
+
+        response.setVariants(variantMapper.toResponseList(variants));
+        response.setImages(imageMapper.toResponseList(images));
 
         return response;
     }
 
+    /**
+     * Cut a feed page from size + 1 rows and encode the last row of the page as the next cursor
+     */
+    private <T> CursorPageResponse<ProductResponse> buildFeedResponse(FeedSort sort,
+                                                                      List<T> rows,
+                                                                      int size,
+                                                                      Function<T, Long> id,
+                                                                      Function<T, Object> sortKey,
+                                                                      Function<List<T>, List<ProductResponse>> toResponses) {
+        boolean hasNext = rows.size() > size;
+        List<T> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            T last = pageRows.get(pageRows.size() - 1);
+            nextCursor = CursorUtils.encode(sort, sortKey.apply(last), id.apply(last));
+        }
+
+        return CursorPageResponse.<ProductResponse>builder()
+                .content(toResponses.apply(pageRows))
+                .size(size)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+
     /**
      * Enrich product detail response
      */
@@ -343,14 +528,14 @@ public class ProductService {
         ProductDetailResponse response = productMapper.toDetailResponse(product);
 
         // Add all enrichments from basic response
-        ProductResponse basicResponse = enrichProductResponse(product);
+        ProductResponse basicResponse = enrichProductResponses(List.of(product)).get(0);
         response.setMinPrice(basicResponse.getMinPrice());
         response.setMaxPrice(basicResponse.getMaxPrice());
         response.setTotalStock(basicResponse.getTotalStock());
         response.setAverageRating(basicResponse.getAverageRating());
         response.setReviewCount(basicResponse.getReviewCount());
         response.setThumbnailUrl(basicResponse.getThumbnailUrl());
-        response.setVariants(basicResponse. getVariants());
+        response.setVariants(basicResponse.getVariants());
         response.setImages(basicResponse.getImages());
 
         // Get related products (same category)
@@ -360,11 +545,7 @@ public class ProductService {
                 ProductStatus. ACTIVE,
                 PageRequest.of(0, 10)
         );
-        response.setRelatedProducts(
-                relatedProducts.stream()
-                        .map(this::enrichProductResponse)
-                        .collect(Collectors.toList())
-        );
+        response.setRelatedProducts(enrichProductResponses(relatedProducts));
 
         // Get recent reviews
         List<com.example.BE_E_commerce.entity.Review> recentReviews =
@@ -409,6 +590,18 @@ public class ProductService {
         return PageRequest.of(filter.getPage(), filter.getSize(), sort);
     }
 
+    /**
+     * Create pageable with sorting on listing summary columns (product id breaks ties)
+     */
+    private Pageable createSummaryPageable(ProductFilterRequest filter) {
+        Sort.Direction direction = filter.getSortDirection().equalsIgnoreCase("ASC")
+                ? Sort.Direction.ASC
+                : Sort.Direction.DESC;
+        Sort sort = Sort.by(direction, SUMMARY_SORT_KEYS.get(filter.getSortBy()), "productId");
+
+        return PageRequest.of(filter.getPage(), filter.getSize(), sort);
+    }
+
     /**
      * Check if filter has any criteria
      */
@@ -420,6 +613,24 @@ public class ProductService {
                 filter.getMaxPrice() != null;
     }
 
+    /**
+     * Keyword split into a FULLTEXT boolean query and a LIKE fallback.
+     * The fallback is only used when no term is long enough for the ngram index.
+     */
+    private record SearchKeyword(String fullTextQuery, String keyword) {
+
+        static SearchKeyword of(String rawKeyword) {
+            if (rawKeyword == null || rawKeyword.isBlank()) {
+                return new SearchKeyword("", null);
+            }
+            List<String> tokens = SearchTextUtils.tokenize(rawKeyword);
+            if (tokens.isEmpty()) {
+                return new SearchKeyword("", SearchTextUtils.fold(rawKeyword));
+            }
+            return new SearchKeyword(SearchTextUtils.toBooleanQuery(tokens), null);
+        }
+    }
+
     /**
      * Build page response
      */
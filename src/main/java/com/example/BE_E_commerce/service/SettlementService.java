@@ -0,0 +1,198 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.entity.JobCheckpoint;
+import com.example.BE_E_commerce.id.SnowflakeIdGenerator;
+import com.example.BE_E_commerce.repository.JobCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Releases sellers' held earnings once completed orders are past the hold period.
+ *
+ * Completed orders are walked in (completed_at, id) keyset order, one chunk per transaction.
+ * A chunk is summed per shop in memory and written as one ORDER/COMPLETED ledger entry per
+ * shop, all in one JDBC batch; {@link LedgerProjector} then moves the money from pending to
+ * available with one update per shop. The keyset cursor lives in job_checkpoints and advances
+ * in the chunk's transaction, so a crashed run resumes after the last committed chunk and no
+ * order is settled twice.
+ */
+@Service
+@Slf4j
+public class SettlementService {
+
+    static final String CHECKPOINT = "order-settlement";
+
+    // Before any order could have completed
+    private static final LocalDateTime START = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private static final String COMPLETED_ORDERS_SQL = """
+            SELECT id, shop_id, seller_amount, completed_at
+            FROM orders
+            WHERE status = 'COMPLETED' AND completed_at <= ?
+              AND (completed_at > ? OR (completed_at = ? AND id > ?))
+            ORDER BY completed_at, id
+            LIMIT ?
+            """;
+
+    private static final String INSERT_SETTLEMENT_SQL =
+            "INSERT INTO transactions (id, shop_id, type, status, amount, description, created_at) "
+                    + "VALUES (?, ?, 'ORDER', 'COMPLETED', ?, ?, NOW())";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    @Value("${app.settlement.hold-period:7d}")
+    private Duration holdPeriod;
+
+    @Value("${app.settlement.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.settlement.max-chunks-per-run:500}")
+    private int maxChunksPerRun;
+
+    public SettlementService(JdbcTemplate jdbcTemplate,
+                             JobCheckpointRepository checkpointRepository,
+                             PlatformTransactionManager transactionManager) {
+        this(jdbcTemplate, checkpointRepository, transactionManager, Clock.systemDefaultZone());
+    }
+
+    SettlementService(JdbcTemplate jdbcTemplate,
+                      JobCheckpointRepository checkpointRepository,
+                      PlatformTransactionManager transactionManager,
+                      Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    // ========== SETTLEMENT ==========
+
+    @Scheduled(fixedDelayString = "${app.settlement.interval:900000}")
+    public void settle() {
+        try {
+            settleDueOrders();
+        } catch (Exception e) {
+            log.error("Order settlement failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Settle every order that left its hold period, up to the per-run chunk budget
+     */
+    public SettlementRun settleDueOrders() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(holdPeriod);
+        long startedAt = System.nanoTime();
+        int chunks = 0;
+        int orders = 0;
+        int shops = 0;
+
+        while (chunks < maxChunksPerRun) {
+            ChunkResult chunk = transactionTemplate.execute(status -> settleChunk(cutoff));
+            if (chunk == null || chunk.orders() == 0) {
+                break;
+            }
+            chunks++;
+            orders += chunk.orders();
+            shops += chunk.shops();
+            if (chunk.orders() < chunkSize) {
+                break;
+            }
+        }
+
+        SettlementRun run = new SettlementRun(orders, shops, chunks, Duration.ofNanos(System.nanoTime() - startedAt));
+        if (orders > 0) {
+            log.info("Settled {} orders into {} shop entries in {} chunks, {} ms ({} orders/s)",
+                    run.orders(), run.shopEntries(), run.chunks(), run.elapsed().toMillis(), run.ordersPerSecond());
+        }
+        return run;
+    }
+
+    /**
+     * Settle the next chunk after the checkpoint; must run inside a transaction (the
+     * checkpoint row lock keeps other nodes out until it commits)
+     */
+    ChunkResult settleChunk(LocalDateTime cutoff) {
+        checkpointRepository.insertIfAbsent(CHECKPOINT);
+        JobCheckpoint checkpoint = checkpointRepository.findByNameForUpdate(CHECKPOINT)
+                .orElseThrow(() -> new IllegalStateException("Missing checkpoint " + CHECKPOINT));
+
+        LocalDateTime afterTime = checkpoint.getPositionTime() != null ? checkpoint.getPositionTime() : START;
+        long afterId = checkpoint.getPosition();
+        List<CompletedOrder> orders = jdbcTemplate.query(COMPLETED_ORDERS_SQL,
+                (rs, rowNum) -> new CompletedOrder(
+                        rs.getLong("id"),
+                        rs.getLong("shop_id"),
+                        rs.getBigDecimal("seller_amount"),
+                        rs.getObject("completed_at", LocalDateTime.class)),
+                cutoff, afterTime, afterTime, afterId, chunkSize);
+        if (orders.isEmpty()) {
+            return new ChunkResult(0, 0);
+        }
+
+        Map<Long, ShopSettlement> byShop = new TreeMap<>();
+        for (CompletedOrder order : orders) {
+            byShop.computeIfAbsent(order.shopId(), shopId -> new ShopSettlement()).add(order.sellerAmount());
+        }
+
+        SnowflakeIdGenerator ids = SnowflakeIdGenerator.getInstance();
+        List<Object[]> batchArgs = new ArrayList<>(byShop.size());
+        byShop.forEach((shopId, settlement) -> batchArgs.add(new Object[]{
+                ids.nextId(),
+                shopId,
+                settlement.amount,
+                "Settlement of " + settlement.orders + " orders"
+        }));
+        jdbcTemplate.batchUpdate(INSERT_SETTLEMENT_SQL, batchArgs);
+
+        CompletedOrder last = orders.get(orders.size() - 1);
+        checkpoint.setPosition(last.id());
+        checkpoint.setPositionTime(last.completedAt());
+        return new ChunkResult(orders.size(), byShop.size());
+    }
+
+    // ========== TYPES ==========
+
+    private record CompletedOrder(long id, long shopId, BigDecimal sellerAmount, LocalDateTime completedAt) {
+    }
+
+    private static final class ShopSettlement {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private int orders;
+
+        private void add(BigDecimal sellerAmount) {
+            amount = amount.add(sellerAmount);
+            orders++;
+        }
+    }
+
+    record ChunkResult(int orders, int shops) {
+    }
+
+    /**
+     * Outcome of one settlement run, with its throughput
+     */
+    public record SettlementRun(int orders, int shopEntries, int chunks, Duration elapsed) {
+
+        public long ordersPerSecond() {
+            long millis = Math.max(1, elapsed.toMillis());
+            return orders * 1000L / millis;
+        }
+    }
+}
@@ -6,12 +6,14 @@ import com.example.BE_E_commerce.dto.response.*;
 import com.example.BE_E_commerce.entity.Product;
 import com.example.BE_E_commerce.entity.Shop;
 import com.example.BE_E_commerce.enums.ProductStatus;
+import com.example.BE_E_commerce.enums.FeedSort;
 import com.example.BE_E_commerce.enums.ShopStatus;
 import com.example.BE_E_commerce.exception.ResourceNotFoundException;
 import com.example.BE_E_commerce.mapper.ProductMapper;
 import com.example.BE_E_commerce.mapper.ShopMapper;
 import com.example.BE_E_commerce.repository.ProductRepository;
 import com.example.BE_E_commerce.repository.ShopRepository;
+import com.example.BE_E_commerce.util.CursorUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
@@ -22,6 +24,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -88,6 +91,61 @@ public class ShopService {
         return buildPageResponse(shops, shopPage);
     }
 
+    /**
+     * Get active shops as a keyset feed (no offset scan, no count query)
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ShopResponse> getShopFeed(FeedSort sort, String cursor, int size) {
+        CursorUtils.Cursor position = cursor != null ? CursorUtils.decode(cursor, sort) : null;
+        Long lastId = position != null ? position.id() : Long.MAX_VALUE;
+        // Fetch one extra row to know whether another page exists
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<Shop> rows = switch (sort) {
+            case NEWEST -> shopRepository.findFeedByCreatedAt(
+                    ShopStatus.ACTIVE,
+                    position != null ? position.keyAsDateTime() : CursorUtils.MAX_DATE_TIME,
+                    lastId,
+                    limit
+            );
+            case BEST_SELLING -> shopRepository.findFeedByTotalSold(
+                    ShopStatus.ACTIVE,
+                    position != null ? position.keyAsInt() : Integer.MAX_VALUE,
+                    lastId,
+                    limit
+            );
+            case TOP_RATED -> shopRepository.findFeedByRating(
+                    ShopStatus.ACTIVE,
+                    position != null ? position.keyAsDecimal() : new BigDecimal("9.99"),
+                    lastId,
+                    limit
+            );
+        };
+
+        boolean hasNext = rows.size() > size;
+        List<Shop> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            Shop last = pageRows.get(pageRows.size() - 1);
+            Object sortKey = switch (sort) {
+                case NEWEST -> last.getCreatedAt();
+                case BEST_SELLING -> last.getTotalSold();
+                case TOP_RATED -> last.getRating().toPlainString();
+            };
+            nextCursor = CursorUtils.encode(sort, sortKey, last.getId());
+        }
+
+        return CursorPageResponse.<ShopResponse>builder()
+                .content(pageRows.stream()
+                        .map(shopMapper::toResponse)
+                        .collect(Collectors.toList()))
+                .size(size)
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .build();
+    }
+
     /**
      * Get shop by ID
      */
@@ -0,0 +1,461 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.entity.ProductVariant;
+import com.example.BE_E_commerce.exception.BadRequestException;
+import com.example.BE_E_commerce.exception.ResourceNotFoundException;
+import com.example.BE_E_commerce.repository.ProductVariantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.example.BE_E_commerce.config.SchedulingConfig.FLUSH_SCHEDULER;
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.*;
+
+/**
+ * Stock reservation engine for checkout.
+ *
+ * Redis holds the available quantity of every variant that has been reserved recently
+ * (seeded from MySQL on first use). A reservation decrements all of its variants atomically in one Lua script
+ * (all-or-nothing, never below zero), so concurrent checkouts on the same SKU never touch
+ * the product_variants row. A reservation is either confirmed once the order is placed,
+ * moving its quantities to the pending hash, or released (explicitly or when its TTL runs
+ * out), giving the stock back.
+ *
+ * Pending quantities are written to MySQL by a write-behind job. Quantities held by open
+ * reservations are tracked per variant as well, so a counter can be dropped at any time
+ * and reseeded as MySQL stock minus pending minus reserved. Counters expire after the
+ * counter TTL and are dropped after JPA writes to a variant, which picks up restocks and
+ * admin edits. Seeding is checked against the flush in the same script (flush generation
+ * and the variants being flushed), so a concurrent flush cannot make it count a sale twice
+ * or not at all.
+ */
+@Service
+@Slf4j
+public class StockReservationService {
+
+    // KEYS: stock counters, reservation hash, reservation index, reserved hash;
+    // ARGV: quantities, variant ids, reservation id, expiry millis
+    // The hash has no TTL: it lives until confirm or release, which need it to undo the reserved counts
+    private static final RedisScript<List> RESERVE_SCRIPT = new DefaultRedisScript<>("""
+            local n = #KEYS - 3
+            for i = 1, n do
+              local available = redis.call('GET', KEYS[i])
+              if not available then return {-1, i} end
+              if tonumber(available) < tonumber(ARGV[i]) then return {0, i} end
+            end
+            for i = 1, n do
+              redis.call('DECRBY', KEYS[i], ARGV[i])
+              redis.call('HSET', KEYS[n + 1], ARGV[n + i], ARGV[i])
+              redis.call('HINCRBY', KEYS[n + 3], ARGV[n + i], ARGV[i])
+            end
+            redis.call('ZADD', KEYS[n + 2], ARGV[2 * n + 2], ARGV[2 * n + 1])
+            return {1, 0}
+            """, List.class);
+
+    // KEYS: reservation hash, reservation index, pending hash, reserved hash; ARGV: stock key prefix, reservation id
+    private static final RedisScript<Long> CONFIRM_SCRIPT = new DefaultRedisScript<>("""
+            local items = redis.call('HGETALL', KEYS[1])
+            for i = 1, #items, 2 do
+              redis.call('HINCRBY', KEYS[3], items[i], items[i + 1])
+              if redis.call('HINCRBY', KEYS[4], items[i], -tonumber(items[i + 1])) <= 0 then
+                redis.call('HDEL', KEYS[4], items[i])
+              end
+            end
+            redis.call('DEL', KEYS[1])
+            redis.call('ZREM', KEYS[2], ARGV[2])
+            return #items / 2
+            """, Long.class);
+
+    // KEYS: reservation hash, reservation index, reserved hash; ARGV: stock key prefix, reservation id
+    // A dropped counter is not recreated: its reseed no longer subtracts this reservation
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            local items = redis.call('HGETALL', KEYS[1])
+            for i = 1, #items, 2 do
+              if redis.call('EXISTS', ARGV[1] .. items[i]) == 1 then
+                redis.call('INCRBY', ARGV[1] .. items[i], items[i + 1])
+              end
+              if redis.call('HINCRBY', KEYS[3], items[i], -tonumber(items[i + 1])) <= 0 then
+                redis.call('HDEL', KEYS[3], items[i])
+              end
+            end
+            redis.call('DEL', KEYS[1])
+            redis.call('ZREM', KEYS[2], ARGV[2])
+            return #items / 2
+            """, Long.class);
+
+    // KEYS: stock counters, pending hash, reserved hash, flushing hash, flush generation;
+    // ARGV: flush generation read before MySQL, counter ttl millis, variantId, MySQL stock pairs
+    private static final RedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>("""
+            local n = #KEYS - 4
+            if (redis.call('GET', KEYS[n + 4]) or '0') ~= ARGV[1] then return 0 end
+            for i = 1, n do
+              if redis.call('HEXISTS', KEYS[n + 3], ARGV[2 * i + 1]) == 1 then return 0 end
+            end
+            for i = 1, n do
+              local id = ARGV[2 * i + 1]
+              local taken = tonumber(redis.call('HGET', KEYS[n + 1], id) or '0')
+                + tonumber(redis.call('HGET', KEYS[n + 2], id) or '0')
+              redis.call('SET', KEYS[i], math.max(0, tonumber(ARGV[2 * i + 2]) - taken), 'PX', ARGV[2], 'NX')
+            end
+            return 1
+            """, Long.class);
+
+    // KEYS: flush lock, flushing hash; ARGV: lock token, lock ttl millis, variantId, quantity pairs
+    private static final RedisScript<Long> MARK_FLUSHING_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) ~= ARGV[1] then return 0 end
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            for i = 3, #ARGV, 2 do
+              redis.call('HSET', KEYS[2], ARGV[i], ARGV[i + 1])
+            end
+            redis.call('PEXPIRE', KEYS[2], ARGV[2])
+            return 1
+            """, Long.class);
+
+    // KEYS: pending hash, flushing hash, flush generation; ARGV: variantId, quantity pairs already written to MySQL
+    private static final RedisScript<Long> SETTLE_PENDING_SCRIPT = new DefaultRedisScript<>("""
+            for i = 1, #ARGV, 2 do
+              local left = redis.call('HINCRBY', KEYS[1], ARGV[i], -tonumber(ARGV[i + 1]))
+              if left <= 0 then redis.call('HDEL', KEYS[1], ARGV[i]) end
+              redis.call('HDEL', KEYS[2], ARGV[i])
+            end
+            redis.call('INCR', KEYS[3])
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end
+            return 0
+            """, Long.class);
+
+    private static final String DECREASE_STOCK_SQL =
+            "UPDATE product_variants SET stock_quantity = stock_quantity - ? WHERE id = ?";
+
+    private static final int SEED_ATTEMPTS = 5;
+    private static final long SEED_RETRY_DELAY_MILLIS = 50;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ProductVariantRepository variantRepository;
+    private final ProductListingSummaryService summaryService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate seedTemplate;
+    private final Duration flushLockTtl;
+
+    @Value("${app.stock.reservation-ttl:15m}")
+    private Duration reservationTtl;
+
+    @Value("${app.stock.counter-ttl:10m}")
+    private Duration counterTtl;
+
+    @Value("${app.stock.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    public StockReservationService(StringRedisTemplate redisTemplate,
+                                   ProductVariantRepository variantRepository,
+                                   ProductListingSummaryService summaryService,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.stock.flush-lock-ttl:60s}") Duration flushLockTtl) {
+        this.redisTemplate = redisTemplate;
+        this.variantRepository = variantRepository;
+        this.summaryService = summaryService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushLockTtl = flushLockTtl;
+        // The database gives up on a flush well before its lock can expire
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout((int) Math.max(1, flushLockTtl.toSeconds() / 2));
+        // Seeding must see committed stock, not the snapshot of the caller's checkout transaction
+        this.seedTemplate = new TransactionTemplate(transactionManager);
+        this.seedTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.seedTemplate.setReadOnly(true);
+    }
+
+    // ========== RESERVATION ==========
+
+    /**
+     * Reserve the given quantities (variantId -> quantity) all at once.
+     *
+     * @return reservation id, valid until confirmed, released or expired
+     * @throws BadRequestException if any variant does not have enough stock
+     */
+    public String reserve(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            throw new BadRequestException("Nothing to reserve");
+        }
+        quantities.forEach((variantId, quantity) -> {
+            if (quantity == null || quantity <= 0) {
+                throw new BadRequestException("Invalid quantity for variant " + variantId);
+            }
+        });
+
+        // Sorted so that the same request always builds the same script arguments
+        List<Map.Entry<Long, Integer>> items = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        String reservationId = UUID.randomUUID().toString();
+
+        List<?> result = runReserve(items, reservationId);
+        if (status(result) == -1) {
+            loadCounters(items.stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+            result = runReserve(items, reservationId);
+        }
+
+        long status = status(result);
+        if (status != 1) {
+            Long variantId = items.get((int) ((Number) result.get(1)).longValue() - 1).getKey();
+            throw new BadRequestException("Not enough stock for variant " + variantId);
+        }
+
+        log.debug("Reserved {} variants under {}", items.size(), reservationId);
+        return reservationId;
+    }
+
+    /**
+     * Turn a reservation into a sale: the stock stays taken and is queued for MySQL.
+     *
+     * @throws BadRequestException if the reservation already expired or was released
+     */
+    public void confirm(String reservationId) {
+        Long count = redisTemplate.execute(
+                CONFIRM_SCRIPT,
+                List.of(stockReservationKey(reservationId), STOCK_RESERVATION_INDEX, STOCK_PENDING, STOCK_RESERVED),
+                STOCK_AVAILABLE, reservationId
+        );
+        if (count == null || count == 0) {
+            throw new BadRequestException("Stock reservation has expired");
+        }
+    }
+
+    /**
+     * Give the reserved stock back. Safe to call more than once.
+     */
+    public void release(String reservationId) {
+        redisTemplate.execute(
+                RELEASE_SCRIPT,
+                List.of(stockReservationKey(reservationId), STOCK_RESERVATION_INDEX, STOCK_RESERVED),
+                STOCK_AVAILABLE, reservationId
+        );
+    }
+
+    /**
+     * Release reservations whose TTL has passed (abandoned or unpaid checkouts)
+     */
+    @Scheduled(fixedDelayString = "${app.stock.release-interval:30000}", scheduler = FLUSH_SCHEDULER)
+    public void releaseExpired() {
+        try {
+            Set<String> expired = redisTemplate.opsForZSet()
+                    .rangeByScore(STOCK_RESERVATION_INDEX, 0, System.currentTimeMillis(), 0, flushBatchSize);
+            if (expired == null || expired.isEmpty()) {
+                return;
+            }
+            expired.forEach(this::release);
+            log.info("Released {} expired stock reservations", expired.size());
+        } catch (Exception e) {
+            log.error("Failed to release expired stock reservations: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drop the counters of variants whose stock changed outside checkout;
+     * the next reservation reseeds them from MySQL
+     */
+    public void invalidate(Collection<Long> variantIds) {
+        if (variantIds.isEmpty()) {
+            return;
+        }
+        redisTemplate.delete(variantIds.stream().map(id -> stockAvailableKey(id)).collect(Collectors.toList()));
+    }
+
+    // ========== WRITE-BEHIND ==========
+
+    /**
+     * Apply confirmed sales to product_variants.stock_quantity in one JDBC batch.
+     * A Redis lock keeps nodes from applying the same pending quantities twice; it is
+     * re-checked and extended right before the write, whose transaction times out at
+     * half the lock TTL.
+     */
+    @Scheduled(fixedDelayString = "${app.stock.flush-interval:5000}", scheduler = FLUSH_SCHEDULER)
+    public void flushToDatabase() {
+        String lockToken = UUID.randomUUID().toString();
+        try {
+            Boolean locked = redisTemplate.opsForValue()
+                    .setIfAbsent(STOCK_FLUSH_LOCK, lockToken, flushLockTtl);
+            if (!Boolean.TRUE.equals(locked)) {
+                return;
+            }
+            try {
+                flushPending(lockToken);
+            } finally {
+                redisTemplate.execute(UNLOCK_SCRIPT, List.of(STOCK_FLUSH_LOCK), lockToken);
+            }
+        } catch (Exception e) {
+            log.error("Failed to flush stock to database: {}", e.getMessage());
+        }
+    }
+
+    private void flushPending(String lockToken) {
+        Map<Object, Object> pending = redisTemplate.opsForHash().entries(STOCK_PENDING);
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> sold = pending.entrySet().stream()
+                .limit(flushBatchSize)
+                .collect(Collectors.toMap(
+                        entry -> Long.valueOf(entry.getKey().toString()),
+                        entry -> Integer.valueOf(entry.getValue().toString())
+                ));
+
+        List<String> settled = new ArrayList<>();
+        sold.forEach((variantId, quantity) -> {
+            settled.add(variantId.toString());
+            settled.add(quantity.toString());
+        });
+
+        // Fence: stop if the lock was lost, and keep counters of these variants from being
+        // seeded until the batch is settled
+        List<String> markArgs = new ArrayList<>(List.of(lockToken, String.valueOf(flushLockTtl.toMillis())));
+        markArgs.addAll(settled);
+        Long marked = redisTemplate.execute(MARK_FLUSHING_SCRIPT, List.of(STOCK_FLUSH_LOCK, STOCK_FLUSHING),
+                markArgs.toArray());
+        if (marked == null || marked != 1) {
+            log.warn("Stock flush lock expired before the write, skipping this flush");
+            return;
+        }
+
+        List<Object[]> batchArgs = sold.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .collect(Collectors.toList());
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(DECREASE_STOCK_SQL, batchArgs));
+        } catch (RuntimeException e) {
+            redisTemplate.opsForHash().delete(STOCK_FLUSHING, sold.keySet().stream().map(String::valueOf).toArray());
+            throw e;
+        }
+
+        // Only after MySQL committed: a failure here re-applies the batch (undercounting
+        // MySQL stock) rather than losing it
+        redisTemplate.execute(SETTLE_PENDING_SCRIPT, List.of(STOCK_PENDING, STOCK_FLUSHING, STOCK_FLUSH_GENERATION),
+                settled.toArray());
+
+        // JDBC updates bypass the entity listener, so refresh listing stock explicitly
+        summaryService.refresh(variantRepository.findProductIdsByVariantIds(sold.keySet()));
+        log.debug("Flushed stock of {} variants to database", sold.size());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private List<?> runReserve(List<Map.Entry<Long, Integer>> items, String reservationId) {
+        List<String> keys = new ArrayList<>();
+        List<String> args = new ArrayList<>();
+        for (Map.Entry<Long, Integer> item : items) {
+            keys.add(stockAvailableKey(item.getKey()));
+            args.add(item.getValue().toString());
+        }
+        keys.add(stockReservationKey(reservationId));
+        keys.add(STOCK_RESERVATION_INDEX);
+        keys.add(STOCK_RESERVED);
+        items.forEach(item -> args.add(item.getKey().toString()));
+
+        long expiresAt = System.currentTimeMillis() + reservationTtl.toMillis();
+        args.add(reservationId);
+        args.add(String.valueOf(expiresAt));
+
+        return redisTemplate.execute(RESERVE_SCRIPT, keys, args.toArray());
+    }
+
+    private long status(List<?> result) {
+        if (result == null || result.isEmpty()) {
+            throw new IllegalStateException("Stock reservation script returned no result");
+        }
+        return ((Number) result.get(0)).longValue();
+    }
+
+    /**
+     * Seed missing counters from MySQL minus sales not yet flushed there and open reservations.
+     * The script refuses when a flush settled since the generation was read or is writing one
+     * of the variants, and the whole read is retried; NX keeps a counter another node loaded first.
+     */
+    void loadCounters(List<Long> variantIds) {
+        for (int attempt = 1; ; attempt++) {
+            List<String> current = redisTemplate.opsForValue().multiGet(
+                    variantIds.stream().map(id -> stockAvailableKey(id)).collect(Collectors.toList()));
+            List<Long> missing = new ArrayList<>();
+            for (int i = 0; i < variantIds.size(); i++) {
+                if (current == null || current.get(i) == null) {
+                    missing.add(variantIds.get(i));
+                }
+            }
+            if (missing.isEmpty()) {
+                return;
+            }
+
+            String generation = redisTemplate.opsForValue().get(STOCK_FLUSH_GENERATION);
+            Map<Long, ProductVariant> variants = seedTemplate.execute(status ->
+                    variantRepository.findAllById(missing).stream()
+                            .collect(Collectors.toMap(ProductVariant::getId, Function.identity())));
+
+            List<String> keys = new ArrayList<>();
+            List<String> args = new ArrayList<>(List.of(generation != null ? generation : "0",
+                    String.valueOf(counterTtl.toMillis())));
+            for (Long variantId : missing) {
+                ProductVariant variant = variants != null ? variants.get(variantId) : null;
+                if (variant == null) {
+                    throw new ResourceNotFoundException("ProductVariant", "id", variantId);
+                }
+                keys.add(stockAvailableKey(variantId));
+                args.add(variantId.toString());
+                args.add(variant.getStockQuantity().toString());
+            }
+            keys.addAll(List.of(STOCK_PENDING, STOCK_RESERVED, STOCK_FLUSHING, STOCK_FLUSH_GENERATION));
+
+            Long seeded = redisTemplate.execute(SEED_SCRIPT, keys, args.toArray());
+            if (seeded != null && seeded == 1) {
+                return;
+            }
+            if (attempt >= SEED_ATTEMPTS) {
+                throw new BadRequestException("Stock is being updated, please try again");
+            }
+            try {
+                Thread.sleep(SEED_RETRY_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading stock counters", e);
+            }
+        }
+    }
+
+    /**
+     * Available stock as seen by checkout, loading counters that are not in Redis yet
+     */
+    public Map<Long, Integer> getAvailableStock(Collection<Long> variantIds) {
+        List<Long> ids = new ArrayList<>(variantIds);
+        loadCounters(ids);
+        List<String> values = redisTemplate.opsForValue().multiGet(
+                ids.stream().map(id -> stockAvailableKey(id)).collect(Collectors.toList()));
+        Map<Long, Integer> available = new TreeMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            String value = values != null ? values.get(i) : null;
+            available.put(ids.get(i), value != null ? Integer.parseInt(value) : 0);
+        }
+        return available;
+    }
+}
@@ -0,0 +1,377 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.response.UnreadCountResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.chatUnreadKey;
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.notificationUnreadKey;
+
+/**
+ * Unread badges kept in Redis so page loads never COUNT(*) unread rows.
+ *
+ * Notifications: one counter per user. Chat: one hash per user, conversationId -> unread
+ * messages, summed for the badge. Counters move by the number of rows a write actually
+ * changed, after it committed, so increments and decrements commute. Anything lost on
+ * the way (a Redis error, a crash between commit and update) is fixed by the reconciler,
+ * which recomputes counts from MySQL and writes them back only if Redis did not move meanwhile.
+ * An update that reaches Redis after its rows were counted would then be applied twice, so
+ * corrections wait out a settle delay first; one slower than that can still skew a counter
+ * until the next reconciliation.
+ */
+@Service
+@Slf4j
+public class UnreadCounterService {
+
+    // KEYS: counter; ARGV: amount
+    private static final RedisScript<Long> DECREMENT_SCRIPT = new DefaultRedisScript<>("""
+            local left = redis.call('DECRBY', KEYS[1], ARGV[1])
+            if left <= 0 then redis.call('DEL', KEYS[1]) end
+            return left
+            """, Long.class);
+
+    // KEYS: hash; ARGV: field, amount
+    private static final RedisScript<Long> HASH_DECREMENT_SCRIPT = new DefaultRedisScript<>("""
+            local left = redis.call('HINCRBY', KEYS[1], ARGV[1], -tonumber(ARGV[2]))
+            if left <= 0 then redis.call('HDEL', KEYS[1], ARGV[1]) end
+            return left
+            """, Long.class);
+
+    // KEYS: counter; ARGV: value seen before counting ('' = missing), value from MySQL
+    private static final RedisScript<Long> RECONCILE_COUNTER_SCRIPT = new DefaultRedisScript<>("""
+            if (redis.call('GET', KEYS[1]) or '') ~= ARGV[1] then return 0 end
+            if ARGV[2] == '0' then redis.call('DEL', KEYS[1]) else redis.call('SET', KEYS[1], ARGV[2]) end
+            return 1
+            """, Long.class);
+
+    // KEYS: hash; ARGV: n, n field/value pairs seen before counting, then field/value pairs from MySQL
+    private static final RedisScript<Long> RECONCILE_HASH_SCRIPT = new DefaultRedisScript<>("""
+            local n = tonumber(ARGV[1])
+            if redis.call('HLEN', KEYS[1]) ~= n then return 0 end
+            for i = 2, 2 * n, 2 do
+              if redis.call('HGET', KEYS[1], ARGV[i]) ~= ARGV[i + 1] then return 0 end
+            end
+            redis.call('DEL', KEYS[1])
+            for i = 2 * n + 2, #ARGV, 2 do
+              redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+            end
+            return 1
+            """, Long.class);
+
+    private static final String USER_PAGE_SQL = "SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String UNREAD_NOTIFICATIONS_SQL =
+            "SELECT user_id, COUNT(*) AS unread FROM notifications WHERE is_read = FALSE AND user_id BETWEEN ? AND ? GROUP BY user_id";
+
+    // Unread messages are the ones the other participant sent
+    private static final String UNREAD_MESSAGES_SQL = """
+            SELECT t.recipient_id, t.conversation_id, COUNT(*) AS unread
+            FROM (
+                SELECT m.conversation_id,
+                       CASE WHEN m.sender_id = c.buyer_id THEN c.seller_id ELSE c.buyer_id END AS recipient_id
+                FROM messages m
+                JOIN conversations c ON c.id = m.conversation_id
+                WHERE m.is_read = FALSE
+                  AND (c.buyer_id BETWEEN ? AND ? OR c.seller_id BETWEEN ? AND ?)
+            ) t
+            WHERE t.recipient_id BETWEEN ? AND ?
+            GROUP BY t.recipient_id, t.conversation_id
+            """;
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.unread.reconcile-batch-size:500}")
+    private int reconcileBatchSize;
+
+    @Value("${app.unread.reconcile-settle-delay:2s}")
+    private Duration reconcileSettleDelay;
+
+    public UnreadCounterService(StringRedisTemplate redisTemplate, JdbcTemplate jdbcTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // ========== NOTIFICATIONS ==========
+
+    /**
+     * New unread notifications, by user (call after the inserts committed)
+     */
+    public void notificationsCreated(Map<Long, Long> countsByUser) {
+        if (countsByUser.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                countsByUser.forEach((userId, count) -> stringConnection.incrBy(notificationUnreadKey(userId), count));
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Failed to count {} users' new notifications: {}", countsByUser.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Notifications the user just marked read (rows actually changed)
+     */
+    public void notificationsRead(Long userId, long count) {
+        if (count <= 0) {
+            return;
+        }
+        try {
+            redisTemplate.execute(DECREMENT_SCRIPT, List.of(notificationUnreadKey(userId)), String.valueOf(count));
+        } catch (Exception e) {
+            log.error("Failed to uncount read notifications of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    // ========== MESSAGES ==========
+
+    /**
+     * New unread messages, by recipient and conversation (call after the inserts committed)
+     */
+    public void messagesCreated(Map<Long, Map<Long, Long>> countsByRecipient) {
+        if (countsByRecipient.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                countsByRecipient.forEach((userId, byConversation) -> byConversation.forEach((conversationId, count) ->
+                        stringConnection.hIncrBy(chatUnreadKey(userId), conversationId.toString(), count)));
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("Failed to count {} users' new messages: {}", countsByRecipient.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Messages of a conversation the user just marked read (rows actually changed)
+     */
+    public void messagesRead(Long userId, Long conversationId, long count) {
+        if (count <= 0) {
+            return;
+        }
+        try {
+            redisTemplate.execute(HASH_DECREMENT_SCRIPT, List.of(chatUnreadKey(userId)),
+                    conversationId.toString(), String.valueOf(count));
+        } catch (Exception e) {
+            log.error("Failed to uncount read messages of user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    // ========== READS ==========
+
+    /**
+     * Header badges, from Redis only (one round trip)
+     */
+    public UnreadCountResponse getUnreadCounts(Long userId) {
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                stringConnection.get(notificationUnreadKey(userId));
+                stringConnection.hVals(chatUnreadKey(userId));
+                return null;
+            });
+
+            long notifications = parse(results.get(0));
+            long messages = 0;
+            if (results.get(1) instanceof List<?> values) {
+                for (Object value : values) {
+                    messages += parse(value);
+                }
+            }
+            return new UnreadCountResponse(notifications, messages);
+        } catch (Exception e) {
+            log.error("Failed to read unread counts of user {}: {}", userId, e.getMessage());
+            return new UnreadCountResponse(0L, 0L);
+        }
+    }
+
+    /**
+     * Unread messages per conversation for the user, in one HMGET
+     */
+    public Map<Long, Long> getConversationUnread(Long userId, List<Long> conversationIds) {
+        if (conversationIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            List<Object> fields = conversationIds.stream().<Object>map(String::valueOf).toList();
+            List<Object> values = redisTemplate.opsForHash().multiGet(chatUnreadKey(userId), fields);
+            Map<Long, Long> unread = new HashMap<>();
+            for (int i = 0; i < conversationIds.size(); i++) {
+                unread.put(conversationIds.get(i), parse(values.get(i)));
+            }
+            return unread;
+        } catch (Exception e) {
+            log.error("Failed to read conversation unread counts of user {}: {}", userId, e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    // ========== RECONCILIATION ==========
+
+    /**
+     * Recompute every user's counters from MySQL and fix the ones that drifted
+     */
+    @Scheduled(cron = "${app.unread.reconcile-cron:0 0 4 * * *}")
+    public void reconcile() {
+        long afterUserId = 0;
+        int checked = 0;
+        int corrected = 0;
+        try {
+            while (true) {
+                ReconcileResult result = reconcilePage(afterUserId);
+                if (result.checked() == 0) {
+                    break;
+                }
+                checked += result.checked();
+                corrected += result.corrected();
+                afterUserId = result.lastUserId();
+            }
+            log.info("Unread counter reconciliation checked {} users, corrected {} counters", checked, corrected);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Unread counter reconciliation interrupted after {} users", checked);
+        } catch (Exception e) {
+            log.error("Unread counter reconciliation failed after {} users: {}", checked, e.getMessage());
+        }
+    }
+
+    /**
+     * Check one page of users. Redis is read before MySQL; a drifted counter is overwritten
+     * only if, a settle delay after counting, it still holds what was read. Counter updates of
+     * rows committed around the count land within that delay and make the correction skip.
+     */
+    ReconcileResult reconcilePage(long afterUserId) throws InterruptedException {
+        List<Long> userIds = jdbcTemplate.queryForList(USER_PAGE_SQL, Long.class, afterUserId, reconcileBatchSize);
+        if (userIds.isEmpty()) {
+            return new ReconcileResult(0, 0, afterUserId);
+        }
+
+        List<Object> snapshot = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (Long userId : userIds) {
+                stringConnection.get(notificationUnreadKey(userId));
+                stringConnection.hGetAll(chatUnreadKey(userId));
+            }
+            return null;
+        });
+
+        // User ids are a sorted page, so a range selects exactly them
+        long first = userIds.get(0);
+        long last = userIds.get(userIds.size() - 1);
+        Map<Long, Long> notifications = new HashMap<>();
+        jdbcTemplate.query(UNREAD_NOTIFICATIONS_SQL,
+                rs -> {
+                    notifications.put(rs.getLong("user_id"), rs.getLong("unread"));
+                }, first, last);
+        Map<Long, Map<String, String>> messages = new HashMap<>();
+        jdbcTemplate.query(UNREAD_MESSAGES_SQL,
+                rs -> {
+                    messages.computeIfAbsent(rs.getLong("recipient_id"), userId -> new HashMap<>())
+                            .put(String.valueOf(rs.getLong("conversation_id")), String.valueOf(rs.getLong("unread")));
+                }, first, last, first, last, first, last);
+
+        List<Integer> drifted = new ArrayList<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            Long userId = userIds.get(i);
+            String seenNotifications = snapshot.get(2 * i) != null ? snapshot.get(2 * i).toString() : "";
+            String actualNotifications = String.valueOf(notifications.getOrDefault(userId, 0L));
+            if (!seenNotifications.equals(actualNotifications.equals("0") ? "" : actualNotifications)
+                    || !toStringMap(snapshot.get(2 * i + 1)).equals(messages.getOrDefault(userId, Map.of()))) {
+                drifted.add(i);
+            }
+        }
+        if (drifted.isEmpty()) {
+            return new ReconcileResult(userIds.size(), 0, userIds.get(userIds.size() - 1));
+        }
+
+        // Let updates of rows committed just before the count reach Redis; they fail the check below
+        Thread.sleep(reconcileSettleDelay.toMillis());
+
+        int corrected = 0;
+        for (int i : drifted) {
+            Long userId = userIds.get(i);
+
+            String seenNotifications = snapshot.get(2 * i) != null ? snapshot.get(2 * i).toString() : "";
+            String actualNotifications = String.valueOf(notifications.getOrDefault(userId, 0L));
+            if (!seenNotifications.equals(actualNotifications.equals("0") ? "" : actualNotifications)) {
+                Long done = redisTemplate.execute(RECONCILE_COUNTER_SCRIPT, List.of(notificationUnreadKey(userId)),
+                        seenNotifications, actualNotifications);
+                if (done != null && done == 1) {
+                    log.warn("User {} unread notifications drifted: {} in Redis, {} in MySQL",
+                            userId, seenNotifications.isEmpty() ? "0" : seenNotifications, actualNotifications);
+                    corrected++;
+                }
+            }
+
+            Map<String, String> seenMessages = toStringMap(snapshot.get(2 * i + 1));
+            Map<String, String> actualMessages = messages.getOrDefault(userId, Map.of());
+            if (!seenMessages.equals(actualMessages)) {
+                Long done = redisTemplate.execute(RECONCILE_HASH_SCRIPT, List.of(chatUnreadKey(userId)),
+                        hashArgs(seenMessages, actualMessages));
+                if (done != null && done == 1) {
+                    log.warn("User {} unread messages drifted: {} in Redis, {} in MySQL", userId, seenMessages, actualMessages);
+                    corrected++;
+                }
+            }
+        }
+        return new ReconcileResult(userIds.size(), corrected, userIds.get(userIds.size() - 1));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private long parse(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.toString()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private Map<String, String> toStringMap(Object value) {
+        Map<String, String> map = new HashMap<>();
+        if (value instanceof Map<?, ?> raw) {
+            raw.forEach((field, count) -> map.put(String.valueOf(field), String.valueOf(count)));
+        }
+        return map;
+    }
+
+    private Object[] hashArgs(Map<String, String> seen, Map<String, String> actual) {
+        List<String> args = new ArrayList<>(2 + 2 * (seen.size() + actual.size()));
+        args.add(String.valueOf(seen.size()));
+        seen.forEach((field, count) -> {
+            args.add(field);
+            args.add(count);
+        });
+        actual.forEach((field, count) -> {
+            args.add(field);
+            args.add(count);
+        });
+        return args.toArray();
+    }
+
+    record ReconcileResult(int checked, int corrected, long lastUserId) {
+    }
+}
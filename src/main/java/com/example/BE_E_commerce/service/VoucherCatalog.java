@@ -0,0 +1,298 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.entity.Voucher;
+import com.example.BE_E_commerce.enums.VoucherType;
+import com.example.BE_E_commerce.repository.VoucherRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory index of the active vouchers, so validating a code or picking the best
+ * vouchers for a cart costs no DB read. Usage counts are not part of it (they live in Redis).
+ *
+ * Running vouchers are bucketed by shop (platform vouchers share one bucket) and sorted by
+ * minOrderValue within a bucket, so the vouchers a subtotal qualifies for are a prefix found
+ * by binary search. Each index covers one validity window: it is rebuilt from memory as soon
+ * as one of its vouchers ends or a known upcoming one starts.
+ *
+ * Definitions are refreshed incrementally from rows whose updated_at moved; a periodic full
+ * reload picks up deleted rows and edits made outside JPA.
+ */
+@Component
+@Slf4j
+public class VoucherCatalog {
+
+    private static final Long PLATFORM_BUCKET = 0L;
+
+    private final VoucherRepository voucherRepository;
+    private final Clock clock;
+    private final AtomicReference<Index> index = new AtomicReference<>(Index.EMPTY);
+
+    // Guarded by this: only the refresh jobs touch them
+    private final Map<Long, Definition> definitions = new HashMap<>();
+    private LocalDateTime syncedAt;
+
+    @Value("${app.voucher.refresh-overlap:5s}")
+    private Duration refreshOverlap;
+
+    public VoucherCatalog(VoucherRepository voucherRepository) {
+        this(voucherRepository, Clock.systemDefaultZone());
+    }
+
+    VoucherCatalog(VoucherRepository voucherRepository, Clock clock) {
+        this.voucherRepository = voucherRepository;
+        this.clock = clock;
+    }
+
+    // ========== LOOKUP ==========
+
+    /**
+     * Definition for a code, including vouchers that have not started yet
+     */
+    public Optional<Definition> findByCode(String code) {
+        return Optional.ofNullable(currentIndex().byCode().get(code));
+    }
+
+    /**
+     * Running vouchers the subtotal qualifies for, largest discount first
+     *
+     * @param shopId shop whose vouchers to consider, or null for platform vouchers
+     */
+    public List<Offer> findBest(Long shopId, BigDecimal subtotal, int limit) {
+        Definition[] bucket = currentIndex().byShop().get(shopId != null ? shopId : PLATFORM_BUCKET);
+        if (bucket == null || limit <= 0) {
+            return List.of();
+        }
+
+        // Min-heap of the best offers seen so far, never larger than the limit
+        PriorityQueue<Offer> top = new PriorityQueue<>(limit + 1, Offer.BY_DISCOUNT);
+        for (int i = 0, eligible = countEligible(bucket, subtotal); i < eligible; i++) {
+            BigDecimal discount = bucket[i].discountFor(subtotal);
+            if (discount.signum() > 0) {
+                top.offer(new Offer(bucket[i], discount));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<Offer> best = new ArrayList<>(top);
+        best.sort(Offer.BY_DISCOUNT.reversed());
+        return best;
+    }
+
+    // ========== REFRESH ==========
+
+    /**
+     * Replace every definition with the active rows in MySQL
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.voucher.full-reload-interval:600000}",
+            initialDelayString = "${app.voucher.full-reload-interval:600000}")
+    public synchronized void reload() {
+        try {
+            LocalDateTime now = LocalDateTime.now(clock);
+            List<Voucher> vouchers = voucherRepository.findActiveEndingAfter(now);
+            definitions.clear();
+            vouchers.forEach(voucher -> definitions.put(voucher.getId(), Definition.of(voucher)));
+            syncedAt = now;
+            index.set(Index.build(definitions.values(), now));
+            log.debug("Voucher catalog loaded {} active vouchers", definitions.size());
+        } catch (Exception e) {
+            log.error("Failed to reload voucher catalog: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Apply rows edited since the last sync. The window overlaps the previous one a little so
+     * rows committed late are not missed; applying a row twice is harmless.
+     */
+    @Scheduled(fixedDelayString = "${app.voucher.refresh-interval:30000}",
+            initialDelayString = "${app.voucher.refresh-interval:30000}")
+    public synchronized void refresh() {
+        if (syncedAt == null) {
+            reload();
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now(clock);
+            List<Voucher> changed = voucherRepository.findUpdatedSince(syncedAt.minus(refreshOverlap));
+            for (Voucher voucher : changed) {
+                if (Boolean.TRUE.equals(voucher.getIsActive()) && voucher.getEndDate().isAfter(now)) {
+                    definitions.put(voucher.getId(), Definition.of(voucher));
+                } else {
+                    definitions.remove(voucher.getId());
+                }
+            }
+            definitions.values().removeIf(definition -> !definition.endDate().isAfter(now));
+            syncedAt = now;
+            index.set(Index.build(definitions.values(), now));
+            if (!changed.isEmpty()) {
+                log.debug("Voucher catalog applied {} changed vouchers", changed.size());
+            }
+        } catch (Exception e) {
+            log.error("Failed to refresh voucher catalog: {}", e.getMessage());
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * The index for the current validity window, rebuilt from the previous one when it has passed
+     */
+    private Index currentIndex() {
+        Index current = index.get();
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (now.isBefore(current.validUntil())) {
+            return current;
+        }
+        Index rebuilt = Index.build(current.byCode().values(), now);
+        // A refresh that landed meanwhile is newer; keep it
+        return index.compareAndSet(current, rebuilt) ? rebuilt : index.get();
+    }
+
+    /**
+     * Number of leading vouchers (sorted by minOrderValue) whose minimum the subtotal meets
+     */
+    private static int countEligible(Definition[] bucket, BigDecimal subtotal) {
+        int low = 0;
+        int high = bucket.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bucket[mid].minOrderValue().compareTo(subtotal) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // ========== TYPES ==========
+
+    private record Index(Map<String, Definition> byCode, Map<Long, Definition[]> byShop, LocalDateTime validUntil) {
+
+        static final Index EMPTY = new Index(Map.of(), Map.of(), LocalDateTime.MIN);
+
+        /**
+         * Index of the definitions as of now; ended ones are dropped, upcoming ones are kept
+         * by code only and bound how long the index stays valid
+         */
+        static Index build(Collection<Definition> definitions, LocalDateTime now) {
+            Map<String, Definition> byCode = new HashMap<>();
+            Map<Long, List<Definition>> running = new HashMap<>();
+            LocalDateTime validUntil = LocalDateTime.MAX;
+
+            for (Definition definition : definitions) {
+                if (!definition.endDate().isAfter(now)) {
+                    continue;
+                }
+                byCode.put(definition.code(), definition);
+                if (definition.isRunning(now)) {
+                    running.computeIfAbsent(definition.isPlatform() ? PLATFORM_BUCKET : definition.shopId(),
+                            shopId -> new ArrayList<>()).add(definition);
+                    validUntil = earliest(validUntil, definition.endDate());
+                } else {
+                    validUntil = earliest(validUntil, definition.startDate());
+                }
+            }
+
+            Map<Long, Definition[]> byShop = new HashMap<>();
+            running.forEach((shopId, bucket) -> {
+                bucket.sort(Comparator.comparing(Definition::minOrderValue));
+                byShop.put(shopId, bucket.toArray(new Definition[0]));
+            });
+            return new Index(Map.copyOf(byCode), Map.copyOf(byShop), validUntil);
+        }
+
+        private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+            return a.isBefore(b) ? a : b;
+        }
+    }
+
+    /**
+     * A voucher with the discount it would give a particular subtotal
+     */
+    public record Offer(Definition voucher, BigDecimal discount) {
+
+        static final Comparator<Offer> BY_DISCOUNT = Comparator.comparing(Offer::discount);
+    }
+
+    /**
+     * Immutable snapshot of a voucher's rules
+     */
+    public record Definition(
+            Long id,
+            String code,
+            Long shopId, // null = platform voucher
+            VoucherType type,
+            BigDecimal discountValue,
+            BigDecimal minOrderValue,
+            BigDecimal maxDiscountAmount,
+            Integer usageLimit,
+            Integer perUserLimit,
+            LocalDateTime startDate,
+            LocalDateTime endDate
+    ) {
+        static Definition of(Voucher voucher) {
+            return new Definition(
+                    voucher.getId(),
+                    voucher.getCode(),
+                    voucher.getShop() != null ? voucher.getShop().getId() : null,
+                    voucher.getType(),
+                    voucher.getDiscountValue(),
+                    voucher.getMinOrderValue() != null ? voucher.getMinOrderValue() : BigDecimal.ZERO,
+                    voucher.getMaxDiscountAmount(),
+                    voucher.getUsageLimit(),
+                    voucher.getPerUserLimit(),
+                    voucher.getStartDate(),
+                    voucher.getEndDate()
+            );
+        }
+
+        public boolean isPlatform() {
+            return shopId == null;
+        }
+
+        public boolean isRunning(LocalDateTime now) {
+            return !now.isBefore(startDate) && now.isBefore(endDate);
+        }
+
+        /**
+         * Same rules as Voucher.calculateDiscount
+         */
+        public BigDecimal discountFor(BigDecimal orderAmount) {
+            if (orderAmount.compareTo(minOrderValue) < 0) {
+                return BigDecimal.ZERO;
+            }
+
+            BigDecimal discount = type == VoucherType.PERCENTAGE
+                    ? orderAmount.multiply(discountValue).divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP)
+                    : discountValue;
+
+            if (maxDiscountAmount != null && discount.compareTo(maxDiscountAmount) > 0) {
+                discount = maxDiscountAmount;
+            }
+            return discount.min(orderAmount);
+        }
+    }
+}
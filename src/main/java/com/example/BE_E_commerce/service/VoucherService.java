@@ -0,0 +1,352 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.response.CartSummaryResponse;
+import com.example.BE_E_commerce.dto.response.CartVouchersResponse;
+import com.example.BE_E_commerce.dto.response.VoucherOfferResponse;
+import com.example.BE_E_commerce.exception.BadRequestException;
+import com.example.BE_E_commerce.entity.VoucherRedemption;
+import com.example.BE_E_commerce.exception.ResourceNotFoundException;
+import com.example.BE_E_commerce.repository.VoucherRedemptionRepository;
+import com.example.BE_E_commerce.repository.VoucherRepository;
+import com.example.BE_E_commerce.service.VoucherCatalog.Definition;
+import com.example.BE_E_commerce.service.VoucherCatalog.Offer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static com.example.BE_E_commerce.config.SchedulingConfig.FLUSH_SCHEDULER;
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.*;
+
+/**
+ * Voucher redemption engine.
+ *
+ * Definitions come from {@link VoucherCatalog}, so validating a code never reads MySQL.
+ * Usage is counted in Redis: a claim checks the global and per-user limits and takes a
+ * slot in one Lua script, so a popular voucher neither oversubscribes nor serializes
+ * checkouts on its row. Every claim carries a token; replaying a token is a no-op success
+ * and releasing it gives the slot back exactly once.
+ *
+ * Redemptions are queued in a pending hash and added to vouchers.used_count by a
+ * write-behind job. Each redemption is also stored as a voucher_redemptions row in the
+ * checkout transaction, so the per-user counts can be reseeded along with the usage
+ * counter. Once a counter is loaded, Redis is the source of truth for usage.
+ */
+@Service
+@Slf4j
+public class VoucherService {
+
+    private static final long CLAIMED = 1;
+    private static final long NOT_LOADED = -1;
+    private static final long LIMIT_REACHED = 0;
+    private static final long USER_LIMIT_REACHED = -2;
+
+    // KEYS: used counter, per-user hash, claim key, pending hash
+    // ARGV: usage limit, per-user limit (-1 = unlimited), userId, voucherId, claim ttl millis
+    private static final RedisScript<Long> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[3]) == 1 then return 1 end
+            local used = redis.call('GET', KEYS[1])
+            if not used then return -1 end
+            local limit = tonumber(ARGV[1])
+            if limit >= 0 and tonumber(used) >= limit then return 0 end
+            local perUser = tonumber(ARGV[2])
+            if perUser >= 0 and tonumber(redis.call('HGET', KEYS[2], ARGV[3]) or '0') >= perUser then return -2 end
+            redis.call('INCR', KEYS[1])
+            redis.call('HINCRBY', KEYS[2], ARGV[3], 1)
+            redis.call('HINCRBY', KEYS[4], ARGV[4], 1)
+            redis.call('SET', KEYS[3], ARGV[4] .. ':' .. ARGV[3], 'PX', ARGV[5])
+            return 1
+            """, Long.class);
+
+    // KEYS: claim key, pending hash; ARGV: used counter prefix, per-user hash prefix
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            local claim = redis.call('GET', KEYS[1])
+            if not claim then return 0 end
+            local sep = string.find(claim, ':', 1, true)
+            local voucherId = string.sub(claim, 1, sep - 1)
+            local userId = string.sub(claim, sep + 1)
+            redis.call('DECR', ARGV[1] .. voucherId)
+            redis.call('HINCRBY', ARGV[2] .. voucherId, userId, -1)
+            redis.call('HINCRBY', KEYS[2], voucherId, -1)
+            redis.call('DEL', KEYS[1])
+            return 1
+            """, Long.class);
+
+    // KEYS: used counter, per-user hash, pending hash; ARGV: persisted used count, voucherId, userId/count pairs
+    // Claims need the counter, so without one the per-user hash holds nothing newer than MySQL
+    private static final RedisScript<Long> SEED_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end
+            redis.call('DEL', KEYS[2])
+            for i = 3, #ARGV, 2 do
+              redis.call('HSET', KEYS[2], ARGV[i], ARGV[i + 1])
+            end
+            redis.call('SET', KEYS[1], tonumber(ARGV[1]) + tonumber(redis.call('HGET', KEYS[3], ARGV[2]) or '0'))
+            return 1
+            """, Long.class);
+
+    // ARGV: voucherId, delta pairs already written to MySQL (a delta may be negative after releases)
+    private static final RedisScript<Long> SETTLE_PENDING_SCRIPT = new DefaultRedisScript<>("""
+            for i = 1, #ARGV, 2 do
+              local left = redis.call('HINCRBY', KEYS[1], ARGV[i], -tonumber(ARGV[i + 1]))
+              if left == 0 then redis.call('HDEL', KEYS[1], ARGV[i]) end
+            end
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end
+            return 0
+            """, Long.class);
+
+    private static final String INCREASE_USED_COUNT_SQL =
+            "UPDATE vouchers SET used_count = used_count + ? WHERE id = ?";
+
+    private final StringRedisTemplate redisTemplate;
+    private final VoucherCatalog voucherCatalog;
+    private final VoucherRepository voucherRepository;
+    private final VoucherRedemptionRepository redemptionRepository;
+    private final CartService cartService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.voucher.claim-ttl:24h}")
+    private Duration claimTtl;
+
+    @Value("${app.voucher.flush-batch-size:500}")
+    private int flushBatchSize;
+
+    @Value("${app.voucher.max-suggestions:10}")
+    private int maxSuggestions;
+
+    public VoucherService(StringRedisTemplate redisTemplate,
+                          VoucherCatalog voucherCatalog,
+                          VoucherRepository voucherRepository,
+                          VoucherRedemptionRepository redemptionRepository,
+                          CartService cartService,
+                          JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager) {
+        this.redisTemplate = redisTemplate;
+        this.voucherCatalog = voucherCatalog;
+        this.voucherRepository = voucherRepository;
+        this.redemptionRepository = redemptionRepository;
+        this.cartService = cartService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // ========== VALIDATION ==========
+
+    /**
+     * Look up a voucher that can be used right now (catalog only, no DB read).
+     * Usage limits are enforced by {@link #claim}.
+     */
+    public Definition getUsableVoucher(String code) {
+        Definition voucher = voucherCatalog.findByCode(code)
+                .orElseThrow(() -> new ResourceNotFoundException("Voucher", "code", code));
+        if (!voucher.isRunning(LocalDateTime.now())) {
+            throw new BadRequestException("Voucher is not active");
+        }
+        return voucher;
+    }
+
+    /**
+     * Best platform vouchers for the cart total and best shop vouchers for each shop's subtotal.
+     * Served from the catalog index; usage limits are checked when a voucher is claimed.
+     */
+    public CartVouchersResponse getBestVouchersForCart(int limit) {
+        int perBucket = Math.max(1, Math.min(limit, maxSuggestions));
+        CartSummaryResponse cart = cartService.getCartSummary();
+
+        List<CartVouchersResponse.ShopVouchers> shops = cart.getShops().stream()
+                .map(shop -> CartVouchersResponse.ShopVouchers.builder()
+                        .shopId(shop.getShopId())
+                        .shopName(shop.getShopName())
+                        .subtotal(shop.getSubtotal())
+                        .vouchers(toOfferResponses(
+                                voucherCatalog.findBest(shop.getShopId(), shop.getSubtotal(), perBucket)))
+                        .build())
+                .collect(Collectors.toList());
+
+        List<VoucherOfferResponse> platformVouchers = cart.getShops().isEmpty()
+                ? List.of()
+                : toOfferResponses(voucherCatalog.findBest(null, cart.getTotalAmount(), perBucket));
+
+        return CartVouchersResponse.builder()
+                .totalAmount(cart.getTotalAmount())
+                .platformVouchers(platformVouchers)
+                .shops(shops)
+                .build();
+    }
+
+    // ========== REDEMPTION ==========
+
+    /**
+     * Take one usage slot of the voucher for the user.
+     * Claiming again with the same token succeeds without taking another slot.
+     *
+     * @throws BadRequestException if the voucher or the user's allowance is used up
+     */
+    public void claim(Definition voucher, Long userId, String claimToken) {
+        Long result = runClaim(voucher, userId, claimToken);
+        if (result != null && result == NOT_LOADED) {
+            loadCounter(voucher.id());
+            result = runClaim(voucher, userId, claimToken);
+        }
+        if (result == null) {
+            throw new IllegalStateException("Voucher claim script returned no result");
+        }
+        if (result == LIMIT_REACHED) {
+            throw new BadRequestException("Voucher has been fully redeemed");
+        }
+        if (result == USER_LIMIT_REACHED) {
+            throw new BadRequestException("You have reached the usage limit for this voucher");
+        }
+        log.debug("Claimed voucher {} for user {} under {}", voucher.code(), userId, claimToken);
+    }
+
+    /**
+     * Store a claimed redemption with the orders it was applied to
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRedemption(Definition voucher, Long userId, String claimToken) {
+        redemptionRepository.save(VoucherRedemption.builder()
+                .voucherId(voucher.id())
+                .userId(userId)
+                .claimToken(claimToken)
+                .build());
+    }
+
+    /**
+     * Give a claimed slot back. Safe to call more than once.
+     */
+    public void release(String claimToken) {
+        redisTemplate.execute(
+                RELEASE_SCRIPT,
+                List.of(voucherClaimKey(claimToken), VOUCHER_PENDING),
+                VOUCHER_USED, VOUCHER_USER
+        );
+    }
+
+    // ========== WRITE-BEHIND ==========
+
+    /**
+     * Add pending redemptions to vouchers.used_count in one JDBC batch.
+     * A Redis lock keeps nodes from applying the same deltas twice.
+     */
+    @Scheduled(fixedDelayString = "${app.voucher.flush-interval:5000}", scheduler = FLUSH_SCHEDULER)
+    public void flushUsage() {
+        String lockToken = UUID.randomUUID().toString();
+        try {
+            Boolean locked = redisTemplate.opsForValue()
+                    .setIfAbsent(VOUCHER_FLUSH_LOCK, lockToken, Duration.ofSeconds(TTL_STOCK_LOCK));
+            if (!Boolean.TRUE.equals(locked)) {
+                return;
+            }
+            try {
+                flushPending();
+            } finally {
+                redisTemplate.execute(UNLOCK_SCRIPT, List.of(VOUCHER_FLUSH_LOCK), lockToken);
+            }
+        } catch (Exception e) {
+            log.error("Failed to flush voucher usage to database: {}", e.getMessage());
+        }
+    }
+
+    private void flushPending() {
+        Map<Object, Object> pending = redisTemplate.opsForHash().entries(VOUCHER_PENDING);
+        Map<Long, Integer> used = pending.entrySet().stream()
+                .filter(entry -> !"0".equals(entry.getValue().toString()))
+                .limit(flushBatchSize)
+                .collect(Collectors.toMap(
+                        entry -> Long.valueOf(entry.getKey().toString()),
+                        entry -> Integer.valueOf(entry.getValue().toString())
+                ));
+        if (used.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batchArgs = used.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .collect(Collectors.toList());
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INCREASE_USED_COUNT_SQL, batchArgs));
+
+        // Only after MySQL committed, so a failure re-applies the batch rather than losing it
+        List<String> settled = new ArrayList<>();
+        used.forEach((voucherId, delta) -> {
+            settled.add(voucherId.toString());
+            settled.add(delta.toString());
+        });
+        redisTemplate.execute(SETTLE_PENDING_SCRIPT, List.of(VOUCHER_PENDING), settled.toArray());
+        log.debug("Flushed usage of {} vouchers to database", used.size());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private Long runClaim(Definition voucher, Long userId, String claimToken) {
+        return redisTemplate.execute(
+                CLAIM_SCRIPT,
+                List.of(voucherUsedKey(voucher.id()), voucherUserKey(voucher.id()),
+                        voucherClaimKey(claimToken), VOUCHER_PENDING),
+                limitArg(voucher.usageLimit()),
+                limitArg(voucher.perUserLimit()),
+                userId.toString(),
+                voucher.id().toString(),
+                String.valueOf(claimTtl.toMillis())
+        );
+    }
+
+    private List<VoucherOfferResponse> toOfferResponses(List<Offer> offers) {
+        return offers.stream()
+                .map(offer -> VoucherOfferResponse.builder()
+                        .code(offer.voucher().code())
+                        .shopId(offer.voucher().shopId())
+                        .type(offer.voucher().type())
+                        .discountValue(offer.voucher().discountValue())
+                        .minOrderValue(offer.voucher().minOrderValue())
+                        .maxDiscountAmount(offer.voucher().maxDiscountAmount())
+                        .endDate(offer.voucher().endDate())
+                        .discount(offer.discount())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private String limitArg(Integer limit) {
+        return limit != null ? limit.toString() : "-1";
+    }
+
+    /**
+     * Seed the usage counter from MySQL plus redemptions not yet flushed there, and the
+     * per-user hash from voucher_redemptions, in one script. A counter another node loaded
+     * first is kept.
+     */
+    void loadCounter(Long voucherId) {
+        Integer persisted = voucherRepository.findUsedCountById(voucherId);
+        if (persisted == null) {
+            throw new ResourceNotFoundException("Voucher", "id", voucherId);
+        }
+        List<String> args = new ArrayList<>(List.of(persisted.toString(), voucherId.toString()));
+        for (VoucherRedemptionRepository.UserRedemptions user : redemptionRepository.countByUser(voucherId)) {
+            args.add(user.getUserId().toString());
+            args.add(user.getRedemptions().toString());
+        }
+        redisTemplate.execute(SEED_SCRIPT,
+                List.of(voucherUsedKey(voucherId), voucherUserKey(voucherId), VOUCHER_PENDING), args.toArray());
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.BE_E_commerce.util;
+
+import com.example.BE_E_commerce.enums.FeedSort;
+import com.example.BE_E_commerce.exception.BadRequestException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+public class CursorUtils {
+
+    /**
+     * Upper bound used as the position of the first page
+     */
+    public static final LocalDateTime MAX_DATE_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private static final String SEPARATOR = "|";
+
+    private CursorUtils() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Encode the last row of a page (sort key + ID) into an opaque token
+     */
+    public static String encode(FeedSort sort, Object sortKey, Long id) {
+        return encode(sort.name(), sortKey, id);
+    }
+
+    /**
+     * Decode a token produced by {@link #encode}; it must belong to the same sort
+     */
+    public static Cursor decode(String token, FeedSort sort) {
+        return decode(token, sort.name());
+    }
+
+    /**
+     * Encode the last row of a feed ordered by ID alone (newest first)
+     */
+    public static String encodeId(String feed, Long id) {
+        return encode(feed, id, id);
+    }
+
+    /**
+     * Decode a token produced by {@link #encodeId} for the same feed
+     */
+    public static long decodeId(String token, String feed) {
+        return decode(token, feed).id();
+    }
+
+    private static String encode(String feed, Object sortKey, Long id) {
+        String raw = feed + SEPARATOR + sortKey + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(String token, String feed) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 3 || !feed.equals(parts[0])) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new Cursor(parts[1], Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Decoded position: sort key of the last row and its ID
+     */
+    public record Cursor(String key, Long id) {
+
+        public LocalDateTime keyAsDateTime() {
+            try {
+                return LocalDateTime.parse(key);
+            } catch (RuntimeException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+
+        public Long keyAsLong() {
+            try {
+                return Long.parseLong(key);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+
+        public Integer keyAsInt() {
+            try {
+                return Integer.parseInt(key);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+
+        public Double keyAsDouble() {
+            try {
+                return Double.parseDouble(key);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+
+        public BigDecimal keyAsDecimal() {
+            try {
+                return new BigDecimal(key);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+    }
+}
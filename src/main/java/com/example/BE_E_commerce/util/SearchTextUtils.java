@@ -0,0 +1,64 @@
+package com.example.BE_E_commerce.util;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public class SearchTextUtils {
+
+    /**
+     * Shortest token the FULLTEXT ngram parser can match (ngram_token_size)
+     */
+    public static final int MIN_TOKEN_LENGTH = 2;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+
+    private SearchTextUtils() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Fold text for searching: strip Vietnamese diacritics, lowercase,
+     * and collapse everything else to single spaces ("Áo Thun Đỏ" -> "ao thun do")
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String folded = COMBINING_MARKS.matcher(decomposed).replaceAll("")
+                .replace('đ', 'd')
+                .replace('Đ', 'D')
+                .toLowerCase(Locale.ROOT);
+        return NON_ALPHANUMERIC.matcher(folded).replaceAll(" ").trim();
+    }
+
+    /**
+     * Split a keyword into folded tokens usable by the FULLTEXT index
+     */
+    public static List<String> tokenize(String keyword) {
+        String folded = fold(keyword);
+        if (folded == null || folded.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(folded.split(" "))
+                .filter(token -> token.length() >= MIN_TOKEN_LENGTH)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Build a BOOLEAN MODE query requiring every token ("+ao +thun").
+     * With the ngram parser each term also matches inside longer words,
+     * which gives prefix matching for partially typed keywords.
+     */
+    public static String toBooleanQuery(List<String> tokens) {
+        return tokens.stream()
+                .map(token -> "+" + token)
+                .collect(Collectors.joining(" "));
+    }
+}
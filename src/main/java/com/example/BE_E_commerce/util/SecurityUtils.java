@@ -1,9 +1,11 @@
 package com.example.BE_E_commerce.util;
 
 import com.example.BE_E_commerce.security.jwt.UserDetailsImpl;
+import com.example.BE_E_commerce.security.jwt.WebSocketPrincipal;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.security.Principal;
 import java.util.Optional;
 
 public class SecurityUtils {
@@ -40,6 +42,16 @@ public class SecurityUtils {
                 .map(UserDetailsImpl::getId);
     }
 
+    /**
+     * Get user ID of a STOMP session principal (message handlers have no security context)
+     */
+    public static Optional<Long> getUserId(Principal principal) {
+        if (principal instanceof WebSocketPrincipal webSocketPrincipal) {
+            return Optional.of(webSocketPrincipal.userId());
+        }
+        return Optional.empty();
+    }
+
     /**
      * Get current user email
      */
@@ -0,0 +1,55 @@
+package com.example.BE_E_commerce.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TwoLevelCacheTest {
+
+    @Mock
+    private RedisCache remoteCache;
+    @Mock
+    private CacheInvalidationPublisher invalidationPublisher;
+
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TwoLevelCache("products",
+                Caffeine.newBuilder().maximumSize(100).recordStats().build(),
+                remoteCache,
+                invalidationPublisher);
+    }
+
+    @Test
+    void secondReadIsServedFromLocalTier() {
+        when(remoteCache.get(42L)).thenReturn(new SimpleValueWrapper("detail"));
+
+        assertThat(cache.get(42L).get()).isEqualTo("detail");
+        assertThat(cache.get(42L).get()).isEqualTo("detail");
+
+        verify(remoteCache, times(1)).get(42L);
+        assertThat(cache.getLocalStats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void evictClearsBothTiersAndNotifiesOtherNodes() {
+        cache.put(42L, "detail");
+        cache.evict(42L);
+
+        verify(remoteCache).evict(42L);
+        verify(invalidationPublisher, times(2)).publishEvict("products", "42");
+        assertThat(cache.getLocalSize()).isZero();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.BE_E_commerce.id;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class NodeIdLeaseTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private NodeIdLease lease;
+
+    @BeforeEach
+    void setUp() {
+        lease = new NodeIdLease(redisTemplate);
+        ReflectionTestUtils.setField(lease, "leaseTtl", Duration.ofSeconds(60));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SnowflakeIdGenerator.configure(0);
+    }
+
+    @Test
+    void takesTheFirstFreeNodeId() {
+        when(valueOperations.setIfAbsent(eq("id:node:2"), anyString(), any(Duration.class))).thenReturn(true);
+
+        assertThat(lease.acquire()).isEqualTo(2);
+        assertThat(SnowflakeIdGenerator.getInstance().getNodeId()).isEqualTo(2);
+    }
+
+    @Test
+    void failsWhenEveryNodeIdIsLeased() {
+        assertThatThrownBy(lease::acquire).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void lostLeaseStopsIdsUntilANewOneIsTaken() {
+        when(valueOperations.setIfAbsent(eq("id:node:2"), anyString(), any(Duration.class))).thenReturn(true);
+        lease.acquire();
+        when(valueOperations.setIfAbsent(eq("id:node:2"), anyString(), any(Duration.class))).thenReturn(false);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(0L);
+
+        lease.renew();
+
+        assertThatThrownBy(SnowflakeIdGenerator::getInstance).isInstanceOf(IllegalStateException.class);
+    }
+}
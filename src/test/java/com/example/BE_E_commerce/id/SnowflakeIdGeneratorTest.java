@@ -0,0 +1,59 @@
+package com.example.BE_E_commerce.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void idsAreUniqueIncreasingAndFitInFiftyTwoBits() {
+        AtomicLong clock = new AtomicLong(Instant.parse("2026-01-01T00:00:00Z").toEpochMilli());
+        // Advance only every 100 calls, forcing sequence rollover within one millisecond
+        AtomicLong calls = new AtomicLong();
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, () ->
+                calls.incrementAndGet() % 100 == 0 ? clock.incrementAndGet() : clock.get());
+
+        Set<Long> ids = new HashSet<>();
+        long previous = -1;
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous).isLessThan(1L << 52);
+            ids.add(id);
+            previous = id;
+        }
+        assertThat(ids).hasSize(10_000);
+    }
+
+    @Test
+    void timestampCanBeReadBackFromId() {
+        long now = Instant.parse("2026-06-01T12:00:00Z").toEpochMilli();
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(31, () -> now);
+
+        assertThat(SnowflakeIdGenerator.timestampOf(generator.nextId()).toEpochMilli()).isEqualTo(now);
+    }
+
+    @Test
+    void smallClockStepBackIsAbsorbedAndLargeOneIsRefused() {
+        AtomicLong clock = new AtomicLong(Instant.parse("2026-01-01T00:00:00Z").toEpochMilli());
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, clock::get);
+        long first = generator.nextId();
+
+        clock.addAndGet(-2);
+        assertThat(generator.nextId()).isGreaterThan(first);
+
+        clock.addAndGet(-1000);
+        assertThatThrownBy(generator::nextId).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(32)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
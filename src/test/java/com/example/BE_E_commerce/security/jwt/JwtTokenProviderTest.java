@@ -0,0 +1,74 @@
+package com.example.BE_E_commerce.security.jwt;
+
+import com.example.BE_E_commerce.entity.User;
+import com.example.BE_E_commerce.enums.UserRole;
+import com.example.BE_E_commerce.enums.UserStatus;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret",
+                "f73d6c496e9db2674303d8e47918e51188a058d965b5a6ea97a022aab3149faf");
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 60_000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "claimsCacheMaxSize", 100L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "claimsCacheMaxTtl", Duration.ofMinutes(10));
+        jwtTokenProvider.init();
+    }
+
+    @Test
+    void resolveClaimsReturnsSameVerifiedClaimsForRepeatedToken() {
+        String token = jwtTokenProvider.generateTokenFromUsername("alice");
+
+        Claims first = jwtTokenProvider.resolveClaims(token);
+        Claims second = jwtTokenProvider.resolveClaims(token);
+
+        assertThat(first.getSubject()).isEqualTo("alice");
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void resolveClaimsRejectsTamperedToken() {
+        String token = jwtTokenProvider.generateTokenFromUsername("alice");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThat(jwtTokenProvider.resolveClaims(tampered)).isNull();
+        assertThat(jwtTokenProvider.resolveClaims("not-a-jwt")).isNull();
+    }
+
+    @Test
+    void principalCanBeRebuiltFromClaims() {
+        User user = User.builder()
+                .id(7L)
+                .username("alice")
+                .email("alice@example.com")
+                .fullName("Alice")
+                .role(UserRole.SELLER)
+                .status(UserStatus.ACTIVE)
+                .emailVerified(true)
+                .build();
+        UserDetailsImpl original = UserDetailsImpl.build(user);
+        String token = jwtTokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(original, null, original.getAuthorities()));
+
+        UserDetailsImpl rebuilt = UserDetailsImpl.fromClaims(jwtTokenProvider.resolveClaims(token), UserStatus.ACTIVE);
+
+        assertThat(rebuilt.getId()).isEqualTo(7L);
+        assertThat(rebuilt.getUsername()).isEqualTo("alice@example.com");
+        assertThat(rebuilt.getFullName()).isEqualTo("Alice");
+        assertThat(rebuilt.getRole()).isEqualTo(UserRole.SELLER);
+        assertThat(rebuilt.getAuthorities()).extracting("authority").containsExactly("ROLE_SELLER");
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.BE_E_commerce.security.jwt;
+
+import com.example.BE_E_commerce.util.BloomFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.TOKEN_REVOKED_CHANNEL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new TokenRevocationService(redisTemplate, listenerContainer);
+    }
+
+    @Test
+    void revocationRacingTheFilterSwapEndsUpInTheNewFilter() {
+        BloomFilter next = new BloomFilter(100, 0.01);
+        BloomFilter current = spy(new BloomFilter(100, 0.01));
+        // The rebuild finishes (swaps in its filter) while the revocation is being added
+        doAnswer(invocation -> {
+            ReflectionTestUtils.setField(revocationService, "filter", next);
+            ReflectionTestUtils.setField(revocationService, "rebuilding", null);
+            return invocation.callRealMethod();
+        }).when(current).add(anyString());
+        ReflectionTestUtils.setField(revocationService, "filter", current);
+        ReflectionTestUtils.setField(revocationService, "rebuilding", next);
+
+        revocationService.onMessage(new DefaultMessage(TOKEN_REVOKED_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "jti-1".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(next.mightContain("jti-1")).isTrue();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.BE_E_commerce.security.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RateLimiterTest {
+
+    private StringRedisTemplate redisTemplate;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        Clock clock = Clock.fixed(Instant.parse("2026-01-01T00:00:30Z"), ZoneOffset.UTC);
+        rateLimiter = new RateLimiter(redisTemplate, clock, Duration.ofSeconds(2), 1000);
+        ReflectionTestUtils.setField(rateLimiter, "window", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(rateLimiter, "leaseSize", 10);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void redisReturns(long allowed, long granted, long retryAfterMillis) {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(allowed, granted, retryAfterMillis));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void leasedPermitsAreSpentLocallyBeforeCallingRedisAgain() {
+        redisReturns(1, 5, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.tryAcquire("1.2.3.4", "products", 100).allowed()).isTrue();
+        }
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+
+        rateLimiter.tryAcquire("1.2.3.4", "products", 100);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rejectionIsRememberedLocallyUntilRetryTime() {
+        redisReturns(0, 0, 1500);
+
+        RateLimiter.Decision first = rateLimiter.tryAcquire("u42", "search", 30);
+        RateLimiter.Decision second = rateLimiter.tryAcquire("u42", "search", 30);
+
+        assertThat(first.allowed()).isFalse();
+        assertThat(first.retryAfterSeconds()).isEqualTo(2);
+        assertThat(second.allowed()).isFalse();
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failsOpenWhenRedisIsUnavailable() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThat(rateLimiter.tryAcquire("1.2.3.4", "api", 300).allowed()).isTrue();
+    }
+}
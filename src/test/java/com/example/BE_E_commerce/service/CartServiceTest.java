@@ -0,0 +1,205 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.response.CartLineView;
+import com.example.BE_E_commerce.dto.response.CartSummaryResponse;
+import com.example.BE_E_commerce.entity.Cart;
+import com.example.BE_E_commerce.entity.CartItem;
+import com.example.BE_E_commerce.entity.ProductVariant;
+import com.example.BE_E_commerce.entity.User;
+import com.example.BE_E_commerce.enums.ProductStatus;
+import com.example.BE_E_commerce.enums.UserRole;
+import com.example.BE_E_commerce.enums.UserStatus;
+import com.example.BE_E_commerce.repository.CartItemRepository;
+import com.example.BE_E_commerce.repository.CartRepository;
+import com.example.BE_E_commerce.repository.ProductListingSummaryRepository;
+import com.example.BE_E_commerce.repository.ProductVariantRepository;
+import com.example.BE_E_commerce.repository.UserRepository;
+import com.example.BE_E_commerce.security.jwt.UserDetailsImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CartServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+    @Mock
+    private SetOperations<String, String> setOperations;
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+    @Mock
+    private CartRepository cartRepository;
+    @Mock
+    private CartItemRepository cartItemRepository;
+    @Mock
+    private ProductVariantRepository variantRepository;
+    @Mock
+    private ProductListingSummaryRepository summaryRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CartService cartService;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        cartService = new CartService(redisTemplate, cartRepository, cartItemRepository, variantRepository, summaryRepository,
+                userRepository, new ObjectMapper(), transactionManager);
+        ReflectionTestUtils.setField(cartService, "flushBatchSize", 200L);
+        ReflectionTestUtils.setField(cartService, "claimTimeout", Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private CartItem item(Cart cart, long variantId, int quantity) {
+        return CartItem.builder().cart(cart)
+                .productVariant(ProductVariant.builder().id(variantId).build())
+                .quantity(quantity).build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readCartSeedsRedisFromDatabaseWhenMissing() {
+        Cart cart = Cart.builder().id(1L).build();
+        cart.getItems().add(item(cart, 7L, 2));
+        when(hashOperations.entries(cartKey(5L))).thenReturn(Map.of());
+        when(cartRepository.findByUserIdFetchItems(5L)).thenReturn(Optional.of(cart));
+
+        Map<Long, Integer> quantities = cartService.readCart(5L);
+
+        assertThat(quantities).containsExactly(Map.entry(7L, 2));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(cartKey(5L))),
+                eq(String.valueOf(TTL_CART)), eq("_"), eq("0"), eq("7"), eq("2"));
+    }
+
+    @Test
+    void flushCartMakesDatabaseRowsMatchRedis() {
+        Cart cart = Cart.builder().id(1L).items(new ArrayList<>()).build();
+        cart.getItems().add(item(cart, 7L, 2));
+        cart.getItems().add(item(cart, 8L, 1));
+        when(hashOperations.entries(cartKey(5L))).thenReturn(Map.of("_", "0", "7", "5", "9", "1"));
+        when(cartRepository.findByUserIdFetchItems(5L)).thenReturn(Optional.of(cart));
+        when(variantRepository.getReferenceById(9L)).thenReturn(ProductVariant.builder().id(9L).build());
+
+        cartService.flushCart(5L);
+
+        assertThat(cart.getItems())
+                .extracting(i -> i.getProductVariant().getId(), CartItem::getQuantity)
+                .containsExactlyInAnyOrder(
+                        tuple(7L, 5),
+                        tuple(9L, 1));
+        verify(cartRepository).save(cart);
+        verify(setOperations).remove(CART_DIRTY, "5");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void backgroundFlushKeepsClaimedCartsUntilTheyAreWritten() {
+        // First the stale-claim sweep, then the claim itself
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(CART_DIRTY, CART_DIRTY_CLAIMED)), any(Object[].class)))
+                .thenReturn(0L, List.of("5", "6"));
+        when(hashOperations.entries(cartKey(5L))).thenReturn(Map.of("_", "0", "7", "5"));
+        when(cartRepository.findByUserIdFetchItems(5L)).thenThrow(new IllegalStateException("db down"));
+
+        cartService.flushDirtyCarts();
+
+        verify(setOperations).add(CART_DIRTY, "5");
+        verify(setOperations, never()).add(CART_DIRTY, "6");
+        verify(zSetOperations).remove(CART_DIRTY_CLAIMED, "5");
+        verify(zSetOperations).remove(CART_DIRTY_CLAIMED, "6");
+    }
+
+    @Test
+    void failedSummaryFlushPutsTheDirtyFlagBack() {
+        signIn(5L);
+        when(setOperations.isMember(CART_DIRTY, "5")).thenReturn(true);
+        when(hashOperations.entries(cartKey(5L))).thenReturn(Map.of("_", "0", "7", "5"));
+        when(cartRepository.findByUserIdFetchItems(5L)).thenThrow(new IllegalStateException("db down"));
+
+        assertThatThrownBy(() -> cartService.getCartSummary()).hasMessage("db down");
+
+        InOrder order = inOrder(setOperations, cartRepository, redisTemplate);
+        order.verify(setOperations).remove(CART_DIRTY, "5");
+        order.verify(cartRepository).findByUserIdFetchItems(5L);
+        order.verify(redisTemplate).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void summaryGroupsLinesByShopWithExactTotals() {
+        signIn(5L);
+        when(setOperations.isMember(CART_DIRTY, "5")).thenReturn(false);
+        when(cartItemRepository.findCartLinesByUserId(5L)).thenReturn(List.of(
+                line(1L, 10L, "0.10", 3),
+                line(2L, 10L, "19.99", 1),
+                line(3L, 20L, "5.00", 2)
+        ));
+
+        CartSummaryResponse summary = cartService.getCartSummary();
+
+        assertThat(summary.getShops()).hasSize(2);
+        assertThat(summary.getShops().get(0).getSubtotal()).isEqualByComparingTo("20.29");
+        assertThat(summary.getShops().get(1).getSubtotal()).isEqualByComparingTo("10.00");
+        assertThat(summary.getTotalAmount()).isEqualByComparingTo("30.29");
+        assertThat(summary.getTotalItems()).isEqualTo(6);
+        verify(cartRepository, never()).findByUserIdFetchItems(any());
+    }
+
+    private void signIn(long userId) {
+        User user = User.builder().id(userId).username("buyer").email("buyer@example.com")
+                .role(UserRole.BUYER).status(UserStatus.ACTIVE).build();
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private CartLineView line(long variantId, long shopId, String price, int quantity) {
+        return new CartLineView(variantId, "SKU" + variantId, "Red", null, new BigDecimal(price), 10, true,
+                variantId * 10, "Product", ProductStatus.ACTIVE, null, shopId, "Shop " + shopId, quantity);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.cache.CacheInvalidationPublisher;
+import com.example.BE_E_commerce.cache.TwoLevelCacheManager;
+import com.example.BE_E_commerce.dto.response.CategoryResponse;
+import com.example.BE_E_commerce.entity.Category;
+import com.example.BE_E_commerce.mapper.CategoryMapper;
+import com.example.BE_E_commerce.repository.CategoryRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CategoryTreeIndexTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private CategoryMapper categoryMapper;
+
+    @Mock
+    private CacheInvalidationPublisher invalidationPublisher;
+
+    @Mock
+    private TwoLevelCacheManager cacheManager;
+
+    private CategoryTreeIndex categoryTreeIndex;
+
+    @BeforeEach
+    void setUp() {
+        categoryTreeIndex = new CategoryTreeIndex(categoryRepository, categoryMapper, new ObjectMapper(),
+                invalidationPublisher, cacheManager);
+        categoryTreeIndex.init();
+        ReflectionTestUtils.setField(categoryTreeIndex, "maxAgeSeconds", 60L);
+
+        // 1 -> (2 -> 4), 3
+        Category root = category(1L, null, 0);
+        Category child = category(2L, root, 0);
+        Category sibling = category(3L, root, 1);
+        Category grandchild = category(4L, child, 0);
+        sibling.setIsActive(false);
+        when(categoryRepository.findAll()).thenReturn(List.of(grandchild, sibling, child, root));
+        when(categoryRepository.countProductsGroupedByCategory()).thenReturn(List.of(
+                count(1L, 1L), count(2L, 2L), count(4L, 5L)
+        ));
+        when(categoryMapper.toResponse(any(Category.class))).thenAnswer(invocation -> {
+            CategoryResponse response = new CategoryResponse();
+            response.setId(invocation.<Category>getArgument(0).getId());
+            return response;
+        });
+    }
+
+    @Test
+    void answersDescendantsAndSubtreeCountsFromOneLoad() {
+        assertThat(categoryTreeIndex.getDescendantIds(1L)).containsExactly(1L, 2L, 4L, 3L);
+        assertThat(categoryTreeIndex.getDescendantIds(2L)).containsExactly(2L, 4L);
+        assertThat(categoryTreeIndex.getDescendantIds(99L)).containsExactly(99L);
+
+        assertThat(categoryTreeIndex.getSubtreeProductCount(1L)).isEqualTo(8L);
+        assertThat(categoryTreeIndex.getSubtreeProductCount(2L)).isEqualTo(7L);
+        assertThat(categoryTreeIndex.getSubtreeProductCount(3L)).isZero();
+
+        verify(categoryRepository, times(1)).findAll();
+        verify(categoryRepository, times(1)).countProductsGroupedByCategory();
+    }
+
+    @Test
+    void assemblesTreesInMemoryAndPreRendersJson() throws Exception {
+        List<CategoryResponse> tree = categoryTreeIndex.getTree();
+        assertThat(tree).extracting(CategoryResponse::getId).containsExactly(1L);
+        assertThat(tree.get(0).getChildren()).extracting(CategoryResponse::getId).containsExactly(2L, 3L);
+        assertThat(tree.get(0).getChildren().get(0).getChildren()).extracting(CategoryResponse::getProductCount)
+                .containsExactly(5L);
+
+        List<CategoryResponse> activeTree = categoryTreeIndex.getActiveTree();
+        assertThat(activeTree.get(0).getChildren()).extracting(CategoryResponse::getId).containsExactly(2L);
+
+        JsonNode json = new ObjectMapper().readTree(categoryTreeIndex.getTreeJson());
+        assertThat(json.get(0).get("productCount").asLong()).isEqualTo(8L);
+        assertThat(json.get(0).get("children")).hasSize(2);
+
+        verify(categoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    void rebuildsAfterInvalidate() {
+        categoryTreeIndex.getDescendantIds(1L);
+        categoryTreeIndex.invalidate();
+        categoryTreeIndex.getDescendantIds(1L);
+
+        verify(categoryRepository, times(2)).findAll();
+        verify(invalidationPublisher).publishClear(CategoryTreeIndex.CACHE_NAME);
+    }
+
+    @Test
+    void rebuildsWhenAnotherNodeInvalidates() {
+        ArgumentCaptor<Runnable> remoteClear = ArgumentCaptor.forClass(Runnable.class);
+        verify(cacheManager).onRemoteClear(eq(CategoryTreeIndex.CACHE_NAME), remoteClear.capture());
+
+        categoryTreeIndex.getDescendantIds(1L);
+        remoteClear.getValue().run();
+        categoryTreeIndex.getDescendantIds(1L);
+
+        verify(categoryRepository, times(2)).findAll();
+        verify(invalidationPublisher, times(0)).publishClear(any());
+    }
+
+    private Category category(Long id, Category parent, int displayOrder) {
+        return Category.builder()
+                .id(id)
+                .parent(parent)
+                .displayOrder(displayOrder)
+                .build();
+    }
+
+    private CategoryRepository.CategoryProductCount count(Long categoryId, Long productCount) {
+        return new CategoryRepository.CategoryProductCount() {
+            @Override
+            public Long getCategoryId() {
+                return categoryId;
+            }
+
+            @Override
+            public Long getProductCount() {
+                return productCount;
+            }
+        };
+    }
+}
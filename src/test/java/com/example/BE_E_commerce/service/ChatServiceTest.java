@@ -0,0 +1,137 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.request.ChatMessageRequest;
+import com.example.BE_E_commerce.dto.response.ChatMessageResponse;
+import com.example.BE_E_commerce.exception.BadRequestException;
+import com.example.BE_E_commerce.exception.ResourceNotFoundException;
+import com.example.BE_E_commerce.id.SnowflakeIdGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.CHAT_CHANNEL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ChatServiceTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ChatParticipants chatParticipants;
+    @Mock
+    private UnreadCounterService unreadCounterService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ChatService chatService;
+
+    @BeforeEach
+    void setUp() {
+        SnowflakeIdGenerator.configure(0);
+        chatService = new ChatService(messagingTemplate, redisTemplate, listenerContainer, objectMapper,
+                jdbcTemplate, transactionManager, chatParticipants, unreadCounterService, 2, 4);
+        ReflectionTestUtils.setField(chatService, "flushBatchSize", 100);
+        when(chatParticipants.isParticipant(7L, 1L)).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        chatService.shutdown();
+    }
+
+    private ChatMessageRequest request(String content) {
+        ChatMessageRequest request = new ChatMessageRequest();
+        request.setContent(content);
+        return request;
+    }
+
+    @Test
+    void sendBuffersAndRelaysMessage() {
+        ChatMessageResponse sent = chatService.send(7L, 1L, request("  hello "));
+
+        assertThat(sent.getContent()).isEqualTo("hello");
+        assertThat(sent.getId()).isNotNull();
+        verify(redisTemplate).convertAndSend(eq(CHAT_CHANNEL), contains("\"conversationId\":7"));
+    }
+
+    @Test
+    void sendRejectsNonParticipant() {
+        assertThatThrownBy(() -> chatService.send(7L, 2L, request("hi")))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void sendRejectsWhenBufferIsFull() {
+        chatService.send(7L, 1L, request("one"));
+        chatService.send(7L, 1L, request("two"));
+
+        assertThatThrownBy(() -> chatService.send(7L, 1L, request("three")))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void relayedMessageIsDeliveredToConversationTopic() throws Exception {
+        ChatMessageResponse message = ChatMessageResponse.builder()
+                .id(99L).conversationId(7L).senderId(1L).content("hi").createdAt(LocalDateTime.now()).build();
+        byte[] body = objectMapper.writeValueAsString(message).getBytes(StandardCharsets.UTF_8);
+
+        chatService.onMessage(new DefaultMessage(CHAT_CHANNEL.getBytes(StandardCharsets.UTF_8), body), null);
+
+        verify(messagingTemplate, timeout(1000)).convertAndSend(eq("/topic/conversations/7"),
+                argThat((ChatMessageResponse delivered) -> delivered.getId() == 99L));
+    }
+
+    @Test
+    void writeBatchUpdatesLastMessageOncePerConversation() {
+        LocalDateTime now = LocalDateTime.now();
+        List<ChatMessageResponse> batch = List.of(
+                ChatMessageResponse.builder().id(1L).conversationId(7L).senderId(1L).content("a").createdAt(now).build(),
+                ChatMessageResponse.builder().id(3L).conversationId(7L).senderId(2L).content("c").createdAt(now).build(),
+                ChatMessageResponse.builder().id(2L).conversationId(8L).senderId(1L).content("b").createdAt(now).build());
+
+        chatService.writeBatch(batch);
+
+        verify(jdbcTemplate).batchUpdate(contains("INSERT IGNORE INTO messages"),
+                argThat((List<Object[]> rows) -> rows.size() == 3));
+        verify(jdbcTemplate).batchUpdate(contains("UPDATE conversations"), argThat((List<Object[]> rows) ->
+                rows.size() == 2
+                        && rows.get(0)[0].equals("c") && rows.get(0)[2].equals(7L)
+                        && rows.get(1)[0].equals("b") && rows.get(1)[2].equals(8L)));
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.request.CheckoutRequest;
+import com.example.BE_E_commerce.dto.response.OrderResponse;
+import com.example.BE_E_commerce.entity.Cart;
+import com.example.BE_E_commerce.entity.CartItem;
+import com.example.BE_E_commerce.entity.Order;
+import com.example.BE_E_commerce.entity.Product;
+import com.example.BE_E_commerce.entity.ProductVariant;
+import com.example.BE_E_commerce.entity.Shop;
+import com.example.BE_E_commerce.entity.User;
+import com.example.BE_E_commerce.entity.UserAddress;
+import com.example.BE_E_commerce.enums.PaymentMethod;
+import com.example.BE_E_commerce.enums.ShopStatus;
+import com.example.BE_E_commerce.enums.UserRole;
+import com.example.BE_E_commerce.enums.UserStatus;
+import com.example.BE_E_commerce.enums.VoucherType;
+import com.example.BE_E_commerce.exception.BadRequestException;
+import com.example.BE_E_commerce.id.SnowflakeIdGenerator;
+import com.example.BE_E_commerce.mapper.OrderMapper;
+import com.example.BE_E_commerce.repository.CartItemRepository;
+import com.example.BE_E_commerce.repository.CartRepository;
+import com.example.BE_E_commerce.repository.OrderRepository;
+import com.example.BE_E_commerce.repository.UserAddressRepository;
+import com.example.BE_E_commerce.repository.UserRepository;
+import com.example.BE_E_commerce.security.jwt.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.mapstruct.factory.Mappers;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CheckoutServiceTest {
+
+    @Mock
+    private CartRepository cartRepository;
+    @Mock
+    private CartItemRepository cartItemRepository;
+    @Mock
+    private CartService cartService;
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private UserAddressRepository addressRepository;
+    @Mock
+    private StockReservationService stockReservationService;
+    @Mock
+    private VoucherService voucherService;
+    @Mock
+    private LedgerService ledgerService;
+    @Mock
+    private OutboxService outboxService;
+
+    private CheckoutService checkoutService;
+
+    @BeforeEach
+    void setUp() {
+        SnowflakeIdGenerator.configure(0);
+        checkoutService = new CheckoutService(cartRepository, cartItemRepository, cartService, orderRepository,
+                userRepository, addressRepository, stockReservationService, voucherService, ledgerService,
+                Mappers.getMapper(OrderMapper.class), outboxService);
+        ReflectionTestUtils.setField(checkoutService, "defaultCommissionRate", new BigDecimal("5.0"));
+
+        User user = User.builder().id(1L).username("buyer").email("buyer@example.com")
+                .role(UserRole.BUYER).status(UserStatus.ACTIVE).build();
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        TransactionSynchronizationManager.initSynchronization();
+
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+        when(addressRepository.findByIdAndUserId(10L, 1L)).thenReturn(Optional.of(UserAddress.builder()
+                .id(10L).recipientName("Buyer").phone("0900000000").addressLine("1 Street")
+                .ward("W").district("D").city("C").build()));
+        when(stockReservationService.reserve(any())).thenReturn("reservation-1");
+
+        AtomicLong orderIds = new AtomicLong(100);
+        when(orderRepository.saveAllAndFlush(any())).thenAnswer(invocation -> {
+            List<Order> saved = new ArrayList<>();
+            Iterable<Order> orders = invocation.getArgument(0);
+            orders.forEach(order -> {
+                order.setId(orderIds.incrementAndGet());
+                saved.add(order);
+            });
+            return saved;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+        SecurityContextHolder.clearContext();
+    }
+
+    private CheckoutRequest request() {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setAddressId(10L);
+        request.setPaymentMethod(PaymentMethod.COD);
+        return request;
+    }
+
+    private CartItem cartItem(Shop shop, long variantId, String price, int quantity) {
+        Product product = Product.builder().id(variantId * 10).name("Product " + variantId).shop(shop).build();
+        ProductVariant variant = ProductVariant.builder().id(variantId).sku("SKU" + variantId)
+                .product(product).price(new BigDecimal(price)).build();
+        return CartItem.builder().productVariant(variant).quantity(quantity).build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkoutSplitsCartByShopAndSavesOrdersWithTheirItems() {
+        Shop shopA = Shop.builder().id(1L).name("A").owner(User.builder().id(11L).build()).status(ShopStatus.ACTIVE).commissionRate(new BigDecimal("10")).build();
+        Shop shopB = Shop.builder().id(2L).name("B").owner(User.builder().id(12L).build()).status(ShopStatus.ACTIVE).build();
+        Cart cart = Cart.builder().id(5L).items(new ArrayList<>(List.of(
+                cartItem(shopA, 1, "100.00", 2),
+                cartItem(shopA, 2, "50.00", 1),
+                cartItem(shopB, 3, "20.00", 3)
+        ))).build();
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
+
+        List<OrderResponse> orders = checkoutService.checkout(request());
+
+        assertThat(orders).hasSize(2);
+        OrderResponse orderA = orders.stream().filter(o -> o.getShopId() == 1L).findFirst().orElseThrow();
+        assertThat(orderA.getTotalAmount()).isEqualByComparingTo("250.00");
+        assertThat(orderA.getItems()).hasSize(2);
+
+        ArgumentCaptor<List<Order>> saved = ArgumentCaptor.forClass(List.class);
+        verify(orderRepository).saveAllAndFlush(saved.capture());
+        assertThat(saved.getValue()).flatExtracting(Order::getItems).hasSize(3);
+        assertThat(saved.getValue()).extracting(Order::getOrderCode).doesNotHaveDuplicates();
+        verify(stockReservationService).reserve(Map.of(1L, 2, 2L, 1, 3L, 3));
+        verify(cartService).flushCart(1L);
+        verify(cartItemRepository).deleteByCartId(5L);
+
+        verify(outboxService).append(argThat((List<OutboxService.Entry> events) -> events.size() == 2
+                && events.stream().allMatch(event -> DomainEvent.ORDER_PLACED.equals(event.type()))));
+    }
+
+    @Test
+    void checkoutRejectsEmptyCartWithoutReservingStock() {
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(Cart.builder().id(5L).build()));
+
+        assertThatThrownBy(() -> checkoutService.checkout(request()))
+                .isInstanceOf(BadRequestException.class);
+        verify(stockReservationService, never()).reserve(any());
+        verify(orderRepository, never()).saveAllAndFlush(any());
+    }
+
+    @Test
+    void platformVoucherIsSplitAcrossShopsInProportionToSubtotals() {
+        Shop shopA = Shop.builder().id(1L).name("A").owner(User.builder().id(11L).build()).status(ShopStatus.ACTIVE).build();
+        Shop shopB = Shop.builder().id(2L).name("B").owner(User.builder().id(12L).build()).status(ShopStatus.ACTIVE).build();
+        Cart cart = Cart.builder().id(5L).items(new ArrayList<>(List.of(
+                cartItem(shopA, 1, "200.00", 1),
+                cartItem(shopB, 2, "100.00", 1)
+        ))).build();
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
+        VoucherCatalog.Definition voucher = new VoucherCatalog.Definition(7L, "SALE", null, VoucherType.FIXED,
+                new BigDecimal("10.00"), BigDecimal.ZERO, null, 100, 1,
+                LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1));
+        when(voucherService.getUsableVoucher("SALE")).thenReturn(voucher);
+
+        CheckoutRequest request = request();
+        request.setVoucherCode(" SALE ");
+        List<OrderResponse> orders = checkoutService.checkout(request);
+
+        // 2:1 split of 10.00, one cent of rounding either way
+        OrderResponse orderA = orders.stream().filter(o -> o.getShopId() == 1L).findFirst().orElseThrow();
+        assertThat(orderA.getDiscountAmount()).isBetween(new BigDecimal("6.66"), new BigDecimal("6.67"));
+        assertThat(orders.stream().map(OrderResponse::getDiscountAmount).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualByComparingTo("10.00");
+        assertThat(orders.stream().map(OrderResponse::getTotalAmount).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualByComparingTo("290.00");
+        verify(voucherService).claim(eq(voucher), eq(1L), anyString());
+        verify(voucherService).recordRedemption(eq(voucher), eq(1L), anyString());
+    }
+
+    @Test
+    void failedConfirmRollsTheOrdersBackAndReleasesTheReservation() {
+        Shop shop = Shop.builder().id(1L).name("A").owner(User.builder().id(11L).build()).status(ShopStatus.ACTIVE).build();
+        Cart cart = Cart.builder().id(5L).items(new ArrayList<>(List.of(cartItem(shop, 1, "100.00", 1)))).build();
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
+        doThrow(new BadRequestException("Stock reservation has expired"))
+                .when(stockReservationService).confirm("reservation-1");
+
+        checkoutService.checkout(request());
+
+        // What the transaction manager does around the commit
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertThatThrownBy(() -> synchronizations.forEach(sync -> sync.beforeCommit(false)))
+                .isInstanceOf(BadRequestException.class);
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(stockReservationService).release("reservation-1");
+        verify(cartService, never()).discardWorkingCart(1L);
+    }
+}
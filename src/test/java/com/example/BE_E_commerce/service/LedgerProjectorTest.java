@@ -0,0 +1,124 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.entity.JobCheckpoint;
+import com.example.BE_E_commerce.id.SnowflakeIdGenerator;
+import com.example.BE_E_commerce.repository.JobCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LedgerProjectorTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private JobCheckpointRepository checkpointRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LedgerProjector projector;
+    private JobCheckpoint checkpoint;
+
+    @BeforeEach
+    void setUp() {
+        projector = new LedgerProjector(jdbcTemplate, checkpointRepository, transactionManager,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        ReflectionTestUtils.setField(projector, "foldLag", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(projector, "maxFoldWindow", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(projector, "reconcileBatchSize", 200);
+
+        checkpoint = JobCheckpoint.builder().name(LedgerProjector.CHECKPOINT)
+                .position(SnowflakeIdGenerator.firstIdAt(NOW.minusSeconds(60))).build();
+        when(checkpointRepository.findByNameForUpdate(LedgerProjector.CHECKPOINT)).thenReturn(Optional.of(checkpoint));
+    }
+
+    /**
+     * Feed rows (column -> value) to the RowCallbackHandler of the query whose SQL contains the marker
+     */
+    private void rows(String sqlMarker, List<Map<String, Object>> rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map<String, Object> row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getString(anyString())).thenAnswer(i -> String.valueOf(row.get(i.<String>getArgument(0))));
+                when(rs.getLong(anyString())).thenAnswer(i -> ((Number) row.get(i.<String>getArgument(0))).longValue());
+                when(rs.getBigDecimal(anyString())).thenAnswer(i -> row.get(i.<String>getArgument(0)));
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains(sqlMarker), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void foldOnceAppliesOneUpsertPerShopAndAdvancesCheckpointBehindTheLag() {
+        rows("GROUP BY shop_id", List.of(
+                Map.of("shop_id", 1L, "type", "ORDER", "status", "PENDING", "amount", new BigDecimal("100.00"), "last_id", 11L),
+                Map.of("shop_id", 1L, "type", "ORDER", "status", "COMPLETED", "amount", new BigDecimal("40.00"), "last_id", 15L),
+                Map.of("shop_id", 2L, "type", "WITHDRAWAL", "status", "PENDING", "amount", new BigDecimal("5.00"), "last_id", 12L)
+        ));
+
+        int shops = projector.foldOnce();
+
+        assertThat(shops).isEqualTo(2);
+        verify(jdbcTemplate).batchUpdate(contains("ON DUPLICATE KEY UPDATE"), argThat((List<Object[]> batch) ->
+                batch.size() == 2
+                        && List.of(batch.get(0)).equals(List.of(1L, new BigDecimal("40.00"), new BigDecimal("60.00"), BigDecimal.ZERO, 15L))
+                        && List.of(batch.get(1)).equals(List.of(2L, new BigDecimal("-5.00"), BigDecimal.ZERO, new BigDecimal("5.00"), 12L))));
+        assertThat(checkpoint.getPosition()).isEqualTo(SnowflakeIdGenerator.firstIdAt(NOW.minusSeconds(5)) - 1);
+    }
+
+    @Test
+    void reconcilePageCorrectsOnlyDriftedRows() {
+        rows("FROM shop_balances", List.of(
+                Map.of("shop_id", 1L, "available_balance", new BigDecimal("10.00"), "pending_balance", BigDecimal.ZERO,
+                        "total_withdrawn", BigDecimal.ZERO, "last_entry_id", 50L)
+        ));
+        rows("AND id <= ?", List.of(
+                Map.of("type", "ORDER", "status", "PENDING", "amount", new BigDecimal("30.00")),
+                Map.of("type", "ORDER", "status", "COMPLETED", "amount", new BigDecimal("10.00"))
+        ));
+
+        LedgerProjector.ReconcileResult result = projector.reconcilePage(0);
+
+        assertThat(result.checked()).isEqualTo(1);
+        assertThat(result.corrected()).isEqualTo(1);
+        verify(jdbcTemplate).update(contains("UPDATE shop_balances"),
+                eq(new BigDecimal("10.00")), eq(new BigDecimal("20.00")), eq(BigDecimal.ZERO), eq(1L));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.id.SnowflakeIdGenerator;
+import com.example.BE_E_commerce.service.NotificationDispatcher.Chunk;
+import com.example.BE_E_commerce.service.NotificationDispatcher.Duplicates;
+import com.example.BE_E_commerce.service.NotificationDispatcher.Event;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.NOTIFICATION_CHANNEL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class NotificationDispatcherTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private UnreadCounterService unreadCounterService;
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+    @Mock
+    private SimpUserRegistry userRegistry;
+
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        SnowflakeIdGenerator.configure(0);
+        // Workers are not started; batches are processed directly
+        dispatcher = new NotificationDispatcher(jdbcTemplate, transactionManager, unreadCounterService, redisTemplate,
+                listenerContainer, messagingTemplate, userRegistry, new ObjectMapper().findAndRegisterModules(),
+                1, Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(dispatcher, "chunkSize", 1);
+        ReflectionTestUtils.setField(dispatcher, "offerTimeout", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(dispatcher, "pushBatchSize", 200);
+        ReflectionTestUtils.setField(dispatcher, "retryAttempts", 2);
+        ReflectionTestUtils.setField(dispatcher, "retryBackoff", Duration.ofMillis(1));
+    }
+
+    private Event event(String title, Duplicates duplicates, Long... recipients) {
+        return new Event("ORDER_STATUS_CHANGED", title, "content", 42L, "ORDER", List.of(recipients), duplicates);
+    }
+
+    @Test
+    void fullQueueDropsTheRestOfTheAudienceAfterTheOfferTimeout() {
+        int accepted = dispatcher.publish(event("Shipped", Duplicates.KEEP, 1L, 2L, 3L));
+
+        assertThat(accepted).isEqualTo(1);
+        assertThat(dispatcher.getDroppedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void failedBatchIsRetriedAndCountedAsDroppedOnceRetriesRunOut() throws InterruptedException {
+        when(jdbcTemplate.batchUpdate(contains("INSERT INTO notifications"), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("db down"))
+                .thenReturn(new int[]{1, 1});
+
+        dispatcher.deliver(List.of(new Chunk(event("Shipped", Duplicates.KEEP, 1L, 2L), List.of(1L, 2L))));
+
+        verify(jdbcTemplate, times(2)).batchUpdate(contains("INSERT INTO notifications"), anyList());
+        verify(unreadCounterService).notificationsCreated(Map.of(1L, 1L, 2L, 1L));
+        assertThat(dispatcher.getDroppedCount()).isZero();
+
+        when(jdbcTemplate.batchUpdate(contains("INSERT INTO notifications"), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("db down"));
+
+        dispatcher.deliver(List.of(new Chunk(event("Packed", Duplicates.KEEP, 3L), List.of(3L))));
+
+        assertThat(dispatcher.getDroppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void dropPolicyWritesOneNotificationPerUserAndEntity() {
+        Event shipped = event("Shipped", Duplicates.DROP, 5L);
+
+        dispatcher.processBatch(List.of(new Chunk(shipped, List.of(5L)), new Chunk(shipped, List.of(5L))));
+        dispatcher.processBatch(List.of(new Chunk(shipped, List.of(5L))));
+
+        verify(jdbcTemplate).batchUpdate(contains("INSERT INTO notifications"),
+                argThat((List<Object[]> rows) -> rows.size() == 1));
+        verify(unreadCounterService).notificationsCreated(Map.of(5L, 1L));
+        verify(redisTemplate).convertAndSend(eq(NOTIFICATION_CHANNEL), anyString());
+    }
+
+    @Test
+    void mergePolicyRewritesTheUnreadNotificationInsteadOfAddingOne() {
+        dispatcher.processBatch(List.of(new Chunk(event("Packed", Duplicates.MERGE, 5L), List.of(5L))));
+        clearInvocations(jdbcTemplate, unreadCounterService);
+        when(jdbcTemplate.batchUpdate(contains("UPDATE notifications"), anyList())).thenReturn(new int[]{1});
+
+        dispatcher.processBatch(List.of(new Chunk(event("Shipped", Duplicates.MERGE, 5L), List.of(5L))));
+
+        verify(jdbcTemplate).batchUpdate(contains("UPDATE notifications"),
+                argThat((List<Object[]> rows) -> rows.size() == 1 && "Shipped".equals(rows.get(0)[0])));
+        verify(jdbcTemplate).batchUpdate(contains("INSERT INTO notifications"),
+                argThat((List<Object[]> rows) -> rows.isEmpty()));
+        verify(unreadCounterService).notificationsCreated(Map.of());
+    }
+
+    @Test
+    void mergeIntoAReadNotificationAddsANewOne() {
+        dispatcher.processBatch(List.of(new Chunk(event("Packed", Duplicates.MERGE, 5L), List.of(5L))));
+        clearInvocations(jdbcTemplate, unreadCounterService);
+        when(jdbcTemplate.batchUpdate(contains("UPDATE notifications"), anyList())).thenReturn(new int[]{0});
+
+        dispatcher.processBatch(List.of(new Chunk(event("Shipped", Duplicates.MERGE, 5L), List.of(5L))));
+
+        verify(jdbcTemplate).batchUpdate(contains("INSERT INTO notifications"),
+                argThat((List<Object[]> rows) -> rows.size() == 1));
+        verify(unreadCounterService).notificationsCreated(Map.of(5L, 1L));
+    }
+}
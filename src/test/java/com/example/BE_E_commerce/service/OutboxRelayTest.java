@@ -0,0 +1,165 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.entity.JobCheckpoint;
+import com.example.BE_E_commerce.repository.JobCheckpointRepository;
+import com.example.BE_E_commerce.service.OutboxRelay.Pending;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OutboxRelayTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+    private static final LocalDateTime LOCAL_NOW = LocalDateTime.ofInstant(NOW, ZoneOffset.UTC);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private JobCheckpointRepository checkpointRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(jdbcTemplate, checkpointRepository, eventPublisher, new ObjectMapper(),
+                transactionManager, Clock.fixed(NOW, ZoneOffset.UTC));
+        ReflectionTestUtils.setField(relay, "batchSize", 200);
+        ReflectionTestUtils.setField(relay, "commitLag", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+        ReflectionTestUtils.setField(relay, "retryBackoff", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(relay, "maxRetryBackoff", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(relay, "lagWarning", Duration.ofSeconds(30));
+        when(checkpointRepository.findByNameForUpdateSkipLocked(OutboxRelay.CHECKPOINT))
+                .thenReturn(Optional.of(JobCheckpoint.builder().name(OutboxRelay.CHECKPOINT).position(0L).build()));
+    }
+
+    private Pending pending(long id, String aggregateId, int attempts) {
+        return new Pending(id, DomainEvent.USER, aggregateId, DomainEvent.USER_REGISTERED, "{}", attempts,
+                LOCAL_NOW.minusSeconds(1), LOCAL_NOW.minusSeconds(2));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void pendingEvents(Pending... events) {
+        when(jdbcTemplate.query(contains("available_at <= ?"), any(RowMapper.class), any(), any(), any()))
+                .thenReturn(List.of(events));
+    }
+
+    private void backedOff(String aggregateId, long firstId) throws SQLException {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getString("aggregate_type")).thenReturn(DomainEvent.USER);
+        when(row.getString("aggregate_id")).thenReturn(aggregateId);
+        when(row.getLong("first_id")).thenReturn(firstId);
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(contains("available_at > ?"), any(RowCallbackHandler.class), any(), any());
+    }
+
+    private void failFor(long eventId) {
+        doAnswer(invocation -> {
+            if (invocation.<DomainEvent>getArgument(0).id() == eventId) {
+                throw new IllegalStateException("mail server down");
+            }
+            return null;
+        }).when(eventPublisher).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void failedEventHoldsBackLaterEventsOfItsAggregateOnly() {
+        pendingEvents(pending(1, "7", 0), pending(2, "7", 0), pending(3, "8", 0));
+        failFor(1);
+
+        int published = relay.relayOnce();
+
+        ArgumentCaptor<Object> dispatched = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(dispatched.capture());
+        assertThat(dispatched.getAllValues()).extracting(event -> ((DomainEvent) event).id()).containsExactly(1L, 3L);
+        assertThat(published).isEqualTo(1);
+        verify(jdbcTemplate).update(contains("SET status = ?"), eq("PENDING"), eq(1), eq(LOCAL_NOW.plusSeconds(5)),
+                eq("mail server down"), eq(1L));
+        verify(jdbcTemplate).batchUpdate(contains("'PUBLISHED'"),
+                argThat((List<Object[]> rows) -> rows.size() == 1 && rows.get(0)[1].equals(3L)));
+    }
+
+    @Test
+    void backedOffEventHoldsBackOnlyLaterEventsOfItsAggregate() throws SQLException {
+        // Event 2 of aggregate 7 is waiting out a backoff, so it is not among the due rows
+        backedOff("7", 2);
+        pendingEvents(pending(1, "7", 0), pending(3, "7", 0), pending(4, "8", 0));
+
+        int published = relay.relayOnce();
+
+        ArgumentCaptor<Object> dispatched = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(dispatched.capture());
+        assertThat(dispatched.getAllValues()).extracting(event -> ((DomainEvent) event).id()).containsExactly(1L, 4L);
+        assertThat(published).isEqualTo(2);
+    }
+
+    @Test
+    void eventIsMarkedFailedAfterMaxAttempts() {
+        pendingEvents(pending(1, "7", 2));
+        failFor(1);
+
+        relay.relayOnce();
+
+        verify(jdbcTemplate).update(contains("SET status = ?"), eq("FAILED"), eq(3), any(), anyString(), eq(1L));
+    }
+
+    @Test
+    void nodeWithoutTheCheckpointLockLeavesTheBatchAlone() {
+        when(checkpointRepository.findByNameForUpdateSkipLocked(OutboxRelay.CHECKPOINT)).thenReturn(Optional.empty());
+        when(checkpointRepository.existsById(OutboxRelay.CHECKPOINT)).thenReturn(true);
+
+        assertThat(relay.relayOnce()).isZero();
+        verify(checkpointRepository, never()).insertIfAbsent(anyString());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void retryBackoffDoublesUpToTheCap() {
+        assertThat(relay.backoff(1)).isEqualTo(Duration.ofSeconds(5));
+        assertThat(relay.backoff(3)).isEqualTo(Duration.ofSeconds(20));
+        assertThat(relay.backoff(9)).isEqualTo(Duration.ofSeconds(30));
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.response.PresenceResponse;
+import com.example.BE_E_commerce.exception.BadRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.ONLINE_USERS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PresenceServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-01T12:00:00Z");
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    private PresenceService presenceService;
+
+    @BeforeEach
+    void setUp() {
+        presenceService = new PresenceService(redisTemplate, Clock.fixed(NOW, ZoneOffset.UTC));
+        ReflectionTestUtils.setField(presenceService, "ttl", Duration.ofSeconds(90));
+        ReflectionTestUtils.setField(presenceService, "maxLookup", 3);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void heartbeatsAreCoalescedIntoOneWritePerInterval() {
+        presenceService.heartbeat(1L);
+        presenceService.heartbeat(1L);
+        presenceService.heartbeat(2L);
+
+        presenceService.flushHeartbeats();
+        presenceService.flushHeartbeats();
+
+        verify(zSetOperations, times(1)).add(eq(ONLINE_USERS), argThat((Set<ZSetOperations.TypedTuple<String>> members) ->
+                members.size() == 2
+                        && members.stream().allMatch(member -> member.getScore() == NOW.toEpochMilli())));
+    }
+
+    @Test
+    void noHeartbeatsMeansNoWrite() {
+        presenceService.flushHeartbeats();
+
+        verify(zSetOperations, never()).add(any(), anySet());
+    }
+
+    @Test
+    void lookupReadsAllScoresAtOnceAndAppliesTtl() {
+        long fresh = NOW.minusSeconds(30).toEpochMilli();
+        long stale = NOW.minusSeconds(300).toEpochMilli();
+        when(zSetOperations.score(ONLINE_USERS, "1", "2", "3"))
+                .thenReturn(Arrays.asList((double) fresh, (double) stale, null));
+
+        List<PresenceResponse> presence = presenceService.getPresence(List.of(1L, 2L, 3L, 1L));
+
+        assertThat(presence).extracting(PresenceResponse::getOnline).containsExactly(true, false, false);
+        assertThat(presence.get(2).getLastSeenAt()).isNull();
+    }
+
+    @Test
+    void lookupRejectsTooManyUsers() {
+        assertThatThrownBy(() -> presenceService.getPresence(LongStream.rangeClosed(1, 4).boxed().toList()))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.response.CursorPageResponse;
+import com.example.BE_E_commerce.dto.response.PageResponse;
+import com.example.BE_E_commerce.dto.response.ProductResponse;
+import com.example.BE_E_commerce.entity.Product;
+import com.example.BE_E_commerce.entity.ProductImage;
+import com.example.BE_E_commerce.entity.ProductListingSummary;
+import com.example.BE_E_commerce.entity.ProductVariant;
+import com.example.BE_E_commerce.enums.FeedSort;
+import com.example.BE_E_commerce.enums.ProductStatus;
+import com.example.BE_E_commerce.enums.ReviewStatus;
+import com.example.BE_E_commerce.mapper.ProductImageMapper;
+import com.example.BE_E_commerce.mapper.ProductMapper;
+import com.example.BE_E_commerce.mapper.ProductVariantMapper;
+import com.example.BE_E_commerce.repository.ProductImageRepository;
+import com.example.BE_E_commerce.repository.ProductListingSummaryRepository;
+import com.example.BE_E_commerce.repository.ProductRepository;
+import com.example.BE_E_commerce.repository.ProductVariantRepository;
+import com.example.BE_E_commerce.repository.ReviewRepository;
+import com.example.BE_E_commerce.util.CursorUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ProductVariantRepository variantRepository;
+    @Mock
+    private ProductImageRepository imageRepository;
+    @Mock
+    private ReviewRepository reviewRepository;
+    @Mock
+    private ProductListingSummaryRepository summaryRepository;
+    @Mock
+    private ProductMapper productMapper;
+    @Mock
+    private ProductVariantMapper variantMapper;
+    @Mock
+    private ProductImageMapper imageMapper;
+    @Mock
+    private CategoryService categoryService;
+
+    private ProductListingSummaryService summaryService;
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        summaryService = new ProductListingSummaryService(
+                summaryRepository, productRepository, variantRepository, imageRepository, reviewRepository);
+        productService = new ProductService(
+                productRepository, variantRepository, imageRepository, reviewRepository,
+                summaryRepository, summaryService, productMapper, variantMapper, imageMapper, categoryService);
+        summaryService.markBackfilled();
+    }
+
+    /**
+     * Ranked listings must read the summary page, the products, variants and images once,
+     * whatever the page size
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 20, 100})
+    void listingQueryCountDoesNotGrowWithPageSize(int pageSize) {
+        List<Product> products = products(pageSize);
+        Pageable pageable = PageRequest.of(0, pageSize);
+        List<ProductListingSummary> summaries = products.stream().map(this::summary).toList();
+        when(summaryRepository.findNewArrivals(ProductStatus.ACTIVE, pageable))
+                .thenReturn(new PageImpl<>(summaries, pageable, pageSize));
+        when(productRepository.findAllById(anyCollection())).thenReturn(products);
+        when(productMapper.toResponse(any(Product.class))).thenAnswer(invocation -> new ProductResponse());
+
+        PageResponse<ProductResponse> page = productService.getNewArrivals(pageable);
+
+        assertThat(page.getContent()).hasSize(pageSize);
+        verify(productRepository, times(1)).findAllById(anyCollection());
+        verify(variantRepository, times(1)).findByProductIdInAndIsActiveTrue(anyCollection());
+        verify(imageRepository, times(1)).findByProductIdInOrderByDisplayOrderAsc(anyCollection());
+        verify(reviewRepository, never()).aggregateRatingsByProductIds(anyCollection(), any());
+
+        verify(variantRepository, never()).findByProductIdAndIsActiveTrue(anyLong());
+        verify(imageRepository, never()).findByProductIdOrderByDisplayOrderAsc(anyLong());
+        verify(reviewRepository, never()).calculateAverageRating(anyLong(), any());
+        verify(reviewRepository, never()).countByProductIdAndStatus(anyLong(), any());
+    }
+
+    @Test
+    void listingWithoutSummaryAggregatesOnlyTheMissingProducts() {
+        List<Product> products = products(2);
+        Product first = products.get(0);
+        Pageable pageable = PageRequest.of(0, 2);
+        when(productRepository.findByShopId(7L, pageable)).thenReturn(new PageImpl<>(products, pageable, 2));
+        when(summaryRepository.findAllById(anyCollection())).thenReturn(List.of(summary(products.get(1))));
+        when(productMapper.toResponse(any(Product.class))).thenAnswer(invocation -> new ProductResponse());
+        when(variantRepository.findByProductIdInAndIsActiveTrue(List.of(1L, 2L))).thenReturn(List.of(
+                variant(first, "120000", 3),
+                variant(first, "90000", 4)
+        ));
+        when(imageRepository.findByProductIdInOrderByDisplayOrderAsc(List.of(1L, 2L))).thenReturn(List.of(
+                image(first, 7L, "second.jpg"),
+                image(first, 5L, "first.jpg")
+        ));
+        when(reviewRepository.aggregateRatingsByProductIds(List.of(1L), ReviewStatus.APPROVED))
+                .thenReturn(List.of(rating(first.getId(), 4.5, 2L)));
+
+        PageResponse<ProductResponse> page = productService.getProductsByShop(7L, pageable);
+
+        ProductResponse aggregated = page.getContent().get(0);
+        assertThat(aggregated.getMinPrice()).isEqualByComparingTo("90000");
+        assertThat(aggregated.getMaxPrice()).isEqualByComparingTo("120000");
+        assertThat(aggregated.getTotalStock()).isEqualTo(7);
+        assertThat(aggregated.getAverageRating()).isEqualTo(4.5);
+        assertThat(aggregated.getReviewCount()).isEqualTo(2L);
+        assertThat(aggregated.getThumbnailUrl()).isEqualTo("first.jpg");
+
+        ProductResponse summarized = page.getContent().get(1);
+        assertThat(summarized.getMinPrice()).isEqualByComparingTo("50000");
+        assertThat(summarized.getThumbnailUrl()).isEqualTo("thumb.jpg");
+    }
+
+    @Test
+    void listingReadsStatsFromSummaryInSummaryOrder() {
+        List<Product> products = products(2);
+        Pageable pageable = PageRequest.of(0, 2);
+        // Ranked second-first; the product lookup returns them in id order
+        when(summaryRepository.findBestSellers(ProductStatus.ACTIVE, pageable)).thenReturn(new PageImpl<>(
+                List.of(summary(products.get(1)), summary(products.get(0))), pageable, 2));
+        when(productRepository.findAllById(anyCollection())).thenReturn(products);
+        when(productMapper.toResponse(any(Product.class))).thenAnswer(invocation -> {
+            ProductResponse response = new ProductResponse();
+            response.setId(invocation.<Product>getArgument(0).getId());
+            return response;
+        });
+
+        List<ProductResponse> content = productService.getBestSellers(pageable).getContent();
+
+        assertThat(content).extracting(ProductResponse::getId).containsExactly(2L, 1L);
+        ProductResponse response = content.get(0);
+        assertThat(response.getMinPrice()).isEqualByComparingTo("50000");
+        assertThat(response.getMaxPrice()).isEqualByComparingTo("80000");
+        assertThat(response.getTotalStock()).isEqualTo(12);
+        assertThat(response.getReviewCount()).isEqualTo(3L);
+        assertThat(response.getThumbnailUrl()).isEqualTo("thumb.jpg");
+        verify(summaryRepository, never()).findAllById(anyCollection());
+    }
+
+    @Test
+    void rankedListingUsesTheProductsTableUntilTheSummaryIsBackfilled() {
+        summaryService = new ProductListingSummaryService(
+                summaryRepository, productRepository, variantRepository, imageRepository, reviewRepository);
+        productService = new ProductService(
+                productRepository, variantRepository, imageRepository, reviewRepository,
+                summaryRepository, summaryService, productMapper, variantMapper, imageMapper, categoryService);
+        List<Product> products = products(2);
+        Pageable pageable = PageRequest.of(0, 2);
+        when(productRepository.findBestSellers(ProductStatus.ACTIVE, pageable))
+                .thenReturn(new PageImpl<>(products, pageable, 2));
+        when(summaryRepository.findAllById(anyCollection()))
+                .thenReturn(List.of(summary(products.get(0)), summary(products.get(1))));
+        when(productMapper.toResponse(any(Product.class))).thenAnswer(invocation -> new ProductResponse());
+
+        assertThat(productService.getBestSellers(pageable).getContent()).hasSize(2);
+        verify(summaryRepository, never()).findBestSellers(any(), any());
+    }
+
+    @Test
+    void topRatedFeedRanksOnTheSummaryRating() {
+        List<Product> products = products(3);
+        List<ProductListingSummary> summaries = products.stream().map(this::summary).toList();
+        summaries.get(1).setAverageRating(3.5);
+        when(summaryRepository.findFeedByAverageRating(ProductStatus.ACTIVE, Double.MAX_VALUE, Long.MAX_VALUE,
+                PageRequest.of(0, 3))).thenReturn(summaries);
+        when(productRepository.findAllById(anyCollection())).thenReturn(products);
+        when(productMapper.toResponse(any(Product.class))).thenAnswer(invocation -> new ProductResponse());
+
+        CursorPageResponse<ProductResponse> page = productService.getProductFeed(FeedSort.TOP_RATED, null, 2);
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getHasNext()).isTrue();
+        CursorUtils.Cursor position = CursorUtils.decode(page.getNextCursor(), FeedSort.TOP_RATED);
+        assertThat(position.keyAsDouble()).isEqualTo(3.5);
+        assertThat(position.id()).isEqualTo(2L);
+        verify(productRepository, never()).findFeedByAverageRating(any(), any(), any(), any());
+    }
+
+    private ProductListingSummary summary(Product product) {
+        return ProductListingSummary.builder()
+                .productId(product.getId())
+                .status(ProductStatus.ACTIVE)
+                .minPrice(new BigDecimal("50000"))
+                .maxPrice(new BigDecimal("80000"))
+                .totalStock(12)
+                .reviewCount(3L)
+                .averageRating(4.0)
+                .thumbnailUrl("thumb.jpg")
+                .build();
+    }
+
+    private List<Product> products(int count) {
+        List<Product> products = new ArrayList<>();
+        LongStream.rangeClosed(1, count)
+                .forEach(id -> products.add(Product.builder().id(id).name("Product " + id).build()));
+        return products;
+    }
+
+    private ProductVariant variant(Product product, String price, int stock) {
+        return ProductVariant.builder()
+                .product(product)
+                .price(new BigDecimal(price))
+                .stockQuantity(stock)
+                .build();
+    }
+
+    private ProductImage image(Product product, Long id, String url) {
+        return ProductImage.builder()
+                .id(id)
+                .product(product)
+                .imageUrl(url)
+                .build();
+    }
+
+    private ReviewRepository.RatingAggregate rating(Long productId, Double average, Long count) {
+        return new ReviewRepository.RatingAggregate() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public Double getAverageRating() {
+                return average;
+            }
+
+            @Override
+            public Long getReviewCount() {
+                return count;
+            }
+        };
+    }
+}
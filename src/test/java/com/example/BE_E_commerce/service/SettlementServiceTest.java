@@ -0,0 +1,115 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.entity.JobCheckpoint;
+import com.example.BE_E_commerce.id.SnowflakeIdGenerator;
+import com.example.BE_E_commerce.repository.JobCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SettlementServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private JobCheckpointRepository checkpointRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SettlementService settlementService;
+    private JobCheckpoint checkpoint;
+
+    @BeforeEach
+    void setUp() {
+        SnowflakeIdGenerator.configure(0);
+        settlementService = new SettlementService(jdbcTemplate, checkpointRepository, transactionManager,
+                Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        ReflectionTestUtils.setField(settlementService, "holdPeriod", Duration.ofDays(7));
+        ReflectionTestUtils.setField(settlementService, "chunkSize", 3);
+        ReflectionTestUtils.setField(settlementService, "maxChunksPerRun", 10);
+
+        checkpoint = JobCheckpoint.builder().name(SettlementService.CHECKPOINT).position(0L).build();
+        when(checkpointRepository.findByNameForUpdate(SettlementService.CHECKPOINT)).thenReturn(Optional.of(checkpoint));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void completedOrders(Object[]... rows) {
+        doAnswer(invocation -> {
+            RowMapper<Object> mapper = invocation.getArgument(1);
+            List<Object> mapped = new ArrayList<>();
+            for (Object[] row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("id")).thenReturn((Long) row[0]);
+                when(rs.getLong("shop_id")).thenReturn((Long) row[1]);
+                when(rs.getBigDecimal("seller_amount")).thenReturn(new BigDecimal((String) row[2]));
+                when(rs.getObject("completed_at", LocalDateTime.class)).thenReturn((LocalDateTime) row[3]);
+                mapped.add(mapper.mapRow(rs, mapped.size()));
+            }
+            return mapped;
+        }).when(jdbcTemplate).query(anyString(), any(RowMapper.class), any(Object[].class));
+    }
+
+    @Test
+    void chunkWritesOneEntryPerShopAndMovesTheKeysetCursor() {
+        LocalDateTime completedAt = NOW.minusDays(10);
+        completedOrders(
+                new Object[]{101L, 1L, "90.00", completedAt},
+                new Object[]{102L, 2L, "15.00", completedAt},
+                new Object[]{103L, 1L, "10.00", completedAt.plusMinutes(1)}
+        );
+
+        SettlementService.ChunkResult result = settlementService.settleChunk(NOW.minusDays(7));
+
+        assertThat(result.orders()).isEqualTo(3);
+        assertThat(result.shops()).isEqualTo(2);
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<Object[]> batch) ->
+                batch.size() == 2
+                        && batch.get(0)[1].equals(1L) && new BigDecimal("100.00").equals(batch.get(0)[2])
+                        && batch.get(1)[1].equals(2L) && new BigDecimal("15.00").equals(batch.get(1)[2])));
+        assertThat(checkpoint.getPosition()).isEqualTo(103L);
+        assertThat(checkpoint.getPositionTime()).isEqualTo(completedAt.plusMinutes(1));
+    }
+
+    @Test
+    void emptyChunkLeavesCheckpointAlone() {
+        completedOrders();
+
+        SettlementService.ChunkResult result = settlementService.settleChunk(NOW.minusDays(7));
+
+        assertThat(result.orders()).isZero();
+        assertThat(checkpoint.getPosition()).isZero();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(List.class));
+    }
+}
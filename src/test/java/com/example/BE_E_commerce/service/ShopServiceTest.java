@@ -0,0 +1,76 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.response.CursorPageResponse;
+import com.example.BE_E_commerce.dto.response.ShopResponse;
+import com.example.BE_E_commerce.entity.Shop;
+import com.example.BE_E_commerce.enums.FeedSort;
+import com.example.BE_E_commerce.enums.ShopStatus;
+import com.example.BE_E_commerce.mapper.ProductMapper;
+import com.example.BE_E_commerce.mapper.ShopMapper;
+import com.example.BE_E_commerce.repository.ProductRepository;
+import com.example.BE_E_commerce.repository.ShopRepository;
+import com.example.BE_E_commerce.util.CursorUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ShopServiceTest {
+
+    @Mock
+    private ShopRepository shopRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ShopMapper shopMapper;
+    @Mock
+    private ProductMapper productMapper;
+
+    @InjectMocks
+    private ShopService shopService;
+
+    private Shop shop(long id, int totalSold) {
+        return Shop.builder().id(id).name("Shop " + id).status(ShopStatus.ACTIVE).totalSold(totalSold).build();
+    }
+
+    @Test
+    void feedFetchesOneExtraRowAndContinuesAfterTheLastRowOfThePage() {
+        when(shopMapper.toResponse(any(Shop.class))).thenAnswer(invocation -> {
+            ShopResponse response = new ShopResponse();
+            response.setId(invocation.<Shop>getArgument(0).getId());
+            return response;
+        });
+        when(shopRepository.findFeedByTotalSold(ShopStatus.ACTIVE, Integer.MAX_VALUE, Long.MAX_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(List.of(shop(9, 50), shop(7, 40), shop(8, 30)));
+
+        CursorPageResponse<ShopResponse> first = shopService.getShopFeed(FeedSort.BEST_SELLING, null, 2);
+
+        assertThat(first.getContent()).extracting(ShopResponse::getId).containsExactly(9L, 7L);
+        assertThat(first.getHasNext()).isTrue();
+        CursorUtils.Cursor position = CursorUtils.decode(first.getNextCursor(), FeedSort.BEST_SELLING);
+        assertThat(position.keyAsInt()).isEqualTo(40);
+        assertThat(position.id()).isEqualTo(7L);
+
+        when(shopRepository.findFeedByTotalSold(eq(ShopStatus.ACTIVE), eq(40), eq(7L), any()))
+                .thenReturn(List.of(shop(8, 30), shop(3, 10)));
+
+        CursorPageResponse<ShopResponse> last = shopService.getShopFeed(FeedSort.BEST_SELLING, first.getNextCursor(), 2);
+
+        assertThat(last.getContent()).extracting(ShopResponse::getId).containsExactly(8L, 3L);
+        assertThat(last.getHasNext()).isFalse();
+        assertThat(last.getNextCursor()).isNull();
+    }
+}
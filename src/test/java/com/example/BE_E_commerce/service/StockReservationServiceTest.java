@@ -0,0 +1,142 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.entity.ProductVariant;
+import com.example.BE_E_commerce.exception.BadRequestException;
+import com.example.BE_E_commerce.repository.ProductVariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.*;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StockReservationServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+    @Mock
+    private ProductVariantRepository variantRepository;
+    @Mock
+    private ProductListingSummaryService summaryService;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StockReservationService stockReservationService;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        stockReservationService = new StockReservationService(
+                redisTemplate, variantRepository, summaryService, jdbcTemplate, transactionManager,
+                Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(stockReservationService, "reservationTtl", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(stockReservationService, "counterTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(stockReservationService, "flushBatchSize", 500);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loadCountersSeedsMissingVariantsInOneScriptCheckedAgainstTheFlush() {
+        ProductVariant variant = ProductVariant.builder().id(7L).stockQuantity(50).build();
+        when(valueOperations.multiGet(List.of(stockAvailableKey(7L), stockAvailableKey(8L))))
+                .thenReturn(Arrays.asList(null, "3"));
+        when(valueOperations.get(STOCK_FLUSH_GENERATION)).thenReturn("4");
+        when(variantRepository.findAllById(List.of(7L))).thenReturn(List.of(variant));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+
+        stockReservationService.loadCounters(List.of(7L, 8L));
+
+        // Pending and reserved quantities are subtracted inside the script
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of(stockAvailableKey(7L), STOCK_PENDING, STOCK_RESERVED, STOCK_FLUSHING, STOCK_FLUSH_GENERATION)),
+                eq("4"), eq("600000"), eq("7"), eq("50"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void loadCountersRereadsStockWhenAFlushSettledInBetween() {
+        ProductVariant variant = ProductVariant.builder().id(7L).stockQuantity(50).build();
+        when(valueOperations.multiGet(List.of(stockAvailableKey(7L)))).thenReturn(Arrays.asList((String) null));
+        when(variantRepository.findAllById(List.of(7L))).thenReturn(List.of(variant));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L, 1L);
+
+        stockReservationService.loadCounters(List.of(7L));
+
+        verify(variantRepository, times(2)).findAllById(List.of(7L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reserveReportsTheVariantThatIsShortOfStock() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, 2L));
+
+        assertThatThrownBy(() -> stockReservationService.reserve(Map.of(5L, 1, 3L, 2)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("variant 5");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushAppliesPendingSalesInOneBatchAndRefreshesListings() {
+        when(valueOperations.setIfAbsent(eq(STOCK_FLUSH_LOCK), any(), any(Duration.class))).thenReturn(true);
+        when(hashOperations.entries(STOCK_PENDING)).thenReturn(Map.of("7", "4"));
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(STOCK_FLUSH_LOCK, STOCK_FLUSHING)),
+                any(Object[].class))).thenReturn(1L);
+        when(variantRepository.findProductIdsByVariantIds(any())).thenReturn(List.of(70L));
+
+        stockReservationService.flushToDatabase();
+
+        verify(jdbcTemplate).batchUpdate(any(String.class), argThat((List<Object[]> batch) ->
+                batch.size() == 1 && List.of(batch.get(0)).equals(List.of(4, 7L))));
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of(STOCK_PENDING, STOCK_FLUSHING, STOCK_FLUSH_GENERATION)), eq("7"), eq("4"));
+        verify(summaryService).refresh(List.of(70L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushDoesNotWriteOnceItsLockHasExpired() {
+        when(valueOperations.setIfAbsent(eq(STOCK_FLUSH_LOCK), any(), any(Duration.class))).thenReturn(true);
+        when(hashOperations.entries(STOCK_PENDING)).thenReturn(Map.of("7", "4"));
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(STOCK_FLUSH_LOCK, STOCK_FLUSHING)),
+                any(Object[].class))).thenReturn(0L);
+
+        stockReservationService.flushToDatabase();
+
+        verify(jdbcTemplate, never()).batchUpdate(any(String.class), anyList());
+    }
+}
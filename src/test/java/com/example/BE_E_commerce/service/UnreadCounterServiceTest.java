@@ -0,0 +1,121 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.dto.response.UnreadCountResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.chatUnreadKey;
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.notificationUnreadKey;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UnreadCounterServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private UnreadCounterService unreadCounterService;
+
+    @BeforeEach
+    void setUp() {
+        unreadCounterService = new UnreadCounterService(redisTemplate, jdbcTemplate);
+        ReflectionTestUtils.setField(unreadCounterService, "reconcileBatchSize", 500);
+        ReflectionTestUtils.setField(unreadCounterService, "reconcileSettleDelay", Duration.ofMillis(1));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void pipelineReturns(Object... results) {
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(Arrays.asList(results));
+    }
+
+    private void rows(String sqlMarker, List<Map<String, Long>> rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map<String, Long> row : rows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong(anyString())).thenAnswer(i -> row.get(i.<String>getArgument(0)));
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains(sqlMarker), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void badgesSumConversationCountersWithoutTouchingMysql() {
+        pipelineReturns("4", List.of("2", "3"));
+
+        UnreadCountResponse counts = unreadCounterService.getUnreadCounts(9L);
+
+        assertThat(counts.getNotifications()).isEqualTo(4L);
+        assertThat(counts.getMessages()).isEqualTo(5L);
+        verify(jdbcTemplate, never()).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcileRewritesOnlyDriftedCounters() throws InterruptedException {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of(1L, 2L));
+        // User 1: notifications 3 (MySQL 2), chat in sync; user 2: nothing in Redis, one unread message in MySQL
+        pipelineReturns("3", Map.of("10", "1"), null, Map.of());
+        rows("FROM notifications", List.of(Map.of("user_id", 1L, "unread", 2L)));
+        rows("FROM messages", List.of(
+                Map.of("recipient_id", 1L, "conversation_id", 10L, "unread", 1L),
+                Map.of("recipient_id", 2L, "conversation_id", 11L, "unread", 1L)));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+
+        UnreadCounterService.ReconcileResult result = unreadCounterService.reconcilePage(0);
+
+        assertThat(result.checked()).isEqualTo(2);
+        assertThat(result.corrected()).isEqualTo(2);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(notificationUnreadKey(1L))), eq("3"), eq("2"));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(chatUnreadKey(2L))), eq("0"), eq("11"), eq("1"));
+        verify(redisTemplate, never()).execute(any(RedisScript.class), eq(List.of(chatUnreadKey(1L))), any(Object[].class));
+        verify(redisTemplate, never()).execute(any(RedisScript.class), eq(List.of(notificationUnreadKey(2L))), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void counterThatMovesBeforeTheCorrectionIsLeftForTheNextRun() throws InterruptedException {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenReturn(List.of(1L));
+        // Notification counted in MySQL whose increment reaches Redis during the settle delay
+        pipelineReturns("3", Map.of());
+        rows("FROM notifications", List.of(Map.of("user_id", 1L, "unread", 4L)));
+        rows("FROM messages", List.of());
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L);
+
+        UnreadCounterService.ReconcileResult result = unreadCounterService.reconcilePage(0);
+
+        assertThat(result.corrected()).isZero();
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(notificationUnreadKey(1L))), eq("3"), eq("4"));
+    }
+}
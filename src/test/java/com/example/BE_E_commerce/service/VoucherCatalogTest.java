@@ -0,0 +1,142 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.entity.Shop;
+import com.example.BE_E_commerce.entity.Voucher;
+import com.example.BE_E_commerce.enums.VoucherType;
+import com.example.BE_E_commerce.repository.VoucherRepository;
+import com.example.BE_E_commerce.service.VoucherCatalog.Offer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class VoucherCatalogTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    @Mock
+    private VoucherRepository voucherRepository;
+
+    private MutableClock clock;
+    private VoucherCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW.toInstant(ZoneOffset.UTC));
+        catalog = new VoucherCatalog(voucherRepository, clock);
+        ReflectionTestUtils.setField(catalog, "refreshOverlap", Duration.ofSeconds(5));
+    }
+
+    private Voucher voucher(long id, Shop shop, VoucherType type, String value, String minOrder,
+                            LocalDateTime start, LocalDateTime end) {
+        return Voucher.builder().id(id).code("V" + id).shop(shop).type(type)
+                .discountValue(new BigDecimal(value)).minOrderValue(new BigDecimal(minOrder))
+                .startDate(start).endDate(end).isActive(true).build();
+    }
+
+    @Test
+    void findBestReturnsLargestQualifyingDiscountsOfTheShop() {
+        Shop shop = Shop.builder().id(1L).build();
+        LocalDateTime start = NOW.minusDays(1);
+        LocalDateTime end = NOW.plusDays(1);
+        when(voucherRepository.findActiveEndingAfter(any())).thenReturn(List.of(
+                voucher(1, shop, VoucherType.FIXED, "5.00", "0", start, end),
+                voucher(2, shop, VoucherType.PERCENTAGE, "10", "100", start, end),
+                voucher(3, shop, VoucherType.FIXED, "50.00", "500", start, end),
+                voucher(4, null, VoucherType.FIXED, "30.00", "0", start, end)
+        ));
+        catalog.reload();
+
+        List<Offer> best = catalog.findBest(1L, new BigDecimal("200.00"), 2);
+
+        assertThat(best).extracting(offer -> offer.voucher().code()).containsExactly("V2", "V1");
+        assertThat(best.get(0).discount()).isEqualByComparingTo("20.00");
+        assertThat(catalog.findBest(null, new BigDecimal("200.00"), 3))
+                .extracting(offer -> offer.voucher().code()).containsExactly("V4");
+        assertThat(catalog.findBest(2L, new BigDecimal("200.00"), 3)).isEmpty();
+    }
+
+    @Test
+    void indexFollowsValidityWindowsWithoutReloading() {
+        when(voucherRepository.findActiveEndingAfter(any())).thenReturn(List.of(
+                voucher(1, null, VoucherType.FIXED, "5.00", "0", NOW.minusDays(1), NOW.plusHours(1)),
+                voucher(2, null, VoucherType.FIXED, "8.00", "0", NOW.plusMinutes(30), NOW.plusDays(1))
+        ));
+        catalog.reload();
+        BigDecimal subtotal = new BigDecimal("100.00");
+
+        assertThat(catalog.findBest(null, subtotal, 5)).extracting(offer -> offer.voucher().code()).containsExactly("V1");
+        assertThat(catalog.findByCode("V2")).isPresent();
+
+        clock.advance(Duration.ofMinutes(45));
+        assertThat(catalog.findBest(null, subtotal, 5)).extracting(offer -> offer.voucher().code())
+                .containsExactly("V2", "V1");
+
+        clock.advance(Duration.ofHours(1));
+        assertThat(catalog.findBest(null, subtotal, 5)).extracting(offer -> offer.voucher().code()).containsExactly("V2");
+        assertThat(catalog.findByCode("V1")).isEmpty();
+    }
+
+    @Test
+    void refreshAppliesOnlyChangedRows() {
+        Voucher first = voucher(1, null, VoucherType.FIXED, "5.00", "0", NOW.minusDays(1), NOW.plusDays(1));
+        when(voucherRepository.findActiveEndingAfter(any())).thenReturn(List.of(first));
+        catalog.reload();
+
+        Voucher deactivated = voucher(1, null, VoucherType.FIXED, "5.00", "0", NOW.minusDays(1), NOW.plusDays(1));
+        deactivated.setIsActive(false);
+        Voucher added = voucher(2, null, VoucherType.FIXED, "7.00", "0", NOW.minusDays(1), NOW.plusDays(1));
+        when(voucherRepository.findUpdatedSince(NOW.minusSeconds(5))).thenReturn(List.of(deactivated, added));
+        catalog.refresh();
+
+        assertThat(catalog.findByCode("V1")).isEmpty();
+        assertThat(catalog.findBest(null, new BigDecimal("100.00"), 5))
+                .extracting(offer -> offer.voucher().code()).containsExactly("V2");
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.BE_E_commerce.service;
+
+import com.example.BE_E_commerce.enums.VoucherType;
+import com.example.BE_E_commerce.exception.BadRequestException;
+import com.example.BE_E_commerce.repository.VoucherRedemptionRepository;
+import com.example.BE_E_commerce.repository.VoucherRepository;
+import com.example.BE_E_commerce.service.VoucherCatalog.Definition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.example.BE_E_commerce.constant.RedisKeyConstants.*;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class VoucherServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+    @Mock
+    private VoucherCatalog voucherCatalog;
+    @Mock
+    private VoucherRepository voucherRepository;
+    @Mock
+    private VoucherRedemptionRepository redemptionRepository;
+    @Mock
+    private CartService cartService;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private VoucherService voucherService;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        voucherService = new VoucherService(
+                redisTemplate, voucherCatalog, voucherRepository, redemptionRepository, cartService, jdbcTemplate,
+                transactionManager);
+        ReflectionTestUtils.setField(voucherService, "claimTtl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(voucherService, "flushBatchSize", 500);
+    }
+
+    private Definition voucher(LocalDateTime start, LocalDateTime end) {
+        return new Definition(7L, "SALE", null, VoucherType.FIXED, new BigDecimal("10.00"),
+                BigDecimal.ZERO, null, 100, 1, start, end);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void claimSeedsCounterAndPerUserCountsFromDatabaseThenRetries() {
+        // Claim (not loaded), seed, claim again
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(-1L, 1L, 1L);
+        when(voucherRepository.findUsedCountById(7L)).thenReturn(5);
+        when(redemptionRepository.countByUser(7L)).thenReturn(List.of(redemptions(1L, 1L), redemptions(2L, 3L)));
+
+        voucherService.claim(voucher(LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1)), 1L, "token");
+
+        // Unflushed usage is added from the pending hash inside the script
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of(voucherUsedKey(7L), voucherUserKey(7L), VOUCHER_PENDING)),
+                eq("5"), eq("7"), eq("1"), eq("1"), eq("2"), eq("3"));
+    }
+
+    private VoucherRedemptionRepository.UserRedemptions redemptions(Long userId, Long count) {
+        return new VoucherRedemptionRepository.UserRedemptions() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public Long getRedemptions() {
+                return count;
+            }
+        };
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void claimRejectsUserWhoUsedUpTheirAllowance() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(-2L);
+
+        assertThatThrownBy(() -> voucherService.claim(
+                voucher(LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1)), 1L, "token"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("usage limit");
+    }
+
+    @Test
+    void voucherThatHasNotStartedIsNotUsable() {
+        when(voucherCatalog.findByCode("SALE")).thenReturn(Optional.of(
+                voucher(LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2))));
+
+        assertThatThrownBy(() -> voucherService.getUsableVoucher("SALE"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushAppliesSignedDeltasAndSettlesThem() {
+        when(valueOperations.setIfAbsent(eq(VOUCHER_FLUSH_LOCK), any(), any(Duration.class))).thenReturn(true);
+        when(hashOperations.entries(VOUCHER_PENDING)).thenReturn(Map.of("7", "3", "8", "-1", "9", "0"));
+
+        voucherService.flushUsage();
+
+        verify(jdbcTemplate).batchUpdate(any(String.class), argThat((List<Object[]> batch) -> batch.size() == 2));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(VOUCHER_PENDING)),
+                any(), any(), any(), any());
+    }
+}
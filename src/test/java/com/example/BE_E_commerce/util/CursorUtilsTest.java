@@ -0,0 +1,62 @@
+package com.example.BE_E_commerce.util;
+
+import com.example.BE_E_commerce.enums.FeedSort;
+import com.example.BE_E_commerce.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorUtilsTest {
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void decodeReturnsThePositionThatWasEncoded() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 6, 1, 12, 30, 15);
+
+        CursorUtils.Cursor cursor = CursorUtils.decode(CursorUtils.encode(FeedSort.NEWEST, createdAt, 42L), FeedSort.NEWEST);
+
+        assertThat(cursor.keyAsDateTime()).isEqualTo(createdAt);
+        assertThat(cursor.id()).isEqualTo(42L);
+        assertThat(CursorUtils.decode(CursorUtils.encode(FeedSort.BEST_SELLING, 17, 5L), FeedSort.BEST_SELLING)
+                .keyAsInt()).isEqualTo(17);
+    }
+
+    @Test
+    void tamperedOrForeignTokensAreRejected() {
+        String bestSelling = CursorUtils.encode(FeedSort.BEST_SELLING, 17, 5L);
+
+        assertThatThrownBy(() -> CursorUtils.decode(bestSelling, FeedSort.NEWEST))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorUtils.decode("not base64!", FeedSort.NEWEST))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorUtils.decode(token("BEST_SELLING|17|x"), FeedSort.BEST_SELLING))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorUtils.decode(token("NEWEST|yesterday|5"), FeedSort.NEWEST).keyAsDateTime())
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void idCursorRoundTripsWithinItsFeedOnly() {
+        String token = CursorUtils.encodeId("NOTIFICATIONS", 1234567890123L);
+
+        assertThat(CursorUtils.decodeId(token, "NOTIFICATIONS")).isEqualTo(1234567890123L);
+        assertThatThrownBy(() -> CursorUtils.decodeId(token, "MESSAGES")).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> CursorUtils.decodeId("1234567890123", "NOTIFICATIONS"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void outOfRangeIntKeyIsRejected() {
+        CursorUtils.Cursor cursor = CursorUtils.decode(token("BEST_SELLING|9999999999|5"), FeedSort.BEST_SELLING);
+
+        assertThatThrownBy(cursor::keyAsInt).isInstanceOf(BadRequestException.class);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.BE_E_commerce.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchTextUtilsTest {
+
+    @Test
+    void foldStripsVietnameseDiacritics() {
+        assertThat(SearchTextUtils.fold("Áo Thun Đỏ - Cổ Tròn")).isEqualTo("ao thun do co tron");
+        assertThat(SearchTextUtils.fold("Điện thoại iPhone 15")).isEqualTo("dien thoai iphone 15");
+    }
+
+    @Test
+    void tokenizeDropsTermsShorterThanNgramSize() {
+        assertThat(SearchTextUtils.tokenize("Áo  thun x")).containsExactly("ao", "thun");
+        assertThat(SearchTextUtils.tokenize("a")).isEmpty();
+    }
+
+    @Test
+    void booleanQueryRequiresEveryToken() {
+        assertThat(SearchTextUtils.toBooleanQuery(List.of("ao", "thun"))).isEqualTo("+ao +thun");
+    }
+}